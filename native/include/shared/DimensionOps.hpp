@@ -85,6 +85,35 @@ public:
             jintArray dstV, //
             jint dim);
 
+    /**
+     * Selects the smallest elements along a dimension, in ascending order.
+     * 
+     * @param env
+     *      the JNI environment.
+     * @param thisObj
+     *      this object.
+     * @param srcV
+     *      the source values.
+     * @param srcD
+     *      the source dimensions.
+     * @param srcS
+     *      the source strides.
+     * @param dstV
+     *      the destination values.
+     * @param dstI
+     *      the destination positions.
+     * @param dstD
+     *      the destination dimensions.
+     * @param dstS
+     *      the destination strides.
+     * @param dim
+     *      the dimension of interest.
+     */
+    static void riTopK(JNIEnv *env, jobject thisObj, //
+            jdoubleArray srcV, jintArray srcD, jintArray srcS, //
+            jdoubleArray dstV, jintArray dstI, jintArray dstD, jintArray dstS, //
+            jint dim);
+
     /**
      * Performs a real reduce operation.
      * 
@@ -197,6 +226,11 @@ public:
      */
     inline static void riSort(jdouble *, const jint *, jint *, jint, jint, jint);
 
+    /**
+     * Maps a value to a sort key whose signed ordering agrees with that of Java's Double#compare.
+     */
+    inline static jlong sortKey(jdouble);
+
     /**
      * Real dimension sum.
      */
@@ -98,6 +98,89 @@ public:
     static void invert(JNIEnv *env, jobject thisObj, //
             jdoubleArray srcV, jdoubleArray dstV, jint size);
 
+    /**
+     * Computes the LU decomposition of a matrix with partial pivoting.
+     * 
+     * @param env
+     *      the JNI environment.
+     * @param thisObj
+     *      this object.
+     * @param srcV
+     *      the source values.
+     * @param luV
+     *      the LU values.
+     * @param pivots
+     *      the row permutation.
+     * @param size
+     *      the matrix size.
+     */
+    static void lu(JNIEnv *env, jobject thisObj, //
+            jdoubleArray srcV, jdoubleArray luV, jintArray pivots, jint size);
+
+    /**
+     * Solves a system of linear equations, given the LU decomposition of its matrix.
+     * 
+     * @param env
+     *      the JNI environment.
+     * @param thisObj
+     *      this object.
+     * @param luV
+     *      the LU values.
+     * @param pivots
+     *      the row permutation.
+     * @param srcV
+     *      the right hand side values.
+     * @param dstV
+     *      the solution values.
+     * @param size
+     *      the matrix size.
+     * @param nCols
+     *      the number of right hand side columns.
+     * @param transpose
+     *      whether to solve the transposed system instead.
+     */
+    static void luSolve(JNIEnv *env, jobject thisObj, //
+            jdoubleArray luV, jintArray pivots, jdoubleArray srcV, jdoubleArray dstV, //
+            jint size, jint nCols, jboolean transpose);
+
+    /**
+     * Computes the lower triangular Cholesky factor of a symmetric, positive definite matrix.
+     * 
+     * @param env
+     *      the JNI environment.
+     * @param thisObj
+     *      this object.
+     * @param srcV
+     *      the source values.
+     * @param dstV
+     *      the destination values.
+     * @param size
+     *      the matrix size.
+     */
+    static void cholesky(JNIEnv *env, jobject thisObj, //
+            jdoubleArray srcV, jdoubleArray dstV, jint size);
+
+    /**
+     * Solves a symmetric, positive definite system of linear equations, given the Cholesky factor of its matrix.
+     * 
+     * @param env
+     *      the JNI environment.
+     * @param thisObj
+     *      this object.
+     * @param lV
+     *      the Cholesky factor values.
+     * @param srcV
+     *      the right hand side values.
+     * @param dstV
+     *      the solution values.
+     * @param size
+     *      the matrix size.
+     * @param nCols
+     *      the number of right hand side columns.
+     */
+    static void choleskySolve(JNIEnv *env, jobject thisObj, //
+            jdoubleArray lV, jdoubleArray srcV, jdoubleArray dstV, jint size, jint nCols);
+
 private:
 
     static void svd(jdouble *, jint, jint, jint, //
@@ -108,9 +191,21 @@ private:
 
     static void hessenbergToSchur(jdouble *, jdouble *, jdouble *, jint);
 
+    static bool isSymmetric(jdouble *, jint);
+
+    static void tridiagonalize(jdouble *, jdouble *, jdouble *, jint);
+
+    static void tridiagonalToDiagonal(jdouble *, jdouble *, jdouble *, jint);
+
     static void lup(jdouble *, jint *, jint, jint);
 
     static void luSolve(jdouble *, jint, jdouble *, jint);
+
+    static void luSolveTranspose(jdouble *, jint, jdouble *, jint);
+
+    static void choleskyDecompose(jdouble *, jint);
+
+    static void choleskySolve(jdouble *, jint, jdouble *, jint);
 };
 
 #endif
@@ -51,6 +51,32 @@ public:
      */
     static void transform(JNIEnv *env, jobject thisObj, jdoubleArray in, jdoubleArray out);
 
+    /**
+     * Performs a batch of out-of-place transforms.
+     * 
+     * @param env
+     *      the JNI environment.
+     * @param thisObj
+     *      this object.
+     * @param count
+     *      the number of transforms.
+     * @param in
+     *      the input array.
+     * @param inStride
+     *      the input element stride.
+     * @param inDist
+     *      the input distance between transforms.
+     * @param out
+     *      the output array.
+     * @param outStride
+     *      the output element stride.
+     * @param outDist
+     *      the output distance between transforms.
+     */
+    static void transformBatch(JNIEnv *env, jobject thisObj, jint count, //
+            jdoubleArray in, jint inStride, jint inDist, //
+            jdoubleArray out, jint outStride, jint outDist);
+
     /**
      * Creates a pointer to the native peer.
      * 
@@ -117,6 +143,43 @@ public:
             jint &inLen, jint &outLen, //
             jdouble &scalingFactor, jint type, const jint *dimsArr, jint nDims);
 
+    /**
+     * Checks that a batch of strided elements lies within an array.
+     * 
+     * @param count
+     *      the number of transforms.
+     * @param size
+     *      the number of elements per transform.
+     * @param width
+     *      the element width.
+     * @param stride
+     *      the element stride.
+     * @param dist
+     *      the distance between transforms.
+     * @param len
+     *      the array length.
+     */
+    inline static void checkBatch(jint count, jint size, jint width, jint stride, jint dist, jint len);
+
+    /**
+     * Copies strided elements of the given width, in units of {@code jdouble}s.
+     * 
+     * @param srcArr
+     *      the source array.
+     * @param srcStride
+     *      the source element stride.
+     * @param dstArr
+     *      the destination array.
+     * @param dstStride
+     *      the destination element stride.
+     * @param size
+     *      the number of elements.
+     * @param width
+     *      the element width.
+     */
+    inline static void copy(const jdouble *srcArr, jint srcStride, jdouble *dstArr, jint dstStride, //
+            jint size, jint width);
+
     /**
      * Creates a native plan.
      * 
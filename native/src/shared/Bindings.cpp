@@ -71,6 +71,16 @@ JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_riOp(JNIEnv *
             dim);
 }
 
+JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_riTopK(JNIEnv *env, jobject thisObj, //
+        jdoubleArray srcV, jintArray srcD, jintArray srcS, //
+        jdoubleArray dstV, jintArray dstI, jintArray dstD, jintArray dstS, //
+        jint dim) {
+    DimensionOps::riTopK(env, thisObj, //
+            srcV, srcD, srcS, //
+            dstV, dstI, dstD, dstS, //
+            dim);
+}
+
 JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_rdOp(JNIEnv *env, jobject thisObj, jint type, //
         jdoubleArray srcV, jintArray srcD, jintArray srcS, jdoubleArray dstV, //
         jintArray opDims) {
@@ -141,6 +151,27 @@ JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_invert(JNIEnv
     LinearAlgebraOps::invert(env, thisObj, srcV, dstV, size);
 }
 
+JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_lu(JNIEnv *env, jobject thisObj, //
+        jdoubleArray srcV, jdoubleArray luV, jintArray pivots, jint size) {
+    LinearAlgebraOps::lu(env, thisObj, srcV, luV, pivots, size);
+}
+
+JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_luSolve(JNIEnv *env, jobject thisObj, //
+        jdoubleArray luV, jintArray pivots, jdoubleArray srcV, jdoubleArray dstV, //
+        jint size, jint nCols, jboolean transpose) {
+    LinearAlgebraOps::luSolve(env, thisObj, luV, pivots, srcV, dstV, size, nCols, transpose);
+}
+
+JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_cholesky(JNIEnv *env, jobject thisObj, //
+        jdoubleArray srcV, jdoubleArray dstV, jint size) {
+    LinearAlgebraOps::cholesky(env, thisObj, srcV, dstV, size);
+}
+
+JNIEXPORT void JNICALL Java_org_shared_array_jni_NativeArrayKernel_choleskySolve(JNIEnv *env, jobject thisObj, //
+        jdoubleArray lV, jdoubleArray srcV, jdoubleArray dstV, jint size, jint nCols) {
+    LinearAlgebraOps::choleskySolve(env, thisObj, lV, srcV, dstV, size, nCols);
+}
+
 JNIEXPORT void JNICALL Java_org_shared_image_jni_NativeImageKernel_createIntegralImage(JNIEnv *env, jobject thisObj, //
         jdoubleArray srcV, jintArray srcD, jintArray srcS, //
         jdoubleArray dstV, jintArray dstD, jintArray dstS) {
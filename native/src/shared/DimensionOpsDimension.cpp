@@ -141,12 +141,20 @@ inline void DimensionOps::rdSum(jdouble *srcVArr, const jint *srcDArr, const jin
 
             for (jint indexIndex = lower; indexIndex < upper; indexIndex++) {
 
-                jdouble acc = 0.0;
+                // Use Neumaier's variant of Kahan compensated summation.
+
+                jdouble sum = 0.0;
+                jdouble compensation = 0.0;
 
                 for (jint k = 0, physical = srcIndices[indexIndex]; k < size; k++, physical += stride) {
 
-                    acc += dstVArr[physical];
-                    dstVArr[physical] = acc;
+                    jdouble value = dstVArr[physical];
+                    jdouble t = sum + value;
+
+                    compensation += (fabs(sum) >= fabs(value)) ? (sum - t) + value : (value - t) + sum;
+                    sum = t;
+
+                    dstVArr[physical] = sum + compensation;
                 }
             }
         }
@@ -348,3 +348,122 @@ inline void DimensionOps::riSort(jdouble *src, const jint *srcIndices, jint *dst
         }
     }
 }
+
+void DimensionOps::riTopK(JNIEnv *env, jobject thisObj, //
+        jdoubleArray srcV, jintArray srcD, jintArray srcS, //
+        jdoubleArray dstV, jintArray dstI, jintArray dstD, jintArray dstS, //
+        jint dim) {
+
+    try {
+
+        if (!srcV || !srcD || !srcS || !dstV || !dstI || !dstD || !dstS) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        jint srcLen = env->GetArrayLength(srcV);
+        jint dstLen = env->GetArrayLength(dstV);
+        jint nDims = env->GetArrayLength(srcD);
+
+        if (!(dim >= 0 && dim < nDims)
+                || (nDims != env->GetArrayLength(srcS))
+                || (nDims != env->GetArrayLength(dstD))
+                || (nDims != env->GetArrayLength(dstS))
+                || (dstLen != env->GetArrayLength(dstI))) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        // Initialize pinned arrays.
+
+        ArrayPinHandler srcVh(env, srcV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler srcDh(env, srcD, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler srcSh(env, srcS, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler dstVh(env, dstV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+        ArrayPinHandler dstIh(env, dstI, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+        ArrayPinHandler dstDh(env, dstD, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler dstSh(env, dstS, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        // NO JNI AFTER THIS POINT!
+
+        jdouble *srcVArr = (jdouble *) srcVh.get();
+        jint *srcDArr = (jint *) srcDh.get();
+        jint *srcSArr = (jint *) srcSh.get();
+        jdouble *dstVArr = (jdouble *) dstVh.get();
+        jint *dstIArr = (jint *) dstIh.get();
+        jint *dstDArr = (jint *) dstDh.get();
+        jint *dstSArr = (jint *) dstSh.get();
+
+        MappingOps::checkDimensions(srcDArr, srcSArr, nDims, srcLen);
+        MappingOps::checkDimensions(dstDArr, dstSArr, nDims, dstLen);
+
+        for (jint i = 0; i < nDims; i++) {
+
+            if (i == dim ? dstDArr[i] > srcDArr[i] : dstDArr[i] != srcDArr[i]) {
+                throw std::runtime_error("Invalid dimensions");
+            }
+        }
+
+        // Proceed only if nonzero length.
+        if (!srcLen || !dstLen) {
+            return;
+        }
+
+        jint size = srcDArr[dim];
+        jint k = dstDArr[dim];
+        jint srcStride = srcSArr[dim];
+        jint dstStride = dstSArr[dim];
+        jint nIndices = srcLen / size;
+
+        MallocHandler mallocH(sizeof(std::pair<jlong, jint>) * size //
+                + sizeof(jint) * (2 * nIndices + 4 * (nDims - 1)));
+        void *all = mallocH.get();
+
+        std::pair<jlong, jint> *entries = (std::pair<jlong, jint> *) all;
+        jint *srcIndices = (jint *) (entries + size);
+        jint *dstIndices = srcIndices + nIndices;
+        jint *srcDArrModified = srcIndices + 2 * nIndices;
+        jint *srcSArrModified = srcDArrModified + (nDims - 1);
+        jint *dstDArrModified = srcDArrModified + 2 * (nDims - 1);
+        jint *dstSArrModified = srcDArrModified + 3 * (nDims - 1);
+
+        DimensionOps::assignBaseIndices(srcIndices, srcDArr, srcDArrModified, srcSArr, srcSArrModified, //
+                nDims, dim);
+        DimensionOps::assignBaseIndices(dstIndices, dstDArr, dstDArrModified, dstSArr, dstSArrModified, //
+                nDims, dim);
+
+        for (jint i = 0; i < nIndices; i++) {
+
+            for (jint offset = 0, j = 0; j < size; offset += srcStride, j++) {
+                entries[j] = std::pair<jlong, jint>(DimensionOps::sortKey(srcVArr[srcIndices[i] + offset]), j);
+            }
+
+            // Entries are ordered first by value and then by position, just as in the pure Java version.
+            std::partial_sort(entries, entries + k, entries + size);
+
+            for (jint offset = 0, j = 0; j < k; offset += dstStride, j++) {
+
+                dstVArr[dstIndices[i] + offset] = srcVArr[srcIndices[i] + entries[j].second * srcStride];
+                dstIArr[dstIndices[i] + offset] = entries[j].second;
+            }
+        }
+
+    } catch (std::exception &e) {
+
+        Common::throwNew(env, e);
+    }
+}
+
+inline jlong DimensionOps::sortKey(jdouble value) {
+
+    jlong bits;
+
+    if (value != value) {
+
+        // Canonicalize NaNs.
+        bits = 0x7ff8000000000000LL;
+
+    } else {
+
+        memcpy(&bits, &value, sizeof(jlong));
+    }
+
+    return bits ^ ((bits >> 63) & 0x7fffffffffffffffLL);
+}
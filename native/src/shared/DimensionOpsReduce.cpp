@@ -183,9 +183,21 @@ inline void DimensionOps::rrSum(jdouble *working, const jint *workingIndices, //
 
         jint workingIndex = workingIndices[i];
 
-        for (jint j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-            working[workingIndex] += working[offset];
+        // Use Neumaier's variant of Kahan compensated summation.
+
+        jdouble sum = 0.0;
+        jdouble compensation = 0.0;
+
+        for (jint j = 0, offset = workingIndex; j < size; j++, offset += stride) {
+
+            jdouble value = working[offset];
+            jdouble t = sum + value;
+
+            compensation += (fabs(sum) >= fabs(value)) ? (sum - t) + value : (value - t) + sum;
+            sum = t;
         }
+
+        working[workingIndex] = sum + compensation;
     }
 }
 
@@ -235,24 +247,19 @@ inline void DimensionOps::rrVar(jdouble *working, const jint *workingIndices, //
 
         jint workingIndex = workingIndices[i];
 
-        jdouble mean = 0.0;
-
-        for (jint j = 0, offset = workingIndex; j < size; j++, offset += stride) {
-            mean += working[offset];
-        }
+        // Use Welford's single pass update.
 
-        mean /= size;
+        jdouble mean = 0.0;
+        jdouble m2 = 0.0;
 
         for (jint j = 0, offset = workingIndex; j < size; j++, offset += stride) {
 
-            jdouble diff = working[offset] - mean;
-            working[offset] = diff * diff;
-        }
+            jdouble delta = working[offset] - mean;
 
-        for (jint j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-            working[workingIndex] += working[offset];
+            mean += delta / (j + 1);
+            m2 += delta * (working[offset] - mean);
         }
 
-        working[workingIndex] /= size;
+        working[workingIndex] = m2 / size;
     }
 }
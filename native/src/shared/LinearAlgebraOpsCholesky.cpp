@@ -0,0 +1,220 @@
+/*
+ * Copyright (c) 2009 Roy Liu
+ * All rights reserved.
+ * 
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * 
+ *   * Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ *     disclaimer.
+ *   * Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ *     following disclaimer in the documentation and/or other materials provided with the distribution.
+ *   * Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ *     derived from this software without specific prior written permission.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+
+#include <LinearAlgebraOps.hpp>
+
+#include <LinearAlgebraOps.hpp>
+
+void LinearAlgebraOps::cholesky(JNIEnv *env, jobject thisObj, //
+        jdoubleArray srcV, jdoubleArray dstV, jint size) {
+
+    try {
+
+        if (!srcV || !dstV) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        jint srcLen = env->GetArrayLength(srcV);
+        jint dstLen = env->GetArrayLength(dstV);
+
+        if ((srcLen != size * size) || (dstLen != size * size)) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        ArrayPinHandler srcVh(env, srcV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler dstVh(env, dstV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+
+        jdouble *srcVArr = (jdouble *) srcVh.get();
+        jdouble *dstVArr = (jdouble *) dstVh.get();
+
+        for (jint i = 0; i < size; i++) {
+
+            memcpy(dstVArr + size * i, srcVArr + size * i, sizeof(jdouble) * (i + 1));
+
+            for (jint j = i + 1; j < size; j++) {
+                dstVArr[size * i + j] = 0.0;
+            }
+        }
+
+        choleskyDecompose(dstVArr, size);
+
+    } catch (std::exception &e) {
+
+        Common::throwNew(env, e);
+    }
+}
+
+void LinearAlgebraOps::choleskySolve(JNIEnv *env, jobject thisObj, //
+        jdoubleArray lV, jdoubleArray srcV, jdoubleArray dstV, jint size, jint nCols) {
+
+    try {
+
+        if (!lV || !srcV || !dstV) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        jint lLen = env->GetArrayLength(lV);
+        jint srcLen = env->GetArrayLength(srcV);
+        jint dstLen = env->GetArrayLength(dstV);
+
+        if ((lLen != size * size) || (srcLen != size * nCols) || (dstLen != size * nCols)) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        ArrayPinHandler lVh(env, lV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler srcVh(env, srcV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler dstVh(env, dstV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+
+        jdouble *lVArr = (jdouble *) lVh.get();
+        jdouble *srcVArr = (jdouble *) srcVh.get();
+        jdouble *dstVArr = (jdouble *) dstVh.get();
+
+        for (jint i = 0; i < size; i++) {
+
+            if (!(lVArr[size * i + i] > 0.0)) {
+                throw std::runtime_error("Invalid Cholesky factor");
+            }
+        }
+
+        memcpy(dstVArr, srcVArr, sizeof(jdouble) * srcLen);
+
+        choleskySolve(lVArr, size, dstVArr, nCols);
+
+    } catch (std::exception &e) {
+
+        Common::throwNew(env, e);
+    }
+}
+
+void LinearAlgebraOps::choleskyDecompose(jdouble *l, jint size) {
+
+    // Use a blocked, "right-looking" algorithm whose inner loops are dot products over contiguous row segments.
+
+    const jint blockSize = 64;
+
+    for (jint k0 = 0; k0 < size; k0 += blockSize) {
+
+        jint k1 = std::min(k0 + blockSize, size);
+
+        // Factor the diagonal block, and then solve for the panel below it.
+
+        for (jint j = k0; j < k1; j++) {
+
+            jdouble *rowJ = l + size * j;
+
+            jdouble s = rowJ[j];
+
+            for (jint k = k0; k < j; k++) {
+                s -= rowJ[k] * rowJ[k];
+            }
+
+            if (!(s > 0.0)) {
+                throw std::runtime_error("Matrix is not positive definite");
+            }
+
+            jdouble diag = sqrt(s);
+
+            rowJ[j] = diag;
+
+            for (jint i = j + 1; i < size; i++) {
+
+                jdouble *rowI = l + size * i;
+
+                jdouble t = rowI[j];
+
+                for (jint k = k0; k < j; k++) {
+                    t -= rowI[k] * rowJ[k];
+                }
+
+                rowI[j] = t / diag;
+            }
+        }
+
+        // Update the lower triangle of the trailing submatrix.
+
+        for (jint i = k1; i < size; i++) {
+
+            jdouble *rowI = l + size * i;
+
+            for (jint j = k1; j <= i; j++) {
+
+                jdouble *rowJ = l + size * j;
+
+                jdouble t = 0.0;
+
+                for (jint k = k0; k < k1; k++) {
+                    t += rowI[k] * rowJ[k];
+                }
+
+                rowI[j] -= t;
+            }
+        }
+    }
+}
+
+void LinearAlgebraOps::choleskySolve(jdouble *l, jint size, jdouble *v, jint nCols) {
+
+    // Solve L*Y = B.
+
+    for (jint k = 0; k < size; k++) {
+
+        jdouble *rowK = v + nCols * k;
+        jdouble d = l[size * k + k];
+
+        for (jint j = 0; j < nCols; j++) {
+            rowK[j] /= d;
+        }
+
+        for (jint i = k + 1; i < size; i++) {
+
+            jdouble *rowI = v + nCols * i;
+            jdouble f = l[size * i + k];
+
+            for (jint j = 0; j < nCols; j++) {
+                rowI[j] -= rowK[j] * f;
+            }
+        }
+    }
+
+    // Solve L^T*X = Y.
+
+    for (jint k = size - 1; k >= 0; k--) {
+
+        jdouble *rowK = v + nCols * k;
+        jdouble d = l[size * k + k];
+
+        for (jint j = 0; j < nCols; j++) {
+            rowK[j] /= d;
+        }
+
+        for (jint i = 0; i < k; i++) {
+
+            jdouble *rowI = v + nCols * i;
+            jdouble f = l[size * k + i];
+
+            for (jint j = 0; j < nCols; j++) {
+                rowI[j] -= rowK[j] * f;
+            }
+        }
+    }
+}
@@ -48,6 +48,28 @@ void LinearAlgebraOps::eigs(JNIEnv *env, jobject thisObj, //
         jdouble *vecVArr = (jdouble *) vecVh.get();
         jdouble *valVArr = (jdouble *) valVh.get();
 
+        // Symmetric matrices have real eigenvalues and orthogonal eigenvectors, which are much cheaper to obtain.
+        if (isSymmetric(srcVArr, size)) {
+
+            MallocHandler allH(sizeof(jdouble) * 2 * size);
+            jdouble *all = (jdouble *) allH.get();
+            jdouble *d = all;
+            jdouble *e = all + size;
+
+            memcpy(vecVArr, srcVArr, sizeof(jdouble) * srcLen);
+
+            tridiagonalize(vecVArr, d, e, size);
+            tridiagonalToDiagonal(vecVArr, d, e, size);
+
+            for (jint i = 0; i < size; i++) {
+
+                valVArr[2 * i] = d[i];
+                valVArr[2 * i + 1] = 0.0;
+            }
+
+            return;
+        }
+
         MallocHandler allH(sizeof(jdouble) * srcLen);
         jdouble *all = (jdouble *) allH.get();
         jdouble *h = all;
@@ -613,3 +635,262 @@ void LinearAlgebraOps::hessenbergToSchur(jdouble *h, jdouble *vecVArr, jdouble *
         }
     }
 }
+
+bool LinearAlgebraOps::isSymmetric(jdouble *srcVArr, jint size) {
+
+    for (jint i = 0; i < size; i++) {
+
+    for (jint j = 0; j < i; j++) {
+
+        if (srcVArr[size * i + j] != srcVArr[size * j + i]) {
+            return false;
+        }
+    }
+    }
+
+    return true;
+}
+
+void LinearAlgebraOps::tridiagonalize(jdouble *vecVArr, jdouble *d, jdouble *e, jint size) {
+
+    jint vStrideRow = size;
+
+    // This is derived from the Algol procedures tred2 by
+    // Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
+    // Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
+    // Fortran subroutine in EISPACK.
+
+    for (jint j = 0; j < size; j++) {
+        d[j] = vecVArr[vStrideRow * (size - 1) + (j)];
+    }
+
+    // Householder reduction to tridiagonal form.
+
+    for (jint i = size - 1; i > 0; i--) {
+
+        // Scale to avoid under/overflow.
+
+        jdouble scale = 0.0;
+        jdouble h = 0.0;
+        for (jint k = 0; k < i; k++) {
+            scale = scale + fabs(d[k]);
+        }
+        if (scale == 0.0) {
+            e[i] = d[i - 1];
+            for (jint j = 0; j < i; j++) {
+                d[j] = vecVArr[vStrideRow * (i - 1) + (j)];
+                vecVArr[vStrideRow * (i) + (j)] = 0.0;
+                vecVArr[vStrideRow * (j) + (i)] = 0.0;
+            }
+        } else {
+
+            // Generate Householder vector.
+
+            for (jint k = 0; k < i; k++) {
+                d[k] /= scale;
+                h += d[k] * d[k];
+            }
+            jdouble f = d[i - 1];
+            jdouble g = sqrt(h);
+            if (f > 0) {
+                g = -g;
+            }
+            e[i] = scale * g;
+            h = h - f * g;
+            d[i - 1] = f - g;
+            for (jint j = 0; j < i; j++) {
+                e[j] = 0.0;
+            }
+
+            // Apply similarity transformation to remaining columns.
+
+            for (jint j = 0; j < i; j++) {
+                f = d[j];
+                vecVArr[vStrideRow * (j) + (i)] = f;
+                g = e[j] + vecVArr[vStrideRow * (j) + (j)] * f;
+                for (jint k = j + 1; k <= i - 1; k++) {
+                    g += vecVArr[vStrideRow * (k) + (j)] * d[k];
+                    e[k] += vecVArr[vStrideRow * (k) + (j)] * f;
+                }
+                e[j] = g;
+            }
+            f = 0.0;
+            for (jint j = 0; j < i; j++) {
+                e[j] /= h;
+                f += e[j] * d[j];
+            }
+            jdouble hh = f / (h + h);
+            for (jint j = 0; j < i; j++) {
+                e[j] -= hh * d[j];
+            }
+
+            for (jint j = 0; j < i; j++) {
+                f = d[j];
+                g = e[j];
+                for (jint k = j; k <= i - 1; k++) {
+                    vecVArr[vStrideRow * (k) + (j)] -= (f * e[k] + g * d[k]);
+                }
+            }
+
+            for (jint j = 0; j < i; j++) {
+                d[j] = vecVArr[vStrideRow * (i - 1) + (j)];
+                vecVArr[vStrideRow * (i) + (j)] = 0.0;
+            }
+        }
+        d[i] = h;
+    }
+
+    // Accumulate transformations.
+
+    for (jint i = 0; i < size - 1; i++) {
+        vecVArr[vStrideRow * (size - 1) + (i)] = vecVArr[vStrideRow * (i) + (i)];
+        vecVArr[vStrideRow * (i) + (i)] = 1.0;
+        jdouble h = d[i + 1];
+        if (h != 0.0) {
+            for (jint k = 0; k <= i; k++) {
+                d[k] = vecVArr[vStrideRow * (k) + (i + 1)] / h;
+            }
+
+            for (jint j = 0; j <= i; j++) {
+                jdouble g = 0.0;
+                for (jint k = 0; k <= i; k++) {
+                    g += vecVArr[vStrideRow * (k) + (i + 1)] * vecVArr[vStrideRow * (k) + (j)];
+                }
+                for (jint k = 0; k <= i; k++) {
+                    vecVArr[vStrideRow * (k) + (j)] -= g * d[k];
+                }
+            }
+        }
+        for (jint k = 0; k <= i; k++) {
+            vecVArr[vStrideRow * (k) + (i + 1)] = 0.0;
+        }
+    }
+    for (jint j = 0; j < size; j++) {
+        d[j] = vecVArr[vStrideRow * (size - 1) + (j)];
+        vecVArr[vStrideRow * (size - 1) + (j)] = 0.0;
+    }
+    if (size > 0) {
+        vecVArr[vStrideRow * (size - 1) + (size - 1)] = 1.0;
+        e[0] = 0.0;
+    }
+    }
+
+void LinearAlgebraOps::tridiagonalToDiagonal(jdouble *vecVArr, jdouble *d, jdouble *e, jint size) {
+
+    jint vStrideRow = size;
+
+    // This is derived from the Algol procedures tql2, by
+    // Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
+    // Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
+    // Fortran subroutine in EISPACK.
+
+    for (jint i = 1; i < size; i++) {
+        e[i - 1] = e[i];
+    }
+    if (size > 0) {
+        e[size - 1] = 0.0;
+    }
+
+    jdouble f = 0.0;
+    jdouble tst1 = 0.0;
+    jdouble eps = pow(2.0, -52.0);
+    for (jint l = 0; l < size; l++) {
+
+        // Find small subdiagonal element.
+
+        tst1 = std::max(tst1, fabs(d[l]) + fabs(e[l]));
+        jint m = l;
+        while (m < size) {
+            if (fabs(e[m]) <= eps * tst1) {
+                break;
+            }
+            m++;
+        }
+
+        // If m == l, d[l] is an eigenvalue,
+        // otherwise, iterate.
+
+        if (m > l) {
+            do {
+
+                // Compute implicit shift.
+
+                jdouble g = d[l];
+                jdouble p = (d[l + 1] - g) / (2.0 * e[l]);
+                jdouble r = sqrt(p * p + 1.0);
+                if (p < 0) {
+                    r = -r;
+                }
+                d[l] = e[l] / (p + r);
+                d[l + 1] = e[l] * (p + r);
+                jdouble dl1 = d[l + 1];
+                jdouble h = g - d[l];
+                for (jint i = l + 2; i < size; i++) {
+                    d[i] -= h;
+                }
+                f = f + h;
+
+                // Implicit QL transformation.
+
+                p = d[m];
+                jdouble c = 1.0;
+                jdouble c2 = c;
+                jdouble c3 = c;
+                jdouble el1 = e[l + 1];
+                jdouble s = 0.0;
+                jdouble s2 = 0.0;
+                for (jint i = m - 1; i >= l; i--) {
+                    c3 = c2;
+                    c2 = c;
+                    s2 = s;
+                    g = c * e[i];
+                    h = c * p;
+                    r = sqrt(p * p + e[i] * e[i]);
+                    e[i + 1] = s * r;
+                    s = e[i] / r;
+                    c = p / r;
+                    p = c * d[i] - s * g;
+                    d[i + 1] = h + s * (c * g + s * d[i]);
+
+                    // Accumulate transformation.
+
+                    for (jint k = 0; k < size; k++) {
+                        h = vecVArr[vStrideRow * (k) + (i + 1)];
+                        vecVArr[vStrideRow * (k) + (i + 1)] = s * vecVArr[vStrideRow * (k) + (i)] + c * h;
+                        vecVArr[vStrideRow * (k) + (i)] = c * vecVArr[vStrideRow * (k) + (i)] - s * h;
+                    }
+                }
+                p = -s * s2 * c3 * el1 * e[l] / dl1;
+                e[l] = s * p;
+                d[l] = c * p;
+
+                // Check for convergence.
+
+            } while (fabs(e[l]) > eps * tst1);
+        }
+        d[l] = d[l] + f;
+        e[l] = 0.0;
+    }
+
+    // Sort eigenvalues and corresponding vectors.
+
+    for (jint i = 0; i < size - 1; i++) {
+        jint k = i;
+        jdouble p = d[i];
+        for (jint j = i + 1; j < size; j++) {
+            if (d[j] < p) {
+                k = j;
+                p = d[j];
+            }
+        }
+        if (k != i) {
+            d[k] = d[i];
+            d[i] = p;
+            for (jint j = 0; j < size; j++) {
+                p = vecVArr[vStrideRow * (j) + (i)];
+                vecVArr[vStrideRow * (j) + (i)] = vecVArr[vStrideRow * (j) + (k)];
+                vecVArr[vStrideRow * (j) + (k)] = p;
+            }
+        }
+    }
+    }
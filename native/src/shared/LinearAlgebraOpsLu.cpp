@@ -75,6 +75,110 @@ void LinearAlgebraOps::invert(JNIEnv *env, jobject thisObj, //
     }
 }
 
+void LinearAlgebraOps::lu(JNIEnv *env, jobject thisObj, //
+        jdoubleArray srcV, jdoubleArray luV, jintArray pivots, jint size) {
+
+    try {
+
+        if (!srcV || !luV || !pivots) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        jint srcLen = env->GetArrayLength(srcV);
+        jint luLen = env->GetArrayLength(luV);
+        jint pivotsLen = env->GetArrayLength(pivots);
+
+        if ((srcLen != size * size) || (luLen != size * size) || (pivotsLen != size)) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        ArrayPinHandler srcVh(env, srcV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler luVh(env, luV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+        ArrayPinHandler pivotsh(env, pivots, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+
+        jdouble *srcVArr = (jdouble *) srcVh.get();
+        jdouble *luVArr = (jdouble *) luVh.get();
+        jint *pivotsArr = (jint *) pivotsh.get();
+
+        memcpy(luVArr, srcVArr, sizeof(jdouble) * srcLen);
+
+        for (jint i = 0; i < size; i++) {
+            pivotsArr[i] = i;
+        }
+
+        lup(luVArr, pivotsArr, size, size);
+
+    } catch (std::exception &e) {
+
+        Common::throwNew(env, e);
+    }
+}
+
+void LinearAlgebraOps::luSolve(JNIEnv *env, jobject thisObj, //
+        jdoubleArray luV, jintArray pivots, jdoubleArray srcV, jdoubleArray dstV, //
+        jint size, jint nCols, jboolean transpose) {
+
+    try {
+
+        if (!luV || !pivots || !srcV || !dstV) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        jint luLen = env->GetArrayLength(luV);
+        jint pivotsLen = env->GetArrayLength(pivots);
+        jint srcLen = env->GetArrayLength(srcV);
+        jint dstLen = env->GetArrayLength(dstV);
+
+        if ((luLen != size * size) || (pivotsLen != size) //
+                || (srcLen != size * nCols) || (dstLen != size * nCols)) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        ArrayPinHandler luVh(env, luV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler pivotsh(env, pivots, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler srcVh(env, srcV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler dstVh(env, dstV, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+
+        jdouble *luVArr = (jdouble *) luVh.get();
+        jint *pivotsArr = (jint *) pivotsh.get();
+        jdouble *srcVArr = (jdouble *) srcVh.get();
+        jdouble *dstVArr = (jdouble *) dstVh.get();
+
+        for (jint i = 0; i < size; i++) {
+
+            if (luVArr[size * i + i] == 0) {
+                throw std::runtime_error("Matrix is singular");
+            }
+        }
+
+        if (!transpose) {
+
+            for (jint i = 0; i < size; i++) {
+                memcpy(dstVArr + nCols * i, srcVArr + nCols * pivotsArr[i], sizeof(jdouble) * nCols);
+            }
+
+            luSolve(luVArr, size, dstVArr, nCols);
+
+        } else {
+
+            MallocHandler workH(sizeof(jdouble) * srcLen);
+            jdouble *work = (jdouble *) workH.get();
+
+            memcpy(work, srcVArr, sizeof(jdouble) * srcLen);
+
+            luSolveTranspose(luVArr, size, work, nCols);
+
+            for (jint i = 0; i < size; i++) {
+                memcpy(dstVArr + nCols * pivotsArr[i], work + nCols * i, sizeof(jdouble) * nCols);
+            }
+        }
+
+    } catch (std::exception &e) {
+
+        Common::throwNew(env, e);
+    }
+}
+
 void LinearAlgebraOps::lup(jdouble *lu, jint *pivots, jint nRows, jint nCols) {
 
     MallocHandler allH(sizeof(jdouble) * nRows);
@@ -154,7 +258,7 @@ void LinearAlgebraOps::luSolve(jdouble *lu, jint nLuCols, jdouble *dstVArr, jint
     }
     // Solve U*X = Y;
     for (jint k = nLuCols - 1; k >= 0; k--) {
-        for (jint j = 0; j < nLuCols; j++) {
+        for (jint j = 0; j < nDstVCols; j++) {
             dstVArr[vStrideRow * (k) + (j)] /= lu[luStrideRow * (k) + (k)];
         }
         for (jint i = 0; i < k; i++) {
@@ -164,3 +268,29 @@ void LinearAlgebraOps::luSolve(jdouble *lu, jint nLuCols, jdouble *dstVArr, jint
         }
     }
 }
+
+void LinearAlgebraOps::luSolveTranspose(jdouble *lu, jint nLuCols, jdouble *dstVArr, jint nDstVCols) {
+
+    jint luStrideRow = nLuCols;
+    jint vStrideRow = nDstVCols;
+
+    // Solve U^T*Z = B
+    for (jint k = 0; k < nLuCols; k++) {
+        for (jint j = 0; j < nDstVCols; j++) {
+            dstVArr[vStrideRow * (k) + (j)] /= lu[luStrideRow * (k) + (k)];
+        }
+        for (jint i = k + 1; i < nLuCols; i++) {
+            for (jint j = 0; j < nDstVCols; j++) {
+                dstVArr[vStrideRow * (i) + (j)] -= dstVArr[vStrideRow * (k) + (j)] * lu[luStrideRow * (k) + (i)];
+            }
+        }
+    }
+    // Solve L^T*Y = Z;
+    for (jint k = nLuCols - 1; k >= 0; k--) {
+        for (jint i = 0; i < k; i++) {
+            for (jint j = 0; j < nDstVCols; j++) {
+                dstVArr[vStrideRow * (i) + (j)] -= dstVArr[vStrideRow * (k) + (j)] * lu[luStrideRow * (k) + (i)];
+            }
+        }
+    }
+}
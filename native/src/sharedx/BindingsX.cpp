@@ -28,6 +28,11 @@ JNIEXPORT void JNICALL Java_org_sharedx_fftw_Plan_transform(JNIEnv *env, jobject
     Plan::transform(env, thisObj, in, out);
 }
 
+JNIEXPORT void JNICALL Java_org_sharedx_fftw_Plan_transformBatch(JNIEnv *env, jobject thisObj, jint count, //
+        jdoubleArray in, jint inStride, jint inDist, jdoubleArray out, jint outStride, jint outDist) {
+    Plan::transformBatch(env, thisObj, count, in, inStride, inDist, out, outStride, outDist);
+}
+
 JNIEXPORT jbyteArray JNICALL Java_org_sharedx_fftw_Plan_create(JNIEnv *env, jobject thisObj, jint type, //
         jintArray dims, jint logicalMode) {
     return Plan::create(env, thisObj, type, dims, logicalMode);
@@ -98,6 +98,97 @@ void Plan::transform(JNIEnv *env, jobject thisObj, jdoubleArray in, jdoubleArray
     }
 }
 
+void Plan::transformBatch(JNIEnv *env, jobject thisObj, jint count, //
+        jdoubleArray in, jint inStride, jint inDist, //
+        jdoubleArray out, jint outStride, jint outDist) {
+
+    try {
+
+        if (!in || !out) {
+            throw std::runtime_error("Invalid arguments");
+        }
+
+        jint type = env->GetIntField(thisObj, typeFieldId);
+        jintArray dims = (jintArray) env->GetObjectField(thisObj, dimsFieldId);
+        jbyteArray mem = (jbyteArray) env->GetObjectField(thisObj, memFieldId);
+
+        if (!mem) {
+            throw std::runtime_error("The byte array reference was not properly initialized");
+        }
+
+        jint nDims = env->GetArrayLength(dims);
+        jint inLen = env->GetArrayLength(in);
+        jint outLen = env->GetArrayLength(out);
+
+        //
+        //
+        // Initialize pinned arrays.
+
+        ArrayPinHandler dimsH(env, dims, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler inH(env, in, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        ArrayPinHandler outH(env, out, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_WRITE);
+        ArrayPinHandler memH(env, mem, ArrayPinHandler::PRIMITIVE, ArrayPinHandler::READ_ONLY);
+        // NO JNI AFTER THIS POINT!
+
+        jint *dimsArr = (jint *) dimsH.get();
+        jdouble *inArr = (jdouble *) inH.get();
+        jdouble *outArr = (jdouble *) outH.get();
+        fftw_plan *memArr = (fftw_plan *) memH.get();
+
+        //
+        //
+        // Set up and execute!
+
+        jint inTransformLen, outTransformLen;
+        jdouble scalingFactor;
+
+        Plan::getTransformParameters(inTransformLen, outTransformLen, scalingFactor, type, dimsArr, nDims);
+
+        jint inWidth = (type == org_sharedx_fftw_Plan_R_TO_C) ? 1 : 2;
+        jint outWidth = (type == org_sharedx_fftw_Plan_C_TO_R) ? 1 : 2;
+
+        jint inSize = inTransformLen / inWidth;
+        jint outSize = outTransformLen / outWidth;
+
+        Plan::checkBatch(count, inSize, inWidth, inStride, inDist, inLen);
+        Plan::checkBatch(count, outSize, outWidth, outStride, outDist, outLen);
+
+        // Gather each transform into contiguous memory, so that every one goes through the same plan.
+        MallocHandler mallocH(sizeof(jdouble) * (inTransformLen + outTransformLen));
+        jdouble *all = (jdouble *) mallocH.get();
+
+        jdouble *inTmpArr = all;
+        jdouble *outTmpArr = all + inTransformLen;
+
+        for (jint i = 0; i < count; i++) {
+
+            Plan::copy(inArr + (jlong) i * inDist * inWidth, inStride, inTmpArr, 1, inSize, inWidth);
+
+            // Execution of a plan via the guru interface is thread-safe, so one need not acquire any monitors.
+            if (type == org_sharedx_fftw_Plan_C_TO_R) {
+
+                // The gathered input is a copy, and so it may be destroyed.
+                fftw_execute_dft_c2r(*memArr, (fftw_complex *) inTmpArr, outTmpArr);
+
+                for (jint j = 0; j < outTransformLen; j++) {
+                    outTmpArr[j] *= scalingFactor;
+                }
+
+            } else {
+
+                Plan::executePlan(type, *memArr, inTmpArr, inTransformLen, outTmpArr, outTransformLen, //
+                        scalingFactor);
+            }
+
+            Plan::copy(outTmpArr, 1, outArr + (jlong) i * outDist * outWidth, outStride, outSize, outWidth);
+        }
+
+    } catch (std::exception &e) {
+
+        Common::throwNew(env, e);
+    }
+}
+
 jbyteArray Plan::create(JNIEnv *env, jobject thisObj, jint type, jintArray dims, jint logicalMode) {
 
     jbyteArray mem = NULL;
@@ -319,6 +410,35 @@ inline void Plan::getTransformParameters( //
     }
 }
 
+inline void Plan::checkBatch(jint count, jint size, jint width, jint stride, jint dist, jint len) {
+
+    if (count < 0 || stride <= 0 || dist < 0) {
+        throw std::runtime_error("Invalid batch parameters");
+    }
+
+    if (count > 0 && ((jlong) (count - 1) * dist + (jlong) (size - 1) * stride + 1) * width > len) {
+        throw std::runtime_error("Input and/or output arrays do not have expected sizes");
+    }
+}
+
+inline void Plan::copy(const jdouble *srcArr, jint srcStride, jdouble *dstArr, jint dstStride, //
+        jint size, jint width) {
+
+    if (srcStride == 1 && dstStride == 1) {
+
+        memcpy(dstArr, srcArr, sizeof(jdouble) * size * width);
+
+        return;
+    }
+
+    for (jint j = 0; j < size; j++) {
+
+        for (jint k = 0; k < width; k++) {
+            dstArr[(jlong) j * dstStride * width + k] = srcArr[(jlong) j * srcStride * width + k];
+        }
+    }
+}
+
 inline fftw_plan Plan::createPlan( //
         jint type, const jint *dimsArr, jint nDims, //
         jint logicalMode, jint inLen, jint outLen) {
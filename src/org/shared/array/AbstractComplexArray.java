@@ -45,6 +45,7 @@ import org.shared.util.Control;
  * An abstract base class for arrays of complex values.
  * 
  * @apiviz.owns org.shared.array.AbstractComplexArray.Complex
+ * @apiviz.uses org.shared.array.ComplexExpression
  * @param <C>
  *            the complex array type.
  * @param <R>
@@ -240,6 +241,14 @@ abstract public class AbstractComplexArray<C extends AbstractComplexArray<C, R>,
         return applyKernelComplexToRealOperation(ArrayKernel.C_TO_R_ABS);
     }
 
+    /**
+     * Creates a {@link ComplexExpression} for recording operations on this array lazily.
+     */
+    @SuppressWarnings("unchecked")
+    public ComplexExpression<C> lazy() {
+        return new ComplexExpression<C>((C) this);
+    }
+
     /**
      * Creates an {@link AbstractRealArray} from the real parts of this array's elements.
      */
@@ -0,0 +1,306 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import java.io.Closeable;
+import java.nio.Buffer;
+import java.util.Arrays;
+
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.kernel.OffHeapOps;
+import org.shared.util.Control;
+
+/**
+ * An abstract base class for multidimensional arrays whose values live off the Java heap. Values are held in chunks of
+ * direct {@link Buffer}s and are addressed with {@code long} physical indices, so that arrays may have more than
+ * {@link Integer#MAX_VALUE} elements and do not burden the garbage collector. Calling {@link #close()} detaches the
+ * storage, after which any access through the array fails fast with an {@link IllegalStateException}. Because direct
+ * buffers cannot be freed portably, the memory itself is returned to the system only once the buffers, including any
+ * obtained from {@link #chunks()}, become unreachable and are collected.
+ * 
+ * @apiviz.uses org.shared.array.kernel.OffHeapOps
+ * @param <T>
+ *            the parameterization lower bounded by {@link AbstractOffHeapArray} itself.
+ * @param <B>
+ *            the chunk type.
+ * @author Roy Liu
+ */
+abstract public class AbstractOffHeapArray<T extends AbstractOffHeapArray<T, B>, B extends Buffer> //
+        implements Closeable {
+
+    /**
+     * The storage order.
+     */
+    final protected IndexingOrder order;
+
+    /**
+     * The dimensions.
+     */
+    final protected int[] dims;
+
+    /**
+     * The strides.
+     */
+    final protected long[] strides;
+
+    /**
+     * The number of values per chunk.
+     */
+    final protected int chunkSize;
+
+    /**
+     * The number of values.
+     */
+    final protected long length;
+
+    /**
+     * The backing chunks, or {@code null} once closed.
+     */
+    protected B[] chunks;
+
+    /**
+     * Default constructor.
+     */
+    protected AbstractOffHeapArray(B[] chunks, int chunkSize, IndexingOrder order, int[] dims) {
+
+        this.order = order;
+        this.dims = dims;
+        this.strides = strides(order, dims);
+        this.chunkSize = chunkSize;
+        this.chunks = chunks;
+
+        long length = 1;
+
+        for (int dim : dims) {
+
+            Control.checkTrue(dim >= 0, //
+                    "Invalid dimensions");
+
+            length *= dim;
+        }
+
+        Control.checkTrue(length == OffHeapOps.length(chunks), //
+                "Length mismatch");
+
+        this.length = length;
+    }
+
+    /**
+     * Computes {@code long} strides for the given storage order.
+     * 
+     * @param order
+     *            the storage order.
+     * @param dims
+     *            the dimensions.
+     * @return the strides.
+     */
+    final public static long[] strides(IndexingOrder order, int[] dims) {
+
+        int nDims = dims.length;
+        long[] strides = new long[nDims];
+        long stride = 1;
+
+        if (order == IndexingOrder.FAR) {
+
+            for (int dim = nDims - 1; dim >= 0; dim--) {
+
+                strides[dim] = stride;
+                stride *= dims[dim];
+            }
+
+        } else if (order == IndexingOrder.NEAR) {
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                strides[dim] = stride;
+                stride *= dims[dim];
+            }
+
+        } else {
+
+            throw new IllegalArgumentException("Invalid storage order");
+        }
+
+        return strides;
+    }
+
+    /**
+     * Computes the number of values from the given dimensions, which may exceed {@link Integer#MAX_VALUE}.
+     */
+    final public static long product(int[] dims) {
+
+        long product = 1;
+
+        for (int dim : dims) {
+            product *= dim;
+        }
+
+        return product;
+    }
+
+    /**
+     * Gets the backing chunks.
+     * 
+     * @throws IllegalStateException
+     *             when the array has been closed.
+     */
+    public B[] chunks() {
+
+        if (this.chunks == null) {
+            throw new IllegalStateException("Array has been closed");
+        }
+
+        return this.chunks;
+    }
+
+    /**
+     * Detaches the backing storage, so that later accesses throw {@link IllegalStateException}. The memory is not freed
+     * here; it is returned to the system once the garbage collector finds no remaining references to the buffers.
+     */
+    @Override
+    public void close() {
+        this.chunks = null;
+    }
+
+    /**
+     * Checks whether the array has been closed.
+     */
+    public boolean isClosed() {
+        return this.chunks == null;
+    }
+
+    /**
+     * Gets the number of values.
+     */
+    public long length() {
+        return this.length;
+    }
+
+    /**
+     * Gets the storage order.
+     */
+    public IndexingOrder order() {
+        return this.order;
+    }
+
+    /**
+     * Gets the size along the given dimension.
+     */
+    public int size(int i) {
+        return this.dims[i];
+    }
+
+    /**
+     * Gets the stride along the given dimension.
+     */
+    public long stride(int i) {
+        return this.strides[i];
+    }
+
+    /**
+     * Gets the number of dimensions.
+     */
+    public int nDims() {
+        return this.dims.length;
+    }
+
+    /**
+     * Gets the dimensions.
+     */
+    public int[] dims() {
+        return this.dims.clone();
+    }
+
+    /**
+     * Gets the strides.
+     */
+    public long[] strides() {
+        return this.strides.clone();
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%s[%s]", getClass().getSimpleName(), Arrays.toString(this.dims));
+    }
+
+    /**
+     * Converts a logical index into a physical index.
+     */
+    protected long physical(int[] logical) {
+
+        int nDims = Control.checkEquals(this.dims.length, logical.length, //
+                "Dimensionality mismatch");
+
+        long index = 0;
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            Control.checkTrue(logical[dim] >= 0 && logical[dim] < this.dims[dim], //
+                    "Invalid index");
+
+            index += this.strides[dim] * logical[dim];
+        }
+
+        return index;
+    }
+
+    /**
+     * Gets the chunk containing the given physical index.
+     */
+    protected B chunk(long physical) {
+        return chunks()[(int) (physical / this.chunkSize)];
+    }
+
+    /**
+     * Gets the offset of the given physical index within its chunk.
+     */
+    protected int chunkOffset(long physical) {
+        return (int) (physical % this.chunkSize);
+    }
+
+    /**
+     * Checks that the given array has the same shape as this array.
+     */
+    protected void checkShape(T b) {
+
+        Control.checkTrue(this.order == b.order && Arrays.equals(this.dims, b.dims), //
+                "Shape mismatch");
+    }
+
+    /**
+     * Checks that the number of values fits in a Java array.
+     */
+    protected int checkHeapLength() {
+
+        Control.checkTrue(this.length <= Integer.MAX_VALUE, //
+                "Array is too large for the heap");
+
+        return (int) this.length;
+    }
+}
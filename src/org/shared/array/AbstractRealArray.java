@@ -34,12 +34,14 @@ import static org.shared.array.ArrayBase.opKernel;
 import java.util.Arrays;
 
 import org.shared.array.kernel.ArrayKernel;
+import org.shared.util.Control;
 
 /**
  * An abstract base class for arrays of real values.
  * 
  * @apiviz.has org.shared.array.AbstractRealArray.RealMap - - - argument
  * @apiviz.has org.shared.array.AbstractRealArray.RealReduce - - - argument
+ * @apiviz.uses org.shared.array.RealExpression
  * @param <R>
  *            the real array type.
  * @param <C>
@@ -81,6 +83,28 @@ abstract public class AbstractRealArray<R extends AbstractRealArray<R, C>, C ext
         return Double.class;
     }
 
+    /**
+     * Creates a {@link RealExpression} for recording operations on this array lazily.
+     */
+    @SuppressWarnings("unchecked")
+    public RealExpression<R> lazy() {
+        return new RealExpression<R>((R) this);
+    }
+
+    /**
+     * Creates a {@link RealExpression} for recording operations on this array, broadcast to the given dimensions,
+     * lazily. Every dimension of this array must either equal its counterpart or be singleton, in which case its
+     * values repeat as they would under {@link #tile(int...)}, but without being copied.
+     * 
+     * @param dims
+     *            the dimensions to broadcast to.
+     * @return the {@link RealExpression}.
+     */
+    @SuppressWarnings("unchecked")
+    public RealExpression<R> lazy(int... dims) {
+        return new RealExpression<R>((R) this, dims);
+    }
+
     /**
      * Creates an {@link AbstractComplexArray} with the real parts set to this array's elements.
      */
@@ -424,6 +448,43 @@ abstract public class AbstractRealArray<R extends AbstractRealArray<R, C>, C ext
         return applyKernelRealIndexOperation(ArrayKernel.RI_SORT, dim);
     }
 
+    /**
+     * Finds the positions of the {@code k} smallest values along the given dimension, in ascending order of value.
+     * Unlike {@link #iSort(int)}, this array is left unmodified, and the work is {@code O(n log k)}.
+     */
+    @SuppressWarnings("unchecked")
+    public IntegerArray iTopK(int dim, int k) {
+
+        R a = (R) this;
+
+        IntegerArray res = new IntegerArray(a.order, topKDimensions(dim, k));
+
+        opKernel.riTopK(a.values, a.dims, a.strides, //
+                new double[res.values.length], res.values, res.dims, res.strides, //
+                dim);
+
+        return res;
+    }
+
+    /**
+     * Selects the {@code k} smallest values along the given dimension, in ascending order.
+     */
+    @SuppressWarnings("unchecked")
+    public R rTopK(int dim, int k) {
+
+        R a = (R) this;
+
+        int[] dims = topKDimensions(dim, k);
+
+        R res = wrap(INVALID_PARITY, a.order, dims, a.order.strides(dims));
+
+        opKernel.riTopK(a.values, a.dims, a.strides, //
+                res.values, new int[res.values.length], res.dims, res.strides, //
+                dim);
+
+        return res;
+    }
+
     /**
      * Equates to calling {@link #iMax(int)} with argument {@code -1}.
      */
@@ -576,6 +637,21 @@ abstract public class AbstractRealArray<R extends AbstractRealArray<R, C>, C ext
         return res;
     }
 
+    /**
+     * Computes the result dimensions of top-k operations.
+     */
+    protected int[] topKDimensions(int dim, int k) {
+
+        int[] dims = this.dims.clone();
+
+        Control.checkTrue(dim >= 0 && dim < dims.length && k >= 0 && k <= dims[dim], //
+                "Invalid arguments");
+
+        dims[dim] = k;
+
+        return dims;
+    }
+
     /**
      * Supports the i* series of operations.
      */
@@ -376,6 +376,35 @@ public class ArrayBase {
         }
     }
 
+    /**
+     * A 64-bit counterpart of {@link #formatSparseArray(Formatter, String, String, Object, int[], int[])}.
+     */
+    final public static void formatSparseArray(Formatter f, String valueFormat, String indexFormat, //
+            Object values, long[] indices, long[] strides) {
+
+        int nDims = strides.length;
+
+        for (int i = 0, n = Control.checkEquals(Array.getLength(values), indices.length); i < n; i++) {
+
+            long physical = indices[i];
+
+            f.format("(");
+
+            for (int j = 0, m = nDims - 1; j < m; j++) {
+
+                f.format(indexFormat, physical / strides[j]);
+                f.format(",");
+
+                physical %= strides[j];
+            }
+
+            f.format(indexFormat, physical / strides[nDims - 1]);
+            f.format(")");
+            f.format(valueFormat, Array.get(values, i));
+            f.format("%n");
+        }
+    }
+
     /**
      * Computes the logical index from the given physical index and strides.
      * 
@@ -0,0 +1,597 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import static org.shared.array.kernel.ArrayKernel.RA_MAX;
+import static org.shared.array.kernel.ArrayKernel.RA_MIN;
+import static org.shared.array.kernel.ArrayKernel.RA_PROD;
+import static org.shared.array.kernel.ArrayKernel.RA_SUM;
+import static org.shared.array.kernel.ArrayKernel.RE_ADD;
+import static org.shared.array.kernel.ArrayKernel.RE_DIV;
+import static org.shared.array.kernel.ArrayKernel.RE_MAX;
+import static org.shared.array.kernel.ArrayKernel.RE_MIN;
+import static org.shared.array.kernel.ArrayKernel.RE_MUL;
+import static org.shared.array.kernel.ArrayKernel.RE_SUB;
+
+import java.util.Arrays;
+
+import org.shared.array.kernel.ElementOps;
+import org.shared.array.kernel.MappingOps;
+import org.shared.util.Control;
+
+/**
+ * A strided view over the backing values of a {@link ProtoArray}. A view consists of an offset and arbitrary, possibly
+ * negative, strides, so that operations like {@link #subarray(int...)}, {@link #transpose(int...)}, and
+ * {@link #reverse(int...)} only rewrite metadata and take constant time. Values are gathered in a single strided pass
+ * by {@link #copy()} upon demand.
+ * <p>
+ * Views have copy-on-write semantics: the first write through a view that shares its values with an array or another
+ * view first copies the viewed window into private storage, so that writes never propagate to the original array or to
+ * sibling views. Until then, a view observes changes made to the array it was created from. Views are not thread-safe.
+ * <p>
+ * Only a few operations read strided values in place: for views of real arrays, these are the binary elementwise
+ * operations {@link #eAdd(ArrayView)}, {@link #eSub(ArrayView)}, {@link #eMul(ArrayView)}, {@link #eDiv(ArrayView)},
+ * {@link #eMax(ArrayView)}, and {@link #eMin(ArrayView)}, as well as the accumulator operations {@link #aSum()},
+ * {@link #aProd()}, {@link #aMax()}, and {@link #aMin()}, all of which go through {@link ElementOps}. Everything else,
+ * including unary, dimension, and matrix operations and all operations of the native kernel, requires a dense array
+ * from {@link #copy()}.
+ * 
+ * @apiviz.uses org.shared.array.kernel.ElementOps
+ * @apiviz.uses org.shared.array.kernel.MappingOps
+ * @param <T>
+ *            the array type.
+ * @param <V>
+ *            the storage array type.
+ * @param <E>
+ *            the element type.
+ * @author Roy Liu
+ */
+public class ArrayView<T extends ProtoArray<T, V, E>, V, E> {
+
+    final T template;
+    final int[] dims;
+
+    V values;
+    int offset;
+    int[] strides;
+    boolean shared;
+
+    /**
+     * Default constructor.
+     */
+    protected ArrayView(T template, V values, int offset, int[] dims, int[] strides) {
+
+        this.template = template;
+        this.values = values;
+        this.offset = offset;
+        this.dims = dims;
+        this.strides = strides;
+        this.shared = true;
+    }
+
+    /**
+     * Gets a subview delimited by the given bounds.
+     * 
+     * @param bounds
+     *            the subview bounds as an array of two-tuples. Given the <code>i</code>th tuple, the first component is
+     *            the (inclusive) lower range and the second component is the (exclusive) upper range.
+     * @return the subview.
+     * @see Array#subarray(int...)
+     */
+    public ArrayView<T, V, E> subarray(int... bounds) {
+
+        int nDims = this.dims.length;
+
+        Control.checkTrue(nDims * 2 == bounds.length, //
+                "Invalid subarray bounds");
+
+        int newOffset = this.offset;
+        int[] newDims = new int[nDims];
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            int lower = bounds[2 * dim];
+            int upper = bounds[2 * dim + 1];
+
+            Control.checkTrue(lower >= 0 && lower <= upper && upper <= this.dims[dim], //
+                    "Invalid subarray bounds");
+
+            newDims[dim] = upper - lower;
+            newOffset += lower * this.strides[dim];
+        }
+
+        return derive(newOffset, newDims, this.strides.clone());
+    }
+
+    /**
+     * Transposes (permutes) the dimensions of this view.
+     * 
+     * @param permutation
+     *            the dimension permutation.
+     * @return the transposed view.
+     * @see Array#transpose(int...)
+     */
+    public ArrayView<T, V, E> transpose(int... permutation) {
+
+        int nDims = Control.checkEquals(this.dims.length, permutation.length, //
+                "Dimensionality mismatch");
+
+        int[] newDims = new int[nDims];
+        int[] newStrides = new int[nDims];
+        int[] copy = permutation.clone();
+
+        Arrays.sort(copy);
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            Control.checkTrue(copy[dim] == dim, //
+                    "Invalid permutation");
+        }
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            newDims[permutation[dim]] = this.dims[dim];
+            newStrides[permutation[dim]] = this.strides[dim];
+        }
+
+        return derive(this.offset, newDims, newStrides);
+    }
+
+    /**
+     * Reverses this view along the given dimensions.
+     * 
+     * @param opDims
+     *            the dimensions to reverse along.
+     * @return the reversed view.
+     * @see Array#reverse(int...)
+     */
+    public ArrayView<T, V, E> reverse(int... opDims) {
+
+        int nDims = this.dims.length;
+
+        boolean[] sentinel = new boolean[nDims];
+
+        for (int opDim : opDims) {
+
+            Control.checkTrue(opDim >= 0 && opDim < nDims, //
+                    "Invalid dimension");
+
+            sentinel[opDim] = true;
+        }
+
+        int newOffset = this.offset;
+        int[] newStrides = this.strides.clone();
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            if (sentinel[dim] && this.dims[dim] > 0) {
+
+                newOffset += (this.dims[dim] - 1) * newStrides[dim];
+                newStrides[dim] = -newStrides[dim];
+            }
+        }
+
+        return derive(newOffset, this.dims.clone(), newStrides);
+    }
+
+    /**
+     * Gathers the viewed values into a new array.
+     * 
+     * @return the new array.
+     */
+    public T copy() {
+
+        T dst = this.template.wrap(this.template.order, this.dims.clone(), this.template.order.strides(this.dims));
+
+        return copy(dst);
+    }
+
+    /**
+     * Gathers the viewed values into the given array.
+     * 
+     * @param dst
+     *            the destination array.
+     * @return the destination array.
+     */
+    public T copy(T dst) {
+
+        Control.checkTrue(Arrays.equals(this.dims, dst.dims), //
+                "Dimension mismatch");
+
+        MappingOps.copy(this.dims, //
+                this.values, this.offset, this.strides, //
+                dst.values, 0, dst.strides);
+
+        return dst;
+    }
+
+    /**
+     * Assigns the values of the given array to this view.
+     * 
+     * @param src
+     *            the source array.
+     * @return this view.
+     */
+    public ArrayView<T, V, E> assign(T src) {
+
+        Control.checkTrue(Arrays.equals(this.dims, src.dims), //
+                "Dimension mismatch");
+
+        detach();
+
+        MappingOps.copy(this.dims, //
+                src.values, 0, src.strides, //
+                this.values, this.offset, this.strides);
+
+        return this;
+    }
+
+    /**
+     * Gets the value at the given logical index of a view over {@link Object} storage.
+     * 
+     * @param s
+     *            the logical index.
+     * @return the value.
+     */
+    @SuppressWarnings("unchecked")
+    public E get(int... s) {
+        return ((E[]) objectValues())[physical(s)];
+    }
+
+    /**
+     * Sets the value at the given logical index of a view over {@link Object} storage.
+     * 
+     * @param value
+     *            the value.
+     * @param s
+     *            the logical index.
+     */
+    public void set(E value, int... s) {
+
+        objectValues();
+        detach();
+
+        ((Object[]) this.values)[physical(s)] = value;
+    }
+
+    /**
+     * Gets the value at the given logical index of a view over <code>double</code> storage.
+     * 
+     * @param s
+     *            the logical index.
+     * @return the value.
+     */
+    public double getDouble(int... s) {
+        return doubleValues()[physical(s)];
+    }
+
+    /**
+     * Sets the value at the given logical index of a view over <code>double</code> storage.
+     * 
+     * @param value
+     *            the value.
+     * @param s
+     *            the logical index.
+     */
+    public void setDouble(double value, int... s) {
+
+        doubleValues();
+        detach();
+
+        ((double[]) this.values)[physical(s)] = value;
+    }
+
+    /**
+     * Gets the value at the given logical index of a view over <code>int</code> storage.
+     * 
+     * @param s
+     *            the logical index.
+     * @return the value.
+     */
+    public int getInt(int... s) {
+        return intValues()[physical(s)];
+    }
+
+    /**
+     * Sets the value at the given logical index of a view over <code>int</code> storage.
+     * 
+     * @param value
+     *            the value.
+     * @param s
+     *            the logical index.
+     */
+    public void setInt(int value, int... s) {
+
+        intValues();
+        detach();
+
+        ((int[]) this.values)[physical(s)] = value;
+    }
+
+    /**
+     * Adds the given view to this view elementwise.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the result as a new array.
+     */
+    public T eAdd(ArrayView<T, V, E> rhs) {
+        return eOp(RE_ADD, rhs);
+    }
+
+    /**
+     * Subtracts the given view from this view elementwise.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the result as a new array.
+     */
+    public T eSub(ArrayView<T, V, E> rhs) {
+        return eOp(RE_SUB, rhs);
+    }
+
+    /**
+     * Multiplies this view by the given view elementwise.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the result as a new array.
+     */
+    public T eMul(ArrayView<T, V, E> rhs) {
+        return eOp(RE_MUL, rhs);
+    }
+
+    /**
+     * Divides this view by the given view elementwise.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the result as a new array.
+     */
+    public T eDiv(ArrayView<T, V, E> rhs) {
+        return eOp(RE_DIV, rhs);
+    }
+
+    /**
+     * Takes the elementwise maximum of this view and the given view.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the result as a new array.
+     */
+    public T eMax(ArrayView<T, V, E> rhs) {
+        return eOp(RE_MAX, rhs);
+    }
+
+    /**
+     * Takes the elementwise minimum of this view and the given view.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the result as a new array.
+     */
+    public T eMin(ArrayView<T, V, E> rhs) {
+        return eOp(RE_MIN, rhs);
+    }
+
+    /**
+     * Computes the sum over the viewed values.
+     * 
+     * @return the sum.
+     */
+    public double aSum() {
+        return ElementOps.raOp(RA_SUM, this.dims, realValues(), this.offset, this.strides);
+    }
+
+    /**
+     * Computes the product over the viewed values.
+     * 
+     * @return the product.
+     */
+    public double aProd() {
+        return ElementOps.raOp(RA_PROD, this.dims, realValues(), this.offset, this.strides);
+    }
+
+    /**
+     * Computes the maximum over the viewed values.
+     * 
+     * @return the maximum.
+     */
+    public double aMax() {
+        return ElementOps.raOp(RA_MAX, this.dims, realValues(), this.offset, this.strides);
+    }
+
+    /**
+     * Computes the minimum over the viewed values.
+     * 
+     * @return the minimum.
+     */
+    public double aMin() {
+        return ElementOps.raOp(RA_MIN, this.dims, realValues(), this.offset, this.strides);
+    }
+
+    /**
+     * Gets the backing values.
+     */
+    public V values() {
+        return this.values;
+    }
+
+    /**
+     * Gets the offset into the backing values.
+     */
+    public int offset() {
+        return this.offset;
+    }
+
+    /**
+     * Gets the size along the given dimension.
+     */
+    public int size(int i) {
+        return this.dims[i];
+    }
+
+    /**
+     * Gets the stride along the given dimension.
+     */
+    public int stride(int i) {
+        return this.strides[i];
+    }
+
+    /**
+     * Gets the number of dimensions.
+     */
+    public int nDims() {
+        return this.dims.length;
+    }
+
+    /**
+     * Gets the dimensions.
+     */
+    public int[] dims() {
+        return this.dims.clone();
+    }
+
+    /**
+     * Gets the strides.
+     */
+    public int[] strides() {
+        return this.strides.clone();
+    }
+
+    /**
+     * Creates a view that shares values with this view. Both views subsequently copy before writing.
+     */
+    protected ArrayView<T, V, E> derive(int newOffset, int[] newDims, int[] newStrides) {
+
+        this.shared = true;
+
+        return new ArrayView<T, V, E>(this.template, this.values, newOffset, newDims, newStrides);
+    }
+
+    /**
+     * Copies the viewed values into private storage if they are shared.
+     */
+    protected void detach() {
+
+        if (!this.shared) {
+            return;
+        }
+
+        T dst = copy();
+
+        this.values = dst.values;
+        this.offset = 0;
+        this.strides = dst.strides.clone();
+        this.shared = false;
+    }
+
+    /**
+     * Applies a real binary elementwise operation to this view and the given view, both read in place.
+     */
+    protected T eOp(int type, ArrayView<T, V, E> rhs) {
+
+        Control.checkTrue(Arrays.equals(this.dims, rhs.dims), //
+                "Dimension mismatch");
+
+        T dst = this.template.wrap(this.template.order, this.dims.clone(), this.template.order.strides(this.dims));
+
+        ElementOps.eOp(type, this.dims, //
+                realValues(), this.offset, this.strides, //
+                rhs.realValues(), rhs.offset, rhs.strides, //
+                (double[]) dst.values, 0, dst.strides);
+
+        return dst;
+    }
+
+    /**
+     * Gets the backing values of a view over a real array.
+     */
+    protected double[] realValues() {
+
+        Control.checkTrue(this.template instanceof AbstractRealArray<?, ?>, //
+                "Operation requires a view of a real array");
+
+        return (double[]) this.values;
+    }
+
+    /**
+     * Gets the backing values as a <code>double</code> array.
+     */
+    protected double[] doubleValues() {
+
+        Control.checkTrue(this.values instanceof double[], //
+                "Values are not of type double");
+
+        return (double[]) this.values;
+    }
+
+    /**
+     * Gets the backing values as an <code>int</code> array.
+     */
+    protected int[] intValues() {
+
+        Control.checkTrue(this.values instanceof int[], //
+                "Values are not of type int");
+
+        return (int[]) this.values;
+    }
+
+    /**
+     * Gets the backing values as an {@link Object} array.
+     */
+    protected Object[] objectValues() {
+
+        Control.checkTrue(this.values instanceof Object[], //
+                "Values are not of type Object");
+
+        return (Object[]) this.values;
+    }
+
+    /**
+     * Converts a logical index into a physical index.
+     */
+    protected int physical(int[] logical) {
+
+        int nDims = Control.checkEquals(this.dims.length, logical.length, //
+                "Dimensionality mismatch");
+
+        int index = this.offset;
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            Control.checkTrue(logical[dim] >= 0 && logical[dim] < this.dims[dim], //
+                    "Invalid index");
+
+            index += this.strides[dim] * logical[dim];
+        }
+
+        return index;
+    }
+}
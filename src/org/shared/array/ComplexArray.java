@@ -176,6 +176,12 @@ public class ComplexArray extends AbstractComplexArray<ComplexArray, RealArray>
                 + "singular value decompositions");
     }
 
+    @Override
+    public ComplexArray[] mSvd(int k) {
+        throw new UnsupportedOperationException("Complex matrices currently do not support " //
+                + "singular value decompositions");
+    }
+
     @Override
     public ComplexArray[] mEigs() {
         throw new UnsupportedOperationException("Complex matrices currently do not support eigenvalue decompositions");
@@ -185,4 +191,19 @@ public class ComplexArray extends AbstractComplexArray<ComplexArray, RealArray>
     public ComplexArray mInvert() {
         throw new UnsupportedOperationException("Complex matrices currently do not support inverses");
     }
+
+    @Override
+    public ComplexArray mSolve(ComplexArray rhs) {
+        throw new UnsupportedOperationException("Complex matrices currently do not support linear solves");
+    }
+
+    @Override
+    public ComplexArray mCholesky() {
+        throw new UnsupportedOperationException("Complex matrices currently do not support Cholesky decompositions");
+    }
+
+    @Override
+    public ComplexArray mCholeskySolve(ComplexArray rhs) {
+        throw new UnsupportedOperationException("Complex matrices currently do not support Cholesky decompositions");
+    }
 }
@@ -0,0 +1,336 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.ExpressionOps;
+
+/**
+ * A lazily evaluated chain of elementwise operations over {@link AbstractComplexArray}s. It is the complex counterpart
+ * of {@link RealExpression}.
+ * 
+ * @apiviz.uses org.shared.array.kernel.ExpressionOps
+ * @param <C>
+ *            the complex array type.
+ * @author Roy Liu
+ */
+public class ComplexExpression<C extends AbstractComplexArray<C, ?>> {
+
+    final C template;
+    final C leaf;
+    final ComplexExpression<C> lhs, rhs;
+    final int type;
+    final double aRe, aIm;
+    final int depth;
+
+    /**
+     * Creates an expression consisting of the given array.
+     */
+    protected ComplexExpression(C array) {
+
+        this.template = array;
+        this.leaf = array;
+        this.lhs = null;
+        this.rhs = null;
+        this.type = -1;
+        this.aRe = Double.NaN;
+        this.aIm = Double.NaN;
+        this.depth = 1;
+    }
+
+    /**
+     * Creates an expression that applies a unary operation.
+     */
+    protected ComplexExpression(ComplexExpression<C> operand, int type, double aRe, double aIm) {
+
+        this.template = operand.template;
+        this.leaf = null;
+        this.lhs = operand;
+        this.rhs = null;
+        this.type = type;
+        this.aRe = aRe;
+        this.aIm = aIm;
+        this.depth = operand.depth;
+    }
+
+    /**
+     * Creates an expression that applies a binary operation.
+     */
+    protected ComplexExpression(ComplexExpression<C> lhs, ComplexExpression<C> rhs, int type) {
+
+        lhs.template.checkShape(rhs.template);
+
+        this.template = lhs.template;
+        this.leaf = null;
+        this.lhs = lhs;
+        this.rhs = rhs;
+        this.type = type;
+        this.aRe = Double.NaN;
+        this.aIm = Double.NaN;
+        this.depth = Math.max(lhs.depth, rhs.depth + 1);
+    }
+
+    /**
+     * Records elementwise addition.
+     */
+    public ComplexExpression<C> eAdd(ComplexExpression<C> expr) {
+        return new ComplexExpression<C>(this, expr, ArrayKernel.CE_ADD);
+    }
+
+    /**
+     * Records elementwise subtraction.
+     */
+    public ComplexExpression<C> eSub(ComplexExpression<C> expr) {
+        return new ComplexExpression<C>(this, expr, ArrayKernel.CE_SUB);
+    }
+
+    /**
+     * Records elementwise multiplication.
+     */
+    public ComplexExpression<C> eMul(ComplexExpression<C> expr) {
+        return new ComplexExpression<C>(this, expr, ArrayKernel.CE_MUL);
+    }
+
+    /**
+     * Records elementwise division.
+     */
+    public ComplexExpression<C> eDiv(ComplexExpression<C> expr) {
+        return new ComplexExpression<C>(this, expr, ArrayKernel.CE_DIV);
+    }
+
+    /**
+     * Records elementwise addition.
+     */
+    public ComplexExpression<C> eAdd(C array) {
+        return eAdd(new ComplexExpression<C>(array));
+    }
+
+    /**
+     * Records elementwise subtraction.
+     */
+    public ComplexExpression<C> eSub(C array) {
+        return eSub(new ComplexExpression<C>(array));
+    }
+
+    /**
+     * Records elementwise multiplication.
+     */
+    public ComplexExpression<C> eMul(C array) {
+        return eMul(new ComplexExpression<C>(array));
+    }
+
+    /**
+     * Records elementwise division.
+     */
+    public ComplexExpression<C> eDiv(C array) {
+        return eDiv(new ComplexExpression<C>(array));
+    }
+
+    /**
+     * Records exponentiation of the elements to the base {@link Math#E}.
+     */
+    public ComplexExpression<C> uExp() {
+        return new ComplexExpression<C>(this, ArrayKernel.CU_EXP, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Records taking the complex conjugates of the elements.
+     */
+    public ComplexExpression<C> uConj() {
+        return new ComplexExpression<C>(this, ArrayKernel.CU_CONJ, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Records taking the cosine of the elements.
+     */
+    public ComplexExpression<C> uCos() {
+        return new ComplexExpression<C>(this, ArrayKernel.CU_COS, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Records taking the sine of the elements.
+     */
+    public ComplexExpression<C> uSin() {
+        return new ComplexExpression<C>(this, ArrayKernel.CU_SIN, Double.NaN, Double.NaN);
+    }
+
+    /**
+     * Records adding the argument to the elements.
+     */
+    public ComplexExpression<C> uAdd(double aRe, double aIm) {
+        return new ComplexExpression<C>(this, ArrayKernel.CU_ADD, aRe, aIm);
+    }
+
+    /**
+     * Records multiplying the elements by the argument.
+     */
+    public ComplexExpression<C> uMul(double aRe, double aIm) {
+        return new ComplexExpression<C>(this, ArrayKernel.CU_MUL, aRe, aIm);
+    }
+
+    /**
+     * Materializes this expression into a new array.
+     */
+    public C eval() {
+
+        C t = this.template;
+
+        return eval(t.wrap(t.parity, t.order, t.dims, t.strides));
+    }
+
+    /**
+     * Materializes this expression into the given array, which may also be a leaf of this expression.
+     * 
+     * @param dst
+     *            the destination array.
+     * @return the destination array.
+     */
+    public C eval(C dst) {
+
+        this.template.checkShape(dst);
+
+        Program p = new Program(this);
+
+        ExpressionOps.ceEval(p.instructions, p.leaves, p.scalars, this.depth, dst.values);
+
+        return dst;
+    }
+
+    /**
+     * Computes the sum over the elements.
+     */
+    public double[] aSum() {
+        return accumulate(ArrayKernel.CA_SUM);
+    }
+
+    /**
+     * Computes the product over the elements.
+     */
+    public double[] aProd() {
+        return accumulate(ArrayKernel.CA_PROD);
+    }
+
+    /**
+     * Computes the mean over the elements.
+     */
+    public double[] aMean() {
+
+        int len = this.template.values.length / 2;
+
+        double[] res = aSum();
+        res[0] /= len;
+        res[1] /= len;
+
+        return res;
+    }
+
+    /**
+     * Supports the a* series of operations.
+     */
+    protected double[] accumulate(int type) {
+
+        Program p = new Program(this);
+
+        return ExpressionOps.caEval(type, p.instructions, p.leaves, p.scalars, this.depth);
+    }
+
+    /**
+     * A compiled form of an expression suitable for {@link ExpressionOps}.
+     */
+    protected static class Program {
+
+        final int[] instructions;
+        final double[][] leaves;
+        final double[] scalars;
+
+        /**
+         * Default constructor.
+         */
+        protected Program(ComplexExpression<?> expr) {
+
+            List<Integer> instructions = new ArrayList<Integer>();
+            List<double[]> leaves = new ArrayList<double[]>();
+            List<Double> scalars = new ArrayList<Double>();
+
+            compile(expr, instructions, leaves, scalars);
+
+            this.instructions = new int[instructions.size()];
+
+            for (int i = 0, n = this.instructions.length; i < n; i++) {
+                this.instructions[i] = instructions.get(i);
+            }
+
+            this.leaves = leaves.toArray(new double[][] {});
+            this.scalars = new double[scalars.size()];
+
+            for (int i = 0, n = this.scalars.length; i < n; i++) {
+                this.scalars[i] = scalars.get(i);
+            }
+        }
+
+        /**
+         * Emits instructions for the given expression in postfix order.
+         */
+        protected static void compile(ComplexExpression<?> expr, //
+                List<Integer> instructions, List<double[]> leaves, List<Double> scalars) {
+
+            if (expr.leaf != null) {
+
+                instructions.add(ExpressionOps.LOAD);
+                instructions.add(-1);
+                instructions.add(leaves.size());
+
+                leaves.add(expr.leaf.values);
+
+            } else if (expr.rhs == null) {
+
+                compile(expr.lhs, instructions, leaves, scalars);
+
+                instructions.add(ExpressionOps.UNARY);
+                instructions.add(expr.type);
+                instructions.add(scalars.size());
+
+                scalars.add(expr.aRe);
+                scalars.add(expr.aIm);
+
+            } else {
+
+                compile(expr.lhs, instructions, leaves, scalars);
+                compile(expr.rhs, instructions, leaves, scalars);
+
+                instructions.add(ExpressionOps.BINARY);
+                instructions.add(expr.type);
+                instructions.add(-1);
+            }
+        }
+    }
+}
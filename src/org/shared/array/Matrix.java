@@ -69,6 +69,32 @@ public interface Matrix<T extends Matrix<T, E>, E> extends Array<T, E> {
      */
     public T mInvert();
 
+    /**
+     * Solves the system of linear equations with this matrix on the left hand side, without forming its inverse.
+     * 
+     * @param rhs
+     *            the right hand side, which may have multiple columns.
+     * @return the solution.
+     */
+    public T mSolve(T rhs);
+
+    /**
+     * Gets the lower triangular Cholesky factor of this symmetric, positive definite matrix.
+     * 
+     * @return the Cholesky factor.
+     */
+    public T mCholesky();
+
+    /**
+     * Solves the symmetric, positive definite system of linear equations with this matrix on the left hand side by way
+     * of its Cholesky factor.
+     * 
+     * @param rhs
+     *            the right hand side, which may have multiple columns.
+     * @return the solution.
+     */
+    public T mCholeskySolve(T rhs);
+
     /**
      * Gets the singular value decomposition of this matrix.
      * 
@@ -76,6 +102,16 @@ public interface Matrix<T extends Matrix<T, E>, E> extends Array<T, E> {
      */
     public T[] mSvd();
 
+    /**
+     * Gets a truncated singular value decomposition of this matrix by way of randomized range finding. Only the
+     * leading singular triplets are computed, and the full factor U is never formed.
+     * 
+     * @param k
+     *            the number of singular triplets.
+     * @return the matrices U, S, and V, whose inner dimensions are {@code k}.
+     */
+    public T[] mSvd(int k);
+
     /**
      * Gets the eigenvectors and eigenvalues of this matrix.
      * 
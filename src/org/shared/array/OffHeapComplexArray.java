@@ -0,0 +1,245 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import static org.shared.array.ArrayBase.DEFAULT_ORDER;
+
+import java.nio.DoubleBuffer;
+
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.OffHeapOps;
+import org.shared.util.Control;
+
+/**
+ * A multidimensional complex array class whose values live off the Java heap. As with {@link ComplexArray}, the last
+ * dimension has size two and holds the real and imaginary parts.
+ * 
+ * @apiviz.uses org.shared.array.kernel.OffHeapOps
+ * @author Roy Liu
+ */
+public class OffHeapComplexArray extends AbstractOffHeapArray<OffHeapComplexArray, DoubleBuffer> {
+
+    /**
+     * Default constructor.
+     */
+    public OffHeapComplexArray(int... dims) {
+        this(OffHeapOps.CHUNK_SIZE, dims);
+    }
+
+    /**
+     * Alternate constructor.
+     * 
+     * @param chunkSize
+     *            the number of values per chunk.
+     * @param dims
+     *            the dimensions.
+     */
+    public OffHeapComplexArray(int chunkSize, int[] dims) {
+        super(OffHeapOps.allocateDoubles(product(dims), chunkSize), chunkSize, DEFAULT_ORDER, dims.clone());
+
+        Control.checkTrue(dims.length >= 2 && dims[dims.length - 1] == 2, //
+                "Invalid dimensions");
+    }
+
+    /**
+     * Alternate constructor that copies the given array off the heap.
+     */
+    public OffHeapComplexArray(ComplexArray array) {
+        this(OffHeapOps.CHUNK_SIZE, array.dims);
+
+        OffHeapOps.copy(array.values(), chunks());
+    }
+
+    /**
+     * Copies this array onto the heap.
+     */
+    public ComplexArray toArray() {
+
+        ComplexArray res = new ComplexArray(this.dims);
+
+        checkHeapLength();
+        OffHeapOps.copy(chunks(), res.values());
+
+        return res;
+    }
+
+    /**
+     * Gets the value at the given logical index.
+     */
+    public double get(int... s) {
+
+        long physical = physical(s);
+
+        return chunk(physical).get(chunkOffset(physical));
+    }
+
+    /**
+     * Sets the value at the given logical index.
+     */
+    public void set(double value, int... s) {
+
+        long physical = physical(s);
+
+        chunk(physical).put(chunkOffset(physical), value);
+    }
+
+    /**
+     * Mutatively adds the argument to the elements.
+     */
+    public OffHeapComplexArray uAdd(double aRe, double aIm) {
+        return applyUnaryOperation(aRe, aIm, ArrayKernel.CU_ADD);
+    }
+
+    /**
+     * Mutatively multiplies the elements by the argument.
+     */
+    public OffHeapComplexArray uMul(double aRe, double aIm) {
+        return applyUnaryOperation(aRe, aIm, ArrayKernel.CU_MUL);
+    }
+
+    /**
+     * Mutatively exponentiates the elements to the base {@link Math#E}.
+     */
+    public OffHeapComplexArray uExp() {
+        return applyUnaryOperation(Double.NaN, Double.NaN, ArrayKernel.CU_EXP);
+    }
+
+    /**
+     * Mutatively takes the complex conjugates of the elements.
+     */
+    public OffHeapComplexArray uConj() {
+        return applyUnaryOperation(Double.NaN, Double.NaN, ArrayKernel.CU_CONJ);
+    }
+
+    /**
+     * Mutatively takes the cosine of the elements.
+     */
+    public OffHeapComplexArray uCos() {
+        return applyUnaryOperation(Double.NaN, Double.NaN, ArrayKernel.CU_COS);
+    }
+
+    /**
+     * Mutatively takes the sine of the elements.
+     */
+    public OffHeapComplexArray uSin() {
+        return applyUnaryOperation(Double.NaN, Double.NaN, ArrayKernel.CU_SIN);
+    }
+
+    /**
+     * Mutatively fills this array with the argument.
+     */
+    public OffHeapComplexArray uFill(double aRe, double aIm) {
+        return applyUnaryOperation(aRe, aIm, ArrayKernel.CU_FILL);
+    }
+
+    /**
+     * Mutatively randomizes the elements uniformly over the given ranges.
+     */
+    public OffHeapComplexArray uRnd(double aRe, double aIm) {
+        return applyUnaryOperation(aRe, aIm, ArrayKernel.CU_RND);
+    }
+
+    /**
+     * Computes the left elementwise addition.
+     */
+    public OffHeapComplexArray lAdd(OffHeapComplexArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.CE_ADD);
+    }
+
+    /**
+     * Computes the left elementwise subtraction.
+     */
+    public OffHeapComplexArray lSub(OffHeapComplexArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.CE_SUB);
+    }
+
+    /**
+     * Computes the left elementwise multiplication.
+     */
+    public OffHeapComplexArray lMul(OffHeapComplexArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.CE_MUL);
+    }
+
+    /**
+     * Computes the left elementwise division.
+     */
+    public OffHeapComplexArray lDiv(OffHeapComplexArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.CE_DIV);
+    }
+
+    /**
+     * Computes the sum over the elements.
+     */
+    public double[] aSum() {
+        return OffHeapOps.caOp(ArrayKernel.CA_SUM, chunks());
+    }
+
+    /**
+     * Computes the product over the elements.
+     */
+    public double[] aProd() {
+        return OffHeapOps.caOp(ArrayKernel.CA_PROD, chunks());
+    }
+
+    /**
+     * Computes the mean over the elements.
+     */
+    public double[] aMean() {
+
+        double[] res = aSum();
+        long n = this.length / 2;
+
+        res[0] /= n;
+        res[1] /= n;
+
+        return res;
+    }
+
+    /**
+     * Applies a unary operation in place.
+     */
+    protected OffHeapComplexArray applyUnaryOperation(double aRe, double aIm, int type) {
+
+        OffHeapOps.cuOp(type, aRe, aIm, chunks());
+
+        return this;
+    }
+
+    /**
+     * Applies a binary elementwise operation and stores the result in this array.
+     */
+    protected OffHeapComplexArray applyLeftElementwiseOperation(OffHeapComplexArray b, int type) {
+
+        checkShape(b);
+
+        OffHeapOps.eOp(type, chunks(), b.chunks(), chunks(), true);
+
+        return this;
+    }
+}
@@ -0,0 +1,194 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import static org.shared.array.ArrayBase.DEFAULT_ORDER;
+
+import java.nio.IntBuffer;
+
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.OffHeapOps;
+
+/**
+ * A multidimensional integer array class whose values live off the Java heap.
+ * 
+ * @apiviz.uses org.shared.array.kernel.OffHeapOps
+ * @author Roy Liu
+ */
+public class OffHeapIntegerArray extends AbstractOffHeapArray<OffHeapIntegerArray, IntBuffer> {
+
+    /**
+     * Default constructor.
+     */
+    public OffHeapIntegerArray(int... dims) {
+        this(OffHeapOps.CHUNK_SIZE, DEFAULT_ORDER, dims);
+    }
+
+    /**
+     * Alternate constructor.
+     */
+    public OffHeapIntegerArray(IndexingOrder order, int... dims) {
+        this(OffHeapOps.CHUNK_SIZE, order, dims);
+    }
+
+    /**
+     * Alternate constructor.
+     * 
+     * @param chunkSize
+     *            the number of values per chunk.
+     * @param order
+     *            the storage order.
+     * @param dims
+     *            the dimensions.
+     */
+    public OffHeapIntegerArray(int chunkSize, IndexingOrder order, int... dims) {
+        super(OffHeapOps.allocateInts(product(dims), chunkSize), chunkSize, order, dims.clone());
+    }
+
+    /**
+     * Alternate constructor that copies the given array off the heap.
+     */
+    public OffHeapIntegerArray(IntegerArray array) {
+        this(OffHeapOps.CHUNK_SIZE, array.order(), array.dims);
+
+        OffHeapOps.copy(array.values(), chunks());
+    }
+
+    /**
+     * Copies this array onto the heap.
+     */
+    public IntegerArray toArray() {
+
+        IntegerArray res = new IntegerArray(this.order, this.dims);
+
+        checkHeapLength();
+        OffHeapOps.copy(chunks(), res.values());
+
+        return res;
+    }
+
+    /**
+     * Gets the value at the given logical index.
+     */
+    public int get(int... s) {
+
+        long physical = physical(s);
+
+        return chunk(physical).get(chunkOffset(physical));
+    }
+
+    /**
+     * Sets the value at the given logical index.
+     */
+    public void set(int value, int... s) {
+
+        long physical = physical(s);
+
+        chunk(physical).put(chunkOffset(physical), value);
+    }
+
+    /**
+     * Mutatively adds the argument to the elements.
+     */
+    public OffHeapIntegerArray uAdd(int a) {
+        return applyUnaryOperation(a, ArrayKernel.IU_ADD);
+    }
+
+    /**
+     * Mutatively multiplies the elements by the argument.
+     */
+    public OffHeapIntegerArray uMul(int a) {
+        return applyUnaryOperation(a, ArrayKernel.IU_MUL);
+    }
+
+    /**
+     * Mutatively fills this array with the argument.
+     */
+    public OffHeapIntegerArray uFill(int a) {
+        return applyUnaryOperation(a, ArrayKernel.IU_FILL);
+    }
+
+    /**
+     * Computes the left elementwise addition.
+     */
+    public OffHeapIntegerArray lAdd(OffHeapIntegerArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.IE_ADD);
+    }
+
+    /**
+     * Computes the left elementwise subtraction.
+     */
+    public OffHeapIntegerArray lSub(OffHeapIntegerArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.IE_SUB);
+    }
+
+    /**
+     * Computes the left elementwise multiplication.
+     */
+    public OffHeapIntegerArray lMul(OffHeapIntegerArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.IE_MUL);
+    }
+
+    /**
+     * Computes the left elementwise maximum.
+     */
+    public OffHeapIntegerArray lMax(OffHeapIntegerArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.IE_MAX);
+    }
+
+    /**
+     * Computes the left elementwise minimum.
+     */
+    public OffHeapIntegerArray lMin(OffHeapIntegerArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.IE_MIN);
+    }
+
+    /**
+     * Applies a unary operation in place.
+     */
+    protected OffHeapIntegerArray applyUnaryOperation(int a, int type) {
+
+        OffHeapOps.iuOp(type, a, chunks());
+
+        return this;
+    }
+
+    /**
+     * Applies a binary elementwise operation and stores the result in this array.
+     */
+    protected OffHeapIntegerArray applyLeftElementwiseOperation(OffHeapIntegerArray b, int type) {
+
+        checkShape(b);
+
+        OffHeapOps.eOp(type, chunks(), b.chunks(), chunks());
+
+        return this;
+    }
+}
@@ -0,0 +1,313 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import static org.shared.array.ArrayBase.DEFAULT_ORDER;
+
+import java.nio.DoubleBuffer;
+
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.OffHeapOps;
+
+/**
+ * A multidimensional real array class whose values live off the Java heap.
+ * 
+ * @apiviz.uses org.shared.array.kernel.OffHeapOps
+ * @author Roy Liu
+ */
+public class OffHeapRealArray extends AbstractOffHeapArray<OffHeapRealArray, DoubleBuffer> {
+
+    /**
+     * Default constructor.
+     */
+    public OffHeapRealArray(int... dims) {
+        this(OffHeapOps.CHUNK_SIZE, DEFAULT_ORDER, dims);
+    }
+
+    /**
+     * Alternate constructor.
+     */
+    public OffHeapRealArray(IndexingOrder order, int... dims) {
+        this(OffHeapOps.CHUNK_SIZE, order, dims);
+    }
+
+    /**
+     * Alternate constructor.
+     * 
+     * @param chunkSize
+     *            the number of values per chunk.
+     * @param order
+     *            the storage order.
+     * @param dims
+     *            the dimensions.
+     */
+    public OffHeapRealArray(int chunkSize, IndexingOrder order, int... dims) {
+        super(OffHeapOps.allocateDoubles(product(dims), chunkSize), chunkSize, order, dims.clone());
+    }
+
+    /**
+     * Alternate constructor that copies the given array off the heap.
+     */
+    public OffHeapRealArray(RealArray array) {
+        this(OffHeapOps.CHUNK_SIZE, array.order(), array.dims);
+
+        OffHeapOps.copy(array.values(), chunks());
+    }
+
+    /**
+     * Copies this array onto the heap.
+     */
+    public RealArray toArray() {
+
+        RealArray res = new RealArray(this.order, this.dims);
+
+        checkHeapLength();
+        OffHeapOps.copy(chunks(), res.values());
+
+        return res;
+    }
+
+    /**
+     * Gets the value at the given logical index.
+     */
+    public double get(int... s) {
+
+        long physical = physical(s);
+
+        return chunk(physical).get(chunkOffset(physical));
+    }
+
+    /**
+     * Sets the value at the given logical index.
+     */
+    public void set(double value, int... s) {
+
+        long physical = physical(s);
+
+        chunk(physical).put(chunkOffset(physical), value);
+    }
+
+    /**
+     * Mutatively adds the argument to the elements.
+     */
+    public OffHeapRealArray uAdd(double a) {
+        return applyUnaryOperation(a, ArrayKernel.RU_ADD);
+    }
+
+    /**
+     * Mutatively multiplies the elements by the argument.
+     */
+    public OffHeapRealArray uMul(double a) {
+        return applyUnaryOperation(a, ArrayKernel.RU_MUL);
+    }
+
+    /**
+     * Mutatively raises the elements to the power of the argument.
+     */
+    public OffHeapRealArray uPow(double a) {
+        return applyUnaryOperation(a, ArrayKernel.RU_POW);
+    }
+
+    /**
+     * Mutatively exponentiates the elements to the base {@link Math#E}.
+     */
+    public OffHeapRealArray uExp() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_EXP);
+    }
+
+    /**
+     * Mutatively takes the natural logarithm of the elements.
+     */
+    public OffHeapRealArray uLog() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_LOG);
+    }
+
+    /**
+     * Mutatively takes the square root of the elements.
+     */
+    public OffHeapRealArray uSqrt() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_SQRT);
+    }
+
+    /**
+     * Mutatively squares the elements.
+     */
+    public OffHeapRealArray uSqr() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_SQR);
+    }
+
+    /**
+     * Mutatively takes the multiplicative inverse of the elements.
+     */
+    public OffHeapRealArray uInv(double a) {
+        return applyUnaryOperation(a, ArrayKernel.RU_INV);
+    }
+
+    /**
+     * Mutatively takes the absolute value of the elements.
+     */
+    public OffHeapRealArray uAbs() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_ABS);
+    }
+
+    /**
+     * Mutatively takes the cosine of the elements.
+     */
+    public OffHeapRealArray uCos() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_COS);
+    }
+
+    /**
+     * Mutatively takes the sine of the elements.
+     */
+    public OffHeapRealArray uSin() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_SIN);
+    }
+
+    /**
+     * Mutatively takes the arctangent of the elements.
+     */
+    public OffHeapRealArray uAtan() {
+        return applyUnaryOperation(Double.NaN, ArrayKernel.RU_ATAN);
+    }
+
+    /**
+     * Mutatively fills this array with the argument.
+     */
+    public OffHeapRealArray uFill(double a) {
+        return applyUnaryOperation(a, ArrayKernel.RU_FILL);
+    }
+
+    /**
+     * Mutatively randomizes the elements uniformly over the given range.
+     */
+    public OffHeapRealArray uRnd(double a) {
+        return applyUnaryOperation(a, ArrayKernel.RU_RND);
+    }
+
+    /**
+     * Computes the left elementwise addition.
+     */
+    public OffHeapRealArray lAdd(OffHeapRealArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.RE_ADD);
+    }
+
+    /**
+     * Computes the left elementwise subtraction.
+     */
+    public OffHeapRealArray lSub(OffHeapRealArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.RE_SUB);
+    }
+
+    /**
+     * Computes the left elementwise multiplication.
+     */
+    public OffHeapRealArray lMul(OffHeapRealArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.RE_MUL);
+    }
+
+    /**
+     * Computes the left elementwise division.
+     */
+    public OffHeapRealArray lDiv(OffHeapRealArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.RE_DIV);
+    }
+
+    /**
+     * Computes the left elementwise maximum.
+     */
+    public OffHeapRealArray lMax(OffHeapRealArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.RE_MAX);
+    }
+
+    /**
+     * Computes the left elementwise minimum.
+     */
+    public OffHeapRealArray lMin(OffHeapRealArray array) {
+        return applyLeftElementwiseOperation(array, ArrayKernel.RE_MIN);
+    }
+
+    /**
+     * Computes the sum over the elements.
+     */
+    public double aSum() {
+        return OffHeapOps.raOp(ArrayKernel.RA_SUM, chunks());
+    }
+
+    /**
+     * Computes the product over the elements.
+     */
+    public double aProd() {
+        return OffHeapOps.raOp(ArrayKernel.RA_PROD, chunks());
+    }
+
+    /**
+     * Computes the maximum over the elements.
+     */
+    public double aMax() {
+        return OffHeapOps.raOp(ArrayKernel.RA_MAX, chunks());
+    }
+
+    /**
+     * Computes the minimum over the elements.
+     */
+    public double aMin() {
+        return OffHeapOps.raOp(ArrayKernel.RA_MIN, chunks());
+    }
+
+    /**
+     * Computes the mean over the elements.
+     */
+    public double aMean() {
+        return aSum() / this.length;
+    }
+
+    /**
+     * Applies a unary operation in place.
+     */
+    protected OffHeapRealArray applyUnaryOperation(double a, int type) {
+
+        OffHeapOps.ruOp(type, a, chunks());
+
+        return this;
+    }
+
+    /**
+     * Applies a binary elementwise operation and stores the result in this array.
+     */
+    protected OffHeapRealArray applyLeftElementwiseOperation(OffHeapRealArray b, int type) {
+
+        checkShape(b);
+
+        OffHeapOps.eOp(type, chunks(), b.chunks(), chunks(), false);
+
+        return this;
+    }
+}
@@ -40,6 +40,7 @@ import org.shared.util.Control;
  * An abstract, primordial base class for all multidimensional arrays. Supports operations like mapping, slicing,
  * tiling, shifting, transposition of dimensions, and storage order reversals.
  * 
+ * @apiviz.uses org.shared.array.ArrayView
  * @param <T>
  *            the parameterization lower bounded by {@link ProtoArray} itself.
  * @param <V>
@@ -126,6 +127,18 @@ abstract public class ProtoArray<T extends ProtoArray<T, V, E>, V, E> implements
         return this.values;
     }
 
+    /**
+     * Creates a strided, copy-on-write view of this array. Whereas {@link #subarray(int...)},
+     * {@link #transpose(int...)}, and {@link #reverse(int...)} of this array copy, those of the view only rewrite
+     * metadata. The view supports a limited set of operations on strided values; see {@link ArrayView}.
+     * 
+     * @return the view.
+     */
+    @SuppressWarnings("unchecked")
+    public ArrayView<T, V, E> view() {
+        return new ArrayView<T, V, E>((T) this, this.values, 0, this.dims.clone(), this.strides.clone());
+    }
+
     /**
      * Converts a logical index into a physical index.
      */
@@ -32,6 +32,8 @@ import static org.shared.array.ArrayBase.DEFAULT_ORDER;
 import static org.shared.array.ArrayBase.ioKernel;
 import static org.shared.array.ArrayBase.opKernel;
 
+import org.shared.array.kernel.BatchOps;
+import org.shared.array.kernel.LinearAlgebraOps;
 import org.shared.util.Arithmetic;
 import org.shared.util.Arrays;
 import org.shared.util.Control;
@@ -217,6 +219,60 @@ public class RealArray extends AbstractRealArray<RealArray, ComplexArray> implem
         return !transpose ? new RealArray[] { u, s, v } : new RealArray[] { v, s, u };
     }
 
+    @Override
+    public RealArray[] mSvd(int k) {
+
+        RealArray a = this;
+
+        a.checkMatrixOrder();
+
+        Control.checkTrue(a.dims.length == 2, //
+                "Array must have exactly two dimensions");
+
+        int nRows = a.dims[0];
+        int nCols = a.dims[1];
+
+        Control.checkTrue(k > 0 && k <= Math.min(nRows, nCols), //
+                "Invalid number of singular triplets");
+
+        int nSamples = Math.min(k + LinearAlgebraOps.SVD_OVERSAMPLING, Math.min(nRows, nCols));
+
+        RealArray omega = new RealArray(nCols, nSamples);
+        double[] omegaValues = omega.values;
+
+        for (int i = 0, n = omegaValues.length; i < n; i++) {
+            omegaValues[i] = Arithmetic.nextGaussian(1.0);
+        }
+
+        // Find an orthonormal basis for the range, stored row-wise, and sharpen it with subspace iterations.
+
+        RealArray qT = a.mMul(omega).mTranspose();
+
+        LinearAlgebraOps.orthonormalizeRows(qT.values, nSamples, nRows);
+
+        for (int i = 0; i < LinearAlgebraOps.SVD_POWER_ITERATIONS; i++) {
+
+            RealArray zT = qT.mMul(a);
+
+            LinearAlgebraOps.orthonormalizeRows(zT.values, nSamples, nCols);
+
+            qT = a.mMul(zT.mTranspose()).mTranspose();
+
+            LinearAlgebraOps.orthonormalizeRows(qT.values, nSamples, nRows);
+        }
+
+        // Project onto the basis and decompose the resulting small matrix.
+
+        RealArray[] svds = qT.mMul(a).mSvd();
+
+        return new RealArray[] {
+                //
+                qT.mTranspose().mMul(svds[0].subarray(0, nSamples, 0, k)), //
+                svds[1].subarray(0, k, 0, k), //
+                svds[2].subarray(0, nCols, 0, k) //
+        };
+    }
+
     @Override
     public RealArray[] mEigs() {
 
@@ -238,29 +294,156 @@ public class RealArray extends AbstractRealArray<RealArray, ComplexArray> implem
 
         RealArray eigValueMatrix = new RealArray(size, size);
 
+        assignEigenvalues(eigValues, 0, eigValueMatrix.values, 0, size);
+
+        return new RealArray[] { eigVectors, eigValueMatrix };
+    }
+
+    /**
+     * Lays out eigenvalues as a block diagonal matrix, where complex conjugate pairs occupy {@code 2x2} blocks.
+     */
+    final protected static void assignEigenvalues(double[] eigValues, int eigOffset, //
+            double[] dstV, int dstOffset, int size) {
+
         for (int i = 0, n = 2 * size; i < n; i += 2) {
 
             int dim = i >>> 1;
 
+            double re = eigValues[eigOffset + i];
+            double im = eigValues[eigOffset + i + 1];
+
             if (i < n - 2 //
-                    && eigValues[i] == eigValues[i + 2] //
-                    && eigValues[i + 1] > 0 //
-                    && eigValues[i + 3] < 0) {
+                    && re == eigValues[eigOffset + i + 2] //
+                    && im > 0 //
+                    && eigValues[eigOffset + i + 3] < 0) {
 
-                eigValueMatrix.set(eigValues[i], dim, dim);
-                eigValueMatrix.set(eigValues[i + 1], dim, dim + 1);
-                eigValueMatrix.set(eigValues[i + 2], dim + 1, dim + 1);
-                eigValueMatrix.set(eigValues[i + 3], dim + 1, dim);
+                dstV[dstOffset + size * dim + dim] = re;
+                dstV[dstOffset + size * dim + dim + 1] = im;
+                dstV[dstOffset + size * (dim + 1) + dim + 1] = eigValues[eigOffset + i + 2];
+                dstV[dstOffset + size * (dim + 1) + dim] = eigValues[eigOffset + i + 3];
 
                 i += 2;
 
             } else {
 
-                eigValueMatrix.set(eigValues[i], dim, dim);
+                dstV[dstOffset + size * dim + dim] = re;
             }
         }
+    }
 
-        return new RealArray[] { eigVectors, eigValueMatrix };
+    /**
+     * Multiplies each matrix in this batch, stored along the leading dimension, with its counterpart in another.
+     * 
+     * @param rhs
+     *            the right hand side batch.
+     * @return the batch of products.
+     */
+    public RealArray mMulBatch(RealArray rhs) {
+
+        RealArray a = this;
+
+        a.checkBatch();
+        rhs.checkBatch();
+
+        int nBatch = Control.checkEquals(a.dims[0], rhs.dims[0], //
+                "Dimensionality mismatch");
+
+        int nInner = Control.checkEquals(a.dims[2], rhs.dims[1], //
+                "Dimensionality mismatch");
+
+        RealArray res = new RealArray(DEFAULT_ORDER, nBatch, a.dims[1], rhs.dims[2]);
+
+        BatchOps.mul(a.values, rhs.values, res.values, nBatch, a.dims[1], nInner, rhs.dims[2]);
+
+        return res;
+    }
+
+    /**
+     * Inverts each matrix in this batch, stored along the leading dimension.
+     * 
+     * @return the batch of inverses.
+     */
+    public RealArray mInvertBatch() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareBatch();
+
+        RealArray res = new RealArray(DEFAULT_ORDER, a.dims);
+
+        BatchOps.invert(a.values, res.values, a.dims[0], size);
+
+        return res;
+    }
+
+    /**
+     * Gets the eigenvectors and eigenvalues of each matrix in this batch, stored along the leading dimension, as per
+     * {@link #mEigs()}.
+     * 
+     * @return the batches of eigenvectors and eigenvalues.
+     */
+    public RealArray[] mEigsBatch() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareBatch();
+        int nBatch = a.dims[0];
+
+        RealArray eigVectors = new RealArray(DEFAULT_ORDER, a.dims);
+        RealArray eigValueMatrices = new RealArray(DEFAULT_ORDER, a.dims);
+
+        double[] eigValues = new double[2 * size * nBatch];
+
+        BatchOps.eigs(a.values, eigVectors.values, eigValues, nBatch, size);
+
+        for (int b = 0; b < nBatch; b++) {
+            assignEigenvalues(eigValues, 2 * size * b, eigValueMatrices.values, size * size * b, size);
+        }
+
+        return new RealArray[] { eigVectors, eigValueMatrices };
+    }
+
+    /**
+     * Gets the lower triangular Cholesky factor of each symmetric, positive definite matrix in this batch, stored
+     * along the leading dimension.
+     * 
+     * @return the batch of Cholesky factors.
+     */
+    public RealArray mCholeskyBatch() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareBatch();
+
+        RealArray res = new RealArray(DEFAULT_ORDER, a.dims);
+
+        BatchOps.cholesky(a.values, res.values, a.dims[0], size);
+
+        return res;
+    }
+
+    /**
+     * Checks that this array is a batch of matrices in row major order.
+     */
+    protected void checkBatch() {
+
+        checkMatrixOrder();
+
+        Control.checkTrue(this.dims.length == 3, //
+                "Array must have exactly three dimensions");
+    }
+
+    /**
+     * Checks that this array is a batch of square matrices in row major order.
+     * 
+     * @return the matrix size.
+     */
+    protected int checkSquareBatch() {
+
+        checkBatch();
+
+        return Control.checkEquals(this.dims[1], this.dims[2], //
+                "Dimensionality mismatch");
     }
 
     @Override
@@ -283,6 +466,261 @@ public class RealArray extends AbstractRealArray<RealArray, ComplexArray> implem
         return res;
     }
 
+    @Override
+    public RealArray mSolve(RealArray rhs) {
+
+        RealArray a = this;
+
+        int size = a.checkSquareMatrix();
+
+        rhs.checkMatrixOrder();
+
+        Control.checkTrue(rhs.dims.length == 2, //
+                "Array must have exactly two dimensions");
+
+        Control.checkEquals(size, rhs.dims[0], //
+                "Dimensionality mismatch");
+
+        int nCols = rhs.dims[1];
+
+        double[] luV = new double[size * size];
+        int[] pivots = new int[size];
+
+        opKernel.lu(a.values, luV, pivots, size);
+
+        RealArray res = new RealArray(DEFAULT_ORDER, size, nCols);
+
+        opKernel.luSolve(luV, pivots, rhs.values, res.values, size, nCols, false);
+
+        return res;
+    }
+
+    @Override
+    public RealArray mCholesky() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareMatrix();
+
+        RealArray res = new RealArray(DEFAULT_ORDER, size, size);
+
+        opKernel.cholesky(a.values, res.values, size);
+
+        return res;
+    }
+
+    @Override
+    public RealArray mCholeskySolve(RealArray rhs) {
+
+        RealArray a = this;
+
+        int size = a.checkSquareMatrix();
+
+        rhs.checkMatrixOrder();
+
+        Control.checkTrue(rhs.dims.length == 2, //
+                "Array must have exactly two dimensions");
+
+        Control.checkEquals(size, rhs.dims[0], //
+                "Dimensionality mismatch");
+
+        int nCols = rhs.dims[1];
+
+        double[] lV = new double[size * size];
+
+        opKernel.cholesky(a.values, lV, size);
+
+        RealArray res = new RealArray(DEFAULT_ORDER, size, nCols);
+
+        opKernel.choleskySolve(lV, rhs.values, res.values, size, nCols);
+
+        return res;
+    }
+
+    /**
+     * Computes the logarithm of the determinant of this symmetric, positive definite matrix from its Cholesky factor.
+     * Unlike {@link #mDet()}, the result does not overflow for large matrices.
+     * 
+     * @return the log-determinant.
+     */
+    public double mCholeskyLogDet() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareMatrix();
+
+        double[] lV = new double[size * size];
+
+        opKernel.cholesky(a.values, lV, size);
+
+        double acc = 0.0;
+
+        for (int i = 0; i < size; i++) {
+            acc += Math.log(lV[size * i + i]);
+        }
+
+        return 2.0 * acc;
+    }
+
+    /**
+     * Computes the determinant of this matrix from its LU decomposition.
+     * 
+     * @return the determinant.
+     */
+    public double mDet() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareMatrix();
+
+        double[] luV = new double[size * size];
+        int[] pivots = new int[size];
+
+        opKernel.lu(a.values, luV, pivots, size);
+
+        double det = 1.0;
+
+        for (int i = 0; i < size; i++) {
+            det *= luV[size * i + i];
+        }
+
+        // Negate for every transposition in the row permutation.
+        boolean[] visited = new boolean[size];
+
+        for (int i = 0; i < size; i++) {
+
+            if (visited[i]) {
+                continue;
+            }
+
+            for (int j = pivots[i]; j != i; j = pivots[j]) {
+
+                visited[j] = true;
+                det = -det;
+            }
+
+            visited[i] = true;
+        }
+
+        return det;
+    }
+
+    /**
+     * Estimates the {@code 1}-norm condition number of this matrix from its LU decomposition, as per Hager's method
+     * with Higham's refinements. Only a handful of triangular solves are needed, rather than the full inverse.
+     * 
+     * @return the condition number estimate, or {@link Double#POSITIVE_INFINITY} if this matrix is singular.
+     */
+    public double mCond() {
+
+        RealArray a = this;
+
+        int size = a.checkSquareMatrix();
+
+        double[] luV = new double[size * size];
+        int[] pivots = new int[size];
+
+        opKernel.lu(a.values, luV, pivots, size);
+
+        for (int i = 0; i < size; i++) {
+
+            if (luV[size * i + i] == 0.0) {
+                return Double.POSITIVE_INFINITY;
+            }
+        }
+
+        double norm = 0.0;
+
+        for (int j = 0; j < size; j++) {
+
+            double sum = 0.0;
+
+            for (int i = 0; i < size; i++) {
+                sum += Math.abs(a.values[size * i + j]);
+            }
+
+            norm = Math.max(norm, sum);
+        }
+
+        double[] x = new double[size];
+        double[] y = new double[size];
+        double[] z = new double[size];
+
+        for (int i = 0; i < size; i++) {
+            x[i] = 1.0 / size;
+        }
+
+        double estimate = 0.0;
+
+        for (int iter = 0, prev = -1; iter < 5; iter++) {
+
+            opKernel.luSolve(luV, pivots, x, y, size, 1, false);
+
+            estimate = 0.0;
+
+            for (int i = 0; i < size; i++) {
+
+                estimate += Math.abs(y[i]);
+                y[i] = (y[i] >= 0.0) ? 1.0 : -1.0;
+            }
+
+            opKernel.luSolve(luV, pivots, y, z, size, 1, true);
+
+            int argmax = 0;
+            double zx = 0.0;
+
+            for (int i = 0; i < size; i++) {
+
+                zx += z[i] * x[i];
+
+                if (Math.abs(z[i]) > Math.abs(z[argmax])) {
+                    argmax = i;
+                }
+            }
+
+            if ((iter > 0 && Math.abs(z[argmax]) <= zx) || argmax == prev) {
+                break;
+            }
+
+            for (int i = 0; i < size; i++) {
+                x[i] = (i == argmax) ? 1.0 : 0.0;
+            }
+
+            prev = argmax;
+        }
+
+        // Guard against underestimates with an alternating, linearly growing right hand side.
+        for (int i = 0; i < size; i++) {
+            x[i] = ((i % 2 == 0) ? 1.0 : -1.0) * (1.0 + (size > 1 ? (double) i / (size - 1) : 0.0));
+        }
+
+        opKernel.luSolve(luV, pivots, x, y, size, 1, false);
+
+        double alternate = 0.0;
+
+        for (int i = 0; i < size; i++) {
+            alternate += Math.abs(y[i]);
+        }
+
+        return norm * Math.max(estimate, 2.0 * alternate / (3.0 * size));
+    }
+
+    /**
+     * Checks that this array is a square matrix in row major order.
+     * 
+     * @return the matrix size.
+     */
+    protected int checkSquareMatrix() {
+
+        checkMatrixOrder();
+
+        Control.checkTrue(this.dims.length == 2, //
+                "Array must have exactly two dimensions");
+
+        return Control.checkEquals(this.dims[0], this.dims[1], //
+                "Dimensionality mismatch");
+    }
+
     @Override
     public byte[] getBytes() {
         return ioKernel.getBytes(this);
@@ -0,0 +1,506 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array;
+
+import static org.shared.array.AbstractArray.INVALID_PARITY;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.ExpressionOps;
+import org.shared.util.Arithmetic;
+import org.shared.util.Control;
+
+/**
+ * A lazily evaluated chain of elementwise operations over {@link AbstractRealArray}s. Operations are recorded instead
+ * of executed, and they are fused into a single pass over memory upon materialization with {@link #eval()} or upon
+ * accumulation with, for example, {@link #aSum()}. Thus, an expression like
+ * 
+ * <pre>
+ * a.lazy().eSub(b).uSqr().eAdd(c).uSqrt().eval()
+ * </pre>
+ * 
+ * allocates only its result. A leaf created with {@link AbstractRealArray#lazy(int...)} broadcasts an array along its
+ * singleton dimensions, so that, for example, a column may be combined with a row without tiling either. Expressions
+ * are immutable and may be shared. They are evaluated in pure Java by {@link ExpressionOps}.
+ * 
+ * @apiviz.uses org.shared.array.kernel.ExpressionOps
+ * @param <R>
+ *            the real array type.
+ * @author Roy Liu
+ */
+public class RealExpression<R extends AbstractRealArray<R, ?>> {
+
+    final R template;
+    final R leaf;
+    final RealExpression<R> lhs, rhs;
+    final int type;
+    final double a;
+    final int depth;
+    final int[] dims;
+    final int[] strides;
+
+    /**
+     * Creates an expression consisting of the given array.
+     */
+    protected RealExpression(R array) {
+
+        this.template = array;
+        this.leaf = array;
+        this.lhs = null;
+        this.rhs = null;
+        this.type = -1;
+        this.a = Double.NaN;
+        this.depth = 1;
+        this.dims = array.dims;
+        this.strides = null;
+    }
+
+    /**
+     * Creates an expression consisting of the given array broadcast to the given dimensions.
+     */
+    protected RealExpression(R array, int[] dims) {
+
+        int nDims = Control.checkEquals(array.dims.length, dims.length, //
+                "Dimensionality mismatch");
+
+        int[] strides = new int[nDims];
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            Control.checkTrue(array.dims[dim] == dims[dim] || array.dims[dim] == 1, //
+                    "Dimensions are not broadcastable");
+
+            strides[dim] = (array.dims[dim] == 1) ? 0 : array.strides[dim];
+        }
+
+        this.template = array;
+        this.leaf = array;
+        this.lhs = null;
+        this.rhs = null;
+        this.type = -1;
+        this.a = Double.NaN;
+        this.depth = 1;
+        this.dims = dims.clone();
+        this.strides = strides;
+    }
+
+    /**
+     * Creates an expression that applies a unary operation.
+     */
+    protected RealExpression(RealExpression<R> operand, int type, double a) {
+
+        this.template = operand.template;
+        this.leaf = null;
+        this.lhs = operand;
+        this.rhs = null;
+        this.type = type;
+        this.a = a;
+        this.depth = operand.depth;
+        this.dims = operand.dims;
+        this.strides = null;
+    }
+
+    /**
+     * Creates an expression that applies a binary operation.
+     */
+    protected RealExpression(RealExpression<R> lhs, RealExpression<R> rhs, int type) {
+
+        lhs.checkShape(rhs.template.order, rhs.dims);
+
+        this.template = lhs.template;
+        this.leaf = null;
+        this.lhs = lhs;
+        this.rhs = rhs;
+        this.type = type;
+        this.a = Double.NaN;
+        this.depth = Math.max(lhs.depth, rhs.depth + 1);
+        this.dims = lhs.dims;
+        this.strides = null;
+    }
+
+    /**
+     * Records elementwise addition.
+     */
+    public RealExpression<R> eAdd(RealExpression<R> expr) {
+        return new RealExpression<R>(this, expr, ArrayKernel.RE_ADD);
+    }
+
+    /**
+     * Records elementwise subtraction.
+     */
+    public RealExpression<R> eSub(RealExpression<R> expr) {
+        return new RealExpression<R>(this, expr, ArrayKernel.RE_SUB);
+    }
+
+    /**
+     * Records elementwise multiplication.
+     */
+    public RealExpression<R> eMul(RealExpression<R> expr) {
+        return new RealExpression<R>(this, expr, ArrayKernel.RE_MUL);
+    }
+
+    /**
+     * Records elementwise division.
+     */
+    public RealExpression<R> eDiv(RealExpression<R> expr) {
+        return new RealExpression<R>(this, expr, ArrayKernel.RE_DIV);
+    }
+
+    /**
+     * Records the elementwise maximum.
+     */
+    public RealExpression<R> eMax(RealExpression<R> expr) {
+        return new RealExpression<R>(this, expr, ArrayKernel.RE_MAX);
+    }
+
+    /**
+     * Records the elementwise minimum.
+     */
+    public RealExpression<R> eMin(RealExpression<R> expr) {
+        return new RealExpression<R>(this, expr, ArrayKernel.RE_MIN);
+    }
+
+    /**
+     * Records elementwise addition.
+     */
+    public RealExpression<R> eAdd(R array) {
+        return eAdd(new RealExpression<R>(array));
+    }
+
+    /**
+     * Records elementwise subtraction.
+     */
+    public RealExpression<R> eSub(R array) {
+        return eSub(new RealExpression<R>(array));
+    }
+
+    /**
+     * Records elementwise multiplication.
+     */
+    public RealExpression<R> eMul(R array) {
+        return eMul(new RealExpression<R>(array));
+    }
+
+    /**
+     * Records elementwise division.
+     */
+    public RealExpression<R> eDiv(R array) {
+        return eDiv(new RealExpression<R>(array));
+    }
+
+    /**
+     * Records the elementwise maximum.
+     */
+    public RealExpression<R> eMax(R array) {
+        return eMax(new RealExpression<R>(array));
+    }
+
+    /**
+     * Records the elementwise minimum.
+     */
+    public RealExpression<R> eMin(R array) {
+        return eMin(new RealExpression<R>(array));
+    }
+
+    /**
+     * Records exponentiation of the elements to the base {@link Math#E}.
+     */
+    public RealExpression<R> uExp() {
+        return new RealExpression<R>(this, ArrayKernel.RU_EXP, Double.NaN);
+    }
+
+    /**
+     * Records taking the cosine of the elements.
+     */
+    public RealExpression<R> uCos() {
+        return new RealExpression<R>(this, ArrayKernel.RU_COS, Double.NaN);
+    }
+
+    /**
+     * Records taking the sine of the elements.
+     */
+    public RealExpression<R> uSin() {
+        return new RealExpression<R>(this, ArrayKernel.RU_SIN, Double.NaN);
+    }
+
+    /**
+     * Records taking the arctangent of the elements.
+     */
+    public RealExpression<R> uAtan() {
+        return new RealExpression<R>(this, ArrayKernel.RU_ATAN, Double.NaN);
+    }
+
+    /**
+     * Records taking the natural logarithm of the elements.
+     */
+    public RealExpression<R> uLog() {
+        return new RealExpression<R>(this, ArrayKernel.RU_LOG, Double.NaN);
+    }
+
+    /**
+     * Records taking the absolute value of the elements.
+     */
+    public RealExpression<R> uAbs() {
+        return new RealExpression<R>(this, ArrayKernel.RU_ABS, Double.NaN);
+    }
+
+    /**
+     * Records raising the elements to the given power.
+     */
+    public RealExpression<R> uPow(double a) {
+        return new RealExpression<R>(this, ArrayKernel.RU_POW, a);
+    }
+
+    /**
+     * Records adding the argument to the elements.
+     */
+    public RealExpression<R> uAdd(double a) {
+        return new RealExpression<R>(this, ArrayKernel.RU_ADD, a);
+    }
+
+    /**
+     * Records multiplying the elements by the argument.
+     */
+    public RealExpression<R> uMul(double a) {
+        return new RealExpression<R>(this, ArrayKernel.RU_MUL, a);
+    }
+
+    /**
+     * Records taking the square root of the elements.
+     */
+    public RealExpression<R> uSqrt() {
+        return new RealExpression<R>(this, ArrayKernel.RU_SQRT, Double.NaN);
+    }
+
+    /**
+     * Records squaring the elements.
+     */
+    public RealExpression<R> uSqr() {
+        return new RealExpression<R>(this, ArrayKernel.RU_SQR, Double.NaN);
+    }
+
+    /**
+     * Records dividing the argument by the elements.
+     */
+    public RealExpression<R> uInv(double a) {
+        return new RealExpression<R>(this, ArrayKernel.RU_INV, a);
+    }
+
+    /**
+     * Materializes this expression into a new array.
+     */
+    public R eval() {
+
+        R t = this.template;
+
+        return eval(t.wrap(INVALID_PARITY, t.order, this.dims, t.order.strides(this.dims)));
+    }
+
+    /**
+     * Materializes this expression into the given array, which may also be a leaf of this expression.
+     * 
+     * @param dst
+     *            the destination array.
+     * @return the destination array.
+     */
+    public R eval(R dst) {
+
+        checkShape(dst.order, dst.dims);
+
+        Program p = new Program(this);
+
+        ExpressionOps.reEval(p.instructions, p.leaves, p.strides, p.dims, p.scalars, this.depth, dst.values);
+
+        return dst;
+    }
+
+    /**
+     * Computes the sum over the elements.
+     */
+    public double aSum() {
+        return accumulate(ArrayKernel.RA_SUM);
+    }
+
+    /**
+     * Computes the product over the elements.
+     */
+    public double aProd() {
+        return accumulate(ArrayKernel.RA_PROD);
+    }
+
+    /**
+     * Computes the maximum over the elements.
+     */
+    public double aMax() {
+        return accumulate(ArrayKernel.RA_MAX);
+    }
+
+    /**
+     * Computes the minimum over the elements.
+     */
+    public double aMin() {
+        return accumulate(ArrayKernel.RA_MIN);
+    }
+
+    /**
+     * Computes the mean over the elements.
+     */
+    public double aMean() {
+        return aSum() / Arithmetic.product(this.dims);
+    }
+
+    /**
+     * Supports the a* series of operations.
+     */
+    protected double accumulate(int type) {
+
+        Program p = new Program(this);
+
+        return ExpressionOps.raEval(type, p.instructions, p.leaves, p.strides, p.dims, p.scalars, this.depth);
+    }
+
+    /**
+     * Checks that this expression has the given shape.
+     */
+    protected void checkShape(IndexingOrder order, int[] dims) {
+
+        Control.checkTrue(this.template.order == order, //
+                "Indexing orders do not match");
+
+        Control.checkTrue(Arrays.equals(this.dims, dims), //
+                "Dimensions do not match");
+    }
+
+    /**
+     * A compiled form of an expression suitable for {@link ExpressionOps}.
+     */
+    protected static class Program {
+
+        final int[] instructions;
+        final double[][] leaves;
+        final int[][] strides;
+        final int[] dims;
+        final double[] scalars;
+
+        /**
+         * Default constructor.
+         */
+        protected Program(RealExpression<?> expr) {
+
+            List<Integer> instructions = new ArrayList<Integer>();
+            List<double[]> leaves = new ArrayList<double[]>();
+            List<int[]> strides = new ArrayList<int[]>();
+            List<Double> scalars = new ArrayList<Double>();
+
+            compile(expr, instructions, leaves, strides, scalars);
+
+            this.instructions = new int[instructions.size()];
+
+            for (int i = 0, n = this.instructions.length; i < n; i++) {
+                this.instructions[i] = instructions.get(i);
+            }
+
+            this.leaves = leaves.toArray(new double[][] {});
+            this.strides = strides.toArray(new int[][] {});
+
+            // Order dimensions from slowest to fastest varying in memory, as the destination is walked.
+            boolean near = (expr.template.order == IndexingOrder.NEAR);
+
+            this.dims = near ? reverse(expr.dims) : expr.dims;
+
+            for (int i = 0, n = this.strides.length; i < n; i++) {
+
+                if (near && this.strides[i] != null) {
+                    this.strides[i] = reverse(this.strides[i]);
+                }
+            }
+
+            this.scalars = new double[scalars.size()];
+
+            for (int i = 0, n = this.scalars.length; i < n; i++) {
+                this.scalars[i] = scalars.get(i);
+            }
+        }
+
+        /**
+         * Emits instructions for the given expression in postfix order.
+         */
+        protected static void compile(RealExpression<?> expr, //
+                List<Integer> instructions, List<double[]> leaves, List<int[]> strides, List<Double> scalars) {
+
+            if (expr.leaf != null) {
+
+                instructions.add((expr.strides != null) ? ExpressionOps.GATHER : ExpressionOps.LOAD);
+                instructions.add(-1);
+                instructions.add(leaves.size());
+
+                leaves.add(expr.leaf.values);
+                strides.add(expr.strides);
+
+            } else if (expr.rhs == null) {
+
+                compile(expr.lhs, instructions, leaves, strides, scalars);
+
+                instructions.add(ExpressionOps.UNARY);
+                instructions.add(expr.type);
+                instructions.add(scalars.size());
+
+                scalars.add(expr.a);
+
+            } else {
+
+                compile(expr.lhs, instructions, leaves, strides, scalars);
+                compile(expr.rhs, instructions, leaves, strides, scalars);
+
+                instructions.add(ExpressionOps.BINARY);
+                instructions.add(expr.type);
+                instructions.add(-1);
+            }
+        }
+
+        /**
+         * Reverses the given values into a new array.
+         */
+        protected static int[] reverse(int[] values) {
+
+            int n = values.length;
+            int[] res = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                res[i] = values[n - 1 - i];
+            }
+
+            return res;
+        }
+    }
+}
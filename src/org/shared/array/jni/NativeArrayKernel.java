@@ -82,6 +82,12 @@ public class NativeArrayKernel implements ArrayKernel {
             double[] srcV, int[] srcD, int[] srcS, int[] dstV, //
             int dim);
 
+    @Override
+    final public native void riTopK( //
+            double[] srcV, int[] srcD, int[] srcS, //
+            double[] dstV, int[] dstI, int[] dstD, int[] dstS, //
+            int dim);
+
     @Override
     final public native void rdOp(int type, //
             double[] srcV, int[] srcD, int[] srcS, double[] dstV, //
@@ -133,6 +139,19 @@ public class NativeArrayKernel implements ArrayKernel {
     @Override
     final public native void invert(double[] srcV, double[] dstV, int size);
 
+    @Override
+    final public native void lu(double[] srcV, double[] luV, int[] pivots, int size);
+
+    @Override
+    final public native void luSolve(double[] luV, int[] pivots, double[] srcV, double[] dstV, //
+            int size, int nCols, boolean transpose);
+
+    @Override
+    final public native void cholesky(double[] srcV, double[] dstV, int size);
+
+    @Override
+    final public native void choleskySolve(double[] lV, double[] srcV, double[] dstV, int size, int nCols);
+
     //
 
     @Override
@@ -28,6 +28,10 @@
 
 package org.shared.array.kernel;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
 import org.shared.array.Array;
 import org.shared.util.Service;
 
@@ -59,4 +63,33 @@ public interface ArrayIoKernel extends Service {
      * @return the {@link Array}.
      */
     public <T extends Array<T, ?>> T parse(byte[] data);
+
+    /**
+     * Writes an {@link Array} to a channel. Values are streamed through a bounded buffer, so that no intermediate
+     * copy of the whole array is made.
+     * 
+     * @param <T>
+     *            the {@link Array} type.
+     * @param array
+     *            the {@link Array}.
+     * @param channel
+     *            the channel.
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public <T extends Array<T, ?>> void write(T array, WritableByteChannel channel) throws IOException;
+
+    /**
+     * Parses an {@link Array} starting at the current position of a file channel, which is then advanced past it.
+     * The underlying file region is memory mapped rather than read into a {@code byte} array.
+     * 
+     * @param channel
+     *            the file channel.
+     * @param <T>
+     *            the inferred {@link Array} type.
+     * @return the {@link Array}.
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public <T extends Array<T, ?>> T parse(FileChannel channel) throws IOException;
 }
@@ -383,6 +383,31 @@ public interface ArrayKernel extends Service {
             int[] dstV, //
             int dim);
 
+    /**
+     * Selects the smallest elements along a dimension, in ascending order. Ties are broken by position.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param srcD
+     *            the source dimensions.
+     * @param srcS
+     *            the source strides.
+     * @param dstV
+     *            the destination values.
+     * @param dstI
+     *            the destination positions along the dimension of interest.
+     * @param dstD
+     *            the destination dimensions, which agree with the source dimensions save for the dimension of interest.
+     * @param dstS
+     *            the destination strides.
+     * @param dim
+     *            the dimension of interest.
+     */
+    public void riTopK( //
+            double[] srcV, int[] srcD, int[] srcS, //
+            double[] dstV, int[] dstI, int[] dstD, int[] dstS, //
+            int dim);
+
     /**
      * Performs a real dimension operation.
      * 
@@ -585,6 +610,73 @@ public interface ArrayKernel extends Service {
      */
     public void invert(double[] srcV, double[] dstV, int size);
 
+    /**
+     * Computes the LU decomposition of a {@link Matrix} with partial pivoting.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param luV
+     *            the LU values: The unit lower triangular factor lies strictly below the diagonal, and the upper
+     *            triangular factor lies on and above it.
+     * @param pivots
+     *            the row permutation, where the {@code i}-th row of the decomposition corresponds to the
+     *            {@code pivots[i]}-th row of the source.
+     * @param size
+     *            the matrix size.
+     */
+    public void lu(double[] srcV, double[] luV, int[] pivots, int size);
+
+    /**
+     * Solves a system of linear equations, given the LU decomposition of its {@link Matrix}.
+     * 
+     * @param luV
+     *            the LU values.
+     * @param pivots
+     *            the row permutation.
+     * @param srcV
+     *            the right hand side values.
+     * @param dstV
+     *            the solution values.
+     * @param size
+     *            the matrix size.
+     * @param nCols
+     *            the number of right hand side columns.
+     * @param transpose
+     *            whether to solve the transposed system instead.
+     */
+    public void luSolve(double[] luV, int[] pivots, double[] srcV, double[] dstV, //
+            int size, int nCols, boolean transpose);
+
+    /**
+     * Computes the lower triangular Cholesky factor of a symmetric, positive definite {@link Matrix}. Only the lower
+     * triangle of the source is read.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param dstV
+     *            the destination values.
+     * @param size
+     *            the matrix size.
+     */
+    public void cholesky(double[] srcV, double[] dstV, int size);
+
+    /**
+     * Solves a symmetric, positive definite system of linear equations, given the Cholesky factor of its
+     * {@link Matrix}.
+     * 
+     * @param lV
+     *            the lower triangular Cholesky factor values.
+     * @param srcV
+     *            the right hand side values.
+     * @param dstV
+     *            the solution values.
+     * @param size
+     *            the matrix size.
+     * @param nCols
+     *            the number of right hand side columns.
+     */
+    public void choleskySolve(double[] lV, double[] srcV, double[] dstV, int size, int nCols);
+
     //
 
     /**
@@ -0,0 +1,529 @@
+/**
+ * <p>
+ * Copyright (c) 2008 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+package org.shared.array.kernel;
+
+import org.shared.array.kernel.ParallelOps.RangeOperation;
+import org.shared.util.Control;
+
+/**
+ * A class for linear algebra operations on batches of small matrices in pure Java. A batch is stored contiguously as
+ * consecutive row major matrices, which are divided among worker threads. Common small sizes have unrolled
+ * implementations, so that the per-matrix cost is a handful of arithmetic operations rather than a kernel call.
+ * 
+ * @apiviz.uses org.shared.array.kernel.LinearAlgebraOps
+ * @author Roy Liu
+ */
+public class BatchOps {
+
+    /**
+     * The minimum number of arithmetic operations assigned to a worker thread.
+     */
+    final protected static int BATCH_GRAIN = 1 << 15;
+
+    /**
+     * Multiplies each pair of matrices in two batches.
+     * 
+     * @param lhsV
+     *            the left hand side values.
+     * @param rhsV
+     *            the right hand side values.
+     * @param dstV
+     *            the destination values.
+     * @param nBatch
+     *            the number of matrices.
+     * @param nRows
+     *            the number of left hand side rows.
+     * @param nInner
+     *            the number of left hand side columns and right hand side rows.
+     * @param nCols
+     *            the number of right hand side columns.
+     */
+    final public static void mul(final double[] lhsV, final double[] rhsV, final double[] dstV, //
+            int nBatch, final int nRows, final int nInner, final int nCols) {
+
+        Control.checkTrue(nBatch >= 0 && nRows >= 0 && nInner >= 0 && nCols >= 0 //
+                && lhsV.length == nBatch * nRows * nInner //
+                && rhsV.length == nBatch * nInner * nCols //
+                && dstV.length == nBatch * nRows * nCols, //
+                "Invalid arguments");
+
+        ParallelOps.fork(nBatch, grain(nRows * nInner * nCols), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                int lhsSize = nRows * nInner;
+                int rhsSize = nInner * nCols;
+                int dstSize = nRows * nCols;
+
+                if (nRows == 3 && nInner == 3 && nCols == 3) {
+
+                    for (int b = start; b < end; b++) {
+                        mul3x3(lhsV, 9 * b, rhsV, 9 * b, dstV, 9 * b);
+                    }
+
+                } else if (nRows == 4 && nInner == 4 && nCols == 4) {
+
+                    for (int b = start; b < end; b++) {
+                        mul4x4(lhsV, 16 * b, rhsV, 16 * b, dstV, 16 * b);
+                    }
+
+                } else {
+
+                    for (int b = start; b < end; b++) {
+
+                        int lhsOffset = lhsSize * b;
+                        int rhsOffset = rhsSize * b;
+                        int dstOffset = dstSize * b;
+
+                        for (int i = 0; i < nRows; i++) {
+
+                            int dstRow = dstOffset + nCols * i;
+
+                            for (int j = 0; j < nCols; j++) {
+                                dstV[dstRow + j] = 0.0;
+                            }
+
+                            for (int k = 0; k < nInner; k++) {
+
+                                double l = lhsV[lhsOffset + nInner * i + k];
+                                int rhsRow = rhsOffset + nCols * k;
+
+                                for (int j = 0; j < nCols; j++) {
+                                    dstV[dstRow + j] += l * rhsV[rhsRow + j];
+                                }
+                            }
+                        }
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Inverts each matrix in a batch.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param dstV
+     *            the destination values.
+     * @param nBatch
+     *            the number of matrices.
+     * @param size
+     *            the matrix size.
+     */
+    final public static void invert(final double[] srcV, final double[] dstV, int nBatch, final int size) {
+
+        final int matSize = size * size;
+
+        Control.checkTrue(nBatch >= 0 && size >= 0 //
+                && srcV.length == nBatch * matSize //
+                && dstV.length == nBatch * matSize, //
+                "Invalid arguments");
+
+        ParallelOps.fork(nBatch, grain(matSize * size), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                switch (size) {
+
+                case 1:
+
+                    for (int b = start; b < end; b++) {
+
+                        Control.checkTrue(srcV[b] != 0.0, //
+                                "Matrix is singular");
+
+                        dstV[b] = 1.0 / srcV[b];
+                    }
+
+                    break;
+
+                case 2:
+
+                    for (int b = start; b < end; b++) {
+                        invert2x2(srcV, dstV, 4 * b);
+                    }
+
+                    break;
+
+                case 3:
+
+                    for (int b = start; b < end; b++) {
+                        invert3x3(srcV, dstV, 9 * b);
+                    }
+
+                    break;
+
+                case 4:
+
+                    for (int b = start; b < end; b++) {
+                        invert4x4(srcV, dstV, 16 * b);
+                    }
+
+                    break;
+
+                default:
+
+                    double[] lu = new double[matSize];
+                    double[] inv = new double[matSize];
+                    int[] pivots = new int[size];
+
+                    for (int b = start; b < end; b++) {
+
+                        int offset = matSize * b;
+
+                        System.arraycopy(srcV, offset, lu, 0, matSize);
+
+                        for (int i = 0; i < size; i++) {
+                            pivots[i] = i;
+                        }
+
+                        LinearAlgebraOps.lup(lu, pivots, size, size);
+
+                        for (int i = 0; i < matSize; i++) {
+                            inv[i] = 0.0;
+                        }
+
+                        for (int i = 0; i < size; i++) {
+
+                            Control.checkTrue(lu[size * i + i] != 0.0, //
+                                    "Matrix is singular");
+
+                            inv[size * i + pivots[i]] = 1.0;
+                        }
+
+                        LinearAlgebraOps.luSolve(lu, size, inv, size);
+
+                        System.arraycopy(inv, 0, dstV, offset, matSize);
+                    }
+
+                    break;
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the eigenvectors and eigenvalues of each matrix in a batch, as in
+     * {@link LinearAlgebraOps#eigs(double[], double[], double[], int)}.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param vecV
+     *            the eigenvectors.
+     * @param valV
+     *            the eigenvalues, as consecutive runs of {@code 2 * size} real and imaginary parts.
+     * @param nBatch
+     *            the number of matrices.
+     * @param size
+     *            the matrix size.
+     */
+    final public static void eigs(final double[] srcV, final double[] vecV, final double[] valV, //
+            int nBatch, final int size) {
+
+        final int matSize = size * size;
+
+        Control.checkTrue(nBatch >= 0 && size >= 0 //
+                && srcV.length == nBatch * matSize //
+                && vecV.length == nBatch * matSize //
+                && valV.length == nBatch * 2 * size, //
+                "Invalid arguments");
+
+        ParallelOps.fork(nBatch, grain(8 * matSize * size), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                double[] src = new double[matSize];
+                double[] vec = new double[matSize];
+                double[] val = new double[2 * size];
+
+                for (int b = start; b < end; b++) {
+
+                    System.arraycopy(srcV, matSize * b, src, 0, matSize);
+
+                    for (int i = 0; i < matSize; i++) {
+                        vec[i] = 0.0;
+                    }
+
+                    LinearAlgebraOps.eigs(src, vec, val, size);
+
+                    System.arraycopy(vec, 0, vecV, matSize * b, matSize);
+                    System.arraycopy(val, 0, valV, 2 * size * b, 2 * size);
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the lower triangular Cholesky factor of each matrix in a batch.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param dstV
+     *            the destination values.
+     * @param nBatch
+     *            the number of matrices.
+     * @param size
+     *            the matrix size.
+     */
+    final public static void cholesky(final double[] srcV, final double[] dstV, int nBatch, final int size) {
+
+        final int matSize = size * size;
+
+        Control.checkTrue(nBatch >= 0 && size >= 0 //
+                && srcV.length == nBatch * matSize //
+                && dstV.length == nBatch * matSize, //
+                "Invalid arguments");
+
+        ParallelOps.fork(nBatch, grain(matSize * size), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                if (size == 3) {
+
+                    for (int b = start; b < end; b++) {
+                        cholesky3x3(srcV, dstV, 9 * b);
+                    }
+
+                } else {
+
+                    for (int b = start; b < end; b++) {
+                        LinearAlgebraOps.cholesky(srcV, matSize * b, dstV, matSize * b, size);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Computes the minimum number of matrices per worker thread, given the work per matrix.
+     */
+    final protected static int grain(int work) {
+        return BATCH_GRAIN / Math.max(work, 1);
+    }
+
+    /**
+     * Multiplies two {@code 3x3} matrices.
+     */
+    final protected static void mul3x3(double[] lhsV, int lhsOffset, double[] rhsV, int rhsOffset, //
+            double[] dstV, int dstOffset) {
+
+        double r00 = rhsV[rhsOffset], r01 = rhsV[rhsOffset + 1], r02 = rhsV[rhsOffset + 2];
+        double r10 = rhsV[rhsOffset + 3], r11 = rhsV[rhsOffset + 4], r12 = rhsV[rhsOffset + 5];
+        double r20 = rhsV[rhsOffset + 6], r21 = rhsV[rhsOffset + 7], r22 = rhsV[rhsOffset + 8];
+
+        for (int i = 0; i < 9; i += 3) {
+
+            double l0 = lhsV[lhsOffset + i], l1 = lhsV[lhsOffset + i + 1], l2 = lhsV[lhsOffset + i + 2];
+
+            dstV[dstOffset + i] = l0 * r00 + l1 * r10 + l2 * r20;
+            dstV[dstOffset + i + 1] = l0 * r01 + l1 * r11 + l2 * r21;
+            dstV[dstOffset + i + 2] = l0 * r02 + l1 * r12 + l2 * r22;
+        }
+    }
+
+    /**
+     * Multiplies two {@code 4x4} matrices.
+     */
+    final protected static void mul4x4(double[] lhsV, int lhsOffset, double[] rhsV, int rhsOffset, //
+            double[] dstV, int dstOffset) {
+
+        double r00 = rhsV[rhsOffset], r01 = rhsV[rhsOffset + 1];
+        double r02 = rhsV[rhsOffset + 2], r03 = rhsV[rhsOffset + 3];
+        double r10 = rhsV[rhsOffset + 4], r11 = rhsV[rhsOffset + 5];
+        double r12 = rhsV[rhsOffset + 6], r13 = rhsV[rhsOffset + 7];
+        double r20 = rhsV[rhsOffset + 8], r21 = rhsV[rhsOffset + 9];
+        double r22 = rhsV[rhsOffset + 10], r23 = rhsV[rhsOffset + 11];
+        double r30 = rhsV[rhsOffset + 12], r31 = rhsV[rhsOffset + 13];
+        double r32 = rhsV[rhsOffset + 14], r33 = rhsV[rhsOffset + 15];
+
+        for (int i = 0; i < 16; i += 4) {
+
+            double l0 = lhsV[lhsOffset + i], l1 = lhsV[lhsOffset + i + 1];
+            double l2 = lhsV[lhsOffset + i + 2], l3 = lhsV[lhsOffset + i + 3];
+
+            dstV[dstOffset + i] = l0 * r00 + l1 * r10 + l2 * r20 + l3 * r30;
+            dstV[dstOffset + i + 1] = l0 * r01 + l1 * r11 + l2 * r21 + l3 * r31;
+            dstV[dstOffset + i + 2] = l0 * r02 + l1 * r12 + l2 * r22 + l3 * r32;
+            dstV[dstOffset + i + 3] = l0 * r03 + l1 * r13 + l2 * r23 + l3 * r33;
+        }
+    }
+
+    /**
+     * Inverts a {@code 2x2} matrix by its adjugate.
+     */
+    final protected static void invert2x2(double[] srcV, double[] dstV, int offset) {
+
+        double a = srcV[offset], b = srcV[offset + 1];
+        double c = srcV[offset + 2], d = srcV[offset + 3];
+
+        double det = a * d - b * c;
+
+        Control.checkTrue(det != 0.0, //
+                "Matrix is singular");
+
+        double invDet = 1.0 / det;
+
+        dstV[offset] = d * invDet;
+        dstV[offset + 1] = -b * invDet;
+        dstV[offset + 2] = -c * invDet;
+        dstV[offset + 3] = a * invDet;
+    }
+
+    /**
+     * Inverts a {@code 3x3} matrix by its adjugate.
+     */
+    final protected static void invert3x3(double[] srcV, double[] dstV, int offset) {
+
+        double a = srcV[offset], b = srcV[offset + 1], c = srcV[offset + 2];
+        double d = srcV[offset + 3], e = srcV[offset + 4], f = srcV[offset + 5];
+        double g = srcV[offset + 6], h = srcV[offset + 7], i = srcV[offset + 8];
+
+        double c00 = e * i - f * h;
+        double c01 = f * g - d * i;
+        double c02 = d * h - e * g;
+
+        double det = a * c00 + b * c01 + c * c02;
+
+        Control.checkTrue(det != 0.0, //
+                "Matrix is singular");
+
+        double invDet = 1.0 / det;
+
+        dstV[offset] = c00 * invDet;
+        dstV[offset + 1] = (c * h - b * i) * invDet;
+        dstV[offset + 2] = (b * f - c * e) * invDet;
+        dstV[offset + 3] = c01 * invDet;
+        dstV[offset + 4] = (a * i - c * g) * invDet;
+        dstV[offset + 5] = (c * d - a * f) * invDet;
+        dstV[offset + 6] = c02 * invDet;
+        dstV[offset + 7] = (b * g - a * h) * invDet;
+        dstV[offset + 8] = (a * e - b * d) * invDet;
+    }
+
+    /**
+     * Inverts a {@code 4x4} matrix by its adjugate, whose cofactors are built from the {@code 2x2} minors of the top
+     * two and the bottom two rows.
+     */
+    final protected static void invert4x4(double[] srcV, double[] dstV, int offset) {
+
+        double a00 = srcV[offset], a01 = srcV[offset + 1], a02 = srcV[offset + 2], a03 = srcV[offset + 3];
+        double a10 = srcV[offset + 4], a11 = srcV[offset + 5], a12 = srcV[offset + 6], a13 = srcV[offset + 7];
+        double a20 = srcV[offset + 8], a21 = srcV[offset + 9], a22 = srcV[offset + 10], a23 = srcV[offset + 11];
+        double a30 = srcV[offset + 12], a31 = srcV[offset + 13], a32 = srcV[offset + 14], a33 = srcV[offset + 15];
+
+        double s0 = a00 * a11 - a10 * a01;
+        double s1 = a00 * a12 - a10 * a02;
+        double s2 = a00 * a13 - a10 * a03;
+        double s3 = a01 * a12 - a11 * a02;
+        double s4 = a01 * a13 - a11 * a03;
+        double s5 = a02 * a13 - a12 * a03;
+
+        double c0 = a20 * a31 - a30 * a21;
+        double c1 = a20 * a32 - a30 * a22;
+        double c2 = a20 * a33 - a30 * a23;
+        double c3 = a21 * a32 - a31 * a22;
+        double c4 = a21 * a33 - a31 * a23;
+        double c5 = a22 * a33 - a32 * a23;
+
+        double det = s0 * c5 - s1 * c4 + s2 * c3 + s3 * c2 - s4 * c1 + s5 * c0;
+
+        Control.checkTrue(det != 0.0, //
+                "Matrix is singular");
+
+        double invDet = 1.0 / det;
+
+        dstV[offset] = (a11 * c5 - a12 * c4 + a13 * c3) * invDet;
+        dstV[offset + 1] = (-a01 * c5 + a02 * c4 - a03 * c3) * invDet;
+        dstV[offset + 2] = (a31 * s5 - a32 * s4 + a33 * s3) * invDet;
+        dstV[offset + 3] = (-a21 * s5 + a22 * s4 - a23 * s3) * invDet;
+
+        dstV[offset + 4] = (-a10 * c5 + a12 * c2 - a13 * c1) * invDet;
+        dstV[offset + 5] = (a00 * c5 - a02 * c2 + a03 * c1) * invDet;
+        dstV[offset + 6] = (-a30 * s5 + a32 * s2 - a33 * s1) * invDet;
+        dstV[offset + 7] = (a20 * s5 - a22 * s2 + a23 * s1) * invDet;
+
+        dstV[offset + 8] = (a10 * c4 - a11 * c2 + a13 * c0) * invDet;
+        dstV[offset + 9] = (-a00 * c4 + a01 * c2 - a03 * c0) * invDet;
+        dstV[offset + 10] = (a30 * s4 - a31 * s2 + a33 * s0) * invDet;
+        dstV[offset + 11] = (-a20 * s4 + a21 * s2 - a23 * s0) * invDet;
+
+        dstV[offset + 12] = (-a10 * c3 + a11 * c1 - a12 * c0) * invDet;
+        dstV[offset + 13] = (a00 * c3 - a01 * c1 + a02 * c0) * invDet;
+        dstV[offset + 14] = (-a30 * s3 + a31 * s1 - a32 * s0) * invDet;
+        dstV[offset + 15] = (a20 * s3 - a21 * s1 + a22 * s0) * invDet;
+    }
+
+    /**
+     * Computes the lower triangular Cholesky factor of a {@code 3x3} matrix.
+     */
+    final protected static void cholesky3x3(double[] srcV, double[] dstV, int offset) {
+
+        double a00 = srcV[offset];
+        double a10 = srcV[offset + 3], a11 = srcV[offset + 4];
+        double a20 = srcV[offset + 6], a21 = srcV[offset + 7], a22 = srcV[offset + 8];
+
+        Control.checkTrue(a00 > 0.0, //
+                "Matrix is not positive definite");
+
+        double l00 = Math.sqrt(a00);
+        double l10 = a10 / l00;
+        double l20 = a20 / l00;
+
+        double s11 = a11 - l10 * l10;
+
+        Control.checkTrue(s11 > 0.0, //
+                "Matrix is not positive definite");
+
+        double l11 = Math.sqrt(s11);
+        double l21 = (a21 - l20 * l10) / l11;
+
+        double s22 = a22 - l20 * l20 - l21 * l21;
+
+        Control.checkTrue(s22 > 0.0, //
+                "Matrix is not positive definite");
+
+        dstV[offset] = l00;
+        dstV[offset + 1] = 0.0;
+        dstV[offset + 2] = 0.0;
+        dstV[offset + 3] = l10;
+        dstV[offset + 4] = l11;
+        dstV[offset + 5] = 0.0;
+        dstV[offset + 6] = l20;
+        dstV[offset + 7] = l21;
+        dstV[offset + 8] = Math.sqrt(s22);
+    }
+
+    // Dummy constructor.
+    BatchOps() {
+    }
+}
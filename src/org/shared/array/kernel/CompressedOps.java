@@ -0,0 +1,635 @@
+/**
+ * <p>
+ * Copyright (c) 2008 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array.kernel;
+
+import java.util.Arrays;
+
+import org.shared.array.kernel.ParallelOps.RangeOperation;
+import org.shared.util.Control;
+
+/**
+ * A class for operations on compressed sparse matrices in pure Java. A compressed matrix consists of a number of major
+ * lines -- rows in compressed sparse row (CSR) format, and columns in compressed sparse column (CSC) format. The
+ * nonzeros of the {@code i}-th line occupy the positions [{@code offsets[i]}, {@code offsets[i + 1]}) of the minor
+ * index and value arrays, where minor indices within a line are strictly increasing. Work is divided among worker
+ * threads by the number of nonzeros rather than the number of lines, so that matrices with heavy-tailed line lengths
+ * remain load balanced.
+ * 
+ * @author Roy Liu
+ */
+public class CompressedOps {
+
+    /**
+     * The minimum number of arithmetic operations assigned to a worker thread.
+     */
+    final protected static int COMPRESSED_GRAIN = 1 << 15;
+
+    /**
+     * Compresses nonzeros given in coordinate format.
+     * 
+     * @param majors
+     *            the major indices.
+     * @param minors
+     *            the minor indices.
+     * @param values
+     *            the values.
+     * @param nMajor
+     *            the number of major lines.
+     * @param nMinor
+     *            the number of minor lines.
+     * @param dstOffsets
+     *            the destination line offsets.
+     * @param dstMinors
+     *            the destination minor indices.
+     * @param dstValues
+     *            the destination values.
+     */
+    final public static void compress(int[] majors, int[] minors, double[] values, int nMajor, int nMinor, //
+            int[] dstOffsets, int[] dstMinors, double[] dstValues) {
+
+        int nnz = values.length;
+
+        Control.checkTrue(nMajor >= 0 && nMinor >= 0 //
+                && majors.length == nnz //
+                && minors.length == nnz //
+                && dstOffsets.length == nMajor + 1 //
+                && dstMinors.length == nnz //
+                && dstValues.length == nnz, //
+                "Invalid arguments");
+
+        // Bucket by minor index, and then stably by major index, so that minor indices come out sorted.
+
+        int[] minorOffsets = new int[nMinor + 1];
+
+        for (int i = 0; i < nnz; i++) {
+
+            int minor = minors[i];
+
+            Control.checkTrue(minor >= 0 && minor < nMinor, //
+                    "Invalid index");
+
+            minorOffsets[minor + 1]++;
+        }
+
+        for (int i = 0; i < nMinor; i++) {
+            minorOffsets[i + 1] += minorOffsets[i];
+        }
+
+        int[] order = new int[nnz];
+
+        for (int i = 0; i < nnz; i++) {
+            order[minorOffsets[minors[i]]++] = i;
+        }
+
+        Arrays.fill(dstOffsets, 0);
+
+        for (int i = 0; i < nnz; i++) {
+
+            int major = majors[i];
+
+            Control.checkTrue(major >= 0 && major < nMajor, //
+                    "Invalid index");
+
+            dstOffsets[major + 1]++;
+        }
+
+        for (int i = 0; i < nMajor; i++) {
+            dstOffsets[i + 1] += dstOffsets[i];
+        }
+
+        int[] cursors = Arrays.copyOf(dstOffsets, nMajor);
+
+        for (int i = 0; i < nnz; i++) {
+
+            int index = order[i];
+            int offset = cursors[majors[index]]++;
+
+            dstMinors[offset] = minors[index];
+            dstValues[offset] = values[index];
+        }
+
+        for (int i = 0; i < nMajor; i++) {
+
+            for (int j = dstOffsets[i] + 1, n = dstOffsets[i + 1]; j < n; j++) {
+                Control.checkTrue(dstMinors[j - 1] != dstMinors[j], //
+                        "Duplicate index");
+            }
+        }
+    }
+
+    /**
+     * Converts between compressed sparse row and compressed sparse column formats. Equivalently, compresses the
+     * transpose.
+     * 
+     * @param offsets
+     *            the line offsets.
+     * @param minors
+     *            the minor indices.
+     * @param values
+     *            the values.
+     * @param nMajor
+     *            the number of major lines.
+     * @param nMinor
+     *            the number of minor lines.
+     * @param dstOffsets
+     *            the destination line offsets.
+     * @param dstMinors
+     *            the destination minor indices.
+     * @param dstValues
+     *            the destination values.
+     */
+    final public static void transpose(int[] offsets, int[] minors, double[] values, int nMajor, int nMinor, //
+            int[] dstOffsets, int[] dstMinors, double[] dstValues) {
+
+        checkCompressed(offsets, minors, values, nMajor);
+
+        int nnz = values.length;
+
+        Control.checkTrue(nMinor >= 0 //
+                && dstOffsets.length == nMinor + 1 //
+                && dstMinors.length == nnz //
+                && dstValues.length == nnz, //
+                "Invalid arguments");
+
+        Arrays.fill(dstOffsets, 0);
+
+        for (int i = 0; i < nnz; i++) {
+            dstOffsets[minors[i] + 1]++;
+        }
+
+        for (int i = 0; i < nMinor; i++) {
+            dstOffsets[i + 1] += dstOffsets[i];
+        }
+
+        int[] cursors = Arrays.copyOf(dstOffsets, nMinor);
+
+        // Visiting major lines in order ensures that the new minor indices come out sorted.
+
+        for (int i = 0; i < nMajor; i++) {
+
+            for (int j = offsets[i], n = offsets[i + 1]; j < n; j++) {
+
+                int offset = cursors[minors[j]]++;
+
+                dstMinors[offset] = i;
+                dstValues[offset] = values[j];
+            }
+        }
+    }
+
+    /**
+     * Multiplies a compressed matrix by a dense, row major matrix. In compressed sparse row format, the rows of the
+     * result are divided among worker threads. In compressed sparse column format, the columns of the dense matrix
+     * are divided among worker threads if there are enough of them; otherwise, as with matrix-vector products, the
+     * columns of the compressed matrix are divided by nonzeros, each worker thread scatters into an accumulator of its
+     * own, and the accumulators are summed afterwards.
+     * 
+     * @param offsets
+     *            the line offsets.
+     * @param minors
+     *            the minor indices.
+     * @param values
+     *            the values.
+     * @param nMajor
+     *            the number of major lines.
+     * @param nMinor
+     *            the number of minor lines.
+     * @param rhsV
+     *            the right hand side values.
+     * @param dstV
+     *            the destination values.
+     * @param nCols
+     *            the number of right hand side columns.
+     * @param columnMajor
+     *            whether the compressed matrix is in compressed sparse column format.
+     */
+    final public static void mul(final int[] offsets, final int[] minors, final double[] values, //
+            final int nMajor, final int nMinor, //
+            final double[] rhsV, final double[] dstV, final int nCols, boolean columnMajor) {
+
+        checkCompressed(offsets, minors, values, nMajor);
+
+        final int nnz = values.length;
+
+        final int nRows = columnMajor ? nMinor : nMajor;
+        final int nInner = columnMajor ? nMajor : nMinor;
+
+        Control.checkTrue(nMinor >= 0 && nCols >= 0 //
+                && rhsV.length == nInner * nCols //
+                && dstV.length == nRows * nCols, //
+                "Invalid arguments");
+
+        for (int i = 0; i < nnz; i++) {
+            Control.checkTrue(minors[i] >= 0 && minors[i] < nMinor, //
+                    "Invalid index");
+        }
+
+        Arrays.fill(dstV, 0.0);
+
+        if (!columnMajor) {
+
+            final int[] bounds = partition(offsets, nMajor, nCols);
+
+            ParallelOps.fork(bounds.length - 1, 1, new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    for (int i = bounds[start], iEnd = bounds[end]; i < iEnd; i++) {
+
+                        int jStart = offsets[i];
+                        int jEnd = offsets[i + 1];
+
+                        if (nCols == 1) {
+
+                            double acc = 0.0;
+
+                            for (int j = jStart; j < jEnd; j++) {
+                                acc += values[j] * rhsV[minors[j]];
+                            }
+
+                            dstV[i] = acc;
+
+                        } else {
+
+                            int dstOffset = nCols * i;
+
+                            for (int j = jStart; j < jEnd; j++) {
+
+                                double value = values[j];
+                                int rhsOffset = nCols * minors[j];
+
+                                for (int k = 0; k < nCols; k++) {
+                                    dstV[dstOffset + k] += value * rhsV[rhsOffset + k];
+                                }
+                            }
+                        }
+                    }
+                }
+            });
+
+        } else if (nCols < ParallelOps.getParallelism()) {
+
+            final int[] bounds = partition(offsets, nMajor, nCols);
+            final int nParts = bounds.length - 1;
+            final double[][] partials = new double[nParts][];
+
+            ParallelOps.fork(nParts, 1, new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    // The first part scatters into the destination, and the others scatter into accumulators.
+                    double[] accV = (start == 0) ? dstV : new double[dstV.length];
+
+                    partials[start] = accV;
+
+                    for (int i = bounds[start], iEnd = bounds[end]; i < iEnd; i++) {
+
+                        int rhsOffset = nCols * i;
+
+                        for (int j = offsets[i], jEnd = offsets[i + 1]; j < jEnd; j++) {
+
+                            double value = values[j];
+                            int dstOffset = nCols * minors[j];
+
+                            for (int k = 0; k < nCols; k++) {
+                                accV[dstOffset + k] += value * rhsV[rhsOffset + k];
+                            }
+                        }
+                    }
+                }
+            });
+
+            ParallelOps.fork(dstV.length, grain(nParts), new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    for (int part = 1; part < nParts; part++) {
+
+                        double[] accV = partials[part];
+
+                        if (accV == null) {
+                            continue;
+                        }
+
+                        for (int i = start; i < end; i++) {
+                            dstV[i] += accV[i];
+                        }
+                    }
+                }
+            });
+
+        } else {
+
+            ParallelOps.fork(nCols, grain((long) nnz), new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    for (int i = 0; i < nMajor; i++) {
+
+                        int rhsOffset = nCols * i;
+
+                        for (int j = offsets[i], jEnd = offsets[i + 1]; j < jEnd; j++) {
+
+                            double value = values[j];
+                            int dstOffset = nCols * minors[j];
+
+                            for (int k = start; k < end; k++) {
+                                dstV[dstOffset + k] += value * rhsV[rhsOffset + k];
+                            }
+                        }
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Computes the line offsets of the product of two compressed sparse row matrices, which is the symbolic phase of
+     * {@link #mul(int[], int[], double[], int[], int[], double[], int, int, int[], int[], double[])}.
+     * 
+     * @param lhsOffsets
+     *            the left hand side line offsets.
+     * @param lhsMinors
+     *            the left hand side minor indices.
+     * @param rhsOffsets
+     *            the right hand side line offsets.
+     * @param rhsMinors
+     *            the right hand side minor indices.
+     * @param nRows
+     *            the number of left hand side rows.
+     * @param nCols
+     *            the number of right hand side columns.
+     * @param dstOffsets
+     *            the destination line offsets.
+     * @return the number of nonzeros in the product.
+     */
+    final public static int mulOffsets(final int[] lhsOffsets, final int[] lhsMinors, //
+            final int[] rhsOffsets, final int[] rhsMinors, //
+            int nRows, final int nCols, final int[] dstOffsets) {
+
+        final int nInner = rhsOffsets.length - 1;
+
+        Control.checkTrue(nRows >= 0 && nCols >= 0 && nInner >= 0 //
+                && lhsOffsets.length == nRows + 1 //
+                && dstOffsets.length == nRows + 1, //
+                "Invalid arguments");
+
+        for (int i = 0, n = lhsMinors.length; i < n; i++) {
+            Control.checkTrue(lhsMinors[i] >= 0 && lhsMinors[i] < nInner, //
+                    "Invalid index");
+        }
+
+        for (int i = 0, n = rhsMinors.length; i < n; i++) {
+            Control.checkTrue(rhsMinors[i] >= 0 && rhsMinors[i] < nCols, //
+                    "Invalid index");
+        }
+
+        final int[] bounds = partition(lhsOffsets, nRows, 1);
+
+        ParallelOps.fork(bounds.length - 1, 1, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                int[] marker = new int[nCols];
+
+                Arrays.fill(marker, -1);
+
+                for (int i = bounds[start], iEnd = bounds[end]; i < iEnd; i++) {
+
+                    int count = 0;
+
+                    for (int j = lhsOffsets[i], jEnd = lhsOffsets[i + 1]; j < jEnd; j++) {
+
+                        int inner = lhsMinors[j];
+
+                        for (int k = rhsOffsets[inner], kEnd = rhsOffsets[inner + 1]; k < kEnd; k++) {
+
+                            int col = rhsMinors[k];
+
+                            if (marker[col] != i) {
+
+                                marker[col] = i;
+                                count++;
+                            }
+                        }
+                    }
+
+                    dstOffsets[i + 1] = count;
+                }
+            }
+        });
+
+        dstOffsets[0] = 0;
+
+        for (int i = 0; i < nRows; i++) {
+
+            dstOffsets[i + 1] += dstOffsets[i];
+
+            Control.checkTrue(dstOffsets[i + 1] >= 0, //
+                    "Product has too many nonzeros");
+        }
+
+        return dstOffsets[nRows];
+    }
+
+    /**
+     * Multiplies two compressed sparse row matrices with Gustavson's algorithm. The rows of the result are divided
+     * among worker threads, each of which keeps a dense accumulator the length of a row.
+     * 
+     * @param lhsOffsets
+     *            the left hand side line offsets.
+     * @param lhsMinors
+     *            the left hand side minor indices.
+     * @param lhsValues
+     *            the left hand side values.
+     * @param rhsOffsets
+     *            the right hand side line offsets.
+     * @param rhsMinors
+     *            the right hand side minor indices.
+     * @param rhsValues
+     *            the right hand side values.
+     * @param nRows
+     *            the number of left hand side rows.
+     * @param nCols
+     *            the number of right hand side columns.
+     * @param dstOffsets
+     *            the destination line offsets, as computed by
+     *            {@link #mulOffsets(int[], int[], int[], int[], int, int, int[])}.
+     * @param dstMinors
+     *            the destination minor indices.
+     * @param dstValues
+     *            the destination values.
+     */
+    final public static void mul(final int[] lhsOffsets, final int[] lhsMinors, final double[] lhsValues, //
+            final int[] rhsOffsets, final int[] rhsMinors, final double[] rhsValues, //
+            int nRows, final int nCols, //
+            final int[] dstOffsets, final int[] dstMinors, final double[] dstValues) {
+
+        checkCompressed(lhsOffsets, lhsMinors, lhsValues, nRows);
+        checkCompressed(rhsOffsets, rhsMinors, rhsValues, rhsOffsets.length - 1);
+
+        Control.checkTrue(nCols >= 0 //
+                && dstOffsets.length == nRows + 1 //
+                && dstMinors.length == dstOffsets[nRows] //
+                && dstValues.length == dstOffsets[nRows], //
+                "Invalid arguments");
+
+        final int[] bounds = partition(lhsOffsets, nRows, 1);
+
+        ParallelOps.fork(bounds.length - 1, 1, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                int[] marker = new int[nCols];
+                double[] acc = new double[nCols];
+
+                Arrays.fill(marker, -1);
+
+                for (int i = bounds[start], iEnd = bounds[end]; i < iEnd; i++) {
+
+                    int dstStart = dstOffsets[i];
+                    int dstEnd = dstStart;
+
+                    for (int j = lhsOffsets[i], jEnd = lhsOffsets[i + 1]; j < jEnd; j++) {
+
+                        int inner = lhsMinors[j];
+                        double value = lhsValues[j];
+
+                        for (int k = rhsOffsets[inner], kEnd = rhsOffsets[inner + 1]; k < kEnd; k++) {
+
+                            int col = rhsMinors[k];
+
+                            if (marker[col] != i) {
+
+                                marker[col] = i;
+                                dstMinors[dstEnd++] = col;
+                            }
+
+                            acc[col] += value * rhsValues[k];
+                        }
+                    }
+
+                    Control.checkTrue(dstEnd == dstOffsets[i + 1], //
+                            "Invalid offsets");
+
+                    Arrays.sort(dstMinors, dstStart, dstEnd);
+
+                    for (int j = dstStart; j < dstEnd; j++) {
+
+                        int col = dstMinors[j];
+
+                        dstValues[j] = acc[col];
+                        acc[col] = 0.0;
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks the consistency of a compressed matrix's line offsets.
+     */
+    final protected static void checkCompressed(int[] offsets, int[] minors, double[] values, int nMajor) {
+
+        Control.checkTrue(nMajor >= 0 //
+                && offsets.length == nMajor + 1 //
+                && minors.length == values.length //
+                && offsets[0] == 0 //
+                && offsets[nMajor] == values.length, //
+                "Invalid arguments");
+
+        for (int i = 0; i < nMajor; i++) {
+            Control.checkTrue(offsets[i] <= offsets[i + 1], //
+                    "Invalid offsets");
+        }
+    }
+
+    /**
+     * Divides major lines into contiguous groups of roughly equal numbers of nonzeros, one for each worker thread.
+     * 
+     * @param offsets
+     *            the line offsets.
+     * @param nMajor
+     *            the number of major lines.
+     * @param nCols
+     *            the multiplier on the work per nonzero.
+     * @return the group boundaries.
+     */
+    final protected static int[] partition(int[] offsets, int nMajor, int nCols) {
+
+        long work = (long) offsets[nMajor] * Math.max(nCols, 1) + nMajor;
+
+        int nParts = (int) Math.max(Math.min(ParallelOps.getParallelism(), work / COMPRESSED_GRAIN), 1);
+
+        int[] bounds = new int[nParts + 1];
+
+        for (int i = 1; i < nParts; i++) {
+
+            long target = ((long) offsets[nMajor] * i) / nParts;
+
+            int lower = bounds[i - 1];
+            int upper = nMajor;
+
+            // Find the first line whose end reaches the target.
+            while (lower < upper) {
+
+                int mid = (lower + upper) >>> 1;
+
+                if (offsets[mid + 1] < target) {
+                    lower = mid + 1;
+                } else {
+                    upper = mid;
+                }
+            }
+
+            bounds[i] = lower;
+        }
+
+        bounds[nParts] = nMajor;
+
+        return bounds;
+    }
+
+    /**
+     * Computes the number of work items per worker thread, given the work per item.
+     */
+    final protected static int grain(long work) {
+        return (int) Math.max(COMPRESSED_GRAIN / Math.max(work, 1L), 1L);
+    }
+
+    // Dummy constructor.
+    CompressedOps() {
+    }
+}
@@ -44,6 +44,7 @@ import static org.shared.array.kernel.ArrayKernel.RR_VAR;
 
 import java.util.Arrays;
 
+import org.shared.array.kernel.ParallelOps.RangeOperation;
 import org.shared.util.Arithmetic;
 import org.shared.util.Control;
 
@@ -53,107 +54,315 @@ import org.shared.util.Control;
  * @apiviz.has org.shared.array.kernel.DimensionOps.RealDimensionOperation - - - argument
  * @apiviz.has org.shared.array.kernel.DimensionOps.RealIndexOperation - - - argument
  * @apiviz.has org.shared.array.kernel.DimensionOps.RealReduceOperation - - - argument
- * @apiviz.uses org.shared.array.kernel.PermutationEntry
+ * @apiviz.uses org.shared.array.kernel.ParallelOps
  * @author Roy Liu
  */
 public class DimensionOps {
 
     /**
-     * Defines real reduce operations.
+     * The minimum number of elements sorted by a worker thread.
+     */
+    final protected static int SORT_GRAIN = 1 << 14;
+
+    /**
+     * The run length below which index sorts switch to insertion sort.
+     */
+    final protected static int INSERTION_SORT_THRESHOLD = 16;
+
+    /**
+     * The minimum number of elements reduced by a worker thread.
+     */
+    final protected static int REDUCE_GRAIN = 1 << 14;
+
+    /**
+     * The length of fiber segments reduced independently and then merged. It is fixed, rather than derived from the
+     * number of threads, so that results do not depend on the degree of parallelism.
+     */
+    final protected static int REDUCE_SEGMENT_SIZE = 1 << 13;
+
+    /**
+     * The number of slots in a partial reduction.
+     */
+    final protected static int PARTIAL_SIZE = 3;
+
+    /**
+     * Defines real reduce operations. Fibers are reduced segment by segment into partial results, which are then
+     * merged; this lets long fibers be divided among threads.
      */
     protected interface RealReduceOperation {
 
         /**
-         * Performs a real reduce operation.
+         * Reduces a fiber segment starting at the given physical index into a partial result.
+         */
+        public void accumulate(double[] working, int workingIndex, int size, int stride, //
+                double[] partials, int partialIndex);
+
+        /**
+         * Merges the partial result at {@code srcIndex} into the one at {@code dstIndex}.
          */
-        public void op(double[] working, int[] workingIndices, int size, int stride);
+        public void merge(double[] partials, int dstIndex, int srcIndex);
+
+        /**
+         * Derives the reduced value from a partial result.
+         */
+        public double finish(double[] partials, int partialIndex);
     }
 
+    /**
+     * Sums with Neumaier's variant of Kahan compensated summation. A partial result holds the running sum and its
+     * compensation.
+     */
     final static RealReduceOperation rrSumOp = new RealReduceOperation() {
 
         @Override
-        public void op(double[] working, int[] workingIndices, int size, int stride) {
+        public void accumulate(double[] working, int workingIndex, int size, int stride, //
+                double[] partials, int partialIndex) {
 
-            for (int workingIndex : workingIndices) {
+            double sum = 0.0;
+            double compensation = 0.0;
 
-                for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-                    working[workingIndex] += working[offset];
-                }
+            for (int j = 0, offset = workingIndex; j < size; j++, offset += stride) {
+
+                double value = working[offset];
+                double t = sum + value;
+
+                compensation += (Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum;
+                sum = t;
             }
+
+            partials[partialIndex] = sum;
+            partials[partialIndex + 1] = compensation;
+        }
+
+        @Override
+        public void merge(double[] partials, int dstIndex, int srcIndex) {
+
+            double sum = partials[dstIndex];
+            double value = partials[srcIndex];
+            double t = sum + value;
+
+            partials[dstIndex] = t;
+            partials[dstIndex + 1] += partials[srcIndex + 1] //
+                    + ((Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum);
+        }
+
+        @Override
+        public double finish(double[] partials, int partialIndex) {
+            return partials[partialIndex] + partials[partialIndex + 1];
         }
     };
 
     final static RealReduceOperation rrProdOp = new RealReduceOperation() {
 
         @Override
-        public void op(double[] working, int[] workingIndices, int size, int stride) {
+        public void accumulate(double[] working, int workingIndex, int size, int stride, //
+                double[] partials, int partialIndex) {
 
-            for (int workingIndex : workingIndices) {
+            double acc = 1.0;
 
-                for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-                    working[workingIndex] *= working[offset];
-                }
+            for (int j = 0, offset = workingIndex; j < size; j++, offset += stride) {
+                acc *= working[offset];
             }
+
+            partials[partialIndex] = acc;
+        }
+
+        @Override
+        public void merge(double[] partials, int dstIndex, int srcIndex) {
+            partials[dstIndex] *= partials[srcIndex];
+        }
+
+        @Override
+        public double finish(double[] partials, int partialIndex) {
+            return partials[partialIndex];
         }
     };
 
     final static RealReduceOperation rrMaxOp = new RealReduceOperation() {
 
         @Override
-        public void op(double[] working, int[] workingIndices, int size, int stride) {
+        public void accumulate(double[] working, int workingIndex, int size, int stride, //
+                double[] partials, int partialIndex) {
 
-            for (int workingIndex : workingIndices) {
+            double acc = working[workingIndex];
 
-                for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-                    working[workingIndex] = Math.max(working[offset], working[workingIndex]);
-                }
+            for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
+                acc = Math.max(working[offset], acc);
             }
+
+            partials[partialIndex] = acc;
+        }
+
+        @Override
+        public void merge(double[] partials, int dstIndex, int srcIndex) {
+            partials[dstIndex] = Math.max(partials[srcIndex], partials[dstIndex]);
+        }
+
+        @Override
+        public double finish(double[] partials, int partialIndex) {
+            return partials[partialIndex];
         }
     };
 
     final static RealReduceOperation rrMinOp = new RealReduceOperation() {
 
         @Override
-        public void op(double[] working, int[] workingIndices, int size, int stride) {
+        public void accumulate(double[] working, int workingIndex, int size, int stride, //
+                double[] partials, int partialIndex) {
 
-            for (int workingIndex : workingIndices) {
+            double acc = working[workingIndex];
 
-                for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-                    working[workingIndex] = Math.min(working[offset], working[workingIndex]);
-                }
+            for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
+                acc = Math.min(working[offset], acc);
             }
+
+            partials[partialIndex] = acc;
+        }
+
+        @Override
+        public void merge(double[] partials, int dstIndex, int srcIndex) {
+            partials[dstIndex] = Math.min(partials[srcIndex], partials[dstIndex]);
+        }
+
+        @Override
+        public double finish(double[] partials, int partialIndex) {
+            return partials[partialIndex];
         }
     };
 
+    /**
+     * Computes the population variance with Welford's single pass update. A partial result holds the count, the mean
+     * and the sum of squared deviations, and partial results are combined with the pairwise update of Chan et al.
+     */
     final static RealReduceOperation rrVarOp = new RealReduceOperation() {
 
         @Override
-        public void op(double[] working, int[] workingIndices, int size, int stride) {
+        public void accumulate(double[] working, int workingIndex, int size, int stride, //
+                double[] partials, int partialIndex) {
 
-            for (int workingIndex : workingIndices) {
+            double mean = 0.0;
+            double m2 = 0.0;
 
-                double mean = 0.0;
+            for (int j = 0, offset = workingIndex; j < size; j++, offset += stride) {
 
-                for (int j = 0, offset = workingIndex; j < size; j++, offset += stride) {
-                    mean += working[offset];
-                }
+                double delta = working[offset] - mean;
+
+                mean += delta / (j + 1);
+                m2 += delta * (working[offset] - mean);
+            }
+
+            partials[partialIndex] = size;
+            partials[partialIndex + 1] = mean;
+            partials[partialIndex + 2] = m2;
+        }
 
-                mean /= size;
+        @Override
+        public void merge(double[] partials, int dstIndex, int srcIndex) {
 
-                for (int j = 0, offset = workingIndex; j < size; j++, offset += stride) {
+            double dstCount = partials[dstIndex];
+            double srcCount = partials[srcIndex];
+            double count = dstCount + srcCount;
 
-                    double diff = working[offset] - mean;
-                    working[offset] = diff * diff;
+            double delta = partials[srcIndex + 1] - partials[dstIndex + 1];
+
+            partials[dstIndex] = count;
+            partials[dstIndex + 1] += delta * (srcCount / count);
+            partials[dstIndex + 2] += partials[srcIndex + 2] + delta * delta * (dstCount * srcCount / count);
+        }
+
+        @Override
+        public double finish(double[] partials, int partialIndex) {
+            return partials[partialIndex + 2] / partials[partialIndex];
+        }
+    };
+
+    /**
+     * Reduces fibers in place, leaving each result at the fiber's first element. Fibers longer than
+     * {@link #REDUCE_SEGMENT_SIZE} are split into segments whose partial results are computed in parallel and then
+     * merged in order.
+     * 
+     * @param op
+     *            the {@link RealReduceOperation}.
+     * @param working
+     *            the working values.
+     * @param baseD
+     *            the dimensions, with the reduced dimension set to one.
+     * @param baseS
+     *            the strides.
+     * @param nFibers
+     *            the number of fibers.
+     * @param size
+     *            the fiber size.
+     * @param stride
+     *            the fiber stride.
+     */
+    final protected static void reduce(final RealReduceOperation op, final double[] working, //
+            final int[] baseD, final int[] baseS, final int nFibers, final int size, final int stride) {
+
+        final int nSegments = (size + REDUCE_SEGMENT_SIZE - 1) / REDUCE_SEGMENT_SIZE;
+
+        int grain = Math.max(REDUCE_GRAIN / Math.min(size, REDUCE_SEGMENT_SIZE), 1);
+
+        if (nSegments <= 1) {
+
+            ParallelOps.fork(nFibers, grain, new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    double[] partial = new double[PARTIAL_SIZE];
+                    int[] counters = new int[baseD.length];
+
+                    for (int i = start, base = MappingOps.seek(start, counters, baseD, baseS); i < end; i++, //
+                    base += MappingOps.advance(counters, baseD, baseS)) {
+
+                        op.accumulate(working, base, size, stride, partial, 0);
+                        working[base] = op.finish(partial, 0);
+                    }
                 }
+            });
+
+            return;
+        }
+
+        final double[] partials = new double[PARTIAL_SIZE * nFibers * nSegments];
+
+        ParallelOps.fork(nFibers * nSegments, grain, new RangeOperation() {
 
-                for (int j = 1, offset = workingIndex + stride; j < size; j++, offset += stride) {
-                    working[workingIndex] += working[offset];
+            @Override
+            public void op(int start, int end) {
+
+                int[] counters = new int[baseD.length];
+
+                for (int i = start, base = MappingOps.seek(start / nSegments, counters, baseD, baseS); i < end; i++) {
+
+                    int segment = i % nSegments;
+                    int segmentStart = segment * REDUCE_SEGMENT_SIZE;
+
+                    op.accumulate(working, base + segmentStart * stride, //
+                            Math.min(REDUCE_SEGMENT_SIZE, size - segmentStart), stride, //
+                            partials, PARTIAL_SIZE * i);
+
+                    if (segment == nSegments - 1) {
+                        base += MappingOps.advance(counters, baseD, baseS);
+                    }
                 }
+            }
+        });
+
+        int[] counters = new int[baseD.length];
 
-                working[workingIndex] /= size;
+        for (int i = 0, base = 0; i < nFibers; i++, base += MappingOps.advance(counters, baseD, baseS)) {
+
+            int partialIndex = PARTIAL_SIZE * nSegments * i;
+
+            for (int j = 1; j < nSegments; j++) {
+                op.merge(partials, partialIndex, partialIndex + PARTIAL_SIZE * j);
             }
+
+            working[base] = op.finish(partials, partialIndex);
         }
-    };
+    }
 
     /**
      * Defines real index operations.
@@ -365,121 +574,190 @@ public class DimensionOps {
     final static RealIndexOperation riSortOp = new RealIndexOperation() {
 
         @Override
-        public void op(double[] srcV, int[] srcIndices, int[] dstV, int size, int stride) {
+        public void op(final double[] srcV, final int[] srcIndices, final int[] dstV, //
+                final int size, final int stride) {
+
+            if (srcIndices != null) {
+
+                ParallelOps.fork(srcIndices.length, grain(size), new RangeOperation() {
 
-            Double[] srcVBoxed = org.shared.util.Arrays.box(srcV);
+                    @Override
+                    public void op(int start, int end) {
 
-            PermutationEntry.iSort(srcVBoxed, srcIndices, dstV, size, stride);
+                        long[] keys = new long[size];
+                        int[] perm = new int[size];
+                        int[] tmp = new int[size];
 
-            for (int i = 0, n = srcV.length; i < n; i++) {
-                srcV[i] = srcVBoxed[i];
+                        for (int i = start; i < end; i++) {
+                            sort(srcV, srcIndices[i], size, stride, dstV, keys, perm, tmp);
+                        }
+                    }
+                });
+
+            } else {
+
+                int len = srcV.length;
+
+                sort(srcV, 0, len, 1, dstV, new long[len], new int[len], new int[len]);
             }
         }
     };
 
     /**
-     * Defines real dimension operations.
+     * Stably sorts a fiber in place and stores the permutation that sorts it. The ordering agrees with
+     * {@link Double#compare(double, double)}.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param base
+     *            the physical index of the fiber's first element.
+     * @param size
+     *            the fiber size.
+     * @param stride
+     *            the fiber stride.
+     * @param dstV
+     *            the destination permutation, laid out like the source.
+     * @param keys
+     *            the scratch space for sort keys.
+     * @param perm
+     *            the scratch space for the permutation.
+     * @param tmp
+     *            the scratch space for merging.
      */
-    protected interface RealDimensionOperation {
+    final protected static void sort(double[] srcV, int base, int size, int stride, int[] dstV, //
+            long[] keys, int[] perm, int[] tmp) {
 
-        /**
-         * Performs a real dimension operation.
-         */
-        public void op(double[] srcV, int[] srcD, int[] srcS, double[] dstV, int[] opDims);
-    }
+        for (int j = 0, physical = base; j < size; j++, physical += stride) {
 
-    final static RealDimensionOperation rdSumOp = new RealDimensionOperation() {
+            keys[j] = key(srcV[physical]);
+            perm[j] = j;
+        }
 
-        @Override
-        public void op(double[] srcV, int[] srcD, int[] srcS, double[] dstV, int[] opDims) {
+        for (int start = 0; start < size; start += INSERTION_SORT_THRESHOLD) {
 
-            int len = Control.checkEquals(srcV.length, dstV.length);
-            int nDims = Control.checkEquals(srcD.length, srcS.length);
+            int end = Math.min(start + INSERTION_SORT_THRESHOLD, size);
 
-            boolean[] indicator = new boolean[nDims];
+            for (int j = start + 1; j < end; j++) {
 
-            for (int dim : opDims) {
-                indicator[dim] = true;
-            }
+                int position = perm[j];
+                long key = keys[position];
 
-            int[] srcIndices = MappingOps.assignMappingIndices(len, srcD, srcS);
+                int k = j - 1;
 
-            //
+                for (; k >= start && keys[perm[k]] > key; k--) {
+                    perm[k + 1] = perm[k];
+                }
 
-            System.arraycopy(srcV, 0, dstV, 0, len);
+                perm[k + 1] = position;
+            }
+        }
 
-            for (int dim = 0, indexBlockIncrement = len; dim < nDims; indexBlockIncrement /= srcD[dim++]) {
+        int[] src = perm;
+        int[] dst = tmp;
 
-                if (!indicator[dim]) {
-                    continue;
-                }
+        for (int width = INSERTION_SORT_THRESHOLD; width < size; width <<= 1) {
 
-                int size = srcD[dim];
-                int stride = srcS[dim];
+            for (int start = 0; start < size; start += width << 1) {
 
-                for (int lower = 0, upper = indexBlockIncrement / size; //
-                lower < len; //
-                lower += indexBlockIncrement, upper += indexBlockIncrement) {
+                int mid = Math.min(start + width, size);
+                int end = Math.min(start + (width << 1), size);
 
-                    for (int indexIndex = lower; indexIndex < upper; indexIndex++) {
+                // Skip the merge if the two runs are already in order.
+                if (mid == end || keys[src[mid - 1]] <= keys[src[mid]]) {
 
-                        double acc = 0.0;
+                    System.arraycopy(src, start, dst, start, end - start);
 
-                        for (int k = 0, physical = srcIndices[indexIndex]; k < size; k++, physical += stride) {
+                    continue;
+                }
 
-                            acc += dstV[physical];
-                            dstV[physical] = acc;
-                        }
-                    }
+                for (int i = start, l = start, r = mid; i < end; i++) {
+                    dst[i] = (r >= end || (l < mid && keys[src[l]] <= keys[src[r]])) ? src[l++] : src[r++];
                 }
             }
+
+            int[] swap = src;
+            src = dst;
+            dst = swap;
         }
-    };
 
-    final static RealDimensionOperation rdProdOp = new RealDimensionOperation() {
+        for (int j = 0, physical = base; j < size; j++, physical += stride) {
 
-        @Override
-        public void op(double[] srcV, int[] srcD, int[] srcS, double[] dstV, int[] opDims) {
+            srcV[physical] = keyToValue(keys[src[j]]);
+            dstV[physical] = src[j];
+        }
+    }
 
-            int len = Control.checkEquals(srcV.length, dstV.length);
-            int nDims = Control.checkEquals(srcD.length, srcS.length);
+    /**
+     * Maps a value to a {@code long} sort key whose signed ordering agrees with
+     * {@link Double#compare(double, double)}.
+     */
+    final protected static long key(double value) {
 
-            boolean[] indicator = new boolean[nDims];
+        long bits = Double.doubleToLongBits(value);
 
-            for (int dim : opDims) {
-                indicator[dim] = true;
-            }
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
 
-            int[] srcIndices = MappingOps.assignMappingIndices(len, srcD, srcS);
+    /**
+     * Inverts {@link #key(double)}.
+     */
+    final protected static double keyToValue(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
 
-            //
+    /**
+     * Computes the number of fibers assigned to a worker thread.
+     */
+    final protected static int grain(int size) {
+        return Math.max(SORT_GRAIN / Math.max(size, 1), 1);
+    }
 
-            System.arraycopy(srcV, 0, dstV, 0, len);
+    /**
+     * Defines real dimension operations.
+     */
+    protected interface RealDimensionOperation {
 
-            for (int dim = 0, indexBlockIncrement = len; dim < nDims; indexBlockIncrement /= srcD[dim++]) {
+        /**
+         * Performs a real dimension operation in place along the fiber starting at the given physical index.
+         */
+        public void op(double[] dstV, int dstIndex, int size, int stride);
+    }
 
-                if (!indicator[dim]) {
-                    continue;
-                }
+    /**
+     * Takes cumulative sums with Neumaier's variant of Kahan compensated summation.
+     */
+    final static RealDimensionOperation rdSumOp = new RealDimensionOperation() {
 
-                int size = srcD[dim];
-                int stride = srcS[dim];
+        @Override
+        public void op(double[] dstV, int dstIndex, int size, int stride) {
 
-                for (int lower = 0, upper = indexBlockIncrement / size; //
-                lower < len; //
-                lower += indexBlockIncrement, upper += indexBlockIncrement) {
+            double sum = 0.0;
+            double compensation = 0.0;
 
-                    for (int indexIndex = lower; indexIndex < upper; indexIndex++) {
+            for (int k = 0, physical = dstIndex; k < size; k++, physical += stride) {
 
-                        double acc = 1.0;
+                double value = dstV[physical];
+                double t = sum + value;
 
-                        for (int k = 0, physical = srcIndices[indexIndex]; k < size; k++, physical += stride) {
+                compensation += (Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum;
+                sum = t;
 
-                            acc *= dstV[physical];
-                            dstV[physical] = acc;
-                        }
-                    }
-                }
+                dstV[physical] = sum + compensation;
+            }
+        }
+    };
+
+    final static RealDimensionOperation rdProdOp = new RealDimensionOperation() {
+
+        @Override
+        public void op(double[] dstV, int dstIndex, int size, int stride) {
+
+            double acc = 1.0;
+
+            for (int k = 0, physical = dstIndex; k < size; k++, physical += stride) {
+
+                acc *= dstV[physical];
+                dstV[physical] = acc;
             }
         }
     };
@@ -595,18 +873,18 @@ public class DimensionOps {
         for (int i = 0; i < nOpDims; i++) {
 
             int dim = opDims[i];
+            int size = workingD[dim];
 
-            acc /= srcD[dim];
-
-            op.op(workingV, assignBaseIndices(acc, workingD, srcS, dim), //
-                    workingD[dim], srcS[dim]);
+            acc /= size;
 
             workingD[dim] = 1;
+
+            reduce(op, workingV, workingD, srcS, acc, size, srcS[dim]);
         }
 
-        MappingOps.assign( //
-                workingV, MappingOps.assignMappingIndices(dstLen, dstD, srcS), //
-                dstV, MappingOps.assignMappingIndices(dstLen, dstD, dstS));
+        MappingOps.copy(dstD, //
+                workingV, 0, srcS, //
+                dstV, 0, dstS);
     }
 
     /**
@@ -668,11 +946,166 @@ public class DimensionOps {
         }
     }
 
+    /**
+     * Dimension top-k operations in support of
+     * {@link ArrayKernel#riTopK(double[], int[], int[], double[], int[], int[], int[], int)}. Each fiber is scanned
+     * once against a bounded max-heap of its {@code k} smallest elements, for {@code O(n log k)} work.
+     */
+    final public static void riTopK( //
+            final double[] srcV, int[] srcD, int[] srcS, //
+            final double[] dstV, final int[] dstI, int[] dstD, int[] dstS, //
+            int dim) {
+
+        int srcLen = MappingOps.checkDimensions(srcV.length, srcD, srcS);
+        int dstLen = MappingOps.checkDimensions(dstV.length, dstD, dstS);
+
+        int nDims = Control.checkEquals(srcD.length, dstD.length, //
+                "Dimensionality mismatch");
+
+        Control.checkTrue(dim >= 0 && dim < nDims && dstI.length == dstLen, //
+                "Invalid arguments");
+
+        for (int i = 0; i < nDims; i++) {
+            Control.checkTrue(i == dim ? dstD[i] <= srcD[i] : dstD[i] == srcD[i], //
+                    "Invalid dimensions");
+        }
+
+        final int size = srcD[dim];
+        final int k = dstD[dim];
+
+        if (srcLen == 0 || dstLen == 0) {
+            return;
+        }
+
+        final int srcStride = srcS[dim];
+        final int dstStride = dstS[dim];
+
+        final int[] srcIndices = assignBaseIndices(srcLen / size, srcD, srcS, dim);
+        final int[] dstIndices = assignBaseIndices(dstLen / k, dstD, dstS, dim);
+
+        ParallelOps.fork(srcIndices.length, grain(size), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                long[] heapKeys = new long[k];
+                int[] heapPositions = new int[k];
+
+                for (int i = start; i < end; i++) {
+                    topK(srcV, srcIndices[i], size, srcStride, //
+                            dstV, dstI, dstIndices[i], k, dstStride, //
+                            heapKeys, heapPositions);
+                }
+            }
+        });
+    }
+
+    /**
+     * Selects the {@code k} smallest elements of a fiber in ascending order, breaking ties by position.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param srcBase
+     *            the physical index of the source fiber's first element.
+     * @param size
+     *            the source fiber size.
+     * @param srcStride
+     *            the source fiber stride.
+     * @param dstV
+     *            the destination values.
+     * @param dstI
+     *            the destination positions.
+     * @param dstBase
+     *            the physical index of the destination fiber's first element.
+     * @param k
+     *            the number of elements to select.
+     * @param dstStride
+     *            the destination fiber stride.
+     * @param heapKeys
+     *            the scratch space for heap keys.
+     * @param heapPositions
+     *            the scratch space for heap positions.
+     */
+    final protected static void topK(double[] srcV, int srcBase, int size, int srcStride, //
+            double[] dstV, int[] dstI, int dstBase, int k, int dstStride, //
+            long[] heapKeys, int[] heapPositions) {
+
+        int count = 0;
+
+        for (int j = 0, physical = srcBase; j < size; j++, physical += srcStride) {
+
+            long key = key(srcV[physical]);
+
+            if (count < k) {
+
+                // Sift up.
+                int child = count++;
+
+                for (int parent; child > 0 && heapKeys[parent = (child - 1) >>> 1] <= key; child = parent) {
+
+                    heapKeys[child] = heapKeys[parent];
+                    heapPositions[child] = heapPositions[parent];
+                }
+
+                heapKeys[child] = key;
+                heapPositions[child] = j;
+
+            } else if (key < heapKeys[0]) {
+
+                siftDown(heapKeys, heapPositions, count, key, j);
+            }
+        }
+
+        // Pop the largest remaining element into the last open slot.
+        for (int j = count - 1; j >= 0; j--) {
+
+            long key = heapKeys[0];
+            int position = heapPositions[0];
+
+            siftDown(heapKeys, heapPositions, j, heapKeys[j], heapPositions[j]);
+
+            dstV[dstBase + j * dstStride] = keyToValue(key);
+            dstI[dstBase + j * dstStride] = position;
+        }
+    }
+
+    /**
+     * Replaces the root of a max-heap ordered by key, and then by position, and restores the heap property.
+     */
+    final protected static void siftDown(long[] heapKeys, int[] heapPositions, int count, long key, int position) {
+
+        int parent = 0;
+
+        for (int child; (child = 2 * parent + 1) < count; parent = child) {
+
+            if (child + 1 < count && greater(heapKeys, heapPositions, child + 1, child)) {
+                child++;
+            }
+
+            if (heapKeys[child] < key || (heapKeys[child] == key && heapPositions[child] < position)) {
+                break;
+            }
+
+            heapKeys[parent] = heapKeys[child];
+            heapPositions[parent] = heapPositions[child];
+        }
+
+        heapKeys[parent] = key;
+        heapPositions[parent] = position;
+    }
+
+    /**
+     * Checks whether the heap entry at {@code a} orders after the one at {@code b}.
+     */
+    final protected static boolean greater(long[] heapKeys, int[] heapPositions, int a, int b) {
+        return heapKeys[a] > heapKeys[b] || (heapKeys[a] == heapKeys[b] && heapPositions[a] > heapPositions[b]);
+    }
+
     /**
      * Dimension operations in support of {@link ArrayKernel#rdOp(int, double[], int[], int[], double[], int...)}.
      */
     final public static void rdOp(int type, //
-            double[] srcV, int[] srcD, int[] srcS, double[] dstV, //
+            double[] srcV, int[] srcD, int[] srcS, final double[] dstV, //
             int[] opDims) {
 
         int srcLen = MappingOps.checkDimensions(srcV.length, srcD, srcS);
@@ -701,11 +1134,49 @@ public class DimensionOps {
                     "Invalid dimension");
         }
 
+        Control.checkTrue(srcLen == dstV.length, //
+                "Invalid arguments");
+
         if (srcLen == 0) {
             return;
         }
 
-        op.op(srcV, srcD, srcS, dstV, opDims);
+        boolean[] indicator = new boolean[nDims];
+
+        for (int dim : opDims) {
+            indicator[dim] = true;
+        }
+
+        System.arraycopy(srcV, 0, dstV, 0, srcLen);
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            if (!indicator[dim]) {
+                continue;
+            }
+
+            final int size = srcD[dim];
+            final int stride = srcS[dim];
+
+            final int[] baseD = srcD.clone();
+            final int[] baseS = srcS;
+
+            baseD[dim] = 1;
+
+            ParallelOps.fork(srcLen / size, Math.max(REDUCE_GRAIN / size, 1), new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    int[] counters = new int[baseD.length];
+
+                    for (int i = start, base = MappingOps.seek(start, counters, baseD, baseS); i < end; i++, //
+                    base += MappingOps.advance(counters, baseD, baseS)) {
+                        op.op(dstV, base, size, stride);
+                    }
+                }
+            });
+        }
     }
 
     // Dummy constructor.
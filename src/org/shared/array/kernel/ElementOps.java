@@ -85,6 +85,7 @@ import static org.shared.array.kernel.ArrayKernel.RU_SQRT;
 import static org.shared.array.kernel.ArrayKernel.R_TO_C_IM;
 import static org.shared.array.kernel.ArrayKernel.R_TO_C_RE;
 
+import org.shared.array.kernel.ParallelOps.RangeOperation;
 import org.shared.util.Arithmetic;
 import org.shared.util.Control;
 
@@ -94,72 +95,21 @@ import org.shared.util.Control;
  * @apiviz.has org.shared.array.kernel.ElementOps.ComplexAccumulatorOperation - - - argument
  * @apiviz.has org.shared.array.kernel.ElementOps.ComplexBinaryOperation - - - argument
  * @apiviz.has org.shared.array.kernel.ElementOps.ComplexToRealOperation - - - argument
- * @apiviz.has org.shared.array.kernel.ElementOps.IntegerBinaryOperation - - - argument
  * @apiviz.has org.shared.array.kernel.ElementOps.RealAccumulatorOperation - - - argument
- * @apiviz.has org.shared.array.kernel.ElementOps.RealBinaryOperation - - - argument
  * @apiviz.has org.shared.array.kernel.ElementOps.RealToComplexOperation - - - argument
  * @author Roy Liu
  */
 public class ElementOps {
 
     /**
-     * Defines real binary operations.
+     * The minimum number of elements per parallel work chunk. Arrays smaller than this are processed serially.
      */
-    protected interface RealBinaryOperation {
+    final public static int ELEMENT_GRAIN = 1 << 14;
 
-        /**
-         * Performs a real binary operation.
-         */
-        public double op(double a, double b);
-    }
-
-    final static RealBinaryOperation reAddOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double b) {
-            return a + b;
-        }
-    };
-
-    final static RealBinaryOperation reSubOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double b) {
-            return a - b;
-        }
-    };
-
-    final static RealBinaryOperation reMulOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double b) {
-            return a * b;
-        }
-    };
-
-    final static RealBinaryOperation reDivOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double b) {
-            return a / b;
-        }
-    };
-
-    final static RealBinaryOperation reMaxOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double b) {
-            return Math.max(a, b);
-        }
-    };
-
-    final static RealBinaryOperation reMinOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double b) {
-            return Math.min(a, b);
-        }
-    };
+    /**
+     * The number of elements per partial result of a parallel accumulator operation.
+     */
+    final protected static int ACCUMULATOR_BLOCK = 1 << 12;
 
     /**
      * Defines complex binary operations.
@@ -212,57 +162,6 @@ public class ElementOps {
         }
     };
 
-    /**
-     * Defines integer binary operations.
-     */
-    protected interface IntegerBinaryOperation {
-
-        /**
-         * Performs an integer binary operation.
-         */
-        public int op(int a, int b);
-    }
-
-    final static IntegerBinaryOperation ieAddOp = new IntegerBinaryOperation() {
-
-        @Override
-        public int op(int a, int b) {
-            return a + b;
-        }
-    };
-
-    final static IntegerBinaryOperation ieSubOp = new IntegerBinaryOperation() {
-
-        @Override
-        public int op(int a, int b) {
-            return a - b;
-        }
-    };
-
-    final static IntegerBinaryOperation ieMulOp = new IntegerBinaryOperation() {
-
-        @Override
-        public int op(int a, int b) {
-            return a * b;
-        }
-    };
-
-    final static IntegerBinaryOperation ieMaxOp = new IntegerBinaryOperation() {
-
-        @Override
-        public int op(int a, int b) {
-            return Math.max(a, b);
-        }
-    };
-
-    final static IntegerBinaryOperation ieMinOp = new IntegerBinaryOperation() {
-
-        @Override
-        public int op(int a, int b) {
-            return Math.min(a, b);
-        }
-    };
-
     /**
      * Defines complex-to-real operations.
      */
@@ -329,102 +228,6 @@ public class ElementOps {
         }
     };
 
-    final static RealBinaryOperation ruAbsOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.abs(v);
-        }
-    };
-
-    final static RealBinaryOperation ruPowOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.pow(v, a);
-        }
-    };
-
-    final static RealBinaryOperation ruExpOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.exp(v);
-        }
-    };
-
-    final static RealBinaryOperation ruRndOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Arithmetic.nextDouble(a);
-        }
-    };
-
-    final static RealBinaryOperation ruLogOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.log(v);
-        }
-    };
-
-    final static RealBinaryOperation ruSqrtOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.sqrt(v);
-        }
-    };
-
-    final static RealBinaryOperation ruSqrOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return v * v;
-        }
-    };
-
-    final static RealBinaryOperation ruInvOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return a / v;
-        }
-    };
-
-    final static RealBinaryOperation ruCosOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.cos(v);
-        }
-    };
-
-    final static RealBinaryOperation ruSinOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.sin(v);
-        }
-    };
-
-    final static RealBinaryOperation ruAtanOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return Math.atan(v);
-        }
-    };
-
-    final static RealBinaryOperation ruFillOp = new RealBinaryOperation() {
-
-        @Override
-        public double op(double a, double v) {
-            return a;
-        }
-    };
-
     final static ComplexBinaryOperation cuExpOp = new ComplexBinaryOperation() {
 
         @Override
@@ -435,26 +238,6 @@ public class ElementOps {
         }
     };
 
-    final static ComplexBinaryOperation cuRndOp = new ComplexBinaryOperation() {
-
-        @Override
-        public void op(double[] res, double aRe, double aIm, double vRe, double vIm) {
-
-            res[0] = Arithmetic.nextDouble(aRe);
-            res[1] = Arithmetic.nextDouble(aIm);
-        }
-    };
-
-    final static ComplexBinaryOperation cuConjOp = new ComplexBinaryOperation() {
-
-        @Override
-        public void op(double[] res, double aRe, double aIm, double vRe, double vIm) {
-
-            res[0] = vRe;
-            res[1] = -vIm;
-        }
-    };
-
     final static ComplexBinaryOperation cuCosOp = new ComplexBinaryOperation() {
 
         @Override
@@ -499,24 +282,6 @@ public class ElementOps {
         }
     };
 
-    final static ComplexBinaryOperation cuFillOp = new ComplexBinaryOperation() {
-
-        @Override
-        public void op(double[] res, double aRe, double aIm, double vRe, double vIm) {
-
-            res[0] = aRe;
-            res[1] = aIm;
-        }
-    };
-
-    final static IntegerBinaryOperation iuFillOp = new IntegerBinaryOperation() {
-
-        @Override
-        public int op(int a, int v) {
-            return a;
-        }
-    };
-
     /**
      * Defines real accumulator operations.
      */
@@ -627,10 +392,20 @@ public class ElementOps {
         switch (type) {
 
         case RA_SUM:
+
+            if (srcV.length >= ELEMENT_GRAIN) {
+                return accumulate(type, 0.0, srcV);
+            }
+
             op = raSumOp;
             break;
 
         case RA_PROD:
+
+            if (srcV.length >= ELEMENT_GRAIN) {
+                return accumulate(type, 1.0, srcV);
+            }
+
             op = raProdOp;
             break;
 
@@ -643,10 +418,20 @@ public class ElementOps {
             break;
 
         case RA_MAX:
+
+            if (srcV.length >= ELEMENT_GRAIN) {
+                return accumulate(type, -Double.MAX_VALUE, srcV);
+            }
+
             op = raMaxOp;
             break;
 
         case RA_MIN:
+
+            if (srcV.length >= ELEMENT_GRAIN) {
+                return accumulate(type, Double.MAX_VALUE, srcV);
+            }
+
             op = raMinOp;
             break;
 
@@ -658,159 +443,408 @@ public class ElementOps {
     }
 
     /**
-     * A complex accumulator operation in support of {@link JavaArrayKernel#caOp(int, double[])}.
+     * Folds the given array in parallel. Partial results over consecutive blocks are combined in block order, so that
+     * the outcome does not depend on the number of threads.
+     * 
+     * @param type
+     *            the accumulator type, one of {@link ArrayKernel#RA_SUM}, {@link ArrayKernel#RA_PROD},
+     *            {@link ArrayKernel#RA_MAX}, or {@link ArrayKernel#RA_MIN}.
+     * @param identity
+     *            the identity element.
+     * @param srcV
+     *            the array.
+     * @return the accumulated value.
      */
-    final public static double[] caOp(int type, double[] srcV) {
+    final protected static double accumulate(final int type, final double identity, final double[] srcV) {
 
-        final ComplexAccumulatorOperation op;
+        final int n = srcV.length;
+        final double[] partials = new double[(n + ACCUMULATOR_BLOCK - 1) / ACCUMULATOR_BLOCK];
 
-        switch (type) {
+        ParallelOps.fork(partials.length, ELEMENT_GRAIN / ACCUMULATOR_BLOCK, new RangeOperation() {
 
-        case CA_SUM:
-            op = caSumOp;
-            break;
+            @Override
+            public void op(int start, int end) {
 
-        case CA_PROD:
-            op = caProdOp;
-            break;
+                for (int block = start; block < end; block++) {
 
-        default:
-            throw new IllegalArgumentException();
-        }
+                    int offset = block * ACCUMULATOR_BLOCK;
 
-        Control.checkTrue(srcV.length % 2 == 0);
+                    partials[block] = fold(type, identity, srcV, offset, Math.min(offset + ACCUMULATOR_BLOCK, n));
+                }
+            }
+        });
 
-        return op.op(srcV);
+        return fold(type, identity, partials, 0, partials.length);
     }
 
     /**
-     * A real unary elementwise operation in support of {@link JavaArrayKernel#ruOp(int, double, double[])}.
+     * A real accumulator operation over strided values, which lets views be read in place without gathering them
+     * first. Rows along the last dimension are folded in order.
+     * 
+     * @param type
+     *            the accumulator type, one of {@link ArrayKernel#RA_SUM}, {@link ArrayKernel#RA_PROD},
+     *            {@link ArrayKernel#RA_MAX}, or {@link ArrayKernel#RA_MIN}.
+     * @param dims
+     *            the dimensions.
+     * @param srcV
+     *            the values.
+     * @param srcOffset
+     *            the offset.
+     * @param srcS
+     *            the strides.
+     * @return the accumulated value.
      */
-    final public static void ruOp(int type, double a, double[] srcV) {
-
-        final RealBinaryOperation op;
+    final public static double raOp(int type, int[] dims, double[] srcV, int srcOffset, int[] srcS) {
 
-        switch (type) {
-
-        case RU_ADD:
-            op = reAddOp;
-            break;
+        MappingOps.checkExtent(srcV.length, srcOffset, dims, srcS);
 
-        case RU_MUL:
-            op = reMulOp;
-            break;
+        final double identity;
 
-        case RU_EXP:
-            op = ruExpOp;
-            break;
+        switch (type) {
 
-        case RU_LOG:
-            op = ruLogOp;
+        case RA_SUM:
+            identity = 0.0;
             break;
 
-        case RU_POW:
-            op = ruPowOp;
+        case RA_PROD:
+            identity = 1.0;
             break;
 
-        case RU_RND:
-            op = ruRndOp;
+        case RA_MAX:
+            identity = -Double.MAX_VALUE;
             break;
 
-        case RU_ABS:
-            op = ruAbsOp;
+        case RA_MIN:
+            identity = Double.MAX_VALUE;
             break;
 
-        case RU_SQRT:
-            op = ruSqrtOp;
-            break;
+        default:
+            throw new IllegalArgumentException();
+        }
 
-        case RU_SQR:
-            op = ruSqrOp;
-            break;
+        int nDims = dims.length;
+        int len = Arithmetic.product(dims);
 
-        case RU_INV:
-            op = ruInvOp;
-            break;
+        double acc = identity;
 
-        case RU_COS:
-            op = ruCosOp;
-            break;
+        if (len == 0) {
+            return acc;
+        }
 
-        case RU_SIN:
-            op = ruSinOp;
-            break;
+        int size = (nDims > 0) ? dims[nDims - 1] : 1;
+        int stride = (nDims > 0) ? srcS[nDims - 1] : 1;
 
-        case RU_ATAN:
-            op = ruAtanOp;
-            break;
+        int[] rowD = dims.clone();
 
-        case RU_FILL:
-            op = ruFillOp;
-            break;
+        if (nDims > 0) {
+            rowD[nDims - 1] = 1;
+        }
 
-        case RU_SHUFFLE:
-            Arithmetic.shuffle(srcV);
-            return;
+        int[] counters = new int[nDims];
 
-        default:
-            throw new IllegalArgumentException();
+        for (int i = 0, n = len / size, index = srcOffset; i < n; i++, //
+        index += MappingOps.advance(counters, rowD, srcS)) {
+            acc = fold(type, acc, srcV, index, stride, size);
         }
 
-        for (int i = 0, n = srcV.length; i < n; i++) {
-            srcV[i] = op.op(a, srcV[i]);
-        }
+        return acc;
     }
 
     /**
-     * A complex unary elementwise operation in support of {@link JavaArrayKernel#cuOp(int, double, double, double[])}.
+     * Folds a strided row of values into an accumulator.
      */
-    final public static void cuOp(int type, double aRe, double aIm, double[] srcV) {
-
-        double[] tmp = new double[2];
+    final protected static double fold(int type, double acc, double[] srcV, int index, int stride, int size) {
 
-        int n = srcV.length;
+        switch (type) {
 
-        final ComplexBinaryOperation op;
+        case RA_SUM:
 
-        switch (type) {
+            for (int k = 0; k < size; k++, index += stride) {
+                acc += srcV[index];
+            }
 
-        case CU_ADD:
-            op = ceAddOp;
             break;
 
-        case CU_MUL:
-            op = ceMulOp;
-            break;
+        case RA_PROD:
 
-        case CU_EXP:
-            op = cuExpOp;
-            break;
+            for (int k = 0; k < size; k++, index += stride) {
+                acc *= srcV[index];
+            }
 
-        case CU_RND:
-            op = cuRndOp;
             break;
 
-        case CU_CONJ:
-            op = cuConjOp;
-            break;
+        case RA_MAX:
 
-        case CU_COS:
-            op = cuCosOp;
-            break;
+            for (int k = 0; k < size; k++, index += stride) {
+                acc = Math.max(acc, srcV[index]);
+            }
 
-        case CU_SIN:
-            op = cuSinOp;
             break;
 
-        case CU_FILL:
-            op = cuFillOp;
-            break;
+        case RA_MIN:
 
-        case CU_SHUFFLE:
+            for (int k = 0; k < size; k++, index += stride) {
+                acc = Math.min(acc, srcV[index]);
+            }
 
-            for (int i = n / 2; i > 1; i--) {
+            break;
 
-                int index = Arithmetic.nextInt(i);
+        default:
+            throw new IllegalArgumentException();
+        }
+
+        return acc;
+    }
+
+    /**
+     * Folds the given range of values into an accumulator.
+     */
+    final protected static double fold(int type, double acc, double[] srcV, int start, int end) {
+
+        switch (type) {
+
+        case RA_SUM:
+
+            for (int i = start; i < end; i++) {
+                acc += srcV[i];
+            }
+
+            break;
+
+        case RA_PROD:
+
+            for (int i = start; i < end; i++) {
+                acc *= srcV[i];
+            }
+
+            break;
+
+        case RA_MAX:
+
+            for (int i = start; i < end; i++) {
+                acc = Math.max(acc, srcV[i]);
+            }
+
+            break;
+
+        case RA_MIN:
+
+            for (int i = start; i < end; i++) {
+                acc = Math.min(acc, srcV[i]);
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+
+        return acc;
+    }
+
+    /**
+     * A complex accumulator operation in support of {@link JavaArrayKernel#caOp(int, double[])}.
+     */
+    final public static double[] caOp(int type, double[] srcV) {
+
+        final ComplexAccumulatorOperation op;
+
+        switch (type) {
+
+        case CA_SUM:
+            op = caSumOp;
+            break;
+
+        case CA_PROD:
+            op = caProdOp;
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+
+        Control.checkTrue(srcV.length % 2 == 0);
+
+        return op.op(srcV);
+    }
+
+    /**
+     * A real unary elementwise operation in support of {@link JavaArrayKernel#ruOp(int, double, double[])}.
+     */
+    final public static void ruOp(final int type, final double a, final double[] srcV) {
+
+        switch (type) {
+
+        case RU_RND:
+
+            // Draws from the shared random number generator must happen in sequence.
+            for (int i = 0, n = srcV.length; i < n; i++) {
+                srcV[i] = Arithmetic.nextDouble(a);
+            }
+
+            return;
+
+        case RU_SHUFFLE:
+            Arithmetic.shuffle(srcV);
+            return;
+
+        default:
+            break;
+        }
+
+        ParallelOps.fork(srcV.length, ELEMENT_GRAIN, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+                ruOp(type, a, srcV, start, end);
+            }
+        });
+    }
+
+    /**
+     * Performs a real unary elementwise operation over the given range. Every operation has its own loop, so that
+     * the compiler can inline and vectorize it.
+     */
+    final protected static void ruOp(int type, double a, double[] srcV, int start, int end) {
+
+        switch (type) {
+
+        case RU_ADD:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = a + srcV[i];
+            }
+
+            break;
+
+        case RU_MUL:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = a * srcV[i];
+            }
+
+            break;
+
+        case RU_EXP:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.exp(srcV[i]);
+            }
+
+            break;
+
+        case RU_LOG:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.log(srcV[i]);
+            }
+
+            break;
+
+        case RU_POW:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.pow(srcV[i], a);
+            }
+
+            break;
+
+        case RU_ABS:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.abs(srcV[i]);
+            }
+
+            break;
+
+        case RU_SQRT:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.sqrt(srcV[i]);
+            }
+
+            break;
+
+        case RU_SQR:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = srcV[i] * srcV[i];
+            }
+
+            break;
+
+        case RU_INV:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = a / srcV[i];
+            }
+
+            break;
+
+        case RU_COS:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.cos(srcV[i]);
+            }
+
+            break;
+
+        case RU_SIN:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.sin(srcV[i]);
+            }
+
+            break;
+
+        case RU_ATAN:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = Math.atan(srcV[i]);
+            }
+
+            break;
+
+        case RU_FILL:
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = a;
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * A complex unary elementwise operation in support of {@link JavaArrayKernel#cuOp(int, double, double, double[])}.
+     */
+    final public static void cuOp(final int type, final double aRe, final double aIm, final double[] srcV) {
+
+        int n = srcV.length;
+
+        switch (type) {
+
+        case CU_RND:
+
+            Control.checkTrue(n % 2 == 0);
+
+            // Draws from the shared random number generator must happen in sequence.
+            for (int i = 0; i < n; i += 2) {
+
+                srcV[i] = Arithmetic.nextDouble(aRe);
+                srcV[i + 1] = Arithmetic.nextDouble(aIm);
+            }
+
+            return;
+
+        case CU_SHUFFLE:
+
+            for (int i = n / 2; i > 1; i--) {
+
+                int index = Arithmetic.nextInt(i);
 
                 double tmpRe = srcV[2 * (i - 1)];
                 double tmpIm = srcV[2 * (i - 1) + 1];
@@ -825,58 +859,167 @@ public class ElementOps {
             return;
 
         default:
-            throw new IllegalArgumentException();
+            break;
         }
 
         Control.checkTrue(n % 2 == 0);
 
-        for (int i = 0; i < n; i += 2) {
+        ParallelOps.fork(n / 2, ELEMENT_GRAIN / 2, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+                cuOp(type, aRe, aIm, srcV, start, end);
+            }
+        });
+    }
+
+    /**
+     * Performs a complex unary elementwise operation over the given range of complex elements. Every operation has its
+     * own loop, so that the compiler can inline it.
+     */
+    final protected static void cuOp(int type, double aRe, double aIm, double[] srcV, int start, int end) {
+
+        switch (type) {
+
+        case CU_ADD:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+
+                srcV[i] = aRe + srcV[i];
+                srcV[i + 1] = aIm + srcV[i + 1];
+            }
+
+            break;
+
+        case CU_MUL:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+
+                double vRe = srcV[i];
+                double vIm = srcV[i + 1];
+
+                srcV[i] = aRe * vRe - aIm * vIm;
+                srcV[i + 1] = aRe * vIm + vRe * aIm;
+            }
+
+            break;
+
+        case CU_EXP:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
 
-            op.op(tmp, aRe, aIm, srcV[i], srcV[i + 1]);
+                double mag = Math.exp(srcV[i]);
+                double vIm = srcV[i + 1];
 
-            srcV[i] = tmp[0];
-            srcV[i + 1] = tmp[1];
+                srcV[i] = mag * Math.cos(vIm);
+                srcV[i + 1] = mag * Math.sin(vIm);
+            }
+
+            break;
+
+        case CU_CONJ:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+                srcV[i + 1] = -srcV[i + 1];
+            }
+
+            break;
+
+        case CU_COS:
+        case CU_SIN:
+
+            ComplexBinaryOperation op = (type == CU_COS) ? cuCosOp : cuSinOp;
+            double[] tmp = new double[2];
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+
+                op.op(tmp, aRe, aIm, srcV[i], srcV[i + 1]);
+
+                srcV[i] = tmp[0];
+                srcV[i + 1] = tmp[1];
+            }
+
+            break;
+
+        case CU_FILL:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+
+                srcV[i] = aRe;
+                srcV[i + 1] = aIm;
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
         }
     }
 
     /**
      * An integer unary elementwise operation in support of {@link JavaArrayKernel#iuOp(int, int, int[])}.
      */
-    final public static void iuOp(int type, int a, int[] srcV) {
+    final public static void iuOp(final int type, final int a, final int[] srcV) {
+
+        switch (type) {
+
+        case IU_SHUFFLE:
+            Arithmetic.shuffle(srcV);
+            return;
+
+        default:
+            break;
+        }
+
+        ParallelOps.fork(srcV.length, ELEMENT_GRAIN, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+                iuOp(type, a, srcV, start, end);
+            }
+        });
+    }
 
-        final IntegerBinaryOperation op;
+    /**
+     * Performs an integer unary elementwise operation over the given range.
+     */
+    final protected static void iuOp(int type, int a, int[] srcV, int start, int end) {
 
         switch (type) {
 
         case IU_ADD:
-            op = ieAddOp;
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = a + srcV[i];
+            }
+
             break;
 
         case IU_MUL:
-            op = ieMulOp;
+
+            for (int i = start; i < end; i++) {
+                srcV[i] = a * srcV[i];
+            }
+
             break;
 
         case IU_FILL:
-            op = iuFillOp;
-            break;
 
-        case IU_SHUFFLE:
-            Arithmetic.shuffle(srcV);
-            return;
+            for (int i = start; i < end; i++) {
+                srcV[i] = a;
+            }
+
+            break;
 
         default:
             throw new IllegalArgumentException();
         }
-
-        for (int i = 0, n = srcV.length; i < n; i++) {
-            srcV[i] = op.op(a, srcV[i]);
-        }
     }
 
     /**
      * A binary elementwise operation in support of {@link JavaArrayKernel#eOp(int, Object, Object, Object, boolean)}.
      */
-    final public static void eOp(int type, Object lhs, Object rhs, Object dst, boolean complex) {
+    final public static void eOp(final int type, Object lhs, Object rhs, Object dst, boolean complex) {
 
         if (lhs instanceof double[] && rhs instanceof double[] && dst instanceof double[]) {
 
@@ -884,130 +1027,367 @@ public class ElementOps {
             final double[] rhsV = (double[]) rhs;
             final double[] dstV = (double[]) dst;
 
+            int n = Control.checkEquals(Control.checkEquals(lhsV.length, rhsV.length), dstV.length);
+
             if (complex) {
 
-                final ComplexBinaryOperation op;
+                Control.checkTrue(n % 2 == 0);
 
-                switch (type) {
+                ParallelOps.fork(n / 2, ELEMENT_GRAIN / 2, new RangeOperation() {
 
-                case CE_ADD:
-                    op = ceAddOp;
-                    break;
+                    @Override
+                    public void op(int start, int end) {
+                        ceOp(type, lhsV, rhsV, dstV, start, end);
+                    }
+                });
 
-                case CE_SUB:
-                    op = ceSubOp;
-                    break;
+            } else {
 
-                case CE_MUL:
-                    op = ceMulOp;
-                    break;
+                ParallelOps.fork(n, ELEMENT_GRAIN, new RangeOperation() {
 
-                case CE_DIV:
-                    op = ceDivOp;
-                    break;
+                    @Override
+                    public void op(int start, int end) {
+                        reOp(type, lhsV, rhsV, dstV, start, end);
+                    }
+                });
+            }
 
-                default:
-                    throw new IllegalArgumentException();
-                }
+        } else if (lhs instanceof int[] && rhs instanceof int[] && dst instanceof int[]) {
 
-                double[] tmp = new double[2];
+            final int[] lhsV = (int[]) lhs;
+            final int[] rhsV = (int[]) rhs;
+            final int[] dstV = (int[]) dst;
 
-                int n = Control.checkEquals(Control.checkEquals(lhsV.length, rhsV.length), dstV.length);
+            ParallelOps.fork(Control.checkEquals(Control.checkEquals(lhsV.length, rhsV.length), dstV.length), //
+                    ELEMENT_GRAIN, new RangeOperation() {
 
-                Control.checkTrue(n % 2 == 0);
+                        @Override
+                        public void op(int start, int end) {
+                            ieOp(type, lhsV, rhsV, dstV, start, end);
+                        }
+                    });
 
-                for (int i = 0; i < n; i += 2) {
+        } else {
 
-                    op.op(tmp, lhsV[i], lhsV[i + 1], rhsV[i], rhsV[i + 1]);
+            throw new IllegalArgumentException("Invalid array types");
+        }
+    }
+
+    /**
+     * A real binary elementwise operation over strided operands, which lets views be read in place without gathering
+     * them first. Rows along the last dimension are divided among threads, and each thread walks its rows with
+     * {@link MappingOps#advance(int[], int[], int[])}.
+     * 
+     * @param type
+     *            the operation type.
+     * @param dims
+     *            the dimensions, which all operands share.
+     * @param lhsV
+     *            the left hand side values.
+     * @param lhsOffset
+     *            the left hand side offset.
+     * @param lhsS
+     *            the left hand side strides.
+     * @param rhsV
+     *            the right hand side values.
+     * @param rhsOffset
+     *            the right hand side offset.
+     * @param rhsS
+     *            the right hand side strides.
+     * @param dstV
+     *            the destination values.
+     * @param dstOffset
+     *            the destination offset.
+     * @param dstS
+     *            the destination strides.
+     */
+    final public static void eOp(final int type, final int[] dims, //
+            final double[] lhsV, final int lhsOffset, final int[] lhsS, //
+            final double[] rhsV, final int rhsOffset, final int[] rhsS, //
+            final double[] dstV, final int dstOffset, final int[] dstS) {
+
+        MappingOps.checkExtent(lhsV.length, lhsOffset, dims, lhsS);
+        MappingOps.checkExtent(rhsV.length, rhsOffset, dims, rhsS);
+        MappingOps.checkExtent(dstV.length, dstOffset, dims, dstS);
 
-                    dstV[i] = tmp[0];
-                    dstV[i + 1] = tmp[1];
+        final int nDims = dims.length;
+        final int len = Arithmetic.product(dims);
+
+        if (len == 0) {
+            return;
+        }
+
+        final int size = (nDims > 0) ? dims[nDims - 1] : 1;
+        final int lhsStride = (nDims > 0) ? lhsS[nDims - 1] : 1;
+        final int rhsStride = (nDims > 0) ? rhsS[nDims - 1] : 1;
+        final int dstStride = (nDims > 0) ? dstS[nDims - 1] : 1;
+
+        final int[] rowD = dims.clone();
+
+        if (nDims > 0) {
+            rowD[nDims - 1] = 1;
+        }
+
+        ParallelOps.fork(len / size, Math.max(ELEMENT_GRAIN / size, 1), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                int[] lhsCounters = new int[nDims];
+                int[] rhsCounters = new int[nDims];
+                int[] dstCounters = new int[nDims];
+
+                for (int i = start, //
+                lhsIndex = lhsOffset + MappingOps.seek(start, lhsCounters, rowD, lhsS), //
+                rhsIndex = rhsOffset + MappingOps.seek(start, rhsCounters, rowD, rhsS), //
+                dstIndex = dstOffset + MappingOps.seek(start, dstCounters, rowD, dstS); //
+                i < end; //
+                i++, //
+                lhsIndex += MappingOps.advance(lhsCounters, rowD, lhsS), //
+                rhsIndex += MappingOps.advance(rhsCounters, rowD, rhsS), //
+                dstIndex += MappingOps.advance(dstCounters, rowD, dstS)) {
+                    reOp(type, size, //
+                            lhsV, lhsIndex, lhsStride, //
+                            rhsV, rhsIndex, rhsStride, //
+                            dstV, dstIndex, dstStride);
                 }
+            }
+        });
+    }
 
-            } else {
+    /**
+     * Performs a real binary elementwise operation along a strided row.
+     */
+    final protected static void reOp(int type, int size, //
+            double[] lhsV, int lhsIndex, int lhsStride, //
+            double[] rhsV, int rhsIndex, int rhsStride, //
+            double[] dstV, int dstIndex, int dstStride) {
 
-                final RealBinaryOperation op;
+        switch (type) {
 
-                switch (type) {
+        case RE_ADD:
 
-                case RE_ADD:
-                    op = reAddOp;
-                    break;
+            for (int k = 0; k < size; k++, lhsIndex += lhsStride, rhsIndex += rhsStride, dstIndex += dstStride) {
+                dstV[dstIndex] = lhsV[lhsIndex] + rhsV[rhsIndex];
+            }
 
-                case RE_SUB:
-                    op = reSubOp;
-                    break;
+            break;
 
-                case RE_MUL:
-                    op = reMulOp;
-                    break;
+        case RE_SUB:
 
-                case RE_DIV:
-                    op = reDivOp;
-                    break;
+            for (int k = 0; k < size; k++, lhsIndex += lhsStride, rhsIndex += rhsStride, dstIndex += dstStride) {
+                dstV[dstIndex] = lhsV[lhsIndex] - rhsV[rhsIndex];
+            }
 
-                case RE_MAX:
-                    op = reMaxOp;
-                    break;
+            break;
 
-                case RE_MIN:
-                    op = reMinOp;
-                    break;
+        case RE_MUL:
 
-                default:
-                    throw new IllegalArgumentException();
-                }
+            for (int k = 0; k < size; k++, lhsIndex += lhsStride, rhsIndex += rhsStride, dstIndex += dstStride) {
+                dstV[dstIndex] = lhsV[lhsIndex] * rhsV[rhsIndex];
+            }
 
-                for (int i = 0, n = Control.checkEquals(Control.checkEquals(lhsV.length, rhsV.length), dstV.length); //
-                i < n; //
-                i++) {
-                    dstV[i] = op.op(lhsV[i], rhsV[i]);
-                }
+            break;
+
+        case RE_DIV:
+
+            for (int k = 0; k < size; k++, lhsIndex += lhsStride, rhsIndex += rhsStride, dstIndex += dstStride) {
+                dstV[dstIndex] = lhsV[lhsIndex] / rhsV[rhsIndex];
             }
 
-        } else if (lhs instanceof int[] && rhs instanceof int[] && dst instanceof int[]) {
+            break;
 
-            final int[] lhsV = (int[]) lhs;
-            final int[] rhsV = (int[]) rhs;
-            final int[] dstV = (int[]) dst;
+        case RE_MAX:
 
-            final IntegerBinaryOperation op;
+            for (int k = 0; k < size; k++, lhsIndex += lhsStride, rhsIndex += rhsStride, dstIndex += dstStride) {
+                dstV[dstIndex] = Math.max(lhsV[lhsIndex], rhsV[rhsIndex]);
+            }
 
-            switch (type) {
+            break;
 
-            case IE_ADD:
-                op = ieAddOp;
-                break;
+        case RE_MIN:
 
-            case IE_SUB:
-                op = ieSubOp;
-                break;
+            for (int k = 0; k < size; k++, lhsIndex += lhsStride, rhsIndex += rhsStride, dstIndex += dstStride) {
+                dstV[dstIndex] = Math.min(lhsV[lhsIndex], rhsV[rhsIndex]);
+            }
 
-            case IE_MUL:
-                op = ieMulOp;
-                break;
+            break;
 
-            case IE_MAX:
-                op = ieMaxOp;
-                break;
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
 
-            case IE_MIN:
-                op = ieMinOp;
-                break;
+    /**
+     * Performs a real binary elementwise operation over the given range. Every operation has its own loop, so that
+     * the compiler can inline and vectorize it.
+     */
+    final protected static void reOp(int type, double[] lhsV, double[] rhsV, double[] dstV, int start, int end) {
 
-            default:
-                throw new IllegalArgumentException();
+        switch (type) {
+
+        case RE_ADD:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] + rhsV[i];
             }
 
-            for (int i = 0, n = Control.checkEquals(Control.checkEquals(lhsV.length, rhsV.length), dstV.length); //
-            i < n; //
-            i++) {
-                dstV[i] = op.op(lhsV[i], rhsV[i]);
+            break;
+
+        case RE_SUB:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] - rhsV[i];
             }
 
-        } else {
+            break;
 
-            throw new IllegalArgumentException("Invalid array types");
+        case RE_MUL:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] * rhsV[i];
+            }
+
+            break;
+
+        case RE_DIV:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] / rhsV[i];
+            }
+
+            break;
+
+        case RE_MAX:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = Math.max(lhsV[i], rhsV[i]);
+            }
+
+            break;
+
+        case RE_MIN:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = Math.min(lhsV[i], rhsV[i]);
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Performs a complex binary elementwise operation over the given range of complex elements. Every operation has
+     * its own loop, and intermediate values stay in local variables so that the compiler can inline it.
+     */
+    final protected static void ceOp(int type, double[] lhsV, double[] rhsV, double[] dstV, int start, int end) {
+
+        switch (type) {
+
+        case CE_ADD:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i++) {
+                dstV[i] = lhsV[i] + rhsV[i];
+            }
+
+            break;
+
+        case CE_SUB:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i++) {
+                dstV[i] = lhsV[i] - rhsV[i];
+            }
+
+            break;
+
+        case CE_MUL:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+
+                double aRe = lhsV[i];
+                double aIm = lhsV[i + 1];
+                double bRe = rhsV[i];
+                double bIm = rhsV[i + 1];
+
+                dstV[i] = aRe * bRe - aIm * bIm;
+                dstV[i + 1] = aRe * bIm + bRe * aIm;
+            }
+
+            break;
+
+        case CE_DIV:
+
+            for (int i = 2 * start, n = 2 * end; i < n; i += 2) {
+
+                double aRe = lhsV[i];
+                double aIm = lhsV[i + 1];
+                double bRe = rhsV[i];
+                double bIm = rhsV[i + 1];
+                double norm = bRe * bRe + bIm * bIm;
+
+                dstV[i] = (aRe * bRe + aIm * bIm) / norm;
+                dstV[i + 1] = (aIm * bRe - aRe * bIm) / norm;
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Performs an integer binary elementwise operation over the given range.
+     */
+    final protected static void ieOp(int type, int[] lhsV, int[] rhsV, int[] dstV, int start, int end) {
+
+        switch (type) {
+
+        case IE_ADD:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] + rhsV[i];
+            }
+
+            break;
+
+        case IE_SUB:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] - rhsV[i];
+            }
+
+            break;
+
+        case IE_MUL:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = lhsV[i] * rhsV[i];
+            }
+
+            break;
+
+        case IE_MAX:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = Math.max(lhsV[i], rhsV[i]);
+            }
+
+            break;
+
+        case IE_MIN:
+
+            for (int i = start; i < end; i++) {
+                dstV[i] = Math.min(lhsV[i], rhsV[i]);
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
         }
     }
 
@@ -0,0 +1,546 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array.kernel;
+
+import static org.shared.array.kernel.ArrayKernel.CA_PROD;
+import static org.shared.array.kernel.ArrayKernel.CA_SUM;
+import static org.shared.array.kernel.ArrayKernel.RA_MAX;
+import static org.shared.array.kernel.ArrayKernel.RA_MIN;
+import static org.shared.array.kernel.ArrayKernel.RA_PROD;
+import static org.shared.array.kernel.ArrayKernel.RA_SUM;
+
+import java.util.Arrays;
+
+import org.shared.array.kernel.ParallelOps.RangeOperation;
+import org.shared.util.Arithmetic;
+import org.shared.util.Control;
+
+/**
+ * A class for evaluating fused elementwise expressions in pure Java. An expression is compiled into a program for a
+ * stack machine whose registers hold tiles of {@link #TILE_SIZE} elements. The program runs once per tile, so that
+ * intermediate values stay in cache and no full-sized temporaries are allocated. Tiles are distributed among the
+ * threads of {@link ParallelOps}.
+ * <p>
+ * A program consists of instruction triples. A {@link #LOAD} instruction pushes the tile of the leaf array with the
+ * given index. A {@link #UNARY} instruction applies the given unary operation to the top of the stack, where the
+ * argument gives the index of its first scalar parameter. A {@link #BINARY} instruction pops the top of the stack and
+ * combines it with the new top by the given binary operation. A {@link #GATHER} instruction pushes the tile of a real
+ * leaf array read with strides of its own, some of which may be zero, so that a row or column is broadcast over the
+ * destination without first being tiled.
+ * 
+ * @author Roy Liu
+ */
+public class ExpressionOps {
+
+    /**
+     * The number of elements per tile.
+     */
+    final public static int TILE_SIZE = 1 << 12;
+
+    /**
+     * The instruction for pushing a leaf array.
+     */
+    final public static int LOAD = 0;
+
+    /**
+     * The instruction for applying a unary operation.
+     */
+    final public static int UNARY = 1;
+
+    /**
+     * The instruction for applying a binary operation.
+     */
+    final public static int BINARY = 2;
+
+    /**
+     * The instruction for pushing a strided leaf array.
+     */
+    final public static int GATHER = 3;
+
+    /**
+     * Evaluates a real expression into the given destination.
+     * 
+     * @param program
+     *            the program.
+     * @param leaves
+     *            the leaf arrays.
+     * @param leafStrides
+     *            the strides of leaf arrays read by {@link #GATHER}, or {@code null} for contiguous ones.
+     * @param dims
+     *            the dimensions, ordered from slowest to fastest varying in the destination.
+     * @param scalars
+     *            the scalar parameters.
+     * @param nRegisters
+     *            the maximum stack depth.
+     * @param dstV
+     *            the destination array.
+     */
+    final public static void reEval(final int[] program, final double[][] leaves, final int[][] leafStrides, //
+            final int[] dims, final double[] scalars, final int nRegisters, final double[] dstV) {
+
+        final int n = Control.checkEquals(checkLeaves(leaves, leafStrides, dims), dstV.length, //
+                "Array length mismatch");
+
+        ParallelOps.fork((n + TILE_SIZE - 1) / TILE_SIZE, ElementOps.ELEMENT_GRAIN / TILE_SIZE, //
+                new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        double[][] registers = new double[nRegisters][TILE_SIZE];
+                        int[] counters = new int[dims.length];
+
+                        for (int tile = start; tile < end; tile++) {
+
+                            int offset = tile * TILE_SIZE;
+                            int len = Math.min(TILE_SIZE, n - offset);
+
+                            System.arraycopy(run(program, leaves, leafStrides, dims, counters, scalars, //
+                                    registers, offset, len, false), 0, dstV, offset, len);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Evaluates a complex expression into the given destination.
+     * 
+     * @param program
+     *            the program.
+     * @param leaves
+     *            the leaf arrays.
+     * @param scalars
+     *            the scalar parameters.
+     * @param nRegisters
+     *            the maximum stack depth.
+     * @param dstV
+     *            the destination array.
+     */
+    final public static void ceEval(final int[] program, final double[][] leaves, final double[] scalars, //
+            final int nRegisters, final double[] dstV) {
+
+        final int n = checkLeaves(leaves, dstV.length, true);
+
+        ParallelOps.fork((n + TILE_SIZE - 1) / TILE_SIZE, ElementOps.ELEMENT_GRAIN / TILE_SIZE, //
+                new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        double[][] registers = new double[nRegisters][2 * TILE_SIZE];
+
+                        for (int tile = start; tile < end; tile++) {
+
+                            int offset = tile * TILE_SIZE;
+                            int len = Math.min(TILE_SIZE, n - offset);
+
+                            System.arraycopy(run(program, leaves, null, null, null, scalars, //
+                                    registers, offset, len, true), 0, dstV, 2 * offset, 2 * len);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Evaluates a real expression and accumulates the result without materializing it. Partial results over tiles are
+     * combined in tile order, so that the outcome does not depend on the number of threads.
+     * 
+     * @param type
+     *            the accumulator type, one of {@link ArrayKernel#RA_SUM}, {@link ArrayKernel#RA_PROD},
+     *            {@link ArrayKernel#RA_MAX}, or {@link ArrayKernel#RA_MIN}.
+     * @param program
+     *            the program.
+     * @param leaves
+     *            the leaf arrays.
+     * @param leafStrides
+     *            the strides of leaf arrays read by {@link #GATHER}, or {@code null} for contiguous ones.
+     * @param dims
+     *            the dimensions, ordered from slowest to fastest varying.
+     * @param scalars
+     *            the scalar parameters.
+     * @param nRegisters
+     *            the maximum stack depth.
+     * @return the accumulated value.
+     */
+    final public static double raEval(final int type, final int[] program, final double[][] leaves, //
+            final int[][] leafStrides, final int[] dims, final double[] scalars, final int nRegisters) {
+
+        final double identity;
+
+        switch (type) {
+
+        case RA_SUM:
+            identity = 0.0;
+            break;
+
+        case RA_PROD:
+            identity = 1.0;
+            break;
+
+        case RA_MAX:
+            identity = -Double.MAX_VALUE;
+            break;
+
+        case RA_MIN:
+            identity = Double.MAX_VALUE;
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+
+        final int n = checkLeaves(leaves, leafStrides, dims);
+        final double[] partials = new double[(n + TILE_SIZE - 1) / TILE_SIZE];
+
+        ParallelOps.fork(partials.length, ElementOps.ELEMENT_GRAIN / TILE_SIZE, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                double[][] registers = new double[nRegisters][TILE_SIZE];
+                int[] counters = new int[dims.length];
+
+                for (int tile = start; tile < end; tile++) {
+
+                    int offset = tile * TILE_SIZE;
+                    int len = Math.min(TILE_SIZE, n - offset);
+
+                    partials[tile] = ElementOps.fold(type, identity, //
+                            run(program, leaves, leafStrides, dims, counters, scalars, //
+                                    registers, offset, len, false), 0, len);
+                }
+            }
+        });
+
+        return ElementOps.fold(type, identity, partials, 0, partials.length);
+    }
+
+    /**
+     * Evaluates a complex expression and accumulates the result without materializing it. Partial results over tiles
+     * are combined in tile order, so that the outcome does not depend on the number of threads.
+     * 
+     * @param type
+     *            the accumulator type, one of {@link ArrayKernel#CA_SUM} or {@link ArrayKernel#CA_PROD}.
+     * @param program
+     *            the program.
+     * @param leaves
+     *            the leaf arrays.
+     * @param scalars
+     *            the scalar parameters.
+     * @param nRegisters
+     *            the maximum stack depth.
+     * @return the accumulated value.
+     */
+    final public static double[] caEval(final int type, final int[] program, final double[][] leaves, //
+            final double[] scalars, final int nRegisters) {
+
+        Control.checkTrue(type == CA_SUM || type == CA_PROD, //
+                "Invalid accumulator type");
+
+        final int n = checkLeaves(leaves, -1, true);
+        final double[] partials = new double[2 * ((n + TILE_SIZE - 1) / TILE_SIZE)];
+
+        ParallelOps.fork(partials.length / 2, ElementOps.ELEMENT_GRAIN / TILE_SIZE, new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                double[][] registers = new double[nRegisters][2 * TILE_SIZE];
+
+                for (int tile = start; tile < end; tile++) {
+
+                    int offset = tile * TILE_SIZE;
+                    int len = Math.min(TILE_SIZE, n - offset);
+
+                    caFold(type, partials, 2 * tile, //
+                            run(program, leaves, null, null, null, scalars, registers, offset, len, true), 0, len);
+                }
+            }
+        });
+
+        double[] res = new double[2];
+
+        caFold(type, res, 0, partials, 0, partials.length / 2);
+
+        return res;
+    }
+
+    /**
+     * Runs a program over a single tile. Every operation works in place on registers indexed from zero, so that it can
+     * use the specialized loops of {@link ElementOps}.
+     * 
+     * @param program
+     *            the program.
+     * @param leaves
+     *            the leaf arrays.
+     * @param leafStrides
+     *            the strides of leaf arrays read by {@link #GATHER}.
+     * @param dims
+     *            the dimensions, ordered from slowest to fastest varying.
+     * @param counters
+     *            the odometer counters for {@link #GATHER}.
+     * @param scalars
+     *            the scalar parameters.
+     * @param registers
+     *            the registers.
+     * @param offset
+     *            the offset of the tile.
+     * @param len
+     *            the length of the tile.
+     * @param complex
+     *            whether the values are complex.
+     * @return the register holding the result.
+     */
+    final protected static double[] run(int[] program, double[][] leaves, int[][] leafStrides, int[] dims, //
+            int[] counters, double[] scalars, double[][] registers, int offset, int len, boolean complex) {
+
+        int factor = complex ? 2 : 1;
+        int top = -1;
+
+        for (int pc = 0, nInstructions = program.length; pc < nInstructions; pc += 3) {
+
+            int type = program[pc + 1];
+            int arg = program[pc + 2];
+
+            switch (program[pc]) {
+
+            case LOAD:
+                System.arraycopy(leaves[arg], factor * offset, registers[++top], 0, factor * len);
+                break;
+
+            case GATHER:
+
+                Control.checkTrue(!complex, //
+                        "Invalid instruction");
+
+                gather(leaves[arg], leafStrides[arg], dims, counters, registers[++top], offset, len);
+
+                break;
+
+            case UNARY:
+
+                if (complex) {
+                    ElementOps.cuOp(type, scalars[arg], scalars[arg + 1], registers[top], 0, len);
+                } else {
+                    ElementOps.ruOp(type, scalars[arg], registers[top], 0, len);
+                }
+
+                break;
+
+            case BINARY:
+
+                top--;
+
+                if (complex) {
+                    ElementOps.ceOp(type, registers[top], registers[top + 1], registers[top], 0, len);
+                } else {
+                    ElementOps.reOp(type, registers[top], registers[top + 1], registers[top], 0, len);
+                }
+
+                break;
+
+            default:
+                throw new IllegalArgumentException("Invalid instruction");
+            }
+        }
+
+        Control.checkTrue(top == 0, //
+                "Invalid program");
+
+        return registers[0];
+    }
+
+    /**
+     * Gathers a tile of a strided leaf array, walking the destination in physical order. Runs along the fastest
+     * varying dimension are copied in tight loops, and {@link MappingOps#advance(int[], int[], int[])} carries over
+     * into the slower ones.
+     */
+    final protected static void gather(double[] srcV, int[] srcS, int[] dims, int[] counters, //
+            double[] dstV, int offset, int len) {
+
+        int physical = MappingOps.seek(offset, counters, dims, srcS);
+        int last = dims.length - 1;
+
+        if (last < 0) {
+
+            Arrays.fill(dstV, 0, len, srcV[physical]);
+
+            return;
+        }
+
+        int size = dims[last];
+        int stride = srcS[last];
+
+        for (int i = 0; i < len;) {
+
+            int run = Math.min(size - counters[last], len - i);
+
+            if (stride == 0) {
+
+                Arrays.fill(dstV, i, i + run, srcV[physical]);
+
+            } else {
+
+                for (int j = i, n = i + run, k = physical; j < n; j++, k += stride) {
+                    dstV[j] = srcV[k];
+                }
+            }
+
+            i += run;
+
+            counters[last] += run - 1;
+            physical += (run - 1) * stride + MappingOps.advance(counters, dims, srcS);
+        }
+    }
+
+    /**
+     * Folds the given complex values into an accumulator.
+     */
+    final protected static void caFold(int type, double[] acc, int accOffset, double[] srcV, int srcOffset, int len) {
+
+        double accRe, accIm;
+
+        switch (type) {
+
+        case CA_SUM:
+
+            accRe = 0.0;
+            accIm = 0.0;
+
+            for (int i = srcOffset, n = srcOffset + 2 * len; i < n; i += 2) {
+
+                accRe += srcV[i];
+                accIm += srcV[i + 1];
+            }
+
+            break;
+
+        case CA_PROD:
+
+            accRe = 1.0;
+            accIm = 0.0;
+
+            for (int i = srcOffset, n = srcOffset + 2 * len; i < n; i += 2) {
+
+                double re = accRe * srcV[i] - accIm * srcV[i + 1];
+                double im = accRe * srcV[i + 1] + srcV[i] * accIm;
+
+                accRe = re;
+                accIm = im;
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+
+        acc[accOffset] = accRe;
+        acc[accOffset + 1] = accIm;
+    }
+
+    /**
+     * Checks that the leaf arrays have a common length.
+     * 
+     * @return the number of (complex) elements.
+     */
+    final protected static int checkLeaves(double[][] leaves, int len, boolean complex) {
+
+        Control.checkTrue(leaves.length > 0, //
+                "Expression has no leaves");
+
+        if (len == -1) {
+            len = leaves[0].length;
+        }
+
+        for (double[] leaf : leaves) {
+            Control.checkEquals(leaf.length, len, //
+                    "Array length mismatch");
+        }
+
+        Control.checkTrue(!complex || len % 2 == 0, //
+                "Invalid complex array length");
+
+        return complex ? len / 2 : len;
+    }
+
+    /**
+     * Checks that the real leaf arrays cover the given dimensions, either contiguously or with their strides.
+     * 
+     * @return the number of elements.
+     */
+    final protected static int checkLeaves(double[][] leaves, int[][] leafStrides, int[] dims) {
+
+        int nLeaves = leaves.length;
+        int nDims = dims.length;
+
+        Control.checkTrue(nLeaves > 0, //
+                "Expression has no leaves");
+
+        Control.checkEquals(nLeaves, leafStrides.length, //
+                "Invalid arguments");
+
+        int len = Arithmetic.product(dims);
+
+        for (int i = 0; i < nLeaves; i++) {
+
+            int[] strides = leafStrides[i];
+
+            if (strides == null) {
+
+                Control.checkEquals(leaves[i].length, len, //
+                        "Array length mismatch");
+
+                continue;
+            }
+
+            Control.checkEquals(strides.length, nDims, //
+                    "Dimensionality mismatch");
+
+            long last = 0;
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                Control.checkTrue(strides[dim] >= 0, //
+                        "Invalid strides");
+
+                last += (long) (dims[dim] - 1) * strides[dim];
+            }
+
+            Control.checkTrue(len == 0 || last < leaves[i].length, //
+                    "Invalid strides");
+        }
+
+        return len;
+    }
+
+    // Dummy constructor.
+    ExpressionOps() {
+    }
+}
@@ -97,6 +97,14 @@ public class JavaArrayKernel implements ArrayKernel {
         DimensionOps.riOp(type, srcV, srcD, srcS, dstV, dim);
     }
 
+    @Override
+    public void riTopK( //
+            double[] srcV, int[] srcD, int[] srcS, //
+            double[] dstV, int[] dstI, int[] dstD, int[] dstS, //
+            int dim) {
+        DimensionOps.riTopK(srcV, srcD, srcS, dstV, dstI, dstD, dstS, dim);
+    }
+
     @Override
     public void rdOp(int type, //
             double[] srcV, int[] srcD, int[] srcS, double[] dstV, //
@@ -172,6 +180,27 @@ public class JavaArrayKernel implements ArrayKernel {
         LinearAlgebraOps.invert(srcV, dstV, size);
     }
 
+    @Override
+    public void lu(double[] srcV, double[] luV, int[] pivots, int size) {
+        LinearAlgebraOps.lu(srcV, luV, pivots, size);
+    }
+
+    @Override
+    public void luSolve(double[] luV, int[] pivots, double[] srcV, double[] dstV, //
+            int size, int nCols, boolean transpose) {
+        LinearAlgebraOps.luSolve(luV, pivots, srcV, dstV, size, nCols, transpose);
+    }
+
+    @Override
+    public void cholesky(double[] srcV, double[] dstV, int size) {
+        LinearAlgebraOps.cholesky(srcV, dstV, size);
+    }
+
+    @Override
+    public void choleskySolve(double[] lV, double[] srcV, double[] dstV, int size, int nCols) {
+        LinearAlgebraOps.choleskySolve(lV, srcV, dstV, size, nCols);
+    }
+
     //
 
     @Override
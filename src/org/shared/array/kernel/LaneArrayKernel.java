@@ -0,0 +1,89 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array.kernel;
+
+import static org.shared.array.kernel.ArrayKernel.RA_MAX;
+import static org.shared.array.kernel.ArrayKernel.RA_MIN;
+import static org.shared.array.kernel.ArrayKernel.RA_PROD;
+import static org.shared.array.kernel.ArrayKernel.RA_SUM;
+
+/**
+ * A pure Java implementation of {@link ArrayKernel} whose reductions are written in explicit lanes. Elementwise
+ * operations and matrix multiplication are inherited from {@link JavaArrayKernel}, whose loops already take the shape
+ * that the compiler vectorizes. To make this kernel the default, call
+ * 
+ * <pre>
+ * Services.registerService(ArrayKernel.class, LaneArrayKernel.class);
+ * </pre>
+ * 
+ * and then {@link ModalArrayKernel#useRegisteredKernel()}.
+ * 
+ * @apiviz.uses org.shared.array.kernel.LaneOps
+ * @author Roy Liu
+ */
+public class LaneArrayKernel extends JavaArrayKernel {
+
+    /**
+     * Default constructor.
+     */
+    public LaneArrayKernel() {
+    }
+
+    @Override
+    public void rrOp(int type, //
+            double[] srcV, int[] srcD, int[] srcS, //
+            double[] dstV, int[] dstD, int[] dstS, //
+            int... opDims) {
+
+        if (LaneOps.isReducible(type, srcV, srcD, srcS, dstV, dstD, dstS, opDims)) {
+
+            LaneOps.rrOp(type, srcV, srcD, srcS, dstV, dstD, dstS, opDims[0]);
+
+        } else {
+
+            super.rrOp(type, srcV, srcD, srcS, dstV, dstD, dstS, opDims);
+        }
+    }
+
+    @Override
+    public double raOp(int type, double[] srcV) {
+
+        switch (type) {
+
+        case RA_SUM:
+        case RA_PROD:
+        case RA_MAX:
+        case RA_MIN:
+            return LaneOps.raOp(type, srcV);
+
+        default:
+            return super.raOp(type, srcV);
+        }
+    }
+}
@@ -0,0 +1,491 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array.kernel;
+
+import static org.shared.array.kernel.ArrayKernel.RA_MAX;
+import static org.shared.array.kernel.ArrayKernel.RA_MIN;
+import static org.shared.array.kernel.ArrayKernel.RA_PROD;
+import static org.shared.array.kernel.ArrayKernel.RA_SUM;
+import static org.shared.array.kernel.ArrayKernel.RR_MAX;
+import static org.shared.array.kernel.ArrayKernel.RR_MIN;
+import static org.shared.array.kernel.ArrayKernel.RR_PROD;
+import static org.shared.array.kernel.ArrayKernel.RR_SUM;
+
+import java.util.Arrays;
+
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.kernel.ParallelOps.RangeOperation;
+
+/**
+ * A class for reductions in pure Java that are written in explicit lanes, so that the compiler can map them onto SIMD
+ * instructions. Accumulation along contiguous memory uses {@link #LANES} independent accumulators, and accumulation
+ * across contiguous memory folds source rows, in place, into a cache-sized accumulator row. Dimension sums carry a
+ * Neumaier compensation alongside every accumulator, so that they agree with {@link DimensionOps}.
+ * 
+ * @author Roy Liu
+ */
+public class LaneOps {
+
+    /**
+     * The number of independent accumulators.
+     */
+    final public static int LANES = 4;
+
+    /**
+     * The number of elements per accumulator row.
+     */
+    final public static int STAGE_SIZE = 1 << 10;
+
+    /**
+     * A real accumulator operation in support of {@link LaneArrayKernel#raOp(int, double[])}.
+     */
+    final public static double raOp(final int type, final double[] srcV) {
+
+        final double identity = identity(type);
+
+        final int n = srcV.length;
+        final double[] partials = new double[(n + ElementOps.ACCUMULATOR_BLOCK - 1) / ElementOps.ACCUMULATOR_BLOCK];
+
+        ParallelOps.fork(partials.length, ElementOps.ELEMENT_GRAIN / ElementOps.ACCUMULATOR_BLOCK, //
+                new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        for (int block = start; block < end; block++) {
+
+                            int offset = block * ElementOps.ACCUMULATOR_BLOCK;
+
+                            partials[block] = fold(type, identity, srcV, offset, //
+                                    Math.min(offset + ElementOps.ACCUMULATOR_BLOCK, n));
+                        }
+                    }
+                });
+
+        return fold(type, identity, partials, 0, partials.length);
+    }
+
+    /**
+     * Checks whether a dimension reduce operation can be carried out by
+     * {@link #rrOp(int, double[], int[], int[], double[], int[], int[], int)}. Such operations reduce over a single
+     * dimension of nonempty arrays that share an {@link IndexingOrder}.
+     */
+    final public static boolean isReducible(int type, //
+            double[] srcV, int[] srcD, int[] srcS, //
+            double[] dstV, int[] dstD, int[] dstS, //
+            int[] opDims) {
+
+        switch (type) {
+
+        case RR_SUM:
+        case RR_PROD:
+        case RR_MAX:
+        case RR_MIN:
+            break;
+
+        default:
+            return false;
+        }
+
+        int nDims = srcD.length;
+
+        if (opDims.length != 1 || dstD.length != nDims || srcS.length != nDims || dstS.length != nDims //
+                || opDims[0] < 0 || opDims[0] >= nDims) {
+            return false;
+        }
+
+        int dim = opDims[0];
+        int srcLen = 1;
+
+        for (int i = 0; i < nDims; i++) {
+
+            if (dstD[i] != ((i == dim) ? 1 : srcD[i])) {
+                return false;
+            }
+
+            srcLen *= srcD[i];
+        }
+
+        if (srcLen == 0 || srcV.length != srcLen || dstV.length != srcLen / srcD[dim]) {
+            return false;
+        }
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            if (Arrays.equals(srcS, order.strides(srcD)) && Arrays.equals(dstS, order.strides(dstD))) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * A dimension reduce operation in support of
+     * {@link LaneArrayKernel#rrOp(int, double[], int[], int[], double[], int[], int[], int...)}. The source is viewed as
+     * a three dimensional array of outer, reduced, and inner extents.
+     */
+    final public static void rrOp(int type, //
+            final double[] srcV, int[] srcD, int[] srcS, //
+            final double[] dstV, int[] dstD, int[] dstS, //
+            int dim) {
+
+        final int raType;
+
+        switch (type) {
+
+        case RR_SUM:
+            raType = RA_SUM;
+            break;
+
+        case RR_PROD:
+            raType = RA_PROD;
+            break;
+
+        case RR_MAX:
+            raType = RA_MAX;
+            break;
+
+        case RR_MIN:
+            raType = RA_MIN;
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+
+        final int size = srcD[dim];
+        final int inner = srcS[dim];
+        final int outer = srcV.length / (size * inner);
+
+        if (inner == 1) {
+
+            final double identity = identity(raType);
+
+            ParallelOps.fork(outer, (ElementOps.ELEMENT_GRAIN + size - 1) / size, new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    if (raType == RA_SUM) {
+
+                        for (int o = start; o < end; o++) {
+                            dstV[o] = sum(srcV, o * size, (o + 1) * size);
+                        }
+
+                    } else {
+
+                        for (int o = start; o < end; o++) {
+                            dstV[o] = fold(raType, identity, srcV, o * size, (o + 1) * size);
+                        }
+                    }
+                }
+            });
+
+        } else {
+
+            ParallelOps.fork(outer, (ElementOps.ELEMENT_GRAIN + size * inner - 1) / (size * inner), //
+                    new RangeOperation() {
+
+                        @Override
+                        public void op(int start, int end) {
+
+                            double[] accV = new double[Math.min(inner, STAGE_SIZE)];
+                            double[] compV = (raType == RA_SUM) ? new double[accV.length] : null;
+
+                            for (int o = start; o < end; o++) {
+
+                                for (int i = 0; i < inner; i += STAGE_SIZE) {
+
+                                    int len = Math.min(STAGE_SIZE, inner - i);
+                                    int srcOffset = o * size * inner + i;
+                                    int dstOffset = o * inner + i;
+
+                                    System.arraycopy(srcV, srcOffset, accV, 0, len);
+
+                                    if (compV != null) {
+
+                                        Arrays.fill(compV, 0, len, 0.0);
+
+                                        for (int j = 1; j < size; j++) {
+                                            accumulate(accV, compV, srcV, srcOffset + j * inner, len);
+                                        }
+
+                                        for (int k = 0; k < len; k++) {
+                                            dstV[dstOffset + k] = accV[k] + compV[k];
+                                        }
+
+                                    } else {
+
+                                        for (int j = 1; j < size; j++) {
+                                            accumulate(raType, accV, srcV, srcOffset + j * inner, len);
+                                        }
+
+                                        System.arraycopy(accV, 0, dstV, dstOffset, len);
+                                    }
+                                }
+                            }
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Folds the given range of values with {@link #LANES} independent accumulators.
+     */
+    final protected static double fold(int type, double identity, double[] srcV, int start, int end) {
+
+        double acc0 = identity, acc1 = identity, acc2 = identity, acc3 = identity;
+
+        int i = start;
+
+        switch (type) {
+
+        case RA_SUM:
+
+            for (int n = end - (LANES - 1); i < n; i += LANES) {
+
+                acc0 += srcV[i];
+                acc1 += srcV[i + 1];
+                acc2 += srcV[i + 2];
+                acc3 += srcV[i + 3];
+            }
+
+            for (; i < end; i++) {
+                acc0 += srcV[i];
+            }
+
+            return (acc0 + acc1) + (acc2 + acc3);
+
+        case RA_PROD:
+
+            for (int n = end - (LANES - 1); i < n; i += LANES) {
+
+                acc0 *= srcV[i];
+                acc1 *= srcV[i + 1];
+                acc2 *= srcV[i + 2];
+                acc3 *= srcV[i + 3];
+            }
+
+            for (; i < end; i++) {
+                acc0 *= srcV[i];
+            }
+
+            return (acc0 * acc1) * (acc2 * acc3);
+
+        case RA_MAX:
+
+            for (int n = end - (LANES - 1); i < n; i += LANES) {
+
+                acc0 = Math.max(acc0, srcV[i]);
+                acc1 = Math.max(acc1, srcV[i + 1]);
+                acc2 = Math.max(acc2, srcV[i + 2]);
+                acc3 = Math.max(acc3, srcV[i + 3]);
+            }
+
+            for (; i < end; i++) {
+                acc0 = Math.max(acc0, srcV[i]);
+            }
+
+            return Math.max(Math.max(acc0, acc1), Math.max(acc2, acc3));
+
+        case RA_MIN:
+
+            for (int n = end - (LANES - 1); i < n; i += LANES) {
+
+                acc0 = Math.min(acc0, srcV[i]);
+                acc1 = Math.min(acc1, srcV[i + 1]);
+                acc2 = Math.min(acc2, srcV[i + 2]);
+                acc3 = Math.min(acc3, srcV[i + 3]);
+            }
+
+            for (; i < end; i++) {
+                acc0 = Math.min(acc0, srcV[i]);
+            }
+
+            return Math.min(Math.min(acc0, acc1), Math.min(acc2, acc3));
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Sums the given range of values with {@link #LANES} independent accumulators, each of which carries a Neumaier
+     * compensation. The lanes are merged with compensation as well.
+     */
+    final protected static double sum(double[] srcV, int start, int end) {
+
+        double sum0 = 0.0, sum1 = 0.0, sum2 = 0.0, sum3 = 0.0;
+        double comp0 = 0.0, comp1 = 0.0, comp2 = 0.0, comp3 = 0.0;
+
+        int i = start;
+
+        for (int n = end - (LANES - 1); i < n; i += LANES) {
+
+            double t0 = sum0 + srcV[i];
+            double t1 = sum1 + srcV[i + 1];
+            double t2 = sum2 + srcV[i + 2];
+            double t3 = sum3 + srcV[i + 3];
+
+            comp0 += error(sum0, srcV[i], t0);
+            comp1 += error(sum1, srcV[i + 1], t1);
+            comp2 += error(sum2, srcV[i + 2], t2);
+            comp3 += error(sum3, srcV[i + 3], t3);
+
+            sum0 = t0;
+            sum1 = t1;
+            sum2 = t2;
+            sum3 = t3;
+        }
+
+        for (; i < end; i++) {
+
+            double t0 = sum0 + srcV[i];
+
+            comp0 += error(sum0, srcV[i], t0);
+            sum0 = t0;
+        }
+
+        double comp = (comp0 + comp1) + (comp2 + comp3);
+        double t;
+
+        t = sum0 + sum1;
+        comp += error(sum0, sum1, t);
+        sum0 = t;
+
+        t = sum0 + sum2;
+        comp += error(sum0, sum2, t);
+        sum0 = t;
+
+        t = sum0 + sum3;
+        comp += error(sum0, sum3, t);
+        sum0 = t;
+
+        return sum0 + comp;
+    }
+
+    /**
+     * Accumulates a contiguous source row, read in place from the given offset, into an accumulator row and its
+     * Neumaier compensation row.
+     */
+    final protected static void accumulate(double[] accV, double[] compV, double[] srcV, int srcOffset, int len) {
+
+        for (int i = 0; i < len; i++) {
+
+            double sum = accV[i];
+            double value = srcV[srcOffset + i];
+            double t = sum + value;
+
+            compV[i] += error(sum, value, t);
+            accV[i] = t;
+        }
+    }
+
+    /**
+     * Gets the rounding error incurred by adding the given value to the given sum, as in Neumaier's variant of Kahan
+     * summation.
+     */
+    final protected static double error(double sum, double value, double t) {
+        return (Math.abs(sum) >= Math.abs(value)) ? (sum - t) + value : (value - t) + sum;
+    }
+
+    /**
+     * Accumulates a contiguous source row, read in place from the given offset, into an accumulator row. The loops
+     * are unit stride in both arrays, so that they vectorize.
+     */
+    final protected static void accumulate(int type, double[] accV, double[] srcV, int srcOffset, int len) {
+
+        switch (type) {
+
+        case RA_SUM:
+
+            for (int i = 0; i < len; i++) {
+                accV[i] += srcV[srcOffset + i];
+            }
+
+            break;
+
+        case RA_PROD:
+
+            for (int i = 0; i < len; i++) {
+                accV[i] *= srcV[srcOffset + i];
+            }
+
+            break;
+
+        case RA_MAX:
+
+            for (int i = 0; i < len; i++) {
+                accV[i] = Math.max(srcV[srcOffset + i], accV[i]);
+            }
+
+            break;
+
+        case RA_MIN:
+
+            for (int i = 0; i < len; i++) {
+                accV[i] = Math.min(srcV[srcOffset + i], accV[i]);
+            }
+
+            break;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    /**
+     * Gets the identity element of the given accumulator type.
+     */
+    final protected static double identity(int type) {
+
+        switch (type) {
+
+        case RA_SUM:
+            return 0.0;
+
+        case RA_PROD:
+            return 1.0;
+
+        case RA_MAX:
+            return -Double.MAX_VALUE;
+
+        case RA_MIN:
+            return Double.MAX_VALUE;
+
+        default:
+            throw new IllegalArgumentException();
+        }
+    }
+
+    // Dummy constructor.
+    LaneOps() {
+    }
+}
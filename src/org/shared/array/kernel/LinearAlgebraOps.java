@@ -31,6 +31,7 @@ package org.shared.array.kernel;
 import static org.shared.array.kernel.ElementOps.cToRAbsOp;
 import static org.shared.array.kernel.ElementOps.ceDivOp;
 
+import org.shared.array.kernel.ParallelOps.RangeOperation;
 import org.shared.util.Arithmetic;
 import org.shared.util.Control;
 
@@ -41,6 +42,31 @@ import org.shared.util.Control;
  */
 public class LinearAlgebraOps {
 
+    /**
+     * The number of columns in each panel of a blocked LU decomposition.
+     */
+    final public static int LU_BLOCK_SIZE = 64;
+
+    /**
+     * The number of extra random samples drawn by randomized singular value decompositions.
+     */
+    final public static int SVD_OVERSAMPLING = 10;
+
+    /**
+     * The number of subspace iterations performed by randomized singular value decompositions.
+     */
+    final public static int SVD_POWER_ITERATIONS = 2;
+
+    /**
+     * The minimum number of multiply-adds assigned to a worker thread.
+     */
+    final protected static int FLOP_GRAIN = 1 << 16;
+
+    /**
+     * The minimum number of right hand side columns assigned to a worker thread.
+     */
+    final protected static int SOLVE_GRAIN = 16;
+
     /**
      * A singular value decomposition operation in support of
      * {@link JavaArrayKernel#svd(double[], int, int, double[], double[], double[], int, int)}.
@@ -468,12 +494,338 @@ public class LinearAlgebraOps {
                 && valV.length == 2 * size, //
                 "Invalid arguments");
 
+        // Symmetric matrices have real eigenvalues and orthogonal eigenvectors, which are much cheaper to obtain.
+        if (isSymmetric(srcV, size)) {
+
+            double[] d = new double[size];
+            double[] e = new double[size];
+
+            System.arraycopy(srcV, 0, vecV, 0, size * size);
+
+            tridiagonalize(vecV, d, e, size);
+            tridiagonalToDiagonal(vecV, d, e, size);
+
+            for (int i = 0; i < size; i++) {
+
+                valV[2 * i] = d[i];
+                valV[2 * i + 1] = 0.0;
+            }
+
+            return;
+        }
+
         double[] h = srcV.clone();
 
         hessenberg(h, vecV, size);
         hessenbergToSchur(h, vecV, valV, size);
     }
 
+    /**
+     * Checks whether a matrix is exactly symmetric.
+     */
+    final protected static boolean isSymmetric(double[] srcV, int size) {
+
+        for (int i = 0; i < size; i++) {
+
+            for (int j = 0; j < i; j++) {
+
+                if (srcV[size * i + j] != srcV[size * j + i]) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Reduces a symmetric matrix to tridiagonal form by Householder similarity transformations, which are
+     * accumulated in place. Column updates are divided among worker threads.
+     * 
+     * @param vecV
+     *            the matrix on input, and the accumulated transformations on output.
+     * @param d
+     *            the diagonal.
+     * @param e
+     *            the subdiagonal, starting at index {@code 1}.
+     * @param size
+     *            the matrix size.
+     */
+    final protected static void tridiagonalize(final double[] vecV, final double[] d, final double[] e, final int size) {
+
+        final int vStrideRow = size;
+
+        // This is derived from the Algol procedures tred2 by
+        // Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
+        // Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
+        // Fortran subroutine in EISPACK.
+
+        for (int j = 0; j < size; j++) {
+            d[j] = vecV[vStrideRow * (size - 1) + (j)];
+        }
+
+        // Householder reduction to tridiagonal form.
+
+        for (int i = size - 1; i > 0; i--) {
+
+            // Scale to avoid under/overflow.
+
+            double scale = 0.0;
+            double h = 0.0;
+            for (int k = 0; k < i; k++) {
+                scale = scale + Math.abs(d[k]);
+            }
+            if (scale == 0.0) {
+                e[i] = d[i - 1];
+                for (int j = 0; j < i; j++) {
+                    d[j] = vecV[vStrideRow * (i - 1) + (j)];
+                    vecV[vStrideRow * (i) + (j)] = 0.0;
+                    vecV[vStrideRow * (j) + (i)] = 0.0;
+                }
+            } else {
+
+                // Generate Householder vector.
+
+                for (int k = 0; k < i; k++) {
+                    d[k] /= scale;
+                    h += d[k] * d[k];
+                }
+                double f = d[i - 1];
+                double g = Math.sqrt(h);
+                if (f > 0) {
+                    g = -g;
+                }
+                e[i] = scale * g;
+                h = h - f * g;
+                d[i - 1] = f - g;
+                for (int j = 0; j < i; j++) {
+                    e[j] = 0.0;
+                }
+
+                // Apply similarity transformation to remaining columns.
+
+                for (int j = 0; j < i; j++) {
+                    f = d[j];
+                    vecV[vStrideRow * (j) + (i)] = f;
+                    g = e[j] + vecV[vStrideRow * (j) + (j)] * f;
+                    for (int k = j + 1; k <= i - 1; k++) {
+                        g += vecV[vStrideRow * (k) + (j)] * d[k];
+                        e[k] += vecV[vStrideRow * (k) + (j)] * f;
+                    }
+                    e[j] = g;
+                }
+                f = 0.0;
+                for (int j = 0; j < i; j++) {
+                    e[j] /= h;
+                    f += e[j] * d[j];
+                }
+                double hh = f / (h + h);
+                for (int j = 0; j < i; j++) {
+                    e[j] -= hh * d[j];
+                }
+
+                final int iF = i;
+
+                ParallelOps.fork(i, FLOP_GRAIN / Math.max(i, 1), new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        for (int j = start; j < end; j++) {
+                            double f = d[j];
+                            double g = e[j];
+                            for (int k = j; k <= iF - 1; k++) {
+                                vecV[vStrideRow * (k) + (j)] -= (f * e[k] + g * d[k]);
+                            }
+                        }
+                    }
+                });
+
+                for (int j = 0; j < i; j++) {
+                    d[j] = vecV[vStrideRow * (i - 1) + (j)];
+                    vecV[vStrideRow * (i) + (j)] = 0.0;
+                }
+            }
+            d[i] = h;
+        }
+
+        // Accumulate transformations.
+
+        for (int i = 0; i < size - 1; i++) {
+            vecV[vStrideRow * (size - 1) + (i)] = vecV[vStrideRow * (i) + (i)];
+            vecV[vStrideRow * (i) + (i)] = 1.0;
+            double h = d[i + 1];
+            if (h != 0.0) {
+                for (int k = 0; k <= i; k++) {
+                    d[k] = vecV[vStrideRow * (k) + (i + 1)] / h;
+                }
+
+                final int iF = i;
+
+                ParallelOps.fork(i + 1, FLOP_GRAIN / Math.max(2 * (i + 1), 1), new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        for (int j = start; j < end; j++) {
+                            double g = 0.0;
+                            for (int k = 0; k <= iF; k++) {
+                                g += vecV[vStrideRow * (k) + (iF + 1)] * vecV[vStrideRow * (k) + (j)];
+                            }
+                            for (int k = 0; k <= iF; k++) {
+                                vecV[vStrideRow * (k) + (j)] -= g * d[k];
+                            }
+                        }
+                    }
+                });
+            }
+            for (int k = 0; k <= i; k++) {
+                vecV[vStrideRow * (k) + (i + 1)] = 0.0;
+            }
+        }
+        for (int j = 0; j < size; j++) {
+            d[j] = vecV[vStrideRow * (size - 1) + (j)];
+            vecV[vStrideRow * (size - 1) + (j)] = 0.0;
+        }
+        if (size > 0) {
+            vecV[vStrideRow * (size - 1) + (size - 1)] = 1.0;
+            e[0] = 0.0;
+        }
+    }
+
+    /**
+     * Diagonalizes a symmetric tridiagonal matrix with the implicit QL algorithm, and sorts the eigenvalues in
+     * ascending order along with their eigenvectors.
+     * 
+     * @param vecV
+     *            the accumulated transformations on input, and the eigenvectors on output.
+     * @param d
+     *            the diagonal on input, and the eigenvalues on output.
+     * @param e
+     *            the subdiagonal, starting at index {@code 1}.
+     * @param size
+     *            the matrix size.
+     */
+    final protected static void tridiagonalToDiagonal(double[] vecV, double[] d, double[] e, int size) {
+
+        int vStrideRow = size;
+
+        // This is derived from the Algol procedures tql2, by
+        // Bowdler, Martin, Reinsch, and Wilkinson, Handbook for
+        // Auto. Comp., Vol.ii-Linear Algebra, and the corresponding
+        // Fortran subroutine in EISPACK.
+
+        for (int i = 1; i < size; i++) {
+            e[i - 1] = e[i];
+        }
+        if (size > 0) {
+            e[size - 1] = 0.0;
+        }
+
+        double f = 0.0;
+        double tst1 = 0.0;
+        double eps = Math.pow(2.0, -52.0);
+        for (int l = 0; l < size; l++) {
+
+            // Find small subdiagonal element.
+
+            tst1 = Math.max(tst1, Math.abs(d[l]) + Math.abs(e[l]));
+            int m = l;
+            while (m < size) {
+                if (Math.abs(e[m]) <= eps * tst1) {
+                    break;
+                }
+                m++;
+            }
+
+            // If m == l, d[l] is an eigenvalue,
+            // otherwise, iterate.
+
+            if (m > l) {
+                do {
+
+                    // Compute implicit shift.
+
+                    double g = d[l];
+                    double p = (d[l + 1] - g) / (2.0 * e[l]);
+                    double r = Math.sqrt(p * p + 1.0);
+                    if (p < 0) {
+                        r = -r;
+                    }
+                    d[l] = e[l] / (p + r);
+                    d[l + 1] = e[l] * (p + r);
+                    double dl1 = d[l + 1];
+                    double h = g - d[l];
+                    for (int i = l + 2; i < size; i++) {
+                        d[i] -= h;
+                    }
+                    f = f + h;
+
+                    // Implicit QL transformation.
+
+                    p = d[m];
+                    double c = 1.0;
+                    double c2 = c;
+                    double c3 = c;
+                    double el1 = e[l + 1];
+                    double s = 0.0;
+                    double s2 = 0.0;
+                    for (int i = m - 1; i >= l; i--) {
+                        c3 = c2;
+                        c2 = c;
+                        s2 = s;
+                        g = c * e[i];
+                        h = c * p;
+                        r = Math.sqrt(p * p + e[i] * e[i]);
+                        e[i + 1] = s * r;
+                        s = e[i] / r;
+                        c = p / r;
+                        p = c * d[i] - s * g;
+                        d[i + 1] = h + s * (c * g + s * d[i]);
+
+                        // Accumulate transformation.
+
+                        for (int k = 0; k < size; k++) {
+                            h = vecV[vStrideRow * (k) + (i + 1)];
+                            vecV[vStrideRow * (k) + (i + 1)] = s * vecV[vStrideRow * (k) + (i)] + c * h;
+                            vecV[vStrideRow * (k) + (i)] = c * vecV[vStrideRow * (k) + (i)] - s * h;
+                        }
+                    }
+                    p = -s * s2 * c3 * el1 * e[l] / dl1;
+                    e[l] = s * p;
+                    d[l] = c * p;
+
+                    // Check for convergence.
+
+                } while (Math.abs(e[l]) > eps * tst1);
+            }
+            d[l] = d[l] + f;
+            e[l] = 0.0;
+        }
+
+        // Sort eigenvalues and corresponding vectors.
+
+        for (int i = 0; i < size - 1; i++) {
+            int k = i;
+            double p = d[i];
+            for (int j = i + 1; j < size; j++) {
+                if (d[j] < p) {
+                    k = j;
+                    p = d[j];
+                }
+            }
+            if (k != i) {
+                d[k] = d[i];
+                d[i] = p;
+                for (int j = 0; j < size; j++) {
+                    p = vecV[vStrideRow * (j) + (i)];
+                    vecV[vStrideRow * (j) + (i)] = vecV[vStrideRow * (j) + (k)];
+                    vecV[vStrideRow * (j) + (k)] = p;
+                }
+            }
+        }
+    }
+
     /**
      * Computes the reduction to Hessenberg form.
      * 
@@ -1076,7 +1428,354 @@ public class LinearAlgebraOps {
     }
 
     /**
-     * Computes the LU decomposition along with row pivots.
+     * A Cholesky decomposition operation in support of {@link JavaArrayKernel#cholesky(double[], double[], int)}.
+     * Uses a "right-looking", blocked algorithm: Each diagonal block of {@link #LU_BLOCK_SIZE} columns is factored,
+     * the panel below it is solved for, and then the lower triangle of the trailing submatrix receives a symmetric
+     * rank-{@link #LU_BLOCK_SIZE} update whose rows are divided among worker threads. All inner loops are dot products
+     * over contiguous row segments.
+     */
+    final public static void cholesky(double[] srcV, double[] dstV, int size) {
+
+        Control.checkTrue(srcV.length == size * size //
+                && dstV.length == size * size, //
+                "Invalid arguments");
+
+        cholesky(srcV, 0, dstV, 0, size);
+    }
+
+    /**
+     * Computes the lower triangular Cholesky factor of a symmetric, positive definite matrix with the blocked algorithm
+     * of {@link #cholesky(double[], double[], int)}. Only the lower triangle of the source is read, and the strict
+     * upper triangle of the destination is zeroed out.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param srcOffset
+     *            the source offset.
+     * @param dstV
+     *            the destination values.
+     * @param dstOffset
+     *            the destination offset.
+     * @param size
+     *            the matrix size.
+     */
+    final public static void cholesky(double[] srcV, int srcOffset, final double[] dstV, final int dstOffset, //
+            final int size) {
+
+        final int stride = size;
+
+        for (int i = 0; i < size; i++) {
+
+            int rowI = dstOffset + stride * i;
+
+            System.arraycopy(srcV, srcOffset + stride * i, dstV, rowI, i + 1);
+
+            for (int j = i + 1; j < size; j++) {
+                dstV[rowI + j] = 0.0;
+            }
+        }
+
+        for (int k0 = 0; k0 < size; k0 += LU_BLOCK_SIZE) {
+
+            final int blockStart = k0;
+            final int blockEnd = Math.min(k0 + LU_BLOCK_SIZE, size);
+
+            // Factor the diagonal block.
+
+            for (int j = blockStart; j < blockEnd; j++) {
+
+                int rowJ = dstOffset + stride * j;
+
+                double s = dstV[rowJ + j];
+
+                for (int k = blockStart; k < j; k++) {
+                    s -= dstV[rowJ + k] * dstV[rowJ + k];
+                }
+
+                Control.checkTrue(s > 0.0, //
+                        "Matrix is not positive definite");
+
+                double diag = Math.sqrt(s);
+
+                dstV[rowJ + j] = diag;
+
+                for (int i = j + 1; i < blockEnd; i++) {
+
+                    int rowI = dstOffset + stride * i;
+
+                    double t = dstV[rowI + j];
+
+                    for (int k = blockStart; k < j; k++) {
+                        t -= dstV[rowI + k] * dstV[rowJ + k];
+                    }
+
+                    dstV[rowI + j] = t / diag;
+                }
+            }
+
+            if (blockEnd == size) {
+                break;
+            }
+
+            // Solve for the panel below the diagonal block, and then update the trailing submatrix.
+
+            ParallelOps.fork(size - blockEnd, //
+                    FLOP_GRAIN / Math.max((blockEnd - blockStart) * (size - blockStart), 1), //
+                    new RangeOperation() {
+
+                        @Override
+                        public void op(int start, int end) {
+
+                            for (int i = blockEnd + start, n = blockEnd + end; i < n; i++) {
+
+                                int rowI = dstOffset + stride * i;
+
+                                for (int j = blockStart; j < blockEnd; j++) {
+
+                                    int rowJ = dstOffset + stride * j;
+
+                                    double t = dstV[rowI + j];
+
+                                    for (int k = blockStart; k < j; k++) {
+                                        t -= dstV[rowI + k] * dstV[rowJ + k];
+                                    }
+
+                                    dstV[rowI + j] = t / dstV[rowJ + j];
+                                }
+                            }
+                        }
+                    });
+
+            ParallelOps.fork(size - blockEnd, //
+                    FLOP_GRAIN / Math.max((blockEnd - blockStart) * (size - blockEnd), 1), //
+                    new RangeOperation() {
+
+                        @Override
+                        public void op(int start, int end) {
+
+                            for (int i = blockEnd + start, n = blockEnd + end; i < n; i++) {
+
+                                int rowI = dstOffset + stride * i;
+
+                                for (int j = blockEnd; j <= i; j++) {
+
+                                    int rowJ = dstOffset + stride * j;
+
+                                    double t = 0.0;
+
+                                    for (int k = blockStart; k < blockEnd; k++) {
+                                        t += dstV[rowI + k] * dstV[rowJ + k];
+                                    }
+
+                                    dstV[rowI + j] -= t;
+                                }
+                            }
+                        }
+                    });
+        }
+    }
+
+    /**
+     * A symmetric, positive definite system solve operation in support of
+     * {@link JavaArrayKernel#choleskySolve(double[], double[], double[], int, int)}. Columns of the solution are
+     * divided among worker threads.
+     */
+    final public static void choleskySolve(final double[] lV, double[] srcV, final double[] dstV, //
+            final int size, final int nCols) {
+
+        Control.checkTrue(lV.length == size * size //
+                && srcV.length == size * nCols //
+                && dstV.length == size * nCols, //
+                "Invalid arguments");
+
+        for (int i = 0; i < size; i++) {
+            Control.checkTrue(lV[size * i + i] > 0.0, //
+                    "Invalid Cholesky factor");
+        }
+
+        System.arraycopy(srcV, 0, dstV, 0, size * nCols);
+
+        final int lStrideRow = size;
+        final int vStrideRow = nCols;
+
+        ParallelOps.fork(nCols, Math.max(FLOP_GRAIN / Math.max(size * size, 1), SOLVE_GRAIN), //
+                new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        // Solve L*Y = B
+                        for (int k = 0; k < size; k++) {
+
+                            double l = lV[lStrideRow * (k) + (k)];
+
+                            for (int j = start; j < end; j++) {
+                                dstV[vStrideRow * (k) + (j)] /= l;
+                            }
+
+                            for (int i = k + 1; i < size; i++) {
+
+                                l = lV[lStrideRow * (i) + (k)];
+
+                                for (int j = start; j < end; j++) {
+                                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * l;
+                                }
+                            }
+                        }
+                        // Solve L^T*X = Y;
+                        for (int k = size - 1; k >= 0; k--) {
+
+                            double l = lV[lStrideRow * (k) + (k)];
+
+                            for (int j = start; j < end; j++) {
+                                dstV[vStrideRow * (k) + (j)] /= l;
+                            }
+
+                            for (int i = 0; i < k; i++) {
+
+                                l = lV[lStrideRow * (k) + (i)];
+
+                                for (int j = start; j < end; j++) {
+                                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * l;
+                                }
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Orthonormalizes the rows of a matrix in place by classical Gram-Schmidt with reorthogonalization. Rows that are
+     * numerically dependent on their predecessors are zeroed out.
+     * 
+     * @param v
+     *            the matrix values.
+     * @param nRows
+     *            the number of rows.
+     * @param nCols
+     *            the number of columns.
+     */
+    final public static void orthonormalizeRows(double[] v, int nRows, int nCols) {
+
+        Control.checkTrue(v.length == nRows * nCols, //
+                "Invalid arguments");
+
+        double[] dots = new double[nRows];
+
+        for (int i = 0; i < nRows; i++) {
+
+            int rowI = nCols * i;
+
+            double norm0 = 0.0;
+
+            for (int k = 0; k < nCols; k++) {
+                norm0 += v[rowI + k] * v[rowI + k];
+            }
+
+            // Twice is enough.
+            for (int pass = 0; pass < 2; pass++) {
+
+                for (int j = 0; j < i; j++) {
+
+                    int rowJ = nCols * j;
+                    double dot = 0.0;
+
+                    for (int k = 0; k < nCols; k++) {
+                        dot += v[rowI + k] * v[rowJ + k];
+                    }
+
+                    dots[j] = dot;
+                }
+
+                for (int j = 0; j < i; j++) {
+
+                    int rowJ = nCols * j;
+                    double dot = dots[j];
+
+                    for (int k = 0; k < nCols; k++) {
+                        v[rowI + k] -= dot * v[rowJ + k];
+                    }
+                }
+            }
+
+            double norm = 0.0;
+
+            for (int k = 0; k < nCols; k++) {
+                norm += v[rowI + k] * v[rowI + k];
+            }
+
+            double scale = (norm > 1e-24 * norm0 && norm > 0.0) ? 1.0 / Math.sqrt(norm) : 0.0;
+
+            for (int k = 0; k < nCols; k++) {
+                v[rowI + k] *= scale;
+            }
+        }
+    }
+
+    /**
+     * An LU decomposition operation in support of {@link JavaArrayKernel#lu(double[], double[], int[], int)}.
+     */
+    final public static void lu(double[] srcV, double[] luV, int[] pivots, int size) {
+
+        Control.checkTrue(srcV.length == size * size //
+                && luV.length == size * size //
+                && pivots.length == size, //
+                "Invalid arguments");
+
+        System.arraycopy(srcV, 0, luV, 0, size * size);
+
+        for (int i = 0; i < size; i++) {
+            pivots[i] = i;
+        }
+
+        lup(luV, pivots, size, size);
+    }
+
+    /**
+     * A linear system solve operation in support of
+     * {@link JavaArrayKernel#luSolve(double[], int[], double[], double[], int, int, boolean)}.
+     */
+    final public static void luSolve(double[] luV, int[] pivots, double[] srcV, double[] dstV, //
+            int size, int nCols, boolean transpose) {
+
+        Control.checkTrue(luV.length == size * size //
+                && pivots.length == size //
+                && srcV.length == size * nCols //
+                && dstV.length == size * nCols, //
+                "Invalid arguments");
+
+        for (int i = 0; i < size; i++) {
+            Control.checkTrue(luV[size * i + i] != 0, //
+                    "Matrix is singular");
+        }
+
+        if (!transpose) {
+
+            // Solve P*A*X = L*U*X = P*B.
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(srcV, nCols * pivots[i], dstV, nCols * i, nCols);
+            }
+
+            luSolve(luV, size, dstV, nCols);
+
+        } else {
+
+            // Solve A^T*X = U^T*L^T*P*X = B.
+            double[] workV = srcV.clone();
+
+            luSolveTranspose(luV, size, workV, nCols);
+
+            for (int i = 0; i < size; i++) {
+                System.arraycopy(workV, nCols * i, dstV, nCols * pivots[i], nCols);
+            }
+        }
+    }
+
+    /**
+     * Computes the LU decomposition along with row pivots. Uses a "right-looking", blocked algorithm: Each panel of
+     * {@link #LU_BLOCK_SIZE} columns is factored with partial pivoting, the corresponding block row of U is solved for,
+     * and then the trailing submatrix receives a rank-{@link #LU_BLOCK_SIZE} update whose rows are divided among worker
+     * threads.
      * 
      * @param lu
      *            the LU matrix.
@@ -1087,70 +1786,119 @@ public class LinearAlgebraOps {
      * @param nCols
      *            the number of columns.
      */
-    final protected static void lup(double[] lu, int[] pivots, int nRows, int nCols) {
+    final protected static void lup(final double[] lu, int[] pivots, final int nRows, final int nCols) {
 
-        int luStrideRow = nCols;
+        final int luStrideRow = nCols;
 
-        // Use a "left-looking", dot-product, Crout/Doolittle algorithm.
+        for (int k0 = 0, nSteps = Math.min(nRows, nCols); k0 < nSteps; k0 += LU_BLOCK_SIZE) {
 
-        double[] luColJ = new double[nRows];
+            final int panelStart = k0;
+            final int panelEnd = Math.min(k0 + LU_BLOCK_SIZE, nSteps);
 
-        // Outer loop.
+            // Factor the panel, exchanging entire rows.
 
-        for (int j = 0; j < nCols; j++) {
+            for (int j = panelStart; j < panelEnd; j++) {
 
-            // Make a copy of the j-th column to localize references.
+                int p = j;
+                double max = Math.abs(lu[luStrideRow * (j) + (j)]);
 
-            for (int i = 0; i < nRows; i++) {
-                luColJ[i] = lu[luStrideRow * (i) + (j)];
-            }
+                for (int i = j + 1; i < nRows; i++) {
 
-            // Apply previous transformations.
+                    double v = Math.abs(lu[luStrideRow * (i) + (j)]);
 
-            for (int i = 0; i < nRows; i++) {
+                    if (v > max) {
+
+                        max = v;
+                        p = i;
+                    }
+                }
+
+                if (p != j) {
+
+                    for (int k = 0, rowP = luStrideRow * p, rowJ = luStrideRow * j; k < nCols; k++) {
 
-                // Most of the time is spent in the following dot product.
+                        double t = lu[rowP + k];
+                        lu[rowP + k] = lu[rowJ + k];
+                        lu[rowJ + k] = t;
+                    }
 
-                int kmax = Math.min(i, j);
-                double s = 0.0;
-                for (int k = 0; k < kmax; k++) {
-                    s += lu[luStrideRow * (i) + (k)] * luColJ[k];
+                    int k = pivots[p];
+                    pivots[p] = pivots[j];
+                    pivots[j] = k;
                 }
 
-                lu[luStrideRow * (i) + (j)] = luColJ[i] -= s;
-            }
+                double pivot = lu[luStrideRow * (j) + (j)];
+
+                if (pivot == 0.0) {
+                    continue;
+                }
+
+                // Compute multipliers and update the remainder of the panel.
+
+                for (int i = j + 1, rowJ = luStrideRow * j; i < nRows; i++) {
 
-            // Find pivot and exchange if necessary.
+                    int rowI = luStrideRow * i;
+                    double l = (lu[rowI + j] /= pivot);
 
-            int p = j;
-            for (int i = j + 1; i < nRows; i++) {
-                if (Math.abs(luColJ[i]) > Math.abs(luColJ[p])) {
-                    p = i;
+                    for (int k = j + 1; k < panelEnd; k++) {
+                        lu[rowI + k] -= l * lu[rowJ + k];
+                    }
                 }
             }
-            if (p != j) {
-                for (int k = 0; k < nCols; k++) {
-                    double t = lu[luStrideRow * (p) + (k)];
-                    lu[luStrideRow * (p) + (k)] = lu[luStrideRow * (j) + (k)];
-                    lu[luStrideRow * (j) + (k)] = t;
-                }
-                int k = pivots[p];
-                pivots[p] = pivots[j];
-                pivots[j] = k;
+
+            if (panelEnd == nCols) {
+                continue;
             }
 
-            // Compute multipliers.
+            // Solve for the block row of U.
 
-            if (j < nRows && lu[luStrideRow * (j) + (j)] != 0.0) {
-                for (int i = j + 1; i < nRows; i++) {
-                    lu[luStrideRow * (i) + (j)] /= lu[luStrideRow * (j) + (j)];
+            for (int j = panelStart; j < panelEnd; j++) {
+
+                for (int i = j + 1, rowJ = luStrideRow * j; i < panelEnd; i++) {
+
+                    int rowI = luStrideRow * i;
+                    double l = lu[rowI + j];
+
+                    for (int k = panelEnd; k < nCols; k++) {
+                        lu[rowI + k] -= l * lu[rowJ + k];
+                    }
                 }
             }
+
+            // Update the trailing submatrix.
+
+            int rowWork = (panelEnd - panelStart) * (nCols - panelEnd);
+
+            ParallelOps.fork(nRows - panelEnd, FLOP_GRAIN / Math.max(rowWork, 1), new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    for (int i = panelEnd + start, n = panelEnd + end; i < n; i++) {
+
+                        int rowI = luStrideRow * i;
+
+                        for (int j = panelStart; j < panelEnd; j++) {
+
+                            double l = lu[rowI + j];
+
+                            if (l == 0.0) {
+                                continue;
+                            }
+
+                            for (int k = panelEnd, rowJ = luStrideRow * j; k < nCols; k++) {
+                                lu[rowI + k] -= l * lu[rowJ + k];
+                            }
+                        }
+                    }
+                }
+            });
         }
     }
 
     /**
-     * Uses an existing LU decomposition to solve a system of linear equations.
+     * Uses an existing LU decomposition to solve a system of linear equations. Columns of the destination matrix are
+     * divided among worker threads.
      * 
      * @param lu
      *            the LU matrix.
@@ -1161,30 +1909,105 @@ public class LinearAlgebraOps {
      * @param nDstVCols
      *            the number of columns in the destination matrix.
      */
-    final protected static void luSolve(double[] lu, int nLuCols, double[] dstV, int nDstVCols) {
+    final protected static void luSolve(final double[] lu, final int nLuCols, final double[] dstV, final int nDstVCols) {
 
-        int luStrideRow = nLuCols;
-        int vStrideRow = nDstVCols;
+        final int luStrideRow = nLuCols;
+        final int vStrideRow = nDstVCols;
 
-        // Solve L*Y = B(piv,:)
-        for (int k = 0; k < nLuCols; k++) {
-            for (int i = k + 1; i < nLuCols; i++) {
-                for (int j = 0; j < nDstVCols; j++) {
-                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * lu[luStrideRow * (i) + (k)];
-                }
-            }
-        }
-        // Solve U*X = Y;
-        for (int k = nLuCols - 1; k >= 0; k--) {
-            for (int j = 0; j < nLuCols; j++) {
-                dstV[vStrideRow * (k) + (j)] /= lu[luStrideRow * (k) + (k)];
-            }
-            for (int i = 0; i < k; i++) {
-                for (int j = 0; j < nDstVCols; j++) {
-                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * lu[luStrideRow * (i) + (k)];
-                }
-            }
-        }
+        ParallelOps.fork(nDstVCols, Math.max(FLOP_GRAIN / Math.max(nLuCols * nLuCols, 1), SOLVE_GRAIN), //
+                new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        // Solve L*Y = B(piv,:)
+                        for (int k = 0; k < nLuCols; k++) {
+                            for (int i = k + 1; i < nLuCols; i++) {
+
+                                double l = lu[luStrideRow * (i) + (k)];
+
+                                for (int j = start; j < end; j++) {
+                                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * l;
+                                }
+                            }
+                        }
+                        // Solve U*X = Y;
+                        for (int k = nLuCols - 1; k >= 0; k--) {
+
+                            double u = lu[luStrideRow * (k) + (k)];
+
+                            for (int j = start; j < end; j++) {
+                                dstV[vStrideRow * (k) + (j)] /= u;
+                            }
+
+                            for (int i = 0; i < k; i++) {
+
+                                u = lu[luStrideRow * (i) + (k)];
+
+                                for (int j = start; j < end; j++) {
+                                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * u;
+                                }
+                            }
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Uses an existing LU decomposition to solve the transpose of a system of linear equations.
+     * 
+     * @param lu
+     *            the LU matrix.
+     * @param nLuCols
+     *            the number of columns in the LU matrix.
+     * @param dstV
+     *            the destination matrix.
+     * @param nDstVCols
+     *            the number of columns in the destination matrix.
+     */
+    final protected static void luSolveTranspose(final double[] lu, final int nLuCols, //
+            final double[] dstV, final int nDstVCols) {
+
+        final int luStrideRow = nLuCols;
+        final int vStrideRow = nDstVCols;
+
+        ParallelOps.fork(nDstVCols, Math.max(FLOP_GRAIN / Math.max(nLuCols * nLuCols, 1), SOLVE_GRAIN), //
+                new RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        // Solve U^T*Z = B
+                        for (int k = 0; k < nLuCols; k++) {
+
+                            double u = lu[luStrideRow * (k) + (k)];
+
+                            for (int j = start; j < end; j++) {
+                                dstV[vStrideRow * (k) + (j)] /= u;
+                            }
+
+                            for (int i = k + 1; i < nLuCols; i++) {
+
+                                u = lu[luStrideRow * (k) + (i)];
+
+                                for (int j = start; j < end; j++) {
+                                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * u;
+                                }
+                            }
+                        }
+                        // Solve L^T*Y = Z;
+                        for (int k = nLuCols - 1; k >= 0; k--) {
+                            for (int i = 0; i < k; i++) {
+
+                                double l = lu[luStrideRow * (k) + (i)];
+
+                                for (int j = start; j < end; j++) {
+                                    dstV[vStrideRow * (i) + (j)] -= dstV[vStrideRow * (k) + (j)] * l;
+                                }
+                            }
+                        }
+                    }
+                });
     }
 
     // Dummy constructor.
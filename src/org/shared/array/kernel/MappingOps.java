@@ -108,6 +108,65 @@ public class MappingOps {
         return indices;
     }
 
+    /**
+     * Advances an odometer over the given dimensions, where the last dimension varies fastest, and computes the
+     * resulting change in physical offset. Walking an array this way visits the same physical indices, in the same
+     * order, as {@link #assignMappingIndices(int, int[], int[])} without materializing them.
+     * 
+     * @param counters
+     *            the odometer counters, which are updated in place.
+     * @param dims
+     *            the dimensions.
+     * @param strides
+     *            the strides.
+     * @return the change in physical offset.
+     */
+    final public static int advance(int[] counters, int[] dims, int[] strides) {
+
+        int delta = 0;
+
+        for (int dim = dims.length - 1; dim >= 0; dim--) {
+
+            if (++counters[dim] < dims[dim]) {
+                return delta + strides[dim];
+            }
+
+            counters[dim] = 0;
+            delta -= (dims[dim] - 1) * strides[dim];
+        }
+
+        return delta;
+    }
+
+    /**
+     * Positions an odometer over the given dimensions at a logical index, so that walks with
+     * {@link #advance(int[], int[], int[])} may start partway through an array.
+     * 
+     * @param index
+     *            the logical index, in row-major order.
+     * @param counters
+     *            the odometer counters, which are overwritten.
+     * @param dims
+     *            the dimensions.
+     * @param strides
+     *            the strides.
+     * @return the physical offset.
+     */
+    final public static int seek(int index, int[] counters, int[] dims, int[] strides) {
+
+        int offset = 0;
+
+        for (int dim = dims.length - 1; dim >= 0; dim--) {
+
+            counters[dim] = index % dims[dim];
+            offset += counters[dim] * strides[dim];
+
+            index /= dims[dim];
+        }
+
+        return offset;
+    }
+
     /**
      * Checks an array's dimensions and strides.
      * 
@@ -190,6 +249,322 @@ public class MappingOps {
         }
     }
 
+    /**
+     * Copies values between strided layouts. Unlike {@link #map(int[], Object, int[], int[], Object, int[], int[])},
+     * the source and destination may begin at arbitrary offsets into their backing arrays and may have arbitrary,
+     * possibly negative or zero, strides. Physical offsets are advanced incrementally, dimension by dimension, and runs
+     * that are contiguous on both sides are moved with {@link System#arraycopy(Object, int, Object, int, int)}.
+     * 
+     * @param dims
+     *            the dimensions.
+     * @param srcV
+     *            the source array.
+     * @param srcOffset
+     *            the source offset.
+     * @param srcS
+     *            the source strides.
+     * @param dstV
+     *            the destination array.
+     * @param dstOffset
+     *            the destination offset.
+     * @param dstS
+     *            the destination strides.
+     */
+    final public static void copy(int[] dims, //
+            Object srcV, int srcOffset, int[] srcS, //
+            Object dstV, int dstOffset, int[] dstS) {
+
+        int nDims = dims.length;
+
+        Control.checkTrue(nDims == srcS.length && nDims == dstS.length, //
+                "Invalid arguments");
+
+        int len = 1;
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            Control.checkTrue(dims[dim] >= 0, //
+                    "Invalid dimensions");
+
+            len *= dims[dim];
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        checkExtent(Array.getLength(srcV), srcOffset, dims, srcS);
+        checkExtent(Array.getLength(dstV), dstOffset, dims, dstS);
+
+        if (!(srcV instanceof double[] && dstV instanceof double[]) //
+                && !(srcV instanceof int[] && dstV instanceof int[])) {
+
+            Control.checkTrue(srcV instanceof Object[] && dstV instanceof Object[] //
+                    && dstV.getClass().isAssignableFrom(srcV.getClass()), //
+                    "Invalid array types");
+        }
+
+        if (nDims == 0) {
+
+            System.arraycopy(srcV, srcOffset, dstV, dstOffset, 1);
+
+            return;
+        }
+
+        // Walk along the dimension that is contiguous in the destination, if there is one.
+        int inner = nDims - 1;
+
+        for (int dim = nDims - 1; dim >= 0; dim--) {
+
+            if (dstS[dim] == 1) {
+
+                inner = dim;
+
+                break;
+            }
+        }
+
+        int innerSize = dims[inner];
+        int innerSrcStride = srcS[inner];
+        int innerDstStride = dstS[inner];
+
+        int[] counters = new int[nDims];
+
+        for (int run = 0, nRuns = len / innerSize; run < nRuns; run++) {
+
+            copyRun(srcV, srcOffset, innerSrcStride, dstV, dstOffset, innerDstStride, innerSize);
+
+            for (int dim = nDims - 1; dim >= 0; dim--) {
+
+                if (dim == inner) {
+                    continue;
+                }
+
+                if (++counters[dim] < dims[dim]) {
+
+                    srcOffset += srcS[dim];
+                    dstOffset += dstS[dim];
+
+                    break;
+                }
+
+                counters[dim] = 0;
+
+                srcOffset -= (dims[dim] - 1) * srcS[dim];
+                dstOffset -= (dims[dim] - 1) * dstS[dim];
+            }
+        }
+    }
+
+    /**
+     * Copies a single run of strided values.
+     */
+    final protected static void copyRun(Object srcV, int srcOffset, int srcStride, //
+            Object dstV, int dstOffset, int dstStride, int len) {
+
+        if (srcStride == 1 && dstStride == 1) {
+
+            System.arraycopy(srcV, srcOffset, dstV, dstOffset, len);
+
+        } else if (srcV instanceof double[]) {
+
+            double[] srcVArr = (double[]) srcV;
+            double[] dstVArr = (double[]) dstV;
+
+            for (int i = 0; i < len; i++, srcOffset += srcStride, dstOffset += dstStride) {
+                dstVArr[dstOffset] = srcVArr[srcOffset];
+            }
+
+        } else if (srcV instanceof int[]) {
+
+            int[] srcVArr = (int[]) srcV;
+            int[] dstVArr = (int[]) dstV;
+
+            for (int i = 0; i < len; i++, srcOffset += srcStride, dstOffset += dstStride) {
+                dstVArr[dstOffset] = srcVArr[srcOffset];
+            }
+
+        } else {
+
+            Object[] srcVArr = (Object[]) srcV;
+            Object[] dstVArr = (Object[]) dstV;
+
+            for (int i = 0; i < len; i++, srcOffset += srcStride, dstOffset += dstStride) {
+                dstVArr[dstOffset] = srcVArr[srcOffset];
+            }
+        }
+    }
+
+    /**
+     * Checks that a nonempty strided layout lies within an array of the given length.
+     * 
+     * @param len
+     *            the array length.
+     * @param offset
+     *            the offset.
+     * @param dims
+     *            the dimensions.
+     * @param strides
+     *            the strides.
+     */
+    final public static void checkExtent(int len, int offset, int[] dims, int[] strides) {
+
+        long lower = offset;
+        long upper = offset;
+
+        for (int dim = 0, nDims = dims.length; dim < nDims; dim++) {
+
+            long reach = (long) (dims[dim] - 1) * strides[dim];
+
+            if (reach < 0) {
+
+                lower += reach;
+
+            } else {
+
+                upper += reach;
+            }
+        }
+
+        Control.checkTrue(lower >= 0 && upper < len, //
+                "Invalid offset and/or strides");
+    }
+
+    /**
+     * Assigns source values to destination values based on slicing indices arranged by dimension. The physical indices
+     * are computed incrementally, and runs that are contiguous on both sides are moved with
+     * {@link System#arraycopy(Object, int, Object, int, int)}.
+     * 
+     * @param srcV
+     *            the source array.
+     * @param srcS
+     *            the source strides.
+     * @param ssi
+     *            the source slicing indices, which are overwritten with physical offsets.
+     * @param dstV
+     *            the destination array.
+     * @param dstS
+     *            the destination strides.
+     * @param dsi
+     *            the destination slicing indices, which are overwritten with physical offsets.
+     */
+    final protected static void assign(Object srcV, int[] srcS, int[][] ssi, Object dstV, int[] dstS, int[][] dsi) {
+
+        if (!(srcV instanceof double[] && dstV instanceof double[]) //
+                && !(srcV instanceof int[] && dstV instanceof int[])) {
+
+            Control.checkTrue(srcV instanceof Object[] && dstV instanceof Object[] //
+                    && dstV.getClass().isAssignableFrom(srcV.getClass()), //
+                    "Invalid array types");
+        }
+
+        int nDims = srcS.length;
+
+        if (nDims == 0) {
+
+            System.arraycopy(srcV, 0, dstV, 0, 1);
+
+            return;
+        }
+
+        int len = 1;
+        int srcOffset = 0;
+        int dstOffset = 0;
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            int[] srcSlices = ssi[dim];
+            int[] dstSlices = dsi[dim];
+
+            for (int j = 0, n = srcSlices.length; j < n; j++) {
+
+                srcSlices[j] *= srcS[dim];
+                dstSlices[j] *= dstS[dim];
+            }
+
+            len *= srcSlices.length;
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        int last = nDims - 1;
+
+        for (int dim = 0; dim < last; dim++) {
+
+            srcOffset += ssi[dim][0];
+            dstOffset += dsi[dim][0];
+        }
+
+        int[] srcInner = ssi[last];
+        int[] dstInner = dsi[last];
+        int innerLen = srcInner.length;
+
+        boolean contiguous = true;
+
+        for (int j = 1; j < innerLen && contiguous; j++) {
+            contiguous = (srcInner[j] == srcInner[0] + j) && (dstInner[j] == dstInner[0] + j);
+        }
+
+        int[] counters = new int[nDims];
+
+        for (int run = 0, nRuns = len / innerLen; run < nRuns; run++) {
+
+            if (contiguous) {
+
+                System.arraycopy(srcV, srcOffset + srcInner[0], dstV, dstOffset + dstInner[0], innerLen);
+
+            } else if (srcV instanceof double[]) {
+
+                double[] srcVArr = (double[]) srcV;
+                double[] dstVArr = (double[]) dstV;
+
+                for (int j = 0; j < innerLen; j++) {
+                    dstVArr[dstOffset + dstInner[j]] = srcVArr[srcOffset + srcInner[j]];
+                }
+
+            } else if (srcV instanceof int[]) {
+
+                int[] srcVArr = (int[]) srcV;
+                int[] dstVArr = (int[]) dstV;
+
+                for (int j = 0; j < innerLen; j++) {
+                    dstVArr[dstOffset + dstInner[j]] = srcVArr[srcOffset + srcInner[j]];
+                }
+
+            } else {
+
+                Object[] srcVArr = (Object[]) srcV;
+                Object[] dstVArr = (Object[]) dstV;
+
+                for (int j = 0; j < innerLen; j++) {
+                    dstVArr[dstOffset + dstInner[j]] = srcVArr[srcOffset + srcInner[j]];
+                }
+            }
+
+            for (int dim = last - 1; dim >= 0; dim--) {
+
+                int[] srcSlices = ssi[dim];
+                int[] dstSlices = dsi[dim];
+                int count = counters[dim];
+
+                if (count + 1 < srcSlices.length) {
+
+                    srcOffset += srcSlices[count + 1] - srcSlices[count];
+                    dstOffset += dstSlices[count + 1] - dstSlices[count];
+                    counters[dim] = count + 1;
+
+                    break;
+                }
+
+                srcOffset += srcSlices[0] - srcSlices[count];
+                dstOffset += dstSlices[0] - dstSlices[count];
+                counters[dim] = 0;
+            }
+        }
+    }
+
     /**
      * A mapping operation in support of {@link JavaArrayKernel#map(int[], Object, int[], int[], Object, int[], int[])}.
      */
@@ -253,10 +628,7 @@ public class MappingOps {
             return;
         }
 
-        int[] srcIndices = assignSlicingIndices(mapLen, srcS, ssi);
-        int[] dstIndices = assignSlicingIndices(mapLen, dstS, dsi);
-
-        assign(srcV, srcIndices, dstV, dstIndices);
+        assign(srcV, srcS, ssi, dstV, dstS, dsi);
     }
 
     /**
@@ -329,10 +701,7 @@ public class MappingOps {
             return;
         }
 
-        int[] srcIndices = assignSlicingIndices(nIndices, srcS, ssi);
-        int[] dstIndices = assignSlicingIndices(nIndices, dstS, dsi);
-
-        assign(srcV, srcIndices, dstV, dstIndices);
+        assign(srcV, srcS, ssi, dstV, dstS, dsi);
     }
 
     // Dummy constructor.
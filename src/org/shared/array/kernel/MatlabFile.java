@@ -0,0 +1,278 @@
+/**
+ * <p>
+ * Copyright (c) 2008 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+package org.shared.array.kernel;
+
+import static org.shared.array.kernel.MatlabIo.MATLAB_MI_DOUBLE;
+import static org.shared.array.kernel.MatlabIo.MATLAB_MI_MATRIX;
+import static org.shared.array.kernel.MatlabIo.MATLAB_MX_DOUBLE_CLASS;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.shared.array.Array;
+import org.shared.array.RealArray;
+import org.shared.array.kernel.MatlabIoKernel.IntArrayDataElement;
+import org.shared.array.kernel.MatlabIoKernel.MatrixDataElement;
+import org.shared.util.Control;
+
+/**
+ * An index over the {@link Array}s of a MAT-file, which are read on demand. Only data element headers are examined
+ * upon construction; values are memory mapped when asked for, and {@link RealArray}s may be read one slice at a time,
+ * so that files larger than main memory remain usable.
+ * 
+ * @apiviz.composedOf org.shared.array.kernel.MatlabFile.Entry
+ * @apiviz.uses org.shared.array.kernel.MatlabIoKernel
+ * @author Roy Liu
+ */
+public class MatlabFile {
+
+    final FileChannel channel;
+    final ByteOrder order;
+    final List<Entry> entries;
+
+    /**
+     * Default constructor.
+     * 
+     * @param channel
+     *            the file channel, which remains under the ownership of the caller.
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public MatlabFile(FileChannel channel) throws IOException {
+
+        this.channel = channel;
+
+        ByteBuffer header = MatlabIoKernel.read(channel, 0, 128);
+
+        MatlabIoKernel.checkHeader(header);
+
+        this.order = header.order();
+        this.entries = new ArrayList<Entry>();
+
+        for (long position = 128, fileSize = channel.size(); position < fileSize;) {
+
+            ByteBuffer tag = MatlabIoKernel.read(channel, position, 8).order(this.order);
+
+            Control.checkTrue(tag.getInt() == MATLAB_MI_MATRIX, //
+                    "Data element must be a MATLAB matrix");
+
+            long size = 8 + (tag.getInt() & 0xFFFFFFFFL);
+
+            // Mapping is lazy, so only the pages holding the header are touched here.
+            ByteBuffer bb = channel.map(MapMode.READ_ONLY, position, size).order(this.order);
+            bb.position(8);
+
+            int arrayType = new IntArrayDataElement(bb).get()[0];
+            int[] dims = new IntArrayDataElement(bb).get();
+            int[] nameChars = new IntArrayDataElement(bb).get();
+
+            char[] name = new char[nameChars.length];
+
+            for (int i = 0, n = name.length; i < n; i++) {
+                name[i] = (char) nameChars[i];
+            }
+
+            this.entries.add(new Entry(new String(name), arrayType, dims, position, size, position + bb.position()));
+
+            position += size;
+        }
+    }
+
+    /**
+     * Gets the number of {@link Array}s.
+     */
+    public int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Gets the name of the {@link Array} at the given index.
+     */
+    public String getName(int index) {
+        return this.entries.get(index).name;
+    }
+
+    /**
+     * Gets the MATLAB dimensions of the {@link Array} at the given index. Note that a {@link org.shared.array.ComplexArray}
+     * would carry an additional, trailing dimension of size {@code 2}.
+     */
+    public int[] getDims(int index) {
+        return this.entries.get(index).dims.clone();
+    }
+
+    /**
+     * Reads the {@link Array} at the given index in its entirety.
+     * 
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public Array<?, ?> get(int index) throws IOException {
+
+        Entry entry = this.entries.get(index);
+
+        return new MatrixDataElement(this.channel.map(MapMode.READ_ONLY, //
+                entry.position, entry.size).order(this.order)).get();
+    }
+
+    /**
+     * Reads a subarray of the {@link RealArray} at the given index, as in {@link RealArray#subarray(int...)}. Only the
+     * file region spanned by the subarray is mapped, and the values are gathered one contiguous column run at a time.
+     * 
+     * @param index
+     *            the index of the {@link RealArray}.
+     * @param bounds
+     *            the subarray bounds as (inclusive) lower and (exclusive) upper pairs.
+     * @return the subarray.
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public RealArray subarray(int index, int... bounds) throws IOException {
+
+        Entry entry = this.entries.get(index);
+
+        int[] dims = entry.dims;
+        int nDims = dims.length;
+
+        Control.checkTrue(nDims * 2 == bounds.length, //
+                "Invalid subarray bounds");
+
+        Control.checkTrue((entry.arrayType & 0x000008FF) == MATLAB_MX_DOUBLE_CLASS, //
+                "Only real, double precision arrays can be read by slice");
+
+        int[] newDims = new int[nDims];
+
+        // Compute the extent of the file region in column-major, MATLAB order.
+        long[] srcStrides = new long[nDims];
+        long first = 0;
+        long last = 0;
+
+        long stride = 1;
+
+        for (int dim = 0; dim < nDims; stride *= dims[dim], dim++) {
+
+            int lower = bounds[2 * dim];
+            int upper = bounds[2 * dim + 1];
+
+            Control.checkTrue(lower >= 0 && lower <= upper && upper <= dims[dim], //
+                    "Invalid subarray bounds");
+
+            newDims[dim] = upper - lower;
+            srcStrides[dim] = stride;
+
+            first += lower * stride;
+            last += (upper - 1) * stride;
+        }
+
+        RealArray dst = new RealArray(newDims);
+
+        double[] dstV = dst.values();
+        int[] dstStrides = dst.strides();
+        int len = dstV.length;
+
+        if (len == 0) {
+            return dst;
+        }
+
+        ByteBuffer tag = MatlabIoKernel.read(this.channel, entry.valuesPosition, 8).order(this.order);
+
+        Control.checkTrue(tag.getInt() == MATLAB_MI_DOUBLE, //
+                "Only real, double precision arrays can be read by slice");
+
+        Control.checkTrue(last - first < (Integer.MAX_VALUE >>> 3), //
+                "Subarray spans too large a file region");
+
+        DoubleBuffer db = this.channel.map(MapMode.READ_ONLY, //
+                entry.valuesPosition + 8 + 8 * first, 8 * (last - first + 1)).order(this.order).asDoubleBuffer();
+
+        int run = newDims[0];
+
+        int[] outerDims = new int[nDims - 1];
+        int[] outerSrcStrides = new int[nDims - 1];
+        int[] outerDstStrides = new int[nDims - 1];
+
+        // Reverse the outer dimensions so that the lowest one varies fastest.
+        for (int dim = 1; dim < nDims; dim++) {
+
+            outerDims[nDims - 1 - dim] = newDims[dim];
+            outerSrcStrides[nDims - 1 - dim] = (int) srcStrides[dim];
+            outerDstStrides[nDims - 1 - dim] = dstStrides[dim];
+        }
+
+        int[] srcCounters = new int[nDims - 1];
+        int[] dstCounters = new int[nDims - 1];
+
+        double[] runV = new double[run];
+
+        for (int i = 0, n = len / run, srcOffset = 0, dstOffset = 0; i < n; i++) {
+
+            db.position(srcOffset);
+            db.get(runV);
+
+            for (int j = 0, k = dstOffset; j < run; j++, k += dstStrides[0]) {
+                dstV[k] = runV[j];
+            }
+
+            srcOffset += MappingOps.advance(srcCounters, outerDims, outerSrcStrides);
+            dstOffset += MappingOps.advance(dstCounters, outerDims, outerDstStrides);
+        }
+
+        return dst;
+    }
+
+    /**
+     * A MATLAB matrix data element whose values have yet to be read.
+     */
+    protected static class Entry {
+
+        final String name;
+        final int arrayType;
+        final int[] dims;
+        final long position;
+        final long size;
+        final long valuesPosition;
+
+        /**
+         * Default constructor.
+         */
+        protected Entry(String name, int arrayType, int[] dims, long position, long size, long valuesPosition) {
+
+            this.name = name;
+            this.arrayType = arrayType;
+            this.dims = dims;
+            this.position = position;
+            this.size = size;
+            this.valuesPosition = valuesPosition;
+        }
+    }
+}
@@ -57,9 +57,13 @@ import static org.shared.array.kernel.MatlabIo.ObjectType.MX_DOUBLE_CLASS;
 import static org.shared.array.kernel.MatlabIo.ObjectType.MX_INT32_CLASS;
 
 import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -99,6 +103,11 @@ public class MatlabIoKernel implements ArrayIoKernel {
      */
     final protected static ThreadLocal<Integer> integerArrayCountLocal = new ThreadLocal<Integer>();
 
+    /**
+     * The size of the staging buffer through which MAT-files are streamed.
+     */
+    final protected static int STAGING_SIZE = 1 << 16;
+
     /**
      * Default constructor.
      */
@@ -108,72 +117,81 @@ public class MatlabIoKernel implements ArrayIoKernel {
     @Override
     public <T extends Array<T, ?>> byte[] getBytes(T array) {
 
-        final Integer count;
-        final String name;
-
         final Object arrayObj = array;
+        final String name = getName(arrayObj);
 
         if (arrayObj instanceof RealArray) {
 
-            count = realArrayCountLocal.get();
-
-            if (count != null) {
-
-                name = String.format("ra_%d", count);
-
-                realArrayCountLocal.set(count + 1);
-
-            } else {
-
-                name = "ra";
-            }
-
             return getBytes((RealArray) arrayObj, name);
 
         } else if (arrayObj instanceof ComplexArray) {
 
-            count = complexArrayCountLocal.get();
+            return getBytes((ComplexArray) arrayObj, name);
 
-            if (count != null) {
+        } else {
 
-                name = String.format("ca_%d", count);
+            return getBytes((IntegerArray) arrayObj, name);
+        }
+    }
 
-                complexArrayCountLocal.set(count + 1);
+    @Override
+    public <T extends Array<T, ?>> void write(T array, WritableByteChannel channel) throws IOException {
 
-            } else {
+        ByteBuffer bb = ByteBuffer.allocate(STAGING_SIZE);
 
-                name = "ca";
-            }
+        write(array, channel, bb);
+        flush(channel, bb);
+    }
 
-            return getBytes((ComplexArray) arrayObj, name);
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends Array<T, ?>> T parse(byte[] data) {
+        return (T) new MatrixDataElement(ByteBuffer.wrap(data)).get();
+    }
 
-        } else if (arrayObj instanceof IntegerArray) {
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T extends Array<T, ?>> T parse(FileChannel channel) throws IOException {
+        return (T) parse(channel, ByteOrder.BIG_ENDIAN);
+    }
 
-            count = integerArrayCountLocal.get();
+    /**
+     * Gets the name of the given {@link Array} as it would appear in a MAT-file.
+     */
+    final protected static String getName(Object arrayObj) {
 
-            if (count != null) {
+        final ThreadLocal<Integer> countLocal;
+        final String prefix;
 
-                name = String.format("ia_%d", count);
+        if (arrayObj instanceof RealArray) {
 
-                integerArrayCountLocal.set(count + 1);
+            countLocal = realArrayCountLocal;
+            prefix = "ra";
 
-            } else {
+        } else if (arrayObj instanceof ComplexArray) {
 
-                name = "ia";
-            }
+            countLocal = complexArrayCountLocal;
+            prefix = "ca";
 
-            return getBytes((IntegerArray) arrayObj, name);
+        } else if (arrayObj instanceof IntegerArray) {
+
+            countLocal = integerArrayCountLocal;
+            prefix = "ia";
 
         } else {
 
             throw new IllegalArgumentException("Invalid array type");
         }
-    }
 
-    @SuppressWarnings("unchecked")
-    @Override
-    public <T extends Array<T, ?>> T parse(byte[] data) {
-        return (T) new MatrixDataElement(ByteBuffer.wrap(data)).get();
+        Integer count = countLocal.get();
+
+        if (count == null) {
+            return prefix;
+        }
+
+        countLocal.set(count + 1);
+
+        return String.format("%s_%d", prefix, count);
     }
 
     /**
@@ -364,6 +382,85 @@ public class MatlabIoKernel implements ArrayIoKernel {
     public Array<?, ?>[] parseMat(byte[] data) {
 
         ByteBuffer bb = ByteBuffer.wrap(data);
+
+        checkHeader(bb);
+
+        List<Array<?, ?>> arrays = new ArrayList<Array<?, ?>>();
+
+        for (; bb.hasRemaining();) {
+            arrays.add(new MatrixDataElement(bb).get());
+        }
+
+        return arrays.toArray(new Array<?, ?>[] {});
+    }
+
+    /**
+     * Writes the given {@link Array}s to a channel in MAT-file format. Unlike {@link #getMatBytes(Array...)}, the
+     * output is streamed through a bounded buffer and never materialized in memory.
+     * 
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public void writeMat(WritableByteChannel channel, Array<?, ?>... arrays) throws IOException {
+
+        ByteBuffer bb = ByteBuffer.allocate(STAGING_SIZE);
+
+        realArrayCountLocal.set(0);
+        complexArrayCountLocal.set(0);
+        integerArrayCountLocal.set(0);
+
+        try {
+
+            bb.put(getHeaderBytes(String.format("MATLAB 5.0 MAT-file, " //
+                    + "Platform: Shared Scientific Toolbox in Java %d.%02d", //
+                    MAJOR_VERSION, MINOR_VERSION)));
+
+            for (Array<?, ?> array : arrays) {
+                write(array, channel, bb);
+            }
+
+            flush(channel, bb);
+
+        } finally {
+
+            realArrayCountLocal.set(null);
+            complexArrayCountLocal.set(null);
+            integerArrayCountLocal.set(null);
+        }
+    }
+
+    /**
+     * Parses a series of {@link Array}s from a MAT-file channel, starting at its current position. Each data element
+     * is memory mapped in turn, so that the file contents are never copied into an intermediate {@code byte} array.
+     * 
+     * @throws IOException
+     *             when something goes awry.
+     */
+    public Array<?, ?>[] parseMat(FileChannel channel) throws IOException {
+
+        ByteBuffer bb = read(channel, channel.position(), 128);
+
+        checkHeader(bb);
+
+        ByteOrder order = bb.order();
+
+        channel.position(channel.position() + 128);
+
+        List<Array<?, ?>> arrays = new ArrayList<Array<?, ?>>();
+
+        for (long size = channel.size(); channel.position() < size;) {
+            arrays.add(parse(channel, order));
+        }
+
+        return arrays.toArray(new Array<?, ?>[] {});
+    }
+
+    /**
+     * Checks the MAT-file header contained in the first 128 {@code byte}s of the given buffer, and sets the buffer's
+     * {@link ByteOrder} accordingly. The buffer is left positioned just past the header.
+     */
+    final protected static void checkHeader(ByteBuffer bb) {
+
         bb.position(126);
 
         if (bb.getShort() == (short) ((ENDIANNESS >>> 8) | (ENDIANNESS << 8))) {
@@ -377,14 +474,261 @@ public class MatlabIoKernel implements ArrayIoKernel {
 
         Control.checkTrue(bb.getShort() == ENDIANNESS, //
                 "Invalid Endian indicator");
+    }
 
-        List<Array<?, ?>> arrays = new ArrayList<Array<?, ?>>();
+    /**
+     * Parses a MATLAB matrix data element at the current position of the given channel by memory mapping its file
+     * region. The channel is then advanced past the data element.
+     */
+    final protected static Array<?, ?> parse(FileChannel channel, ByteOrder order) throws IOException {
+
+        long position = channel.position();
+
+        ByteBuffer tag = read(channel, position, 8).order(order);
+
+        Control.checkTrue(tag.getInt() == MATLAB_MI_MATRIX, //
+                "Data element must be a MATLAB matrix");
+
+        long size = 8 + (tag.getInt() & 0xFFFFFFFFL);
+
+        ByteBuffer bb = channel.map(MapMode.READ_ONLY, position, size).order(order);
+
+        Array<?, ?> array = new MatrixDataElement(bb).get();
+
+        channel.position(position + size);
+
+        return array;
+    }
+
+    /**
+     * Reads the given number of {@code byte}s at the given position of a file channel.
+     */
+    final protected static ByteBuffer read(FileChannel channel, long position, int nBytes) throws IOException {
+
+        ByteBuffer bb = ByteBuffer.allocate(nBytes);
 
         for (; bb.hasRemaining();) {
-            arrays.add(new MatrixDataElement(bb).get());
+
+            int nRead = channel.read(bb, position + bb.position());
+
+            if (nRead < 0) {
+                throw new EOFException("Unexpected end of file");
+            }
         }
 
-        return arrays.toArray(new Array<?, ?>[] {});
+        bb.flip();
+
+        return bb;
+    }
+
+    /**
+     * Writes the given {@link Array} to a channel by way of a staging buffer, which is flushed as it fills up.
+     */
+    final protected static void write(Object arrayObj, WritableByteChannel channel, ByteBuffer bb) throws IOException {
+
+        String name = getName(arrayObj);
+
+        if (arrayObj instanceof RealArray) {
+
+            RealArray array = (RealArray) arrayObj;
+
+            int[] dims = array.dims();
+            int len = array.values().length;
+
+            writeMatrixHeader(channel, bb, MX_DOUBLE_CLASS.getMatlabValue(), dims, name, //
+                    getDataElementSize(MI_DOUBLE, len));
+
+            writeDataElementHeader(bb, MI_DOUBLE, len);
+            writeValues(channel, bb, array.values(), 0, dims, array.strides());
+
+        } else if (arrayObj instanceof ComplexArray) {
+
+            ComplexArray array = (ComplexArray) arrayObj;
+
+            int nDims = array.dims().length - 1;
+            int[] dims = Arrays.copyOf(array.dims(), nDims);
+            int[] strides = Arrays.copyOf(array.strides(), nDims);
+            int len = array.values().length >>> 1;
+
+            writeMatrixHeader(channel, bb, 0x00000800 | MX_DOUBLE_CLASS.getMatlabValue(), dims, name, //
+                    2L * getDataElementSize(MI_DOUBLE, len));
+
+            // Write out the real parts, followed by the imaginary parts.
+            for (int part = 0; part < 2; part++) {
+
+                flush(channel, bb, 8);
+
+                writeDataElementHeader(bb, MI_DOUBLE, len);
+                writeValues(channel, bb, array.values(), part, dims, strides);
+            }
+
+        } else {
+
+            IntegerArray array = (IntegerArray) arrayObj;
+
+            int[] dims = array.dims();
+            int len = array.values().length;
+
+            writeMatrixHeader(channel, bb, MX_INT32_CLASS.getMatlabValue(), dims, name, //
+                    getDataElementSize(MI_INT32, len));
+
+            writeDataElementHeader(bb, MI_INT32, len);
+            writeValues(channel, bb, array.values(), 0, dims, array.strides());
+
+            // Pad to an eight byte alignment, except in the small data element case.
+            if (len > 1 && len % 2 != 0) {
+
+                flush(channel, bb, 4);
+
+                bb.putInt(0);
+            }
+        }
+    }
+
+    /**
+     * Writes everything in a MATLAB matrix data element that precedes its values, as well as enough room for the
+     * first values data element header.
+     */
+    final protected static void writeMatrixHeader(WritableByteChannel channel, ByteBuffer bb, //
+            int arrayType, int[] dims, String name, long valuesSize) throws IOException {
+
+        int headerSize = getDataElementSize(MI_UINT32, 2) //
+                + getDataElementSize(MI_INT32, dims.length) //
+                + getDataElementSize(MI_INT8, name.length());
+
+        long totalSize = headerSize + valuesSize;
+
+        Control.checkTrue(totalSize <= Integer.MAX_VALUE, //
+                "Array is too large for a MATLAB matrix data element");
+
+        flush(channel, bb, headerSize + 16);
+
+        bb.putInt(MI_MATRIX.getMatlabValue());
+        bb.putInt((int) totalSize);
+
+        writeDataElementHeader(bb, MI_UINT32, 2);
+        bb.putInt(arrayType);
+        bb.putInt(0);
+
+        writeDataElementHeader(bb, MI_INT32, dims.length);
+        writeDataElementBody(bb, dims);
+
+        writeDataElementHeader(bb, MI_INT8, name.length());
+        writeDataElementBody(bb, name.getBytes());
+    }
+
+    /**
+     * Writes the given {@code double} values in column-major order, as dictated by the given dimensions and strides.
+     * Only the innermost, unit dimension is walked element by element; the rest are advanced odometer style.
+     */
+    final protected static void writeValues(WritableByteChannel channel, ByteBuffer bb, //
+            double[] values, int offset, int[] dims, int[] strides) throws IOException {
+
+        int nDims = dims.length;
+        int run = dims[0];
+        int runStride = strides[0];
+
+        int len = 1;
+
+        for (int dim = 0; dim < nDims; dim++) {
+            len *= dims[dim];
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        int[] outerDims = new int[nDims - 1];
+        int[] outerStrides = new int[nDims - 1];
+
+        // Reverse the outer dimensions so that the lowest one varies fastest.
+        for (int dim = 1; dim < nDims; dim++) {
+
+            outerDims[nDims - 1 - dim] = dims[dim];
+            outerStrides[nDims - 1 - dim] = strides[dim];
+        }
+
+        int[] counters = new int[nDims - 1];
+
+        for (int i = 0, n = len / run; i < n; i++) {
+
+            for (int j = 0, k = offset; j < run; j++, k += runStride) {
+
+                flush(channel, bb, 8);
+
+                bb.putDouble(values[k]);
+            }
+
+            offset += MappingOps.advance(counters, outerDims, outerStrides);
+        }
+    }
+
+    /**
+     * Writes the given {@code int} values in column-major order, as dictated by the given dimensions and strides.
+     */
+    final protected static void writeValues(WritableByteChannel channel, ByteBuffer bb, //
+            int[] values, int offset, int[] dims, int[] strides) throws IOException {
+
+        int nDims = dims.length;
+        int run = dims[0];
+        int runStride = strides[0];
+
+        int len = 1;
+
+        for (int dim = 0; dim < nDims; dim++) {
+            len *= dims[dim];
+        }
+
+        if (len == 0) {
+            return;
+        }
+
+        int[] outerDims = new int[nDims - 1];
+        int[] outerStrides = new int[nDims - 1];
+
+        for (int dim = 1; dim < nDims; dim++) {
+
+            outerDims[nDims - 1 - dim] = dims[dim];
+            outerStrides[nDims - 1 - dim] = strides[dim];
+        }
+
+        int[] counters = new int[nDims - 1];
+
+        for (int i = 0, n = len / run; i < n; i++) {
+
+            for (int j = 0, k = offset; j < run; j++, k += runStride) {
+
+                flush(channel, bb, 4);
+
+                bb.putInt(values[k]);
+            }
+
+            offset += MappingOps.advance(counters, outerDims, outerStrides);
+        }
+    }
+
+    /**
+     * Flushes the staging buffer to the given channel if fewer than the given number of {@code byte}s remain.
+     */
+    final protected static void flush(WritableByteChannel channel, ByteBuffer bb, int nBytes) throws IOException {
+
+        if (bb.remaining() < nBytes) {
+            flush(channel, bb);
+        }
+    }
+
+    /**
+     * Flushes the staging buffer to the given channel.
+     */
+    final protected static void flush(WritableByteChannel channel, ByteBuffer bb) throws IOException {
+
+        bb.flip();
+
+        for (; bb.hasRemaining();) {
+            channel.write(bb);
+        }
+
+        bb.clear();
     }
 
     /**
@@ -465,8 +809,13 @@ public class MatlabIoKernel implements ArrayIoKernel {
      */
     final protected static int getDataElementSize(DataType type, int nElts) {
 
-        int nBytes = type.sizeOf() * nElts;
-        return (nBytes > 4) ? (8 + nBytes + (8 - nBytes % 8) % 8) : 8;
+        long nBytes = (long) type.sizeOf() * nElts;
+        long size = (nBytes > 4) ? (8 + nBytes + (8 - nBytes % 8) % 8) : 8;
+
+        Control.checkTrue(size <= Integer.MAX_VALUE, //
+                "Data element is too large");
+
+        return (int) size;
     }
 
     /**
@@ -28,6 +28,8 @@
 
 package org.shared.array.kernel;
 
+import java.util.Arrays;
+
 import org.shared.util.Control;
 
 /**
@@ -37,11 +39,82 @@ import org.shared.util.Control;
  */
 public class MatrixOps {
 
+    /**
+     * The number of multiply-adds below which {@link #mul(double[], double[], int, int, double[], boolean)} falls back
+     * to {@link #mulDirect(double[], double[], int, int, double[], boolean)}.
+     */
+    final public static int MUL_THRESHOLD = 1 << 18;
+
+    /**
+     * The row height of register blocks.
+     */
+    final protected static int MUL_BLOCK_ROWS = 4;
+
+    /**
+     * The number of inner indices per cache block.
+     */
+    final protected static int MUL_BLOCK_INNER = 128;
+
+    /**
+     * The number of columns per cache block.
+     */
+    final protected static int MUL_BLOCK_COLS = 256;
+
+    /**
+     * The minimum number of multiply-adds assigned to a thread.
+     */
+    final protected static int MUL_GRAIN = 1 << 16;
+
     /**
      * A matrix multiply operation in support of
-     * {@link JavaArrayKernel#mul(double[], double[], int, int, double[], boolean)}.
+     * {@link JavaArrayKernel#mul(double[], double[], int, int, double[], boolean)}. Dispatches to a cache-blocked,
+     * multithreaded kernel for large arguments; results are identical to those of
+     * {@link #mulDirect(double[], double[], int, int, double[], boolean)}, since the order of accumulation is
+     * preserved.
      */
-    final public static void mul(double[] lhsV, double[] rhsV, int lr, int rc, double[] dstV, boolean complex) {
+    final public static void mul(final double[] lhsV, double[] rhsV, final int lr, final int rc, //
+            final double[] dstV, final boolean complex) {
+
+        int factor = (complex ? 2 : 1);
+        int lc = (lr != 0) ? lhsV.length / (factor * lr) : 0;
+        int rr = (rc != 0) ? rhsV.length / (factor * rc) : 0;
+        final int inner = Control.checkEquals(lc, rr);
+
+        Control.checkTrue(lr >= 0 && rc >= 0 //
+                && (lhsV.length == factor * lr * lc) //
+                && (rhsV.length == factor * rr * rc) //
+                && (dstV.length == factor * lr * rc), //
+                "Invalid array lengths");
+
+        if ((long) lr * rc * inner < MUL_THRESHOLD) {
+
+            mulDirect(lhsV, rhsV, lr, rc, dstV, complex);
+
+            return;
+        }
+
+        final double[] packedV = pack(rhsV, inner, rc, factor);
+
+        ParallelOps.fork(lr, Math.max(MUL_GRAIN / Math.max(rc * inner, 1), MUL_BLOCK_ROWS), //
+                new ParallelOps.RangeOperation() {
+
+                    @Override
+                    public void op(int start, int end) {
+
+                        if (complex) {
+                            mulComplexBlocked(lhsV, packedV, inner, rc, dstV, start, end);
+                        } else {
+                            mulRealBlocked(lhsV, packedV, inner, rc, dstV, start, end);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * A straightforward, unblocked matrix multiply operation that computes inner products one destination element at a
+     * time.
+     */
+    final public static void mulDirect(double[] lhsV, double[] rhsV, int lr, int rc, double[] dstV, boolean complex) {
 
         int factor = (complex ? 2 : 1);
         int lc = (lr != 0) ? lhsV.length / (factor * lr) : 0;
@@ -99,6 +172,172 @@ public class MatrixOps {
         }
     }
 
+    /**
+     * Packs the right hand side into contiguous blocks of {@link #MUL_BLOCK_INNER} rows by {@link #MUL_BLOCK_COLS}
+     * columns. Blocks are laid out column block major, and the rows of each block are stored contiguously.
+     * 
+     * @param rhsV
+     *            the right hand side values.
+     * @param nRows
+     *            the number of rows.
+     * @param nCols
+     *            the number of columns.
+     * @param factor
+     *            the number of {@code double}s per element.
+     * @return the packed values.
+     */
+    final protected static double[] pack(double[] rhsV, int nRows, int nCols, int factor) {
+
+        double[] packedV = new double[rhsV.length];
+
+        for (int jb = 0, offset = 0; jb < nCols; jb += MUL_BLOCK_COLS) {
+
+            int width = factor * Math.min(MUL_BLOCK_COLS, nCols - jb);
+
+            for (int kb = 0; kb < nRows; kb += MUL_BLOCK_INNER) {
+
+                for (int k = kb, kEnd = Math.min(kb + MUL_BLOCK_INNER, nRows); k < kEnd; k++, offset += width) {
+                    System.arraycopy(rhsV, factor * (k * nCols + jb), packedV, offset, width);
+                }
+            }
+        }
+
+        return packedV;
+    }
+
+    /**
+     * Computes the given rows of a real matrix product from a packed right hand side.
+     */
+    final protected static void mulRealBlocked(double[] lhsV, double[] packedV, int inner, int rc, //
+            double[] dstV, int rowStart, int rowEnd) {
+
+        Arrays.fill(dstV, rowStart * rc, rowEnd * rc, 0.0);
+
+        for (int jb = 0, offset = 0; jb < rc; jb += MUL_BLOCK_COLS) {
+
+            int width = Math.min(MUL_BLOCK_COLS, rc - jb);
+
+            for (int kb = 0; kb < inner; kb += MUL_BLOCK_INNER) {
+
+                int kEnd = Math.min(kb + MUL_BLOCK_INNER, inner);
+
+                int i = rowStart;
+
+                for (; i + MUL_BLOCK_ROWS <= rowEnd; i += MUL_BLOCK_ROWS) {
+
+                    int l0 = i * inner, l1 = l0 + inner, l2 = l1 + inner, l3 = l2 + inner;
+                    int d0 = i * rc + jb, d1 = d0 + rc, d2 = d1 + rc, d3 = d2 + rc;
+
+                    for (int k = kb, bOffset = offset; k < kEnd; k++, bOffset += width) {
+
+                        double a0 = lhsV[l0 + k];
+                        double a1 = lhsV[l1 + k];
+                        double a2 = lhsV[l2 + k];
+                        double a3 = lhsV[l3 + k];
+
+                        for (int j = 0; j < width; j++) {
+
+                            double b = packedV[bOffset + j];
+
+                            dstV[d0 + j] += a0 * b;
+                            dstV[d1 + j] += a1 * b;
+                            dstV[d2 + j] += a2 * b;
+                            dstV[d3 + j] += a3 * b;
+                        }
+                    }
+                }
+
+                for (; i < rowEnd; i++) {
+
+                    int l0 = i * inner;
+                    int d0 = i * rc + jb;
+
+                    for (int k = kb, bOffset = offset; k < kEnd; k++, bOffset += width) {
+
+                        double a0 = lhsV[l0 + k];
+
+                        for (int j = 0; j < width; j++) {
+                            dstV[d0 + j] += a0 * packedV[bOffset + j];
+                        }
+                    }
+                }
+
+                offset += (kEnd - kb) * width;
+            }
+        }
+    }
+
+    /**
+     * Computes the given rows of a complex matrix product from a packed right hand side.
+     */
+    final protected static void mulComplexBlocked(double[] lhsV, double[] packedV, int inner, int rc, //
+            double[] dstV, int rowStart, int rowEnd) {
+
+        Arrays.fill(dstV, 2 * rowStart * rc, 2 * rowEnd * rc, 0.0);
+
+        int blockRows = MUL_BLOCK_ROWS >>> 1;
+
+        for (int jb = 0, offset = 0; jb < rc; jb += MUL_BLOCK_COLS) {
+
+            int width = 2 * Math.min(MUL_BLOCK_COLS, rc - jb);
+
+            for (int kb = 0; kb < inner; kb += MUL_BLOCK_INNER) {
+
+                int kEnd = Math.min(kb + MUL_BLOCK_INNER, inner);
+
+                int i = rowStart;
+
+                for (; i + blockRows <= rowEnd; i += blockRows) {
+
+                    int l0 = 2 * i * inner, l1 = l0 + 2 * inner;
+                    int d0 = 2 * (i * rc + jb), d1 = d0 + 2 * rc;
+
+                    for (int k = kb, bOffset = offset; k < kEnd; k++, bOffset += width) {
+
+                        double a0Re = lhsV[l0 + 2 * k];
+                        double a0Im = lhsV[l0 + 2 * k + 1];
+                        double a1Re = lhsV[l1 + 2 * k];
+                        double a1Im = lhsV[l1 + 2 * k + 1];
+
+                        for (int j = 0; j < width; j += 2) {
+
+                            double bRe = packedV[bOffset + j];
+                            double bIm = packedV[bOffset + j + 1];
+
+                            dstV[d0 + j] += a0Re * bRe - a0Im * bIm;
+                            dstV[d0 + j + 1] += a0Re * bIm + a0Im * bRe;
+                            dstV[d1 + j] += a1Re * bRe - a1Im * bIm;
+                            dstV[d1 + j + 1] += a1Re * bIm + a1Im * bRe;
+                        }
+                    }
+                }
+
+                for (; i < rowEnd; i++) {
+
+                    int l0 = 2 * i * inner;
+                    int d0 = 2 * (i * rc + jb);
+
+                    for (int k = kb, bOffset = offset; k < kEnd; k++, bOffset += width) {
+
+                        double a0Re = lhsV[l0 + 2 * k];
+                        double a0Im = lhsV[l0 + 2 * k + 1];
+
+                        for (int j = 0; j < width; j += 2) {
+
+                            double bRe = packedV[bOffset + j];
+                            double bIm = packedV[bOffset + j + 1];
+
+                            dstV[d0 + j] += a0Re * bRe - a0Im * bIm;
+                            dstV[d0 + j + 1] += a0Re * bIm + a0Im * bRe;
+                        }
+                    }
+                }
+
+                offset += (kEnd - kb) * width;
+            }
+        }
+    }
+
     /**
      * A matrix diagonal operation in support of {@link JavaArrayKernel#diag(double[], double[], int, boolean)}.
      */
@@ -28,6 +28,10 @@
 
 package org.shared.array.kernel;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+
 import org.shared.array.Array;
 import org.shared.util.Services;
 
@@ -69,4 +73,14 @@ public class ModalArrayIoKernel implements ArrayIoKernel {
     public <T extends Array<T, ?>> T parse(byte[] data) {
         return this.opKernel.parse(data);
     }
+
+    @Override
+    public <T extends Array<T, ?>> void write(T array, WritableByteChannel channel) throws IOException {
+        this.opKernel.write(array, channel);
+    }
+
+    @Override
+    public <T extends Array<T, ?>> T parse(FileChannel channel) throws IOException {
+        return this.opKernel.parse(channel);
+    }
 }
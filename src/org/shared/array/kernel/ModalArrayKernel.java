@@ -83,6 +83,23 @@ public class ModalArrayKernel implements ArrayKernel {
         this.opKernel = new JavaArrayKernel();
     }
 
+    /**
+     * Gets the number of worker threads available to pure Java operations.
+     */
+    public int getParallelism() {
+        return ParallelOps.getParallelism();
+    }
+
+    /**
+     * Sets the number of worker threads available to pure Java operations.
+     * 
+     * @param parallelism
+     *            the number of threads.
+     */
+    public void setParallelism(int parallelism) {
+        ParallelOps.setParallelism(parallelism);
+    }
+
     //
 
     @Override
@@ -129,6 +146,14 @@ public class ModalArrayKernel implements ArrayKernel {
         this.opKernel.riOp(type, srcV, srcD, srcS, dstV, dim);
     }
 
+    @Override
+    public void riTopK( //
+            double[] srcV, int[] srcD, int[] srcS, //
+            double[] dstV, int[] dstI, int[] dstD, int[] dstS, //
+            int dim) {
+        this.opKernel.riTopK(srcV, srcD, srcS, dstV, dstI, dstD, dstS, dim);
+    }
+
     @Override
     public void rdOp(int type, //
             double[] srcV, int[] srcD, int[] srcS, double[] dstV, //
@@ -204,6 +229,27 @@ public class ModalArrayKernel implements ArrayKernel {
         this.opKernel.invert(srcV, dstV, size);
     }
 
+    @Override
+    public void lu(double[] srcV, double[] luV, int[] pivots, int size) {
+        this.opKernel.lu(srcV, luV, pivots, size);
+    }
+
+    @Override
+    public void luSolve(double[] luV, int[] pivots, double[] srcV, double[] dstV, //
+            int size, int nCols, boolean transpose) {
+        this.opKernel.luSolve(luV, pivots, srcV, dstV, size, nCols, transpose);
+    }
+
+    @Override
+    public void cholesky(double[] srcV, double[] dstV, int size) {
+        this.opKernel.cholesky(srcV, dstV, size);
+    }
+
+    @Override
+    public void choleskySolve(double[] lV, double[] srcV, double[] dstV, int size, int nCols) {
+        this.opKernel.choleskySolve(lV, srcV, dstV, size, nCols);
+    }
+
     //
 
     @Override
@@ -0,0 +1,715 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array.kernel;
+
+import static org.shared.array.kernel.ArrayKernel.CA_PROD;
+import static org.shared.array.kernel.ArrayKernel.CA_SUM;
+import static org.shared.array.kernel.ArrayKernel.CU_RND;
+import static org.shared.array.kernel.ArrayKernel.CU_SHUFFLE;
+import static org.shared.array.kernel.ArrayKernel.IU_SHUFFLE;
+import static org.shared.array.kernel.ArrayKernel.RA_MAX;
+import static org.shared.array.kernel.ArrayKernel.RA_MIN;
+import static org.shared.array.kernel.ArrayKernel.RA_PROD;
+import static org.shared.array.kernel.ArrayKernel.RA_SUM;
+import static org.shared.array.kernel.ArrayKernel.RU_RND;
+import static org.shared.array.kernel.ArrayKernel.RU_SHUFFLE;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+
+import org.shared.array.kernel.ParallelOps.RangeOperation;
+import org.shared.util.Arithmetic;
+import org.shared.util.Control;
+
+/**
+ * A class for operations on off-heap storage in pure Java. Storage consists of direct {@link Buffer}s, or chunks, that
+ * together hold more values than a single Java array can. Operations stage fixed size tiles of each chunk through
+ * heap scratch space and apply the specialized loops of {@link ElementOps} to them, so that no operation ever copies
+ * an entire array back onto the heap.
+ * 
+ * @apiviz.uses org.shared.array.kernel.ElementOps
+ * @author Roy Liu
+ */
+public class OffHeapOps {
+
+    /**
+     * The default number of values per chunk.
+     */
+    final public static int CHUNK_SIZE = 1 << 27;
+
+    /**
+     * The number of values per tile.
+     */
+    final public static int TILE_SIZE = 1 << 12;
+
+    /**
+     * Defines operations on staged tiles.
+     */
+    protected interface DoubleTileOperation {
+
+        /**
+         * Operates on a tile.
+         * 
+         * @param tile
+         *            the global tile index.
+         * @param tiles
+         *            the staged source tiles followed by a scratch tile.
+         * @param len
+         *            the tile length.
+         * @return the tile to store into the destination, or {@code null} if there is none.
+         */
+        public double[] op(int tile, double[][] tiles, int len);
+    }
+
+    /**
+     * Defines operations on staged tiles.
+     */
+    protected interface IntTileOperation {
+
+        /**
+         * Operates on a tile.
+         * 
+         * @param tiles
+         *            the staged source tiles followed by a scratch tile.
+         * @param len
+         *            the tile length.
+         * @return the tile to store into the destination.
+         */
+        public int[] op(int[][] tiles, int len);
+    }
+
+    /**
+     * Allocates off-heap {@code double} storage.
+     * 
+     * @param len
+     *            the number of values.
+     * @param chunkSize
+     *            the number of values per chunk, which must be a positive multiple of {@link #TILE_SIZE}.
+     * @return the chunks.
+     */
+    final public static DoubleBuffer[] allocateDoubles(long len, int chunkSize) {
+
+        int nChunks = checkChunks(len, chunkSize);
+        DoubleBuffer[] chunks = new DoubleBuffer[nChunks];
+
+        for (int i = 0; i < nChunks; i++) {
+
+            int size = (int) Math.min(chunkSize, len - (long) i * chunkSize);
+
+            chunks[i] = ByteBuffer.allocateDirect(size << 3).order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Allocates off-heap {@code int} storage.
+     * 
+     * @param len
+     *            the number of values.
+     * @param chunkSize
+     *            the number of values per chunk, which must be a positive multiple of {@link #TILE_SIZE}.
+     * @return the chunks.
+     */
+    final public static IntBuffer[] allocateInts(long len, int chunkSize) {
+
+        int nChunks = checkChunks(len, chunkSize);
+        IntBuffer[] chunks = new IntBuffer[nChunks];
+
+        for (int i = 0; i < nChunks; i++) {
+
+            int size = (int) Math.min(chunkSize, len - (long) i * chunkSize);
+
+            chunks[i] = ByteBuffer.allocateDirect(size << 2).order(ByteOrder.nativeOrder()).asIntBuffer();
+        }
+
+        return chunks;
+    }
+
+    /**
+     * Gets the total number of values held by the given chunks.
+     */
+    final public static long length(Buffer[] chunks) {
+
+        long len = 0;
+
+        for (Buffer chunk : chunks) {
+            len += chunk.capacity();
+        }
+
+        return len;
+    }
+
+    /**
+     * Copies heap values into off-heap storage.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param dstChunks
+     *            the destination chunks.
+     */
+    final public static void copy(double[] srcV, DoubleBuffer[] dstChunks) {
+
+        Control.checkTrue(srcV.length == length(dstChunks), //
+                "Length mismatch");
+
+        for (int i = 0, offset = 0, n = dstChunks.length; i < n; offset += dstChunks[i++].capacity()) {
+
+            DoubleBuffer dst = dstChunks[i].duplicate();
+
+            dst.clear();
+            dst.put(srcV, offset, dst.capacity());
+        }
+    }
+
+    /**
+     * Copies off-heap storage into heap values.
+     * 
+     * @param srcChunks
+     *            the source chunks.
+     * @param dstV
+     *            the destination values.
+     */
+    final public static void copy(DoubleBuffer[] srcChunks, double[] dstV) {
+
+        Control.checkTrue(dstV.length == length(srcChunks), //
+                "Length mismatch");
+
+        for (int i = 0, offset = 0, n = srcChunks.length; i < n; offset += srcChunks[i++].capacity()) {
+
+            DoubleBuffer src = srcChunks[i].duplicate();
+
+            src.clear();
+            src.get(dstV, offset, src.capacity());
+        }
+    }
+
+    /**
+     * Copies heap values into off-heap storage.
+     * 
+     * @param srcV
+     *            the source values.
+     * @param dstChunks
+     *            the destination chunks.
+     */
+    final public static void copy(int[] srcV, IntBuffer[] dstChunks) {
+
+        Control.checkTrue(srcV.length == length(dstChunks), //
+                "Length mismatch");
+
+        for (int i = 0, offset = 0, n = dstChunks.length; i < n; offset += dstChunks[i++].capacity()) {
+
+            IntBuffer dst = dstChunks[i].duplicate();
+
+            dst.clear();
+            dst.put(srcV, offset, dst.capacity());
+        }
+    }
+
+    /**
+     * Copies off-heap storage into heap values.
+     * 
+     * @param srcChunks
+     *            the source chunks.
+     * @param dstV
+     *            the destination values.
+     */
+    final public static void copy(IntBuffer[] srcChunks, int[] dstV) {
+
+        Control.checkTrue(dstV.length == length(srcChunks), //
+                "Length mismatch");
+
+        for (int i = 0, offset = 0, n = srcChunks.length; i < n; offset += srcChunks[i++].capacity()) {
+
+            IntBuffer src = srcChunks[i].duplicate();
+
+            src.clear();
+            src.get(dstV, offset, src.capacity());
+        }
+    }
+
+    /**
+     * A binary elementwise operation on off-heap {@code double} storage.
+     * 
+     * @param type
+     *            the operation type.
+     * @param lhs
+     *            the left hand side.
+     * @param rhs
+     *            the right hand side.
+     * @param dst
+     *            the destination, which may be the same as either operand.
+     * @param complex
+     *            whether the values are complex.
+     */
+    final public static void eOp(final int type, DoubleBuffer[] lhs, DoubleBuffer[] rhs, DoubleBuffer[] dst, //
+            final boolean complex) {
+
+        if (complex) {
+
+            // Validate the operation type eagerly.
+            ElementOps.ceOp(type, null, null, null, 0, 0);
+
+            tiles(new DoubleBuffer[][] { lhs, rhs }, dst, true, new DoubleTileOperation() {
+
+                @Override
+                public double[] op(int tile, double[][] tiles, int len) {
+
+                    ElementOps.ceOp(type, tiles[0], tiles[1], tiles[2], 0, len / 2);
+
+                    return tiles[2];
+                }
+            });
+
+        } else {
+
+            ElementOps.reOp(type, null, null, null, 0, 0);
+
+            tiles(new DoubleBuffer[][] { lhs, rhs }, dst, false, new DoubleTileOperation() {
+
+                @Override
+                public double[] op(int tile, double[][] tiles, int len) {
+
+                    ElementOps.reOp(type, tiles[0], tiles[1], tiles[2], 0, len);
+
+                    return tiles[2];
+                }
+            });
+        }
+    }
+
+    /**
+     * A binary elementwise operation on off-heap {@code int} storage.
+     * 
+     * @param type
+     *            the operation type.
+     * @param lhs
+     *            the left hand side.
+     * @param rhs
+     *            the right hand side.
+     * @param dst
+     *            the destination, which may be the same as either operand.
+     */
+    final public static void eOp(final int type, IntBuffer[] lhs, IntBuffer[] rhs, IntBuffer[] dst) {
+
+        ElementOps.ieOp(type, null, null, null, 0, 0);
+
+        tiles(new IntBuffer[][] { lhs, rhs }, dst, new IntTileOperation() {
+
+            @Override
+            public int[] op(int[][] tiles, int len) {
+
+                ElementOps.ieOp(type, tiles[0], tiles[1], tiles[2], 0, len);
+
+                return tiles[2];
+            }
+        });
+    }
+
+    /**
+     * A real unary elementwise operation on off-heap storage.
+     * 
+     * @param type
+     *            the operation type.
+     * @param a
+     *            the argument, if any.
+     * @param src
+     *            the storage to operate on in place.
+     */
+    final public static void ruOp(final int type, final double a, DoubleBuffer[] src) {
+
+        switch (type) {
+
+        case RU_RND:
+
+            // Draws from the shared random number generator must happen in sequence.
+            for (DoubleBuffer chunk : src) {
+
+                for (int i = 0, n = chunk.capacity(); i < n; i++) {
+                    chunk.put(i, Arithmetic.nextDouble(a));
+                }
+            }
+
+            return;
+
+        case RU_SHUFFLE:
+            throw new IllegalArgumentException("Shuffling is not supported off the heap");
+
+        default:
+            ElementOps.ruOp(type, a, null, 0, 0);
+            break;
+        }
+
+        tiles(new DoubleBuffer[][] { src }, src, false, new DoubleTileOperation() {
+
+            @Override
+            public double[] op(int tile, double[][] tiles, int len) {
+
+                ElementOps.ruOp(type, a, tiles[0], 0, len);
+
+                return tiles[0];
+            }
+        });
+    }
+
+    /**
+     * A complex unary elementwise operation on off-heap storage.
+     * 
+     * @param type
+     *            the operation type.
+     * @param aRe
+     *            the real part of the argument, if any.
+     * @param aIm
+     *            the imaginary part of the argument, if any.
+     * @param src
+     *            the storage to operate on in place.
+     */
+    final public static void cuOp(final int type, final double aRe, final double aIm, DoubleBuffer[] src) {
+
+        switch (type) {
+
+        case CU_RND:
+
+            Control.checkTrue(length(src) % 2 == 0, //
+                    "Complex storage must have even length");
+
+            for (DoubleBuffer chunk : src) {
+
+                for (int i = 0, n = chunk.capacity(); i < n; i += 2) {
+
+                    chunk.put(i, Arithmetic.nextDouble(aRe));
+                    chunk.put(i + 1, Arithmetic.nextDouble(aIm));
+                }
+            }
+
+            return;
+
+        case CU_SHUFFLE:
+            throw new IllegalArgumentException("Shuffling is not supported off the heap");
+
+        default:
+            ElementOps.cuOp(type, aRe, aIm, null, 0, 0);
+            break;
+        }
+
+        tiles(new DoubleBuffer[][] { src }, src, true, new DoubleTileOperation() {
+
+            @Override
+            public double[] op(int tile, double[][] tiles, int len) {
+
+                ElementOps.cuOp(type, aRe, aIm, tiles[0], 0, len / 2);
+
+                return tiles[0];
+            }
+        });
+    }
+
+    /**
+     * An integer unary elementwise operation on off-heap storage.
+     * 
+     * @param type
+     *            the operation type.
+     * @param a
+     *            the argument, if any.
+     * @param src
+     *            the storage to operate on in place.
+     */
+    final public static void iuOp(final int type, final int a, IntBuffer[] src) {
+
+        Control.checkTrue(type != IU_SHUFFLE, //
+                "Shuffling is not supported off the heap");
+
+        ElementOps.iuOp(type, a, null, 0, 0);
+
+        tiles(new IntBuffer[][] { src }, src, new IntTileOperation() {
+
+            @Override
+            public int[] op(int[][] tiles, int len) {
+
+                ElementOps.iuOp(type, a, tiles[0], 0, len);
+
+                return tiles[0];
+            }
+        });
+    }
+
+    /**
+     * A real accumulator operation on off-heap storage. Partial results over consecutive tiles are combined in order,
+     * so that the outcome does not depend on the number of threads.
+     * 
+     * @param type
+     *            the accumulator type, one of {@link ArrayKernel#RA_SUM}, {@link ArrayKernel#RA_PROD},
+     *            {@link ArrayKernel#RA_MAX}, or {@link ArrayKernel#RA_MIN}.
+     * @param src
+     *            the storage.
+     * @return the accumulated value.
+     */
+    final public static double raOp(final int type, DoubleBuffer[] src) {
+
+        Control.checkTrue(type == RA_SUM || type == RA_PROD || type == RA_MAX || type == RA_MIN, //
+                "Invalid accumulator type");
+
+        final double identity = LaneOps.identity(type);
+        final double[] partials = new double[nTiles(src)];
+
+        tiles(new DoubleBuffer[][] { src }, null, false, new DoubleTileOperation() {
+
+            @Override
+            public double[] op(int tile, double[][] tiles, int len) {
+
+                partials[tile] = ElementOps.fold(type, identity, tiles[0], 0, len);
+
+                return null;
+            }
+        });
+
+        return ElementOps.fold(type, identity, partials, 0, partials.length);
+    }
+
+    /**
+     * A complex accumulator operation on off-heap storage.
+     * 
+     * @param type
+     *            the accumulator type, one of {@link ArrayKernel#CA_SUM} or {@link ArrayKernel#CA_PROD}.
+     * @param src
+     *            the storage.
+     * @return the accumulated value as a two-tuple.
+     */
+    final public static double[] caOp(final int type, DoubleBuffer[] src) {
+
+        Control.checkTrue(type == CA_SUM || type == CA_PROD, //
+                "Invalid accumulator type");
+
+        final double[] partials = new double[2 * nTiles(src)];
+
+        tiles(new DoubleBuffer[][] { src }, null, true, new DoubleTileOperation() {
+
+            @Override
+            public double[] op(int tile, double[][] tiles, int len) {
+
+                ExpressionOps.caFold(type, partials, 2 * tile, tiles[0], 0, len / 2);
+
+                return null;
+            }
+        });
+
+        double[] res = new double[2];
+
+        ExpressionOps.caFold(type, res, 0, partials, 0, partials.length / 2);
+
+        return res;
+    }
+
+    /**
+     * Stages tiles of {@code double} storage and operates on them in parallel.
+     * 
+     * @param srcs
+     *            the source chunks.
+     * @param dst
+     *            the destination chunks, if any.
+     * @param complex
+     *            whether the values are complex.
+     * @param op
+     *            the tile operation.
+     */
+    final protected static void tiles(final DoubleBuffer[][] srcs, final DoubleBuffer[] dst, boolean complex, //
+            final DoubleTileOperation op) {
+
+        final int nSrcs = srcs.length;
+
+        for (DoubleBuffer[] src : srcs) {
+            checkChunks(src, srcs[0], complex);
+        }
+
+        if (dst != null) {
+            checkChunks(dst, srcs[0], complex);
+        }
+
+        for (int i = 0, n = srcs[0].length, tileBase = 0; i < n; i++) {
+
+            final int chunkIndex = i;
+            final int chunkSize = srcs[0][i].capacity();
+            final int tileOffset = tileBase;
+
+            int nChunkTiles = (chunkSize + TILE_SIZE - 1) / TILE_SIZE;
+
+            ParallelOps.fork(nChunkTiles, ElementOps.ELEMENT_GRAIN / TILE_SIZE, new RangeOperation() {
+
+                @Override
+                public void op(int start, int end) {
+
+                    DoubleBuffer[] views = new DoubleBuffer[nSrcs];
+                    double[][] tiles = new double[nSrcs + 1][TILE_SIZE];
+
+                    for (int j = 0; j < nSrcs; j++) {
+                        views[j] = srcs[j][chunkIndex].duplicate();
+                    }
+
+                    DoubleBuffer dstView = (dst != null) ? dst[chunkIndex].duplicate() : null;
+
+                    for (int tile = start; tile < end; tile++) {
+
+                        int offset = tile * TILE_SIZE;
+                        int len = Math.min(TILE_SIZE, chunkSize - offset);
+
+                        for (int j = 0; j < nSrcs; j++) {
+
+                            views[j].position(offset);
+                            views[j].get(tiles[j], 0, len);
+                        }
+
+                        double[] res = op.op(tileOffset + tile, tiles, len);
+
+                        if (res != null) {
+
+                            dstView.position(offset);
+                            dstView.put(res, 0, len);
+                        }
+                    }
+                }
+            });
+
+            tileBase += nChunkTiles;
+        }
+    }
+
+    /**
+     * Stages tiles of {@code int} storage and operates on them in parallel.
+     * 
+     * @param srcs
+     *            the source chunks.
+     * @param dst
+     *            the destination chunks.
+     * @param op
+     *            the tile operation.
+     */
+    final protected static void tiles(final IntBuffer[][] srcs, final IntBuffer[] dst, final IntTileOperation op) {
+
+        final int nSrcs = srcs.length;
+
+        for (IntBuffer[] src : srcs) {
+            checkChunks(src, srcs[0], false);
+        }
+
+        checkChunks(dst, srcs[0], false);
+
+        for (int i = 0, n = srcs[0].length; i < n; i++) {
+
+            final int chunkIndex = i;
+            final int chunkSize = srcs[0][i].capacity();
+
+            ParallelOps.fork((chunkSize + TILE_SIZE - 1) / TILE_SIZE, ElementOps.ELEMENT_GRAIN / TILE_SIZE, //
+                    new RangeOperation() {
+
+                        @Override
+                        public void op(int start, int end) {
+
+                            IntBuffer[] views = new IntBuffer[nSrcs];
+                            int[][] tiles = new int[nSrcs + 1][TILE_SIZE];
+
+                            for (int j = 0; j < nSrcs; j++) {
+                                views[j] = srcs[j][chunkIndex].duplicate();
+                            }
+
+                            IntBuffer dstView = dst[chunkIndex].duplicate();
+
+                            for (int tile = start; tile < end; tile++) {
+
+                                int offset = tile * TILE_SIZE;
+                                int len = Math.min(TILE_SIZE, chunkSize - offset);
+
+                                for (int j = 0; j < nSrcs; j++) {
+
+                                    views[j].position(offset);
+                                    views[j].get(tiles[j], 0, len);
+                                }
+
+                                int[] res = op.op(tiles, len);
+
+                                dstView.position(offset);
+                                dstView.put(res, 0, len);
+                            }
+                        }
+                    });
+        }
+    }
+
+    /**
+     * Gets the total number of tiles over the given chunks.
+     */
+    final protected static int nTiles(Buffer[] chunks) {
+
+        int nTiles = 0;
+
+        for (Buffer chunk : chunks) {
+            nTiles += (chunk.capacity() + TILE_SIZE - 1) / TILE_SIZE;
+        }
+
+        return nTiles;
+    }
+
+    /**
+     * Checks that chunks line up with a reference, so that tiles of one correspond to tiles of the other.
+     */
+    final protected static void checkChunks(Buffer[] chunks, Buffer[] reference, boolean complex) {
+
+        Control.checkTrue(chunks.length == reference.length, //
+                "Chunk mismatch");
+
+        for (int i = 0, n = chunks.length; i < n; i++) {
+
+            Control.checkTrue(chunks[i].capacity() == reference[i].capacity() //
+                    && (!complex || chunks[i].capacity() % 2 == 0), //
+                    "Chunk mismatch");
+        }
+    }
+
+    /**
+     * Checks an allocation request and computes the number of chunks.
+     */
+    final protected static int checkChunks(long len, int chunkSize) {
+
+        Control.checkTrue(len >= 0 && chunkSize > 0 && chunkSize % TILE_SIZE == 0, //
+                "Invalid length and/or chunk size");
+
+        long nChunks = (len + chunkSize - 1) / chunkSize;
+
+        Control.checkTrue(nChunks <= Integer.MAX_VALUE, //
+                "Too many chunks");
+
+        return (int) nChunks;
+    }
+
+    // Dummy constructor.
+    OffHeapOps() {
+    }
+}
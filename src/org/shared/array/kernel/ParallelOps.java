@@ -0,0 +1,247 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.array.kernel;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.shared.util.Control;
+
+/**
+ * A class for dividing kernel work among a shared pool of worker threads in pure Java.
+ * 
+ * @apiviz.has org.shared.array.kernel.ParallelOps.RangeOperation - - - argument
+ * @author Roy Liu
+ */
+public class ParallelOps {
+
+    /**
+     * Defines operations over contiguous ranges of work items.
+     */
+    public interface RangeOperation {
+
+        /**
+         * Performs an operation over the work items in the range [{@code start}, {@code end}).
+         */
+        public void op(int start, int end);
+    }
+
+    /**
+     * The marker for threads belonging to the pool.
+     */
+    final static ThreadLocal<Boolean> workerLocal = new ThreadLocal<Boolean>();
+
+    /**
+     * The number of threads.
+     */
+    static int parallelism = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The lazily initialized thread pool.
+     */
+    static ThreadPoolExecutor executor = null;
+
+    /**
+     * Gets the number of threads available to kernel operations.
+     */
+    final public static synchronized int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads available to kernel operations. The current pool, if any, is shut down and replaced
+     * lazily.
+     * 
+     * @param parallelism
+     *            the number of threads.
+     */
+    final public static synchronized void setParallelism(int parallelism) {
+
+        Control.checkTrue(parallelism > 0, //
+                "Parallelism must be positive");
+
+        if (executor != null) {
+
+            executor.shutdown();
+            executor = null;
+        }
+
+        ParallelOps.parallelism = parallelism;
+    }
+
+    /**
+     * Gets the thread pool, creating it if necessary.
+     */
+    final protected static synchronized ThreadPoolExecutor getExecutor() {
+
+        if (executor == null) {
+
+            executor = new ThreadPoolExecutor(parallelism, parallelism, 0, TimeUnit.SECONDS, //
+                    new LinkedBlockingQueue<Runnable>(), //
+                    new ThreadFactory() {
+
+                        AtomicInteger threadCount = new AtomicInteger(0);
+
+                        @Override
+                        public Thread newThread(final Runnable r) {
+
+                            Thread t = new Thread(new Runnable() {
+
+                                @Override
+                                public void run() {
+
+                                    workerLocal.set(Boolean.TRUE);
+
+                                    r.run();
+                                }
+
+                            }, String.format("Array Kernel Worker #%d", this.threadCount.getAndIncrement()));
+
+                            t.setDaemon(true);
+
+                            return t;
+                        }
+                    });
+        }
+
+        return executor;
+    }
+
+    /**
+     * Divides the range [{@code 0}, {@code len}) into chunks of at least {@code grain} work items and executes them in
+     * parallel. The calling thread participates by executing the first chunk, and it returns only after all chunks
+     * have completed. Calls made from within pool threads execute serially so as to avoid starving the pool. An empty
+     * range still results in a single call, so that operations may validate their arguments.
+     * 
+     * @param len
+     *            the number of work items.
+     * @param grain
+     *            the minimum number of work items per chunk.
+     * @param op
+     *            the {@link RangeOperation} to execute.
+     */
+    final public static void fork(int len, int grain, final RangeOperation op) {
+
+        int nChunks = (int) Math.min(getParallelism(), (len + (long) Math.max(grain, 1) - 1) / Math.max(grain, 1));
+
+        if (nChunks <= 1 || workerLocal.get() != null) {
+
+            op.op(0, len);
+
+            return;
+        }
+
+        final CountDownLatch latch = new CountDownLatch(nChunks - 1);
+        final AtomicReference<Throwable> ref = new AtomicReference<Throwable>();
+
+        ThreadPoolExecutor executor = getExecutor();
+
+        for (int i = 1; i < nChunks; i++) {
+
+            final int start = (int) (((long) len * i) / nChunks);
+            final int end = (int) (((long) len * (i + 1)) / nChunks);
+
+            executor.execute(new Runnable() {
+
+                @Override
+                public void run() {
+
+                    try {
+
+                        op.op(start, end);
+
+                    } catch (Throwable t) {
+
+                        ref.compareAndSet(null, t);
+
+                    } finally {
+
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+
+        try {
+
+            op.op(0, (int) (len / (long) nChunks));
+
+        } catch (Throwable t) {
+
+            ref.compareAndSet(null, t);
+        }
+
+        boolean interrupted = false;
+
+        for (;;) {
+
+            try {
+
+                latch.await();
+
+                break;
+
+            } catch (InterruptedException e) {
+
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        Throwable t = ref.get();
+
+        if (t != null) {
+
+            if (t instanceof RuntimeException) {
+
+                throw (RuntimeException) t;
+
+            } else if (t instanceof Error) {
+
+                throw (Error) t;
+
+            } else {
+
+                throw new AssertionError("Control should never reach here");
+            }
+        }
+    }
+
+    // Dummy constructor.
+    ParallelOps() {
+    }
+}
@@ -36,7 +36,9 @@ import org.shared.util.Arithmetic;
 import org.shared.util.Control;
 
 /**
- * A class for sparse array operations in pure Java.
+ * A class for sparse array operations in pure Java. Every algorithm has one implementation, written against the
+ * {@link Indices} view of physical indices, so that 32-bit indices are read and written in place and 64-bit indices
+ * are only used by arrays whose volume requires them.
  * 
  * @author Roy Liu
  */
@@ -46,60 +48,19 @@ public class SparseOps {
      * An insertion operation in support of
      * {@link JavaArrayKernel#insertSparse(Object, int[], int[], int[], int[], Object, int[])}.
      */
-    @SuppressWarnings("unchecked")
     final public static <V> SparseArrayState<V> insert( //
             V oldV, int[] oldD, int[] oldS, int[] oldDo, int[] oldI, //
             V newV, int[] newI) {
 
-        int nDims = oldD.length;
-        int oldLen = Array.getLength(oldV);
-        int newLen = Array.getLength(newV);
-
-        Control.checkTrue(nDims == oldS.length //
-                && oldLen == oldI.length //
-                && newLen == newI.length, //
+        Control.checkTrue(oldD.length == oldS.length, //
                 "Invalid arguments");
 
         MappingOps.checkDimensions(Arithmetic.product(oldD), oldD, oldS);
 
-        for (int dim = 0; dim < nDims; dim++) {
-            Control.checkTrue(oldDo[dim + 1] - oldDo[dim] - 1 == oldD[dim], //
-                    "Invalid arguments");
-        }
-
-        PermutationEntry<Integer>[] entries = new PermutationEntry[newLen];
-
-        for (int i = 0; i < newLen; i++) {
-            entries[i] = new PermutationEntry<Integer>(newI[i], i);
-        }
-
-        Arrays.sort(entries);
-
-        int[] perm = new int[newLen];
-
-        for (int i = 0; i < newLen; i++) {
-
-            newI[i] = entries[i].getValue();
-            perm[i] = entries[i].getOrder();
-        }
-
-        for (int i = 1; i < newLen; i++) {
-            Control.checkTrue(entries[i - 1].getValue() != entries[i].getValue(), //
-                    "Duplicate values are not allowed");
-        }
-
-        int[][] mergeResult = merge( //
-                oldI, Arithmetic.range(oldLen), //
-                newI, Arithmetic.range(newLen), //
-                oldD, oldS, oldDo);
-
-        int[] newIndirections = mergeResult[3];
-
-        for (int i = 0; i < newLen; i++) {
-            perm[i] = newIndirections[perm[i]];
-        }
+        int[][] mergeResult = new int[7][];
 
-        System.arraycopy(perm, 0, newIndirections, 0, newLen);
+        mergeResult[4] = ((IntIndices) insert(oldV, oldD, widen(oldS), oldDo, new IntIndices(oldI), //
+                newV, new IntIndices(newI), mergeResult)).values;
 
         return assign(oldV, newV, mergeResult);
     }
@@ -115,17 +76,38 @@ public class SparseOps {
             V dstV, int[] dstD, int[] dstS, int[] dstDo, //
             int[] dstI, int[] dstIo, int[] dstIi) {
 
+        Control.checkTrue(srcD.length == srcS.length //
+                && dstD.length == dstS.length, //
+                "Invalid arguments");
+
+        MappingOps.checkDimensions(Arithmetic.product(srcD), srcD, srcS);
+        MappingOps.checkDimensions(Arithmetic.product(dstD), dstD, dstS);
+
+        int[][] mergeResult = new int[7][];
+
+        mergeResult[4] = ((IntIndices) slice(slices, //
+                srcV, srcD, widen(srcS), srcDo, new IntIndices(srcI), srcIo, srcIi, //
+                dstV, dstD, widen(dstS), dstDo, new IntIndices(dstI), dstIo, dstIi, //
+                mergeResult)).values;
+
+        return assign(dstV, srcV, mergeResult);
+    }
+
+    /**
+     * Validates slicing arguments and creates the lookup tables shared by the 32-bit and 64-bit slicing operations.
+     * 
+     * @return the lookup offsets, the lookup counts, the destination lookups, the sliced source indirections, and the
+     *         sliced destination indirections.
+     */
+    final protected static int[][] createSliceLookups(int[] slices, //
+            int[] srcD, int[] srcDo, int[] srcIo, int[] srcIi, int srcLen, //
+            int[] dstD, int[] dstDo, int[] dstIo, int[] dstIi, int dstLen) {
+
         int nSlices = slices.length / 3;
         int nDims = srcD.length;
-        int srcLen = Array.getLength(srcV);
-        int dstLen = Array.getLength(dstV);
 
-        Control.checkTrue(nDims == srcS.length //
-                && nDims == dstD.length //
-                && nDims == dstS.length //
+        Control.checkTrue(nDims == dstD.length //
                 && slices.length % 3 == 0 //
-                && srcLen == srcI.length //
-                && dstLen == dstI.length //
                 && srcDo.length == nDims + 1 //
                 && srcIo.length == Arithmetic.sum(srcD) + nDims //
                 && srcIi.length == nDims * srcLen //
@@ -134,9 +116,6 @@ public class SparseOps {
                 && dstIi.length == nDims * dstLen, //
                 "Invalid arguments");
 
-        MappingOps.checkDimensions(Arithmetic.product(srcD), srcD, srcS);
-        MappingOps.checkDimensions(Arithmetic.product(dstD), dstD, dstS);
-
         for (int i = 0, n = 3 * nSlices; i < n; i += 3) {
 
             int srcIndex = slices[i];
@@ -248,139 +227,11 @@ public class SparseOps {
 
         int[] srcIndirections = getSlicedIndirections(sliceOffsets, srcSliceCounts, srcSlices, //
                 srcDo, srcIo, srcIi, srcD);
-        int nSrcIndirections = srcIndirections.length;
 
         int[] dstIndirections = getSlicedIndirections(sliceOffsets, dstSliceCounts, dstSlices, //
                 dstDo, dstIo, dstIi, dstD);
-        int nDstIndirections = dstIndirections.length;
-
-        //
-
-        int[] indirectionOffsets = new int[nSrcIndirections + 1];
-        int indirectionOffset = 0;
-
-        for (int i = 0, prodD = Arithmetic.product(srcD); i < nSrcIndirections; i++) {
-
-            int indirection = srcIndirections[i];
-
-            Control.checkTrue(indirection >= 0 && indirection < srcLen, //
-                    "Invalid indirection index");
-
-            int physical = srcI[indirection];
-
-            Control.checkTrue(physical >= 0 && physical < prodD, //
-                    "Invalid physical index");
-
-            int mapLen = 1;
-
-            for (int dim = 0; dim < nDims; dim++) {
-
-                int logicalIndex = physical / srcS[dim];
-
-                mapLen *= lookupCounts[srcDo[dim] + logicalIndex];
-
-                physical %= srcS[dim];
-            }
-
-            indirectionOffsets[i] = indirectionOffset;
-            indirectionOffset += mapLen;
-        }
-
-        indirectionOffsets[nSrcIndirections] = indirectionOffset;
-
-        //
-
-        int[] newIndirections = new int[indirectionOffset];
-        int[] newIndices = new int[indirectionOffset];
-        int[] logical = new int[nDims];
-
-        for (int i = 0; i < nSrcIndirections; i++) {
-
-            int indirection = srcIndirections[i];
-            int physical = srcI[indirection];
-
-            indirectionOffset = indirectionOffsets[i];
-
-            newIndices[indirectionOffset] = 0;
-
-            for (int dim = 0; dim < nDims; dim++) {
-
-                logical[dim] = physical / srcS[dim];
-
-                newIndices[indirectionOffset] += dstS[dim] //
-                        * dstLookups[lookupOffsets[srcDo[dim] + logical[dim]]];
-
-                physical %= srcS[dim];
-            }
-
-            Arrays.fill(newIndirections, indirectionOffsets[i], indirectionOffsets[i + 1], indirection);
-
-            for (int dim = nDims - 1, blockSize = 1, size; dim >= 0; blockSize *= size, dim--) {
-
-                int start = lookupOffsets[srcDo[dim] + logical[dim]];
-                size = lookupCounts[srcDo[dim] + logical[dim]];
-
-                for (int offset = indirectionOffset + blockSize, //
-                offsetEnd = indirectionOffset + blockSize * size, n = start + 1; //
-                offset < offsetEnd; //
-                offset += blockSize, n++) {
-
-                    int strideOffset = dstS[dim] * (dstLookups[n] - dstLookups[n - 1]);
-
-                    for (int j = offset - blockSize, k = offset; j < offset; j++, k++) {
-                        newIndices[k] = newIndices[j] + strideOffset;
-                    }
-                }
-            }
-        }
-
-        //
-
-        final int[] oldIndices;
-        final int[] oldIndirections;
-
-        if (nDstIndirections > 0) {
-
-            oldIndices = new int[dstI.length - nDstIndirections];
-            oldIndirections = new int[dstI.length - nDstIndirections];
 
-            int count = 0;
-
-            for (int i = 0, n = dstIndirections[0]; i < n; i++, count++) {
-
-                oldIndices[count] = dstI[i];
-                oldIndirections[count] = i;
-            }
-
-            for (int i = 0, n = nDstIndirections - 1; i < n; i++) {
-
-                for (int j = dstIndirections[i] + 1, m = dstIndirections[i + 1]; j < m; j++, count++) {
-
-                    oldIndices[count] = dstI[j];
-                    oldIndirections[count] = j;
-                }
-            }
-
-            for (int i = dstIndirections[nDstIndirections - 1] + 1, n = dstI.length; i < n; i++, count++) {
-
-                oldIndices[count] = dstI[i];
-                oldIndirections[count] = i;
-            }
-
-        } else {
-
-            oldIndices = dstI;
-            oldIndirections = Arithmetic.range(dstI.length);
-        }
-
-        //
-
-        int[][] res = merge(newIndices, newIndirections);
-        newIndices = res[0];
-        newIndirections = res[1];
-
-        return assign(dstV, srcV, merge(oldIndices, oldIndirections, newIndices, newIndirections, //
-                dstD, dstS, dstDo));
+        return new int[][] { lookupOffsets, lookupCounts, dstLookups, srcIndirections, dstIndirections };
     }
 
     /**
@@ -396,18 +247,36 @@ public class SparseOps {
      *            the storage array type.
      * @return the {@link SparseArrayState}.
      */
-    @SuppressWarnings("unchecked")
     final public static <V> SparseArrayState<V> assign(V oldV, V newV, int[][] mergeResult) {
 
+        int[] indices = mergeResult[4];
+
+        return new SparseArrayState<V>(assignValues(oldV, newV, mergeResult, indices.length), //
+                indices, mergeResult[5], mergeResult[6]);
+    }
+
+    /**
+     * Assembles old and new values according to their assignments.
+     * 
+     * @param oldV
+     *            the old values.
+     * @param newV
+     *            the new values.
+     * @param mergeResult
+     *            the result of a merge.
+     * @param nIndices
+     *            the number of merged physical indices.
+     * @param <V>
+     *            the storage array type.
+     * @return the assembled values.
+     */
+    @SuppressWarnings("unchecked")
+    final protected static <V> V assignValues(V oldV, V newV, int[][] mergeResult, int nIndices) {
+
         int[] oldAssignments = mergeResult[0];
         int[] oldIndirections = mergeResult[1];
         int[] newAssignments = mergeResult[2];
         int[] newIndirections = mergeResult[3];
-        int[] indices = mergeResult[4];
-        int[] indirectionOffsets = mergeResult[5];
-        int[] indirections = mergeResult[6];
-
-        int nIndices = indices.length;
 
         final V values;
 
@@ -468,7 +337,7 @@ public class SparseOps {
             throw new IllegalArgumentException("Invalid array types");
         }
 
-        return new SparseArrayState<V>(values, indices, indirectionOffsets, indirections);
+        return values;
     }
 
     /**
@@ -495,335 +364,1216 @@ public class SparseOps {
             int[] newIndices, int[] newIndirections, //
             int[] dims, int[] strides, int[] dimOffsets) {
 
-        int oldLen = oldIndices.length;
-        int newLen = newIndices.length;
+        int[][] mergeResult = new int[7][];
 
-        int[] oldAssignments = new int[oldLen];
-        int[] newAssignments = new int[newLen];
+        mergeResult[4] = ((IntIndices) merge( //
+                new IntIndices(oldIndices), oldIndirections, //
+                new IntIndices(newIndices), newIndirections, //
+                dims, widen(strides), dimOffsets, mergeResult)).values;
 
-        int count = 0;
-        int oldCount = 0;
-        int newCount = 0;
+        return mergeResult;
+    }
 
-        for (; oldCount < oldLen && newCount < newLen;) {
+    /**
+     * Normalizes a range of sorted values such that duplicates are removed.
+     * 
+     * @param values
+     *            the array of values.
+     * @param start
+     *            the start index.
+     * @param end
+     *            the end index.
+     * @return the number of resulting unique values.
+     */
+    final public static int normalize(int[] values, int start, int end) {
 
-            if (oldIndices[oldCount] < newIndices[newCount]) {
+        Arrays.sort(values, start, end);
 
-                oldAssignments[oldCount++] = count++;
+        int propagate = 0;
 
-            } else if (oldIndices[oldCount] > newIndices[newCount]) {
+        for (int i = start, current = -1; i < end; i++) {
 
-                newAssignments[newCount++] = count++;
+            values[i - propagate] = values[i];
+
+            if (current != values[i]) {
+
+                current = values[i];
 
             } else {
 
-                oldAssignments[oldCount++] = count;
-                newAssignments[newCount++] = count;
-                count++;
+                propagate++;
             }
         }
 
-        for (; oldCount < oldLen; oldCount++, count++) {
-            oldAssignments[oldCount] = count;
-        }
+        return end - start - propagate;
+    }
 
-        for (; newCount < newLen; newCount++, count++) {
-            newAssignments[newCount] = count;
-        }
+    /**
+     * Gets the sliced indirections.
+     * 
+     * @param sliceOffsets
+     *            the slice offsets.
+     * @param sliceCounts
+     *            the slice counts.
+     * @param slices
+     *            the slices.
+     * @param dimOffsets
+     *            the dimension offsets.
+     * @param indirectionOffsets
+     *            the indirection offsets.
+     * @param indirections
+     *            the indirections.
+     * @param dims
+     *            the dimensions.
+     * @return the sliced indirections.
+     */
+    final public static int[] getSlicedIndirections( //
+            int[] sliceOffsets, int[] sliceCounts, int[] slices, //
+            int[] dimOffsets, int[] indirectionOffsets, int[] indirections, int[] dims) {
 
-        //
+        int nDims = sliceOffsets.length - 1;
+        int nIndirections = indirections.length / nDims;
 
-        int[] indices = new int[count];
+        int[] intersection = null;
+        int len = 0;
 
-        for (int i = 0; i < oldLen; i++) {
-            indices[oldAssignments[i]] = oldIndices[i];
-        }
+        for (int dim = 0; dim < nDims; dim++) {
 
-        for (int i = 0; i < newLen; i++) {
-            indices[newAssignments[i]] = newIndices[i];
-        }
+            int dimOffset = dimOffsets[dim];
 
-        //
+            int sliceStart = sliceOffsets[dim];
+            int sliceEnd = sliceOffsets[dim] + sliceCounts[dim];
 
-        int sumD = Arithmetic.sum(dims);
-        int prodD = Arithmetic.product(dims);
-        int nDims = Control.checkEquals(dims.length, strides.length);
+            int nSlices = sliceEnd - sliceStart;
 
-        //
+            int nElts = 0;
+
+            for (int i = 0; i < nSlices; i++) {
+
+                int index = slices[i + sliceStart];
+
+                int start = indirectionOffsets[dimOffset + index];
+                int end = indirectionOffsets[dimOffset + index + 1];
+
+                Control.checkTrue(start >= 0 //
+                        && start <= end //
+                        && end >= 0 //
+                        && end <= nIndirections, //
+                        "Invalid arguments");
+
+                nElts += end - start;
+            }
+
+            int[] res = new int[nElts];
+
+            for (int i = 0, resCount = 0; i < nSlices; i++) {
+
+                int index = slices[i + sliceStart];
+
+                int start = indirectionOffsets[dimOffset + index];
+                int end = indirectionOffsets[dimOffset + index + 1];
+
+                for (int j = start; j < end; j++) {
+                    res[resCount++] = indirections[nIndirections * dim + j];
+                }
+            }
+
+            Arrays.sort(res);
+
+            if (intersection != null) {
+
+                int intersectionLower = 0;
+                int intersectionUpper = len;
+
+                int resLower = 0;
+                int resUpper = nElts;
+
+                int propagate = 0;
+
+                for (; intersectionLower < intersectionUpper && resLower < resUpper;) {
+
+                    if (intersection[intersectionLower] < res[resLower]) {
+
+                        intersection[intersectionLower - propagate] = intersection[intersectionLower];
+                        propagate++;
+
+                        intersectionLower++;
+
+                    } else if (intersection[intersectionLower] > res[resLower]) {
+
+                        resLower++;
+
+                    } else {
+
+                        intersection[intersectionLower - propagate] = intersection[intersectionLower];
+
+                        intersectionLower++;
+                        resLower++;
+                    }
+                }
+
+                len = intersectionLower - propagate;
+
+            } else {
+
+                intersection = res;
+                len = nElts;
+            }
+        }
+
+        return Arrays.copyOf(intersection, len);
+    }
+
+    /**
+     * Merges sliced indirections by physical index.
+     * 
+     * @param indices
+     *            the physical indices.
+     * @param indirections
+     *            the sliced indirections.
+     * @return the merged physical indices and indirections.
+     */
+    final public static int[][] merge(int[] indices, int[] indirections) {
+
+        int[] resIndices = indices.clone();
+        int[] resIndirections = indirections.clone();
+
+        int resLen = merge(new IntIndices(resIndices), resIndirections);
+
+        return new int[][] { Arrays.copyOf(resIndices, resLen), Arrays.copyOf(resIndirections, resLen) };
+    }
+
+    /**
+     * A 64-bit counterpart of {@link #insert(Object, int[], int[], int[], int[], Object, int[])} for arrays whose
+     * volume exceeds {@link Integer#MAX_VALUE}.
+     */
+    final public static <V> SparseArrayState<V> insert( //
+            V oldV, int[] oldD, long[] oldS, int[] oldDo, long[] oldI, //
+            V newV, long[] newI) {
+
+        int[][] mergeResult = new int[7][];
+
+        long[] indices = ((LongIndices) insert(oldV, oldD, oldS, oldDo, new LongIndices(oldI), //
+                newV, new LongIndices(newI), mergeResult)).values;
+
+        return assign(oldV, newV, mergeResult, indices);
+    }
+
+    /**
+     * Sorts the new physical indices in place and merges them with the old ones. This is the core of the 32-bit and
+     * 64-bit insertion operations.
+     * 
+     * @return the merged physical indices.
+     */
+    final protected static Indices insert( //
+            Object oldV, int[] oldD, long[] oldS, int[] oldDo, Indices oldI, //
+            Object newV, Indices newI, int[][] mergeResult) {
+
+        int nDims = oldD.length;
+        int oldLen = Array.getLength(oldV);
+        int newLen = Array.getLength(newV);
+
+        Control.checkTrue(nDims == oldS.length //
+                && oldDo.length == nDims + 1 //
+                && oldLen == oldI.length() //
+                && newLen == newI.length(), //
+                "Invalid arguments");
+
+        for (int dim = 0; dim < nDims; dim++) {
+            Control.checkTrue(oldDo[dim + 1] - oldDo[dim] - 1 == oldD[dim], //
+                    "Invalid arguments");
+        }
+
+        int[] perm = sortPositions(newI, newLen);
+
+        // Leave the new physical indices in sorted order.
+        Indices unsorted = newI.copyOf(newLen);
+
+        for (int i = 0; i < newLen; i++) {
+            newI.set(i, unsorted.get(perm[i]));
+        }
+
+        for (int i = 1; i < newLen; i++) {
+            Control.checkTrue(newI.get(i - 1) != newI.get(i), //
+                    "Duplicate values are not allowed");
+        }
+
+        Indices indices = merge( //
+                oldI, Arithmetic.range(oldLen), //
+                newI, Arithmetic.range(newLen), //
+                oldD, oldS, oldDo, mergeResult);
+
+        int[] newIndirections = mergeResult[3];
+
+        for (int i = 0; i < newLen; i++) {
+            perm[i] = newIndirections[perm[i]];
+        }
+
+        System.arraycopy(perm, 0, newIndirections, 0, newLen);
+
+        return indices;
+    }
+
+    /**
+     * A 64-bit counterpart of
+     * {@link #slice(int[], Object, int[], int[], int[], int[], int[], int[], Object, int[], int[], int[], int[], int[], int[])}
+     * for arrays whose volume exceeds {@link Integer#MAX_VALUE}.
+     */
+    final public static <V> SparseArrayState<V> slice(int[] slices, //
+            V srcV, int[] srcD, long[] srcS, int[] srcDo, //
+            long[] srcI, int[] srcIo, int[] srcIi, //
+            V dstV, int[] dstD, long[] dstS, int[] dstDo, //
+            long[] dstI, int[] dstIo, int[] dstIi) {
+
+        int[][] mergeResult = new int[7][];
+
+        long[] indices = ((LongIndices) slice(slices, //
+                srcV, srcD, srcS, srcDo, new LongIndices(srcI), srcIo, srcIi, //
+                dstV, dstD, dstS, dstDo, new LongIndices(dstI), dstIo, dstIi, //
+                mergeResult)).values;
+
+        return assign(dstV, srcV, mergeResult, indices);
+    }
+
+    /**
+     * Maps the sliced source elements into the destination and merges them with the surviving destination elements.
+     * This is the core of the 32-bit and 64-bit slicing operations.
+     * 
+     * @return the merged physical indices.
+     */
+    final protected static Indices slice(int[] slices, //
+            Object srcV, int[] srcD, long[] srcS, int[] srcDo, //
+            Indices srcI, int[] srcIo, int[] srcIi, //
+            Object dstV, int[] dstD, long[] dstS, int[] dstDo, //
+            Indices dstI, int[] dstIo, int[] dstIi, //
+            int[][] mergeResult) {
+
+        int nDims = srcD.length;
+        int srcLen = Array.getLength(srcV);
+        int dstLen = Array.getLength(dstV);
+
+        Control.checkTrue(nDims == srcS.length //
+                && nDims == dstS.length //
+                && srcLen == srcI.length() //
+                && dstLen == dstI.length(), //
+                "Invalid arguments");
+
+        int[][] lookups = createSliceLookups(slices, //
+                srcD, srcDo, srcIo, srcIi, srcLen, //
+                dstD, dstDo, dstIo, dstIi, dstLen);
+
+        int[] lookupOffsets = lookups[0];
+        int[] lookupCounts = lookups[1];
+        int[] dstLookups = lookups[2];
+        int[] srcIndirections = lookups[3];
+        int[] dstIndirections = lookups[4];
+
+        int nSrcIndirections = srcIndirections.length;
+        int nDstIndirections = dstIndirections.length;
+
+        //
+
+        int[] indirectionOffsets = new int[nSrcIndirections + 1];
+        int indirectionOffset = 0;
+
+        long prodD = volume(srcD);
+        boolean small = prodD <= Integer.MAX_VALUE;
+
+        for (int i = 0; i < nSrcIndirections; i++) {
+
+            int indirection = srcIndirections[i];
+
+            Control.checkTrue(indirection >= 0 && indirection < srcLen, //
+                    "Invalid indirection index");
+
+            long physical = srcI.get(indirection);
+
+            Control.checkTrue(physical >= 0 && physical < prodD, //
+                    "Invalid physical index");
+
+            long mapLen = 1;
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                int logicalIndex = quotient(physical, srcS[dim], small);
+
+                mapLen *= lookupCounts[srcDo[dim] + logicalIndex];
+
+                physical = remainder(physical, srcS[dim], small);
+            }
+
+            Control.checkTrue(indirectionOffset + mapLen <= Integer.MAX_VALUE, //
+                    "Too many nonzeros");
+
+            indirectionOffsets[i] = indirectionOffset;
+            indirectionOffset += (int) mapLen;
+        }
+
+        indirectionOffsets[nSrcIndirections] = indirectionOffset;
+
+        //
+
+        int[] newIndirections = new int[indirectionOffset];
+        Indices newIndices = dstI.create(indirectionOffset);
+        int[] logical = new int[nDims];
+
+        for (int i = 0; i < nSrcIndirections; i++) {
+
+            int indirection = srcIndirections[i];
+            long physical = srcI.get(indirection);
+
+            indirectionOffset = indirectionOffsets[i];
+
+            long newPhysical = 0;
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                logical[dim] = quotient(physical, srcS[dim], small);
+
+                newPhysical += dstS[dim] * dstLookups[lookupOffsets[srcDo[dim] + logical[dim]]];
+
+                physical = remainder(physical, srcS[dim], small);
+            }
+
+            newIndices.set(indirectionOffset, newPhysical);
+
+            Arrays.fill(newIndirections, indirectionOffsets[i], indirectionOffsets[i + 1], indirection);
+
+            for (int dim = nDims - 1, blockSize = 1, size; dim >= 0; blockSize *= size, dim--) {
+
+                int start = lookupOffsets[srcDo[dim] + logical[dim]];
+                size = lookupCounts[srcDo[dim] + logical[dim]];
+
+                for (int offset = indirectionOffset + blockSize, //
+                offsetEnd = indirectionOffset + blockSize * size, n = start + 1; //
+                offset < offsetEnd; //
+                offset += blockSize, n++) {
+
+                    long strideOffset = dstS[dim] * (dstLookups[n] - dstLookups[n - 1]);
+
+                    for (int j = offset - blockSize, k = offset; j < offset; j++, k++) {
+                        newIndices.set(k, newIndices.get(j) + strideOffset);
+                    }
+                }
+            }
+        }
+
+        //
+
+        final Indices oldIndices;
+        final int[] oldIndirections;
+
+        if (nDstIndirections > 0) {
+
+            oldIndices = dstI.create(dstLen - nDstIndirections);
+            oldIndirections = new int[dstLen - nDstIndirections];
+
+            int count = 0;
+
+            for (int i = 0, n = dstIndirections[0]; i < n; i++, count++) {
+
+                oldIndices.set(count, dstI.get(i));
+                oldIndirections[count] = i;
+            }
+
+            for (int i = 0, n = nDstIndirections - 1; i < n; i++) {
+
+                for (int j = dstIndirections[i] + 1, m = dstIndirections[i + 1]; j < m; j++, count++) {
+
+                    oldIndices.set(count, dstI.get(j));
+                    oldIndirections[count] = j;
+                }
+            }
+
+            for (int i = dstIndirections[nDstIndirections - 1] + 1; i < dstLen; i++, count++) {
+
+                oldIndices.set(count, dstI.get(i));
+                oldIndirections[count] = i;
+            }
+
+        } else {
+
+            oldIndices = dstI;
+            oldIndirections = Arithmetic.range(dstLen);
+        }
+
+        //
+
+        int newLen = merge(newIndices, newIndirections);
+        newIndices = newIndices.copyOf(newLen);
+        newIndirections = Arrays.copyOf(newIndirections, newLen);
+
+        return merge(oldIndices, oldIndirections, newIndices, newIndirections, //
+                dstD, dstS, dstDo, mergeResult);
+    }
+
+    /**
+     * A 64-bit counterpart of {@link #assign(Object, Object, int[][])}.
+     * 
+     * @param oldV
+     *            the old values.
+     * @param newV
+     *            the new values.
+     * @param mergeResult
+     *            the result of {@link #merge(long[], int[], long[], int[], int[], long[], int[], int[][])}.
+     * @param indices
+     *            the merged physical indices.
+     * @param <V>
+     *            the storage array type.
+     * @return the {@link SparseArrayState}.
+     */
+    final public static <V> SparseArrayState<V> assign(V oldV, V newV, int[][] mergeResult, long[] indices) {
+        return new SparseArrayState<V>(assignValues(oldV, newV, mergeResult, indices.length), //
+                indices, mergeResult[5], mergeResult[6]);
+    }
+
+    /**
+     * A 64-bit counterpart of {@link #merge(int[], int[], int[], int[], int[], int[], int[])}.
+     * 
+     * @param oldIndices
+     *            the old physical indices. Invariant: Sorted in ascending order, and does not contain duplicates.
+     * @param oldIndirections
+     *            the indirections on old values.
+     * @param newIndices
+     *            the new physical indices. Invariant: Sorted in ascending order, and does not contain duplicates.
+     * @param newIndirections
+     *            the indirections on new values.
+     * @param dims
+     *            the dimensions.
+     * @param strides
+     *            the strides.
+     * @param dimOffsets
+     *            the dimension offsets.
+     * @param mergeResult
+     *            the assignments and metadata, laid out as in the 32-bit version, save for the physical indices.
+     * @return the merged physical indices.
+     */
+    final public static long[] merge( //
+            long[] oldIndices, int[] oldIndirections, //
+            long[] newIndices, int[] newIndirections, //
+            int[] dims, long[] strides, int[] dimOffsets, //
+            int[][] mergeResult) {
+
+        return ((LongIndices) merge( //
+                new LongIndices(oldIndices), oldIndirections, //
+                new LongIndices(newIndices), newIndirections, //
+                dims, strides, dimOffsets, mergeResult)).values;
+    }
+
+    /**
+     * Merges old and new physical indices and builds the indirection tables. This is the core of the 32-bit and
+     * 64-bit merge operations.
+     * 
+     * @return the merged physical indices.
+     */
+    final protected static Indices merge( //
+            Indices oldIndices, int[] oldIndirections, //
+            Indices newIndices, int[] newIndirections, //
+            int[] dims, long[] strides, int[] dimOffsets, //
+            int[][] mergeResult) {
+
+        int oldLen = oldIndices.length();
+        int newLen = newIndices.length();
+
+        int[] oldAssignments = new int[oldLen];
+        int[] newAssignments = new int[newLen];
+
+        int count = 0;
+        int oldCount = 0;
+        int newCount = 0;
+
+        for (; oldCount < oldLen && newCount < newLen;) {
+
+            long oldIndex = oldIndices.get(oldCount);
+            long newIndex = newIndices.get(newCount);
+
+            if (oldIndex < newIndex) {
+
+                oldAssignments[oldCount++] = count++;
+
+            } else if (oldIndex > newIndex) {
+
+                newAssignments[newCount++] = count++;
+
+            } else {
+
+                oldAssignments[oldCount++] = count;
+                newAssignments[newCount++] = count;
+                count++;
+            }
+        }
+
+        for (; oldCount < oldLen; oldCount++, count++) {
+            oldAssignments[oldCount] = count;
+        }
+
+        for (; newCount < newLen; newCount++, count++) {
+            newAssignments[newCount] = count;
+        }
+
+        //
+
+        Indices indices = newIndices.create(count);
+
+        for (int i = 0; i < oldLen; i++) {
+            indices.set(oldAssignments[i], oldIndices.get(i));
+        }
+
+        for (int i = 0; i < newLen; i++) {
+            indices.set(newAssignments[i], newIndices.get(i));
+        }
+
+        //
+
+        int sumD = Arithmetic.sum(dims);
+        long prodD = volume(dims);
+        boolean small = prodD <= Integer.MAX_VALUE;
+        int nDims = Control.checkEquals(dims.length, strides.length);
+
+        //
 
         int[] dimCounts = new int[sumD + nDims];
 
+        for (int i = 0; i < count; i++) {
+
+            long acc = indices.get(i);
+
+            Control.checkTrue(acc >= 0 && acc < prodD, //
+                    "Invalid physical index");
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                int dimOffset = dimOffsets[dim] + quotient(acc, strides[dim], small);
+
+                dimCounts[dimOffset]++;
+                acc = remainder(acc, strides[dim], small);
+            }
+        }
+
+        //
+
+        int[] indirectionOffsets = new int[sumD + nDims];
+
+        for (int dim = 0, acc; dim < nDims; dim++) {
+
+            acc = 0;
+
+            int dimOffset = dimOffsets[dim];
+            int dimSize = dims[dim];
+
+            for (int dimIndex = 0; dimIndex < dimSize; dimIndex++) {
+
+                indirectionOffsets[dimOffset + dimIndex] = acc;
+                acc += dimCounts[dimOffsets[dim] + dimIndex];
+            }
+
+            indirectionOffsets[dimOffset + dimSize] = count;
+        }
+
+        //
+
         Arrays.fill(dimCounts, 0);
 
-        for (int i = 0, acc; i < count; i++) {
+        int[] indirections = new int[nDims * count];
+
+        for (int i = 0; i < count; i++) {
+
+            long acc = indices.get(i);
 
-            acc = indices[i];
+            for (int dim = 0; dim < nDims; dim++) {
+
+                int dimOffset = dimOffsets[dim] + quotient(acc, strides[dim], small);
+
+                indirections[count * dim + indirectionOffsets[dimOffset] + dimCounts[dimOffset]] = i;
+                dimCounts[dimOffset]++;
+                acc = remainder(acc, strides[dim], small);
+            }
+        }
+
+        mergeResult[0] = oldAssignments;
+        mergeResult[1] = oldIndirections;
+        mergeResult[2] = newAssignments;
+        mergeResult[3] = newIndirections;
+        mergeResult[4] = null;
+        mergeResult[5] = indirectionOffsets;
+        mergeResult[6] = indirections;
+
+        return indices;
+    }
+
+    /**
+     * A 64-bit counterpart of {@link #merge(int[], int[])}, which sorts and deduplicates the given arrays in place.
+     * 
+     * @param indices
+     *            the physical indices.
+     * @param indirections
+     *            the sliced indirections.
+     * @return the number of merged physical indices and indirections, which occupy the front of the given arrays.
+     */
+    final public static int merge(long[] indices, int[] indirections) {
+        return merge(new LongIndices(indices), indirections);
+    }
+
+    /**
+     * Sorts and deduplicates physical indices and their indirections in place, keeping the first indirection of each
+     * physical index. This is the core of the 32-bit and 64-bit versions.
+     * 
+     * @return the number of merged physical indices and indirections.
+     */
+    final protected static int merge(Indices indices, int[] indirections) {
+
+        int nElts = Control.checkEquals(indices.length(), indirections.length, //
+                "Invalid arguments");
+
+        int[] positions = sortPositions(indices, nElts);
+
+        Indices srcIndices = indices.copyOf(nElts);
+        int[] srcIndirections = indirections.clone();
+
+        int resLen = 0;
+
+        for (int i = 0; i < nElts; i++) {
+
+            long value = srcIndices.get(positions[i]);
+
+            if (resLen == 0 || indices.get(resLen - 1) != value) {
+
+                indices.set(resLen, value);
+                indirections[resLen] = srcIndirections[positions[i]];
+                resLen++;
+            }
+        }
+
+        return resLen;
+    }
+
+    /**
+     * Finds the last occurrence of each distinct physical index.
+     * 
+     * @param indices
+     *            the physical indices.
+     * @param len
+     *            the number of physical indices to consider.
+     * @return the positions of last occurrences, in ascending order of physical index.
+     */
+    final public static int[] lastOccurrences(long[] indices, int len) {
 
-            Control.checkTrue(acc >= 0 && acc < prodD, //
-                    "Invalid physical index");
+        int[] positions = sortPositions(indices, len);
 
-            for (int dim = 0; dim < nDims; dim++) {
+        int count = 0;
 
-                int dimOffset = dimOffsets[dim] + acc / strides[dim];
+        for (int i = 0; i < len; i++) {
 
-                dimCounts[dimOffset]++;
-                acc %= strides[dim];
+            if (i == len - 1 || indices[positions[i]] != indices[positions[i + 1]]) {
+                positions[count++] = positions[i];
             }
         }
 
-        //
+        return Arrays.copyOf(positions, count);
+    }
 
-        int[] indirectionOffsets = new int[sumD + nDims];
+    /**
+     * Stably sorts positions by physical index with a bottom-up merge sort.
+     * 
+     * @param indices
+     *            the physical indices.
+     * @param len
+     *            the number of physical indices to consider.
+     * @return the positions, in ascending order of physical index.
+     */
+    final public static int[] sortPositions(long[] indices, int len) {
+        return sortPositions(new LongIndices(indices), len);
+    }
 
-        for (int dim = 0, acc; dim < nDims; dim++) {
+    /**
+     * Stably sorts positions by physical index. This is the core of the 32-bit and 64-bit versions. Already sorted
+     * indices, as produced by most callers, cost a single pass.
+     * 
+     * @return the positions, in ascending order of physical index.
+     */
+    final protected static int[] sortPositions(Indices indices, int len) {
 
-            acc = 0;
+        Control.checkTrue(len >= 0 && len <= indices.length(), //
+                "Invalid arguments");
 
-            int dimOffset = dimOffsets[dim];
-            int dimSize = dims[dim];
+        int[] src = Arithmetic.range(len);
 
-            for (int dimIndex = 0; dimIndex < dimSize; dimIndex++) {
+        int sorted = 1;
 
-                indirectionOffsets[dimOffset + dimIndex] = acc;
-                acc += dimCounts[dimOffsets[dim] + dimIndex];
-            }
+        for (; sorted < len && indices.get(sorted - 1) <= indices.get(sorted); sorted++) {
+        }
 
-            indirectionOffsets[dimOffset + dimSize] = count;
+        if (sorted >= len) {
+            return src;
         }
 
-        //
+        int[] dst = new int[len];
 
-        Arrays.fill(dimCounts, 0);
+        for (int width = 1; width < len; width <<= 1) {
 
-        int[] indirections = new int[nDims * count];
+            for (int lower = 0; lower < len; lower += width << 1) {
 
-        for (int i = 0, acc; i < count; i++) {
+                int mid = Math.min(lower + width, len);
+                int upper = Math.min(lower + (width << 1), len);
 
-            acc = indices[i];
+                int i = lower;
+                int j = mid;
+                int k = lower;
 
-            for (int dim = 0; dim < nDims; dim++) {
+                for (; i < mid && j < upper;) {
+                    dst[k++] = (indices.get(src[j]) < indices.get(src[i])) ? src[j++] : src[i++];
+                }
 
-                int dimOffset = dimOffsets[dim] + acc / strides[dim];
+                for (; i < mid;) {
+                    dst[k++] = src[i++];
+                }
 
-                indirections[count * dim + indirectionOffsets[dimOffset] + dimCounts[dimOffset]] = i;
-                dimCounts[dimOffset]++;
-                acc %= strides[dim];
+                for (; j < upper;) {
+                    dst[k++] = src[j++];
+                }
             }
+
+            int[] tmp = src;
+            src = dst;
+            dst = tmp;
         }
 
-        return new int[][] {
-                //
-                oldAssignments, //
-                oldIndirections, //
-                newAssignments, //
-                newIndirections, //
-                indices, //
-                indirectionOffsets, //
-                indirections //
-        };
+        return src;
     }
 
     /**
-     * Normalizes a range of sorted values such that duplicates are removed.
+     * Merge-joins two sorted lists of physical indices.
      * 
-     * @param values
-     *            the array of values.
-     * @param start
-     *            the start index.
-     * @param end
-     *            the end index.
-     * @return the number of resulting unique values.
+     * @param lhsIndices
+     *            the left hand side physical indices. Invariant: Sorted in ascending order, and does not contain
+     *            duplicates.
+     * @param rhsIndices
+     *            the right hand side physical indices. Invariant: Sorted in ascending order, and does not contain
+     *            duplicates.
+     * @param union
+     *            whether to take the union, rather than the intersection, of the two lists.
+     * @return the positions of joined elements in the left hand side and the right hand side, where {@code -1}
+     *         denotes absence.
      */
-    final public static int normalize(int[] values, int start, int end) {
+    final public static int[][] join(int[] lhsIndices, int[] rhsIndices, boolean union) {
+        return join(new IntIndices(lhsIndices), new IntIndices(rhsIndices), union);
+    }
 
-        Arrays.sort(values, start, end);
+    /**
+     * A 64-bit counterpart of {@link #join(int[], int[], boolean)}.
+     */
+    final public static int[][] join(long[] lhsIndices, long[] rhsIndices, boolean union) {
+        return join(new LongIndices(lhsIndices), new LongIndices(rhsIndices), union);
+    }
 
-        int propagate = 0;
+    /**
+     * Merge-joins two sorted lists of physical indices. This is the core of the 32-bit and 64-bit versions.
+     * 
+     * @return the positions of joined elements in the left hand side and the right hand side.
+     */
+    final protected static int[][] join(Indices lhsIndices, Indices rhsIndices, boolean union) {
 
-        for (int i = start, current = -1; i < end; i++) {
+        int lhsLen = lhsIndices.length();
+        int rhsLen = rhsIndices.length();
 
-            values[i - propagate] = values[i];
+        int capacity = union ? lhsLen + rhsLen : Math.min(lhsLen, rhsLen);
 
-            if (current != values[i]) {
+        int[] lhsPositions = new int[capacity];
+        int[] rhsPositions = new int[capacity];
 
-                current = values[i];
+        int count = 0;
+        int lhsCount = 0;
+        int rhsCount = 0;
+
+        for (; lhsCount < lhsLen && rhsCount < rhsLen;) {
+
+            long lhsIndex = lhsIndices.get(lhsCount);
+            long rhsIndex = rhsIndices.get(rhsCount);
+
+            if (lhsIndex < rhsIndex) {
+
+                if (union) {
+
+                    lhsPositions[count] = lhsCount;
+                    rhsPositions[count++] = -1;
+                }
+
+                lhsCount++;
+
+            } else if (lhsIndex > rhsIndex) {
+
+                if (union) {
+
+                    lhsPositions[count] = -1;
+                    rhsPositions[count++] = rhsCount;
+                }
+
+                rhsCount++;
 
             } else {
 
-                propagate++;
+                lhsPositions[count] = lhsCount++;
+                rhsPositions[count++] = rhsCount++;
             }
         }
 
-        return end - start - propagate;
+        if (union) {
+
+            for (; lhsCount < lhsLen; lhsCount++) {
+
+                lhsPositions[count] = lhsCount;
+                rhsPositions[count++] = -1;
+            }
+
+            for (; rhsCount < rhsLen; rhsCount++) {
+
+                lhsPositions[count] = -1;
+                rhsPositions[count++] = rhsCount;
+            }
+        }
+
+        return new int[][] { Arrays.copyOf(lhsPositions, count), Arrays.copyOf(rhsPositions, count) };
     }
 
     /**
-     * Gets the sliced indirections.
+     * Creates a {@link SparseArrayState} from values and their physical indices, building the indirection tables in
+     * linear time.
      * 
-     * @param sliceOffsets
-     *            the slice offsets.
-     * @param sliceCounts
-     *            the slice counts.
-     * @param slices
-     *            the slices.
-     * @param dimOffsets
-     *            the dimension offsets.
-     * @param indirectionOffsets
-     *            the indirection offsets.
-     * @param indirections
-     *            the indirections.
+     * @param values
+     *            the values.
+     * @param indices
+     *            the physical indices. Invariant: Sorted in ascending order, and does not contain duplicates.
      * @param dims
      *            the dimensions.
-     * @return the sliced indirections.
+     * @param strides
+     *            the strides.
+     * @param dimOffsets
+     *            the dimension offsets.
+     * @param <V>
+     *            the storage array type.
+     * @return the {@link SparseArrayState}.
      */
-    final public static int[] getSlicedIndirections( //
-            int[] sliceOffsets, int[] sliceCounts, int[] slices, //
-            int[] dimOffsets, int[] indirectionOffsets, int[] indirections, int[] dims) {
-
-        int nDims = sliceOffsets.length - 1;
-        int nIndirections = indirections.length / nDims;
+    final public static <V> SparseArrayState<V> create(V values, int[] indices, //
+            int[] dims, int[] strides, int[] dimOffsets) {
 
-        int[] intersection = null;
-        int len = 0;
+        int[][] mergeResult = new int[7][];
 
-        for (int dim = 0; dim < nDims; dim++) {
+        int[] resIndices = ((IntIndices) create(values, new IntIndices(indices), //
+                dims, widen(strides), dimOffsets, mergeResult)).values;
 
-            int dimOffset = dimOffsets[dim];
+        return new SparseArrayState<V>(values, resIndices, mergeResult[5], mergeResult[6]);
+    }
 
-            int sliceStart = sliceOffsets[dim];
-            int sliceEnd = sliceOffsets[dim] + sliceCounts[dim];
+    /**
+     * A 64-bit counterpart of {@link #create(Object, int[], int[], int[], int[])}.
+     */
+    final public static <V> SparseArrayState<V> create(V values, long[] indices, //
+            int[] dims, long[] strides, int[] dimOffsets) {
 
-            int nSlices = sliceEnd - sliceStart;
+        int[][] mergeResult = new int[7][];
 
-            int nElts = 0;
+        long[] resIndices = ((LongIndices) create(values, new LongIndices(indices), //
+                dims, strides, dimOffsets, mergeResult)).values;
 
-            for (int i = 0; i < nSlices; i++) {
+        return new SparseArrayState<V>(values, resIndices, mergeResult[5], mergeResult[6]);
+    }
 
-                int index = slices[i + sliceStart];
+    /**
+     * Checks the physical indices and builds the indirection tables. This is the core of the 32-bit and 64-bit
+     * creation operations.
+     * 
+     * @return the physical indices.
+     */
+    final protected static Indices create(Object values, Indices indices, //
+            int[] dims, long[] strides, int[] dimOffsets, int[][] mergeResult) {
 
-                int start = indirectionOffsets[dimOffset + index];
-                int end = indirectionOffsets[dimOffset + index + 1];
+        int len = Control.checkEquals(Array.getLength(values), indices.length(), //
+                "Invalid arguments");
 
-                Control.checkTrue(start >= 0 //
-                        && start <= end //
-                        && end >= 0 //
-                        && end <= nIndirections, //
-                        "Invalid arguments");
+        for (int i = 1; i < len; i++) {
+            Control.checkTrue(indices.get(i - 1) < indices.get(i), //
+                    "Physical indices must be sorted and unique");
+        }
 
-                nElts += end - start;
-            }
+        return merge(indices.create(0), new int[] {}, indices, Arithmetic.range(len), //
+                dims, strides, dimOffsets, mergeResult);
+    }
 
-            int[] res = new int[nElts];
+    /**
+     * Gathers values at the given positions.
+     * 
+     * @param values
+     *            the values.
+     * @param positions
+     *            the positions.
+     * @param <V>
+     *            the storage array type.
+     * @return the gathered values.
+     */
+    @SuppressWarnings("unchecked")
+    final public static <V> V gather(V values, int[] positions) {
 
-            for (int i = 0, resCount = 0; i < nSlices; i++) {
+        int nPositions = positions.length;
 
-                int index = slices[i + sliceStart];
+        if (values instanceof double[]) {
 
-                int start = indirectionOffsets[dimOffset + index];
-                int end = indirectionOffsets[dimOffset + index + 1];
+            double[] srcV = (double[]) values;
+            double[] dstV = new double[nPositions];
 
-                for (int j = start; j < end; j++) {
-                    res[resCount++] = indirections[nIndirections * dim + j];
-                }
+            for (int i = 0; i < nPositions; i++) {
+                dstV[i] = srcV[positions[i]];
             }
 
-            Arrays.sort(res);
+            return (V) dstV;
 
-            if (intersection != null) {
+        } else if (values instanceof int[]) {
 
-                int intersectionLower = 0;
-                int intersectionUpper = len;
+            int[] srcV = (int[]) values;
+            int[] dstV = new int[nPositions];
 
-                int resLower = 0;
-                int resUpper = nElts;
+            for (int i = 0; i < nPositions; i++) {
+                dstV[i] = srcV[positions[i]];
+            }
 
-                int propagate = 0;
+            return (V) dstV;
 
-                for (; intersectionLower < intersectionUpper && resLower < resUpper;) {
+        } else if (values instanceof Object[]) {
 
-                    if (intersection[intersectionLower] < res[resLower]) {
+            Object[] srcV = (Object[]) values;
+            Object[] dstV = (Object[]) Array.newInstance(srcV.getClass().getComponentType(), nPositions);
 
-                        intersection[intersectionLower - propagate] = intersection[intersectionLower];
-                        propagate++;
+            for (int i = 0; i < nPositions; i++) {
+                dstV[i] = srcV[positions[i]];
+            }
 
-                        intersectionLower++;
+            return (V) dstV;
 
-                    } else if (intersection[intersectionLower] > res[resLower]) {
+        } else {
 
-                        resLower++;
+            throw new IllegalArgumentException("Invalid array type");
+        }
+    }
 
-                    } else {
+    /**
+     * Widens 32-bit physical indices or strides to 64 bits.
+     * 
+     * @param values
+     *            the 32-bit values.
+     * @return the 64-bit values.
+     */
+    final public static long[] widen(int[] values) {
 
-                        intersection[intersectionLower - propagate] = intersection[intersectionLower];
+        int len = values.length;
+        long[] res = new long[len];
 
-                        intersectionLower++;
-                        resLower++;
-                    }
-                }
+        for (int i = 0; i < len; i++) {
+            res[i] = values[i];
+        }
 
-                len = intersectionLower - propagate;
+        return res;
+    }
 
-            } else {
+    /**
+     * Narrows 64-bit physical indices or strides to 32 bits.
+     * 
+     * @param values
+     *            the 64-bit values, which must fit in 32 bits.
+     * @return the 32-bit values.
+     */
+    final public static int[] narrow(long[] values) {
 
-                intersection = res;
-                len = nElts;
-            }
+        int len = values.length;
+        int[] res = new int[len];
+
+        for (int i = 0; i < len; i++) {
+
+            Control.checkTrue(values[i] >= Integer.MIN_VALUE && values[i] <= Integer.MAX_VALUE, //
+                    "Value does not fit in 32 bits");
+
+            res[i] = (int) values[i];
         }
 
-        return Arrays.copyOf(intersection, len);
+        return res;
     }
 
     /**
-     * Merges sliced indirections by physical index.
+     * Divides a physical index by a stride, in 32-bit arithmetic if the array is small enough, since 64-bit division
+     * is markedly slower.
      * 
-     * @param indices
-     *            the physical indices.
-     * @param indirections
-     *            the sliced indirections.
-     * @return the merged physical indices and indirections.
+     * @param physical
+     *            the physical index.
+     * @param stride
+     *            the stride.
+     * @param small
+     *            whether the array volume does not exceed {@link Integer#MAX_VALUE}.
+     * @return the logical index.
      */
-    @SuppressWarnings("unchecked")
-    final public static int[][] merge(int[] indices, int[] indirections) {
+    final protected static int quotient(long physical, long stride, boolean small) {
+        return small ? (int) physical / (int) stride : (int) (physical / stride);
+    }
 
-        int nElts = Control.checkEquals(indices.length, indirections.length, //
-                "Invalid arguments");
+    /**
+     * Takes the remainder of a physical index with respect to a stride, in the same manner as
+     * {@link #quotient(long, long, boolean)}.
+     * 
+     * @param physical
+     *            the physical index.
+     * @param stride
+     *            the stride.
+     * @param small
+     *            whether the array volume does not exceed {@link Integer#MAX_VALUE}.
+     * @return the remainder.
+     */
+    final protected static long remainder(long physical, long stride, boolean small) {
+        return small ? (int) physical % (int) stride : physical % stride;
+    }
+
+    /**
+     * Computes the volume of the given dimensions without overflow.
+     * 
+     * @param dims
+     *            the dimensions.
+     * @return the volume.
+     */
+    final public static long volume(int[] dims) {
 
-        PermutationEntry<Integer>[] entries = new PermutationEntry[nElts];
+        long acc = 1;
 
-        for (int i = 0; i < nElts; i++) {
-            entries[i] = new PermutationEntry<Integer>(indices[i], indirections[i]);
+        for (int dim : dims) {
+
+            Control.checkTrue(dim >= 0, //
+                    "Invalid dimensions");
+
+            Control.checkTrue(dim == 0 || acc <= Long.MAX_VALUE / dim, //
+                    "Volume is too large");
+
+            acc *= dim;
         }
 
-        Arrays.sort(entries);
+        return acc;
+    }
 
-        int propagate = 0;
+    /**
+     * A view of physical indices that hides their width.
+     */
+    abstract protected static class Indices {
 
-        for (int i = 0, current = -1; i < nElts; i++) {
+        /**
+         * Default constructor.
+         */
+        protected Indices() {
+        }
 
-            entries[i - propagate] = entries[i];
+        /**
+         * Gets the number of physical indices.
+         */
+        abstract protected int length();
+
+        /**
+         * Gets the physical index at the given position.
+         */
+        abstract protected long get(int i);
+
+        /**
+         * Sets the physical index at the given position.
+         */
+        abstract protected void set(int i, long value);
+
+        /**
+         * Creates zeroed physical indices of the same width.
+         */
+        abstract protected Indices create(int len);
+
+        /**
+         * Copies a prefix of these physical indices.
+         */
+        abstract protected Indices copyOf(int len);
+    }
 
-            if (current != entries[i].getValue()) {
+    /**
+     * 32-bit physical indices, for arrays whose volume does not exceed {@link Integer#MAX_VALUE}.
+     */
+    final protected static class IntIndices extends Indices {
+
+        /**
+         * The backing array.
+         */
+        final protected int[] values;
+
+        /**
+         * Default constructor.
+         */
+        protected IntIndices(int[] values) {
+            this.values = values;
+        }
 
-                current = entries[i].getValue();
+        @Override
+        protected int length() {
+            return this.values.length;
+        }
 
-            } else {
+        @Override
+        protected long get(int i) {
+            return this.values[i];
+        }
 
-                propagate++;
-            }
+        @Override
+        protected void set(int i, long value) {
+            this.values[i] = (int) value;
+        }
+
+        @Override
+        protected Indices create(int len) {
+            return new IntIndices(new int[len]);
+        }
+
+        @Override
+        protected Indices copyOf(int len) {
+            return new IntIndices(Arrays.copyOf(this.values, len));
+        }
+    }
+
+    /**
+     * 64-bit physical indices.
+     */
+    final protected static class LongIndices extends Indices {
+
+        /**
+         * The backing array.
+         */
+        final protected long[] values;
+
+        /**
+         * Default constructor.
+         */
+        protected LongIndices(long[] values) {
+            this.values = values;
         }
 
-        int resLen = nElts - propagate;
+        @Override
+        protected int length() {
+            return this.values.length;
+        }
 
-        int[] resIndices = new int[resLen];
-        int[] resIndirections = new int[resLen];
+        @Override
+        protected long get(int i) {
+            return this.values[i];
+        }
 
-        for (int i = 0; i < resLen; i++) {
+        @Override
+        protected void set(int i, long value) {
+            this.values[i] = value;
+        }
 
-            resIndices[i] = entries[i].getValue();
-            resIndirections[i] = entries[i].getOrder();
+        @Override
+        protected Indices create(int len) {
+            return new LongIndices(new long[len]);
         }
 
-        return new int[][] { resIndices, resIndirections };
+        @Override
+        protected Indices copyOf(int len) {
+            return new LongIndices(Arrays.copyOf(this.values, len));
+        }
     }
 
     // Dummy constructor.
@@ -34,6 +34,7 @@ import static org.shared.array.ArrayBase.opKernel;
 import java.util.Formatter;
 
 import org.shared.array.ArrayBase;
+import org.shared.array.kernel.SparseOps;
 import org.shared.array.IntegerArray;
 import org.shared.util.Arithmetic;
 import org.shared.util.Arrays;
@@ -72,7 +73,7 @@ public class IntegerSparseArray extends ProtoSparseArray<IntegerSparseArray, int
      * Alternate constructor.
      */
     public IntegerSparseArray(IntegerSparseArray array) {
-        this(array.state, array.dims, array.strides, array.dimOffsets);
+        this(array.getState(), array.dims, array.strides, array.dimOffsets);
     }
 
     /**
@@ -98,6 +99,9 @@ public class IntegerSparseArray extends ProtoSparseArray<IntegerSparseArray, int
 
         } else {
 
+            Control.checkTrue(SparseOps.volume(dims) <= Integer.MAX_VALUE, //
+                    "Array is too large to fill densely");
+
             int[] values = Arrays.newArray(Arithmetic.product(dims), value.intValue());
 
             state = opKernel.insertSparse( //
@@ -128,9 +132,11 @@ public class IntegerSparseArray extends ProtoSparseArray<IntegerSparseArray, int
 
         IntegerSparseArray src = this;
 
+        src.checkIntegerStrides();
+
         IntegerArray dst = new IntegerArray(src.order(), src.dims);
 
-        SparseArrayState<int[]> srcState = src.state;
+        SparseArrayState<int[]> srcState = src.getState();
 
         int[] srcValues = srcState.values;
         int[] srcIndices = srcState.indices;
@@ -147,12 +153,10 @@ public class IntegerSparseArray extends ProtoSparseArray<IntegerSparseArray, int
     @Override
     public String toString() {
 
-        SparseArrayState<int[]> state = this.state;
+        SparseArrayState<int[]> state = getState();
 
         int[] values = state.values;
-        int[] indices = state.indices;
         int[] dims = this.dims;
-        int[] strides = this.strides;
 
         int max = Math.max(Arithmetic.max(values), Math.abs(Arithmetic.min(values)));
         int exponent = max > 0 ? (int) Math.log10(max) : 0;
@@ -172,7 +176,7 @@ public class IntegerSparseArray extends ProtoSparseArray<IntegerSparseArray, int
         String valueFormat = String.format("%%%dd", exponent + 3);
         String indexFormat = String.format("%%%dd", exponentIndex + 2);
 
-        ArrayBase.formatSparseArray(f, valueFormat, indexFormat, values, indices, strides);
+        formatSparseArray(f, valueFormat, indexFormat, values);
 
         return f.toString();
     }
@@ -35,6 +35,7 @@ import java.lang.reflect.Array;
 import java.util.Formatter;
 
 import org.shared.array.ArrayBase;
+import org.shared.array.kernel.SparseOps;
 import org.shared.array.ObjectArray;
 import org.shared.util.Arithmetic;
 import org.shared.util.Arrays;
@@ -70,7 +71,7 @@ public class ObjectSparseArray<T> extends ProtoSparseArray<ObjectSparseArray<T>,
      * Alternate constructor.
      */
     public ObjectSparseArray(ObjectSparseArray<T> array) {
-        this(array.state, array.dims, array.strides, array.dimOffsets);
+        this(array.getState(), array.dims, array.strides, array.dimOffsets);
     }
 
     /**
@@ -97,6 +98,9 @@ public class ObjectSparseArray<T> extends ProtoSparseArray<ObjectSparseArray<T>,
 
         } else {
 
+            Control.checkTrue(SparseOps.volume(dims) <= Integer.MAX_VALUE, //
+                    "Array is too large to fill densely");
+
             T[] values = Arrays.newArray(getComponentType(), Arithmetic.product(dims), value);
 
             state = opKernel.insertSparse( //
@@ -128,9 +132,11 @@ public class ObjectSparseArray<T> extends ProtoSparseArray<ObjectSparseArray<T>,
 
         ObjectSparseArray<T> src = this;
 
+        src.checkIntegerStrides();
+
         ObjectArray<T> dst = new ObjectArray<T>(getComponentType(), src.order(), src.dims);
 
-        SparseArrayState<T[]> srcState = src.state;
+        SparseArrayState<T[]> srcState = src.getState();
 
         T[] srcValues = srcState.values;
         int[] srcIndices = srcState.indices;
@@ -147,12 +153,10 @@ public class ObjectSparseArray<T> extends ProtoSparseArray<ObjectSparseArray<T>,
     @Override
     public String toString() {
 
-        SparseArrayState<T[]> state = this.state;
+        SparseArrayState<T[]> state = getState();
 
         T[] values = state.values;
-        int[] indices = state.indices;
         int[] dims = this.dims;
-        int[] strides = this.strides;
 
         int maxIndex = Arithmetic.max(dims);
         int exponentIndex = maxIndex > 0 ? (int) Math.log10(maxIndex) : 0;
@@ -169,7 +173,7 @@ public class ObjectSparseArray<T> extends ProtoSparseArray<ObjectSparseArray<T>,
         String valueFormat = String.format(" \"%%s\"");
         String indexFormat = String.format("%%%dd", exponentIndex + 2);
 
-        ArrayBase.formatSparseArray(f, valueFormat, indexFormat, values, indices, strides);
+        formatSparseArray(f, valueFormat, indexFormat, values);
 
         return f.toString();
     }
@@ -32,10 +32,11 @@ import static org.shared.array.ArrayBase.DEFAULT_ORDER;
 import static org.shared.array.ArrayBase.opKernel;
 
 import java.util.Arrays;
+import java.util.Formatter;
 
 import org.shared.array.Array;
 import org.shared.array.ArrayBase;
-import org.shared.util.Arithmetic;
+import org.shared.array.kernel.SparseOps;
 import org.shared.util.Control;
 
 /**
@@ -60,6 +61,16 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
      */
     final protected static int[] emptyIndices = new int[] {};
 
+    /**
+     * An empty array of 64-bit indices.
+     */
+    final protected static long[] emptyLongIndices = new long[] {};
+
+    /**
+     * The minimum number of pending insertions before they are merged into an array.
+     */
+    final protected static int MIN_RUN_SIZE = 1 << 12;
+
     /**
      * The {@link SparseArrayState}.
      */
@@ -80,6 +91,27 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
      */
     final protected int[] dimOffsets;
 
+    /**
+     * The 64-bit strides, or {@code null} if the volume does not exceed {@link Integer#MAX_VALUE}. Arrays with such
+     * strides store 64-bit physical indices, and they are operated on by {@link SparseOps} directly.
+     */
+    final protected long[] longStrides;
+
+    /**
+     * The values of pending insertions, or {@code null} if there are none.
+     */
+    protected V pendingValues;
+
+    /**
+     * The physical indices of pending insertions.
+     */
+    protected long[] pendingIndices;
+
+    /**
+     * The number of pending insertions.
+     */
+    protected int nPending;
+
     /**
      * Default constructor.
      */
@@ -89,6 +121,32 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         this.dims = dims;
         this.strides = strides;
         this.dimOffsets = dimOffsets;
+        this.longStrides = (SparseOps.volume(dims) > Integer.MAX_VALUE) ? createLongStrides(dims) : null;
+
+        this.pendingValues = null;
+        this.pendingIndices = emptyLongIndices;
+        this.nPending = 0;
+    }
+
+    /**
+     * Creates row major, 64-bit strides from the given dimensions.
+     * 
+     * @param dims
+     *            the dimensions.
+     * @return the strides.
+     */
+    final protected static long[] createLongStrides(int[] dims) {
+
+        int nDims = dims.length;
+        long[] strides = new long[nDims];
+
+        strides[nDims - 1] = 1;
+
+        for (int dim = nDims - 2; dim >= 0; dim--) {
+            strides[dim] = strides[dim + 1] * dims[dim + 1];
+        }
+
+        return strides;
     }
 
     /**
@@ -184,6 +242,30 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         Control.checkTrue(nDims * newLen == logicals.length, //
                 "Invalid arguments");
 
+        SparseArrayState<V> srcState = src.getState();
+
+        if (src.longStrides != null) {
+
+            long[] newI = new long[newLen];
+
+            for (int i = 0; i < newLen; i++) {
+
+                long physical = 0;
+
+                for (int dim = 0; dim < nDims; dim++) {
+                    physical += src.longStrides[dim] * logicals[nDims * i + dim];
+                }
+
+                newI[i] = physical;
+            }
+
+            src.state = SparseOps.insert( //
+                    srcState.values, src.dims, src.longStrides, src.dimOffsets, srcState.longIndices, //
+                    values, newI);
+
+            return (T) src;
+        }
+
         int[] newI = new int[newLen];
 
         for (int i = 0; i < newLen; i++) {
@@ -197,8 +279,6 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
             newI[i] = physical;
         }
 
-        SparseArrayState<V> srcState = src.state;
-
         src.state = opKernel.insertSparse( //
                 srcState.values, src.dims, src.strides, src.dimOffsets, srcState.indices, //
                 values, newI);
@@ -206,11 +286,150 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         return (T) src;
     }
 
+    /**
+     * Appends values at the given logical indices, which are given in row major order. Unlike
+     * {@link #insert(Object, int...)}, which merges its arguments into this array immediately, appended values go into
+     * a write buffer that is merged lazily, before this array is next observed, or eagerly, once the buffer has grown
+     * as large as this array. Since each merge at least doubles the amount of merged data, ingesting {@code n}
+     * nonzeros in small batches takes {@code O(n log n)} time overall. Should a logical index be given more than once,
+     * the last value wins.
+     * 
+     * @param values
+     *            the values.
+     * @param logicals
+     *            the logical indices.
+     * @return this array.
+     */
+    @SuppressWarnings("unchecked")
+    public T append(V values, int... logicals) {
+
+        ProtoSparseArray<T, V, E, D> src = this;
+
+        int nDims = src.dims.length;
+        int newLen = length(values);
+
+        Control.checkTrue(nDims * newLen == logicals.length, //
+                "Invalid arguments");
+
+        int nPending = src.nPending;
+
+        Control.checkTrue(newLen <= Integer.MAX_VALUE - nPending, //
+                "Too many pending insertions");
+
+        if (src.pendingValues == null || nPending + newLen > src.pendingIndices.length) {
+
+            int capacity = (int) Math.min(Math.max(2L * (nPending + newLen), 16), Integer.MAX_VALUE);
+
+            V newPendingValues = (V) java.lang.reflect.Array.newInstance( //
+                    values.getClass().getComponentType(), capacity);
+
+            if (src.pendingValues != null) {
+                System.arraycopy(src.pendingValues, 0, newPendingValues, 0, nPending);
+            }
+
+            src.pendingValues = newPendingValues;
+            src.pendingIndices = Arrays.copyOf(src.pendingIndices, capacity);
+        }
+
+        long[] strides = src.getLongStrides();
+
+        for (int i = 0; i < newLen; i++) {
+
+            long physical = 0;
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                int logical = logicals[nDims * i + dim];
+
+                Control.checkTrue(logical >= 0 && logical < src.dims[dim], //
+                        "Invalid index");
+
+                physical += strides[dim] * logical;
+            }
+
+            src.pendingIndices[nPending + i] = physical;
+        }
+
+        System.arraycopy(values, 0, src.pendingValues, nPending, newLen);
+
+        src.nPending = nPending + newLen;
+
+        if (src.nPending >= Math.max(MIN_RUN_SIZE, length(src.state.values))) {
+            flush();
+        }
+
+        return (T) src;
+    }
+
+    /**
+     * Merges values pending from {@link #append(Object, int...)} into this array.
+     * 
+     * @return this array.
+     */
+    @SuppressWarnings("unchecked")
+    public T flush() {
+
+        ProtoSparseArray<T, V, E, D> src = this;
+
+        if (src.nPending == 0) {
+            return (T) src;
+        }
+
+        int[] positions = SparseOps.lastOccurrences(src.pendingIndices, src.nPending);
+
+        V newV = SparseOps.gather(src.pendingValues, positions);
+
+        int nPositions = positions.length;
+
+        long[] newLongI = new long[nPositions];
+
+        for (int i = 0; i < nPositions; i++) {
+            newLongI[i] = src.pendingIndices[positions[i]];
+        }
+
+        src.pendingValues = null;
+        src.pendingIndices = emptyLongIndices;
+        src.nPending = 0;
+
+        SparseArrayState<V> srcState = src.state;
+
+        if (src.longStrides != null) {
+
+            src.state = SparseOps.insert( //
+                    srcState.values, src.dims, src.longStrides, src.dimOffsets, srcState.longIndices, //
+                    newV, newLongI);
+
+        } else {
+
+            int[] newI = new int[nPositions];
+
+            for (int i = 0; i < nPositions; i++) {
+                newI[i] = (int) newLongI[i];
+            }
+
+            src.state = opKernel.insertSparse( //
+                    srcState.values, src.dims, src.strides, src.dimOffsets, srcState.indices, //
+                    newV, newI);
+        }
+
+        return (T) src;
+    }
+
+    /**
+     * Gets the {@link SparseArrayState}, merging in any pending insertions first.
+     */
+    protected SparseArrayState<V> getState() {
+
+        flush();
+
+        return this.state;
+    }
+
     /**
      * Gets the number of nonzero elements.
      */
     public int size() {
-        return length(this.state.values);
+        return length(getState().values);
     }
 
     @Override
@@ -238,7 +457,7 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
             nSlices += size;
         }
 
-        if (Arithmetic.product(src.dims) == 0 || Arithmetic.product(dst.dims) == 0) {
+        if (SparseOps.volume(src.dims) == 0 || SparseOps.volume(dst.dims) == 0) {
             return dst;
         }
 
@@ -278,14 +497,7 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         Control.checkTrue(src != dst, //
                 "Source and destination cannot be the same");
 
-        SparseArrayState<V> srcState = src.state;
-        SparseArrayState<V> dstState = dst.state;
-
-        dst.state = opKernel.sliceSparse(slices, //
-                srcState.values, src.dims, src.strides, src.dimOffsets, //
-                srcState.indices, srcState.indirectionOffsets, srcState.indirections, //
-                dstState.values, dst.dims, dst.strides, dst.dimOffsets, //
-                dstState.indices, dstState.indirectionOffsets, dstState.indirections);
+        dst.state = sliceState(slices, src, dst);
 
         return dst;
     }
@@ -298,14 +510,7 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         Control.checkTrue(src != dst, //
                 "Source and destination cannot be the same");
 
-        SparseArrayState<V> srcState = src.state;
-        SparseArrayState<V> dstState = dst.state;
-
-        dst.state = opKernel.sliceSparse(ArrayBase.canonicalizeSlices(srcSlices, src.dims, dstSlices, dst.dims), //
-                srcState.values, src.dims, src.strides, src.dimOffsets, //
-                srcState.indices, srcState.indirectionOffsets, srcState.indirections, //
-                dstState.values, dst.dims, dst.strides, dst.dimOffsets, //
-                dstState.indices, dstState.indirectionOffsets, dstState.indirections);
+        dst.state = sliceState(ArrayBase.canonicalizeSlices(srcSlices, src.dims, dstSlices, dst.dims), src, dst);
 
         return dst;
     }
@@ -318,14 +523,7 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         Control.checkTrue(src != dst, //
                 "Source and destination cannot be the same");
 
-        SparseArrayState<V> srcState = src.state;
-        SparseArrayState<V> dstState = dst.state;
-
-        dst.state = opKernel.sliceSparse(ArrayBase.canonicalizeSlices(src.dims, dst.dims, dstSlices), //
-                srcState.values, src.dims, src.strides, src.dimOffsets, //
-                srcState.indices, srcState.indirectionOffsets, srcState.indirections, //
-                dstState.values, dst.dims, dst.strides, dst.dimOffsets, //
-                dstState.indices, dstState.indirectionOffsets, dstState.indirections);
+        dst.state = sliceState(ArrayBase.canonicalizeSlices(src.dims, dst.dims, dstSlices), src, dst);
 
         return dst;
     }
@@ -364,14 +562,7 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
 
         T dst = wrap((E) null, dstDims, src.order().strides(dstDims), createDimensionOffsets(dstDims));
 
-        SparseArrayState<V> srcState = src.state;
-        SparseArrayState<V> dstState = dst.state;
-
-        dst.state = opKernel.sliceSparse(ArrayBase.canonicalizeSlices(nSlices, src.dims, srcSlices), //
-                srcState.values, src.dims, src.strides, src.dimOffsets, //
-                srcState.indices, srcState.indirectionOffsets, srcState.indirections, //
-                dstState.values, dst.dims, dst.strides, dst.dimOffsets, //
-                dstState.indices, dstState.indirectionOffsets, dstState.indirections);
+        dst.state = sliceState(ArrayBase.canonicalizeSlices(nSlices, src.dims, srcSlices), src, dst);
 
         return dst;
     }
@@ -422,11 +613,37 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
                     "Invalid permutation");
         }
 
-        SparseArrayState<V> srcState = src.state;
+        SparseArrayState<V> srcState = src.getState();
 
-        int nIndices = srcState.indices.length;
         int[] newStrides = src.order().strides(newDims);
         int[] newDimOffsets = createDimensionOffsets(newDims);
+
+        if (src.longStrides != null) {
+
+            int nIndices = srcState.longIndices.length;
+            long[] newLongStrides = createLongStrides(newDims);
+            long[] newIndices = new long[nIndices];
+
+            for (int i = 0; i < nIndices; i++) {
+
+                long newPhysical = 0;
+                long physical = srcState.longIndices[i];
+
+                for (int dim = 0; dim < nDims; dim++) {
+
+                    newPhysical += newLongStrides[permutation[dim]] * (physical / src.longStrides[dim]);
+                    physical %= src.longStrides[dim];
+                }
+
+                newIndices[i] = newPhysical;
+            }
+
+            return wrap(SparseOps.insert( //
+                    empty(), newDims, newLongStrides, newDimOffsets, emptyLongIndices, //
+                    srcState.values, newIndices), newDims, newStrides, newDimOffsets);
+        }
+
+        int nIndices = srcState.indices.length;
         int[] newIndices = new int[nIndices];
 
         for (int i = 0; i < nIndices; i++) {
@@ -501,14 +718,7 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
 
         T dst = wrap((E) null, src.dims, src.strides, src.dimOffsets);
 
-        SparseArrayState<V> srcState = src.state;
-        SparseArrayState<V> dstState = dst.state;
-
-        dst.state = opKernel.sliceSparse(ArrayBase.createReverseSlices(src.dims, opDims), //
-                srcState.values, src.dims, src.strides, src.dimOffsets, //
-                srcState.indices, srcState.indirectionOffsets, srcState.indirections, //
-                dstState.values, dst.dims, dst.strides, dst.dimOffsets, //
-                dstState.indices, dstState.indirectionOffsets, dstState.indirections);
+        dst.state = sliceState(ArrayBase.createReverseSlices(src.dims, opDims), src, dst);
 
         return dst;
     }
@@ -518,13 +728,19 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
 
         ProtoSparseArray<T, V, E, D> src = this;
 
-        Control.checkTrue(Arithmetic.product(dims) == Arithmetic.product(src.dims), //
+        Control.checkTrue(SparseOps.volume(dims) == SparseOps.volume(src.dims), //
                 "Cardinality mismatch");
 
         int[] strides = src.order().strides(dims);
         int[] dimOffsets = createDimensionOffsets(dims);
 
-        SparseArrayState<V> srcState = src.state;
+        SparseArrayState<V> srcState = src.getState();
+
+        if (src.longStrides != null) {
+            return wrap(SparseOps.insert( //
+                    empty(), dims, createLongStrides(dims), dimOffsets, emptyLongIndices, //
+                    srcState.values, srcState.longIndices.clone()), dims, strides, dimOffsets);
+        }
 
         T dst = wrap(opKernel.insertSparse( //
                 empty(), dims, strides, dimOffsets, emptyIndices, //
@@ -595,10 +811,126 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
         return dst;
     }
 
+    /**
+     * Slices one array into another, choosing between the 32-bit kernel and the 64-bit {@link SparseOps} operation.
+     * 
+     * @param slices
+     *            the canonicalized slices.
+     * @param src
+     *            the source array.
+     * @param dst
+     *            the destination array.
+     * @param <V>
+     *            the storage array type.
+     * @return the destination {@link SparseArrayState}.
+     */
+    final protected static <V> SparseArrayState<V> sliceState(int[] slices, //
+            ProtoSparseArray<?, V, ?, ?> src, ProtoSparseArray<?, V, ?, ?> dst) {
+
+        SparseArrayState<V> srcState = src.getState();
+        SparseArrayState<V> dstState = dst.getState();
+
+        if (src.longStrides == null && dst.longStrides == null) {
+            return opKernel.sliceSparse(slices, //
+                    srcState.values, src.dims, src.strides, src.dimOffsets, //
+                    srcState.indices, srcState.indirectionOffsets, srcState.indirections, //
+                    dstState.values, dst.dims, dst.strides, dst.dimOffsets, //
+                    dstState.indices, dstState.indirectionOffsets, dstState.indirections);
+        }
+
+        SparseArrayState<V> res = SparseOps.slice(slices, //
+                srcState.values, src.dims, src.getLongStrides(), src.dimOffsets, //
+                getLongIndices(srcState), srcState.indirectionOffsets, srcState.indirections, //
+                dstState.values, dst.dims, dst.getLongStrides(), dst.dimOffsets, //
+                getLongIndices(dstState), dstState.indirectionOffsets, dstState.indirections);
+
+        if (dst.longStrides != null) {
+            return res;
+        }
+
+        // A small destination gets its compact representation back.
+        return new SparseArrayState<V>(res.values, SparseOps.narrow(res.longIndices), //
+                res.indirectionOffsets, res.indirections);
+    }
+
+    /**
+     * Gets the 64-bit strides, widening the 32-bit ones if necessary.
+     */
+    protected long[] getLongStrides() {
+
+        return (this.longStrides != null) ? this.longStrides : SparseOps.widen(this.strides);
+    }
+
+    /**
+     * Gets the 64-bit physical indices of the given state, widening the 32-bit ones if necessary.
+     */
+    final protected static long[] getLongIndices(SparseArrayState<?> state) {
+
+        return (state.longIndices != null) ? state.longIndices : SparseOps.widen(state.indices);
+    }
+
+    /**
+     * Creates an array from values and their 64-bit physical indices, narrowing the indices to 32 bits if the
+     * dimensions permit.
+     * 
+     * @param values
+     *            the values.
+     * @param indices
+     *            the physical indices. Invariant: Sorted in ascending order, and does not contain duplicates.
+     * @param dims
+     *            the dimensions.
+     * @return the array.
+     */
+    protected T create(V values, long[] indices, int[] dims) {
+
+        int[] strides = order().strides(dims);
+        int[] dimOffsets = createDimensionOffsets(dims);
+
+        if (SparseOps.volume(dims) > Integer.MAX_VALUE) {
+            return wrap(SparseOps.create(values, indices, dims, createLongStrides(dims), dimOffsets), //
+                    dims, strides, dimOffsets);
+        }
+
+        return wrap(SparseOps.create(values, SparseOps.narrow(indices), dims, strides, dimOffsets), //
+                dims, strides, dimOffsets);
+    }
+
+    /**
+     * Formats the nonzero elements of this array along with their logical indices.
+     * 
+     * @param f
+     *            the {@link Formatter}.
+     * @param valueFormat
+     *            the value format string.
+     * @param indexFormat
+     *            the index format string.
+     * @param values
+     *            the (possibly rescaled) values.
+     */
+    protected void formatSparseArray(Formatter f, String valueFormat, String indexFormat, Object values) {
+
+        if (this.longStrides == null) {
+            ArrayBase.formatSparseArray(f, valueFormat, indexFormat, values, getState().indices, this.strides);
+        } else {
+            ArrayBase.formatSparseArray(f, valueFormat, indexFormat, //
+                    values, getState().longIndices, this.longStrides);
+        }
+    }
+
+    /**
+     * Checks that this array's volume permits 32-bit strides and physical indices.
+     */
+    protected void checkIntegerStrides() {
+        Control.checkTrue(this.longStrides == null, //
+                "Array is too large for 32-bit strides");
+    }
+
     @SuppressWarnings("unchecked")
     @Override
     public T clone() {
 
+        flush();
+
         try {
 
             return (T) super.clone();
@@ -621,6 +953,9 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
 
     @Override
     public int stride(int i) {
+
+        checkIntegerStrides();
+
         return this.strides[i];
     }
 
@@ -636,6 +971,9 @@ abstract public class ProtoSparseArray<T extends ProtoSparseArray<T, V, E, D>, V
 
     @Override
     public int[] strides() {
+
+        checkIntegerStrides();
+
         return this.strides.clone();
     }
 
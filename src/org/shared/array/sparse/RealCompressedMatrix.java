@@ -0,0 +1,451 @@
+/**
+ * <p>
+ * Copyright (c) 2009 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+package org.shared.array.sparse;
+
+import static org.shared.array.ArrayBase.DEFAULT_ORDER;
+
+import java.util.Arrays;
+
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.RealArray;
+import org.shared.array.kernel.CompressedOps;
+import org.shared.util.Control;
+
+/**
+ * An immutable, compressed sparse real matrix class. In {@link IndexingOrder#FAR} order, the matrix is stored in
+ * compressed sparse row (CSR) format; in {@link IndexingOrder#NEAR} order, it is stored in compressed sparse column
+ * (CSC) format. Unlike {@link RealSparseArray}, which is optimized for insertion and slicing, this representation
+ * supports arithmetic in time proportional to the number of nonzeros.
+ * 
+ * @apiviz.uses org.shared.array.kernel.CompressedOps
+ * @author Roy Liu
+ */
+public class RealCompressedMatrix {
+
+    /**
+     * The storage order.
+     */
+    final protected IndexingOrder order;
+
+    /**
+     * The number of rows.
+     */
+    final protected int nRows;
+
+    /**
+     * The number of columns.
+     */
+    final protected int nCols;
+
+    /**
+     * The offsets of major lines into {@link #minors} and {@link #values}.
+     */
+    final protected int[] offsets;
+
+    /**
+     * The minor indices.
+     */
+    final protected int[] minors;
+
+    /**
+     * The values.
+     */
+    final protected double[] values;
+
+    /**
+     * Default constructor.
+     * 
+     * @param order
+     *            the storage order.
+     * @param nRows
+     *            the number of rows.
+     * @param nCols
+     *            the number of columns.
+     * @param offsets
+     *            the offsets of major lines, with one more entry than there are lines.
+     * @param minors
+     *            the minor indices, strictly increasing within each line.
+     * @param values
+     *            the values.
+     */
+    public RealCompressedMatrix(IndexingOrder order, int nRows, int nCols, //
+            int[] offsets, int[] minors, double[] values) {
+
+        Control.checkTrue(order == IndexingOrder.FAR || order == IndexingOrder.NEAR, //
+                "Invalid indexing order");
+
+        Control.checkTrue(nRows >= 0 && nCols >= 0, //
+                "Invalid dimensions");
+
+        int nMajor = (order == IndexingOrder.FAR) ? nRows : nCols;
+        int nMinor = (order == IndexingOrder.FAR) ? nCols : nRows;
+
+        Control.checkTrue(offsets.length == nMajor + 1 //
+                && minors.length == values.length //
+                && offsets[0] == 0 //
+                && offsets[nMajor] == values.length, //
+                "Invalid arguments");
+
+        for (int i = 0; i < nMajor; i++) {
+
+            int start = offsets[i];
+            int end = offsets[i + 1];
+
+            Control.checkTrue(start <= end, //
+                    "Invalid offsets");
+
+            for (int j = start; j < end; j++) {
+                Control.checkTrue(minors[j] >= 0 && minors[j] < nMinor //
+                        && (j == start || minors[j - 1] < minors[j]), //
+                        "Invalid index");
+            }
+        }
+
+        this.order = order;
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.offsets = offsets;
+        this.minors = minors;
+        this.values = values;
+    }
+
+    /**
+     * Creates a compressed matrix from storage that is already known to be well formed, such as the output of
+     * {@link CompressedOps}, without validating it.
+     */
+    private static RealCompressedMatrix createUnchecked(IndexingOrder order, int nRows, int nCols, //
+            int[] offsets, int[] minors, double[] values) {
+        return new RealCompressedMatrix(offsets, minors, values, order, nRows, nCols);
+    }
+
+    /**
+     * Internal constructor that skips validation. Storage comes first in the argument list only to distinguish it from
+     * the public constructor; use {@link #createUnchecked(IndexingOrder, int, int, int[], int[], double[])}.
+     */
+    private RealCompressedMatrix(int[] offsets, int[] minors, double[] values, //
+            IndexingOrder order, int nRows, int nCols) {
+
+        this.order = order;
+        this.nRows = nRows;
+        this.nCols = nCols;
+        this.offsets = offsets;
+        this.minors = minors;
+        this.values = values;
+    }
+
+    /**
+     * Creates a compressed matrix from the nonzeros of a two-dimensional sparse array.
+     * 
+     * @param array
+     *            the sparse array.
+     * @param order
+     *            the storage order.
+     */
+    public RealCompressedMatrix(RealSparseArray array, IndexingOrder order) {
+
+        Control.checkTrue(order == IndexingOrder.FAR || order == IndexingOrder.NEAR, //
+                "Invalid indexing order");
+
+        int[] dims = array.dims;
+
+        Control.checkTrue(dims.length == 2, //
+                "Array must have exactly two dimensions");
+
+        SparseArrayState<double[]> state = array.getState();
+
+        double[] srcValues = state.values;
+
+        int nnz = srcValues.length;
+
+        int[] rows = new int[nnz];
+        int[] cols = new int[nnz];
+
+        if (array.longStrides == null) {
+
+            int[] srcIndices = state.indices;
+            int[] strides = array.strides;
+
+            for (int i = 0; i < nnz; i++) {
+
+                rows[i] = (srcIndices[i] / strides[0]) % dims[0];
+                cols[i] = (srcIndices[i] / strides[1]) % dims[1];
+            }
+
+        } else {
+
+            long[] srcIndices = state.longIndices;
+            long[] strides = array.longStrides;
+
+            for (int i = 0; i < nnz; i++) {
+
+                rows[i] = (int) ((srcIndices[i] / strides[0]) % dims[0]);
+                cols[i] = (int) ((srcIndices[i] / strides[1]) % dims[1]);
+            }
+        }
+
+        this.order = order;
+        this.nRows = dims[0];
+        this.nCols = dims[1];
+        this.minors = new int[nnz];
+        this.values = new double[nnz];
+
+        if (order == IndexingOrder.FAR) {
+
+            this.offsets = new int[this.nRows + 1];
+
+            CompressedOps.compress(rows, cols, srcValues, this.nRows, this.nCols, //
+                    this.offsets, this.minors, this.values);
+
+        } else {
+
+            this.offsets = new int[this.nCols + 1];
+
+            CompressedOps.compress(cols, rows, srcValues, this.nCols, this.nRows, //
+                    this.offsets, this.minors, this.values);
+        }
+    }
+
+    /**
+     * Gets the storage order.
+     */
+    public IndexingOrder order() {
+        return this.order;
+    }
+
+    /**
+     * Gets the number of rows.
+     */
+    public int rows() {
+        return this.nRows;
+    }
+
+    /**
+     * Gets the number of columns.
+     */
+    public int cols() {
+        return this.nCols;
+    }
+
+    /**
+     * Gets the number of stored nonzeros.
+     */
+    public int nnz() {
+        return this.values.length;
+    }
+
+    /**
+     * Gets the offsets of major lines. Do not modify.
+     */
+    public int[] offsets() {
+        return this.offsets;
+    }
+
+    /**
+     * Gets the minor indices. Do not modify.
+     */
+    public int[] minors() {
+        return this.minors;
+    }
+
+    /**
+     * Gets the values. Do not modify.
+     */
+    public double[] values() {
+        return this.values;
+    }
+
+    /**
+     * Gets the value at the given row and column.
+     * 
+     * @param row
+     *            the row.
+     * @param col
+     *            the column.
+     * @return the value.
+     */
+    public double get(int row, int col) {
+
+        Control.checkTrue(row >= 0 && row < this.nRows && col >= 0 && col < this.nCols, //
+                "Invalid index");
+
+        int major = (this.order == IndexingOrder.FAR) ? row : col;
+        int minor = (this.order == IndexingOrder.FAR) ? col : row;
+
+        int index = Arrays.binarySearch(this.minors, this.offsets[major], this.offsets[major + 1], minor);
+
+        return (index >= 0) ? this.values[index] : 0.0;
+    }
+
+    /**
+     * Converts this matrix into the given storage order.
+     * 
+     * @param order
+     *            the storage order.
+     * @return this matrix if already in the given order, or a converted copy otherwise.
+     */
+    public RealCompressedMatrix toOrder(IndexingOrder order) {
+
+        if (order == this.order) {
+            return this;
+        }
+
+        int nMajor = this.offsets.length - 1;
+        int nMinor = (this.order == IndexingOrder.FAR) ? this.nCols : this.nRows;
+        int nnz = this.values.length;
+
+        int[] dstOffsets = new int[nMinor + 1];
+        int[] dstMinors = new int[nnz];
+        double[] dstValues = new double[nnz];
+
+        CompressedOps.transpose(this.offsets, this.minors, this.values, nMajor, nMinor, //
+                dstOffsets, dstMinors, dstValues);
+
+        return createUnchecked(order, this.nRows, this.nCols, dstOffsets, dstMinors, dstValues);
+    }
+
+    /**
+     * Transposes this matrix. Since the compressed sparse row format of a matrix is the compressed sparse column format
+     * of its transpose, no data is copied.
+     * 
+     * @return the transpose, which shares storage with this matrix.
+     */
+    public RealCompressedMatrix transpose() {
+        return createUnchecked(this.order.reverse(), this.nCols, this.nRows, //
+                this.offsets, this.minors, this.values);
+    }
+
+    /**
+     * Multiplies this matrix by a dense matrix or vector.
+     * 
+     * @param rhs
+     *            the right hand side, which is either a vector or a row major matrix.
+     * @return the dense product, which has the same number of dimensions as the right hand side.
+     */
+    public RealArray mMul(RealArray rhs) {
+
+        int[] rhsDims = rhs.dims();
+
+        Control.checkTrue(rhs.order() == DEFAULT_ORDER, //
+                "Array must have row major indexing");
+
+        Control.checkTrue(rhsDims.length == 1 || rhsDims.length == 2, //
+                "Array must have one or two dimensions");
+
+        Control.checkEquals(this.nCols, rhsDims[0], //
+                "Dimensionality mismatch");
+
+        int nRhsCols = (rhsDims.length == 2) ? rhsDims[1] : 1;
+
+        RealArray res = (rhsDims.length == 2) ? new RealArray(this.nRows, nRhsCols) : new RealArray(this.nRows);
+
+        int nMajor = this.offsets.length - 1;
+        int nMinor = (this.order == IndexingOrder.FAR) ? this.nCols : this.nRows;
+
+        CompressedOps.mul(this.offsets, this.minors, this.values, nMajor, nMinor, //
+                rhs.values(), res.values(), nRhsCols, this.order == IndexingOrder.NEAR);
+
+        return res;
+    }
+
+    /**
+     * Multiplies this matrix by another compressed matrix.
+     * 
+     * @param rhs
+     *            the right hand side.
+     * @return the product, in compressed sparse row format.
+     */
+    public RealCompressedMatrix mMul(RealCompressedMatrix rhs) {
+
+        Control.checkEquals(this.nCols, rhs.nRows, //
+                "Dimensionality mismatch");
+
+        RealCompressedMatrix lhs = toOrder(IndexingOrder.FAR);
+
+        rhs = rhs.toOrder(IndexingOrder.FAR);
+
+        int[] dstOffsets = new int[lhs.nRows + 1];
+
+        int nnz = CompressedOps.mulOffsets(lhs.offsets, lhs.minors, rhs.offsets, rhs.minors, //
+                lhs.nRows, rhs.nCols, dstOffsets);
+
+        int[] dstMinors = new int[nnz];
+        double[] dstValues = new double[nnz];
+
+        CompressedOps.mul(lhs.offsets, lhs.minors, lhs.values, rhs.offsets, rhs.minors, rhs.values, //
+                lhs.nRows, rhs.nCols, dstOffsets, dstMinors, dstValues);
+
+        return createUnchecked(IndexingOrder.FAR, lhs.nRows, rhs.nCols, //
+                dstOffsets, dstMinors, dstValues);
+    }
+
+    /**
+     * Converts this matrix into a {@link RealSparseArray}.
+     */
+    public RealSparseArray toSparse() {
+
+        int nnz = this.values.length;
+        int[] logicals = new int[2 * nnz];
+
+        boolean rowMajor = (this.order == IndexingOrder.FAR);
+
+        for (int i = 0, n = this.offsets.length - 1; i < n; i++) {
+
+            for (int j = this.offsets[i], jEnd = this.offsets[i + 1]; j < jEnd; j++) {
+
+                logicals[2 * j] = rowMajor ? i : this.minors[j];
+                logicals[2 * j + 1] = rowMajor ? this.minors[j] : i;
+            }
+        }
+
+        return new RealSparseArray(this.nRows, this.nCols).insert(this.values.clone(), logicals);
+    }
+
+    /**
+     * Converts this matrix into a dense {@link RealArray}.
+     */
+    public RealArray toDense() {
+
+        RealArray res = new RealArray(this.nRows, this.nCols);
+        double[] resV = res.values();
+
+        boolean rowMajor = (this.order == IndexingOrder.FAR);
+
+        for (int i = 0, n = this.offsets.length - 1; i < n; i++) {
+
+            for (int j = this.offsets[i], jEnd = this.offsets[i + 1]; j < jEnd; j++) {
+
+                int row = rowMajor ? i : this.minors[j];
+                int col = rowMajor ? this.minors[j] : i;
+
+                resV[this.nCols * row + col] = this.values[j];
+            }
+        }
+
+        return res;
+    }
+}
@@ -33,12 +33,15 @@ import static org.shared.array.ArrayBase.fieldPrecision;
 import static org.shared.array.ArrayBase.fieldWidth;
 import static org.shared.array.ArrayBase.opKernel;
 
+import java.util.Arrays;
 import java.util.Formatter;
 
+import org.shared.array.Array.IndexingOrder;
 import org.shared.array.ArrayBase;
 import org.shared.array.RealArray;
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.SparseOps;
 import org.shared.util.Arithmetic;
-import org.shared.util.Arrays;
 import org.shared.util.Control;
 
 /**
@@ -74,7 +77,7 @@ public class RealSparseArray extends ProtoSparseArray<RealSparseArray, double[],
      * Alternate constructor.
      */
     public RealSparseArray(RealSparseArray array) {
-        this(array.state, array.dims, array.strides, array.dimOffsets);
+        this(array.getState(), array.dims, array.strides, array.dimOffsets);
     }
 
     /**
@@ -100,7 +103,10 @@ public class RealSparseArray extends ProtoSparseArray<RealSparseArray, double[],
 
         } else {
 
-            double[] values = Arrays.newArray(Arithmetic.product(dims), value.doubleValue());
+            Control.checkTrue(SparseOps.volume(dims) <= Integer.MAX_VALUE, //
+                    "Array is too large to fill densely");
+
+            double[] values = org.shared.util.Arrays.newArray(Arithmetic.product(dims), value.doubleValue());
 
             state = opKernel.insertSparse( //
                     empty, dims, strides, dimOffsets, emptyIndices, //
@@ -130,9 +136,11 @@ public class RealSparseArray extends ProtoSparseArray<RealSparseArray, double[],
 
         RealSparseArray src = this;
 
+        src.checkIntegerStrides();
+
         RealArray dst = new RealArray(src.order(), src.dims);
 
-        SparseArrayState<double[]> srcState = src.state;
+        SparseArrayState<double[]> srcState = src.getState();
 
         double[] srcValues = srcState.values;
         int[] srcIndices = srcState.indices;
@@ -146,15 +154,364 @@ public class RealSparseArray extends ProtoSparseArray<RealSparseArray, double[],
         return dst;
     }
 
+    /**
+     * Adds the given array to this array elementwise. The result is nonzero on the union of the operands' nonzero
+     * elements.
+     * 
+     * @param array
+     *            the array to add.
+     * @return the sum.
+     */
+    public RealSparseArray eAdd(RealSparseArray array) {
+        return applyElementwiseOperation(array, ArrayKernel.RE_ADD);
+    }
+
+    /**
+     * Subtracts the given array from this array elementwise. The result is nonzero on the union of the operands'
+     * nonzero elements.
+     * 
+     * @param array
+     *            the array to subtract.
+     * @return the difference.
+     */
+    public RealSparseArray eSub(RealSparseArray array) {
+        return applyElementwiseOperation(array, ArrayKernel.RE_SUB);
+    }
+
+    /**
+     * Multiplies this array by the given array elementwise. The result is nonzero only on the intersection of the
+     * operands' nonzero elements.
+     * 
+     * @param array
+     *            the array to multiply by.
+     * @return the product.
+     */
+    public RealSparseArray eMul(RealSparseArray array) {
+        return applyElementwiseOperation(array, ArrayKernel.RE_MUL);
+    }
+
+    /**
+     * Takes the elementwise maximum of this array and the given array.
+     * 
+     * @param array
+     *            the other array.
+     * @return the maximum.
+     */
+    public RealSparseArray eMax(RealSparseArray array) {
+        return applyElementwiseOperation(array, ArrayKernel.RE_MAX);
+    }
+
+    /**
+     * Takes the elementwise minimum of this array and the given array.
+     * 
+     * @param array
+     *            the other array.
+     * @return the minimum.
+     */
+    public RealSparseArray eMin(RealSparseArray array) {
+        return applyElementwiseOperation(array, ArrayKernel.RE_MIN);
+    }
+
+    /**
+     * Multiplies every element by the given value. The physical indices and indirection tables are shared with the
+     * old state.
+     * 
+     * @param a
+     *            the multiplier.
+     * @return this array.
+     */
+    public RealSparseArray uMul(double a) {
+
+        SparseArrayState<double[]> srcState = getState();
+
+        double[] srcValues = srcState.values;
+        int nValues = srcValues.length;
+
+        double[] dstValues = new double[nValues];
+
+        for (int i = 0; i < nValues; i++) {
+            dstValues[i] = srcValues[i] * a;
+        }
+
+        this.state = (srcState.longIndices != null) //
+        ? new SparseArrayState<double[]>(dstValues, srcState.longIndices, //
+                srcState.indirectionOffsets, srcState.indirections) //
+                : new SparseArrayState<double[]>(dstValues, srcState.indices, //
+                        srcState.indirectionOffsets, srcState.indirections);
+
+        return this;
+    }
+
+    /**
+     * Sums over all elements.
+     * 
+     * @return the sum.
+     */
+    public double aSum() {
+
+        double sum = 0.0;
+
+        for (double value : getState().values) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    /**
+     * Sums along the given dimensions, which are reduced to size {@code 1} in the result. Reductions that leave a
+     * single dimension read the indirection tables directly; others group the nonzero elements by their projected
+     * physical indices.
+     * 
+     * @param opDims
+     *            the dimensions to sum along.
+     * @return the sums.
+     */
+    public RealSparseArray rSum(int... opDims) {
+
+        RealSparseArray src = this;
+
+        int[] srcDims = src.dims;
+        int nDims = srcDims.length;
+
+        boolean[] reduced = new boolean[nDims];
+
+        for (int opDim : opDims) {
+
+            Control.checkTrue(opDim >= 0 && opDim < nDims, //
+                    "Invalid dimension");
+
+            reduced[opDim] = true;
+        }
+
+        int[] dstDims = srcDims.clone();
+        int keptDim = -1;
+        int nKept = 0;
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            if (reduced[dim]) {
+
+                dstDims[dim] = 1;
+
+            } else {
+
+                keptDim = dim;
+                nKept++;
+            }
+        }
+
+        SparseArrayState<double[]> srcState = src.getState();
+
+        double[] srcValues = srcState.values;
+        int nValues = srcValues.length;
+
+        long[] dstStrides = ProtoSparseArray.createLongStrides(dstDims);
+
+        if (nKept == 0) {
+            return (nValues > 0) ? create(new double[] { aSum() }, new long[] { 0L }, dstDims) //
+                    : create(empty, new long[] {}, dstDims);
+        }
+
+        if (nKept == 1) {
+
+            int dimSize = srcDims[keptDim];
+            int dimOffset = src.dimOffsets[keptDim];
+            int base = nValues * keptDim;
+
+            int[] indirectionOffsets = srcState.indirectionOffsets;
+            int[] indirections = srcState.indirections;
+
+            double[] dstValues = new double[Math.min(dimSize, nValues)];
+            long[] dstIndices = new long[dstValues.length];
+
+            int count = 0;
+
+            for (int i = 0; i < dimSize; i++) {
+
+                int start = indirectionOffsets[dimOffset + i];
+                int end = indirectionOffsets[dimOffset + i + 1];
+
+                if (start == end) {
+                    continue;
+                }
+
+                double sum = 0.0;
+
+                for (int j = start; j < end; j++) {
+                    sum += srcValues[indirections[base + j]];
+                }
+
+                dstValues[count] = sum;
+                dstIndices[count++] = i * dstStrides[keptDim];
+            }
+
+            return create(Arrays.copyOf(dstValues, count), //
+                    Arrays.copyOf(dstIndices, count), dstDims);
+        }
+
+        long[] srcIndices = ProtoSparseArray.getLongIndices(srcState);
+        long[] srcStrides = src.getLongStrides();
+
+        long[] projected = new long[nValues];
+
+        for (int i = 0; i < nValues; i++) {
+
+            long acc = srcIndices[i];
+            long physical = 0;
+
+            for (int dim = 0; dim < nDims; dim++) {
+
+                long logical = acc / srcStrides[dim];
+                acc %= srcStrides[dim];
+
+                if (!reduced[dim]) {
+                    physical += logical * dstStrides[dim];
+                }
+            }
+
+            projected[i] = physical;
+        }
+
+        int[] positions = SparseOps.sortPositions(projected, nValues);
+
+        double[] dstValues = new double[nValues];
+        long[] dstIndices = new long[nValues];
+
+        int count = 0;
+
+        for (int i = 0; i < nValues; i++) {
+
+            int position = positions[i];
+
+            if (i > 0 && projected[position] == dstIndices[count - 1]) {
+
+                dstValues[count - 1] += srcValues[position];
+
+            } else {
+
+                dstValues[count] = srcValues[position];
+                dstIndices[count++] = projected[position];
+            }
+        }
+
+        return create(Arrays.copyOf(dstValues, count), //
+                Arrays.copyOf(dstIndices, count), dstDims);
+    }
+
+    /**
+     * Applies an elementwise binary operation by merge-joining the sorted physical indices of both operands.
+     * 
+     * @param array
+     *            the right hand side.
+     * @param type
+     *            the operation type, as in {@link ArrayKernel}.
+     * @return the result.
+     */
+    protected RealSparseArray applyElementwiseOperation(RealSparseArray array, int type) {
+
+        RealSparseArray lhs = this;
+        RealSparseArray rhs = array;
+
+        Control.checkTrue(Arrays.equals(lhs.dims, rhs.dims), //
+                "Dimension mismatch");
+
+        SparseArrayState<double[]> lhsState = lhs.getState();
+        SparseArrayState<double[]> rhsState = rhs.getState();
+
+        boolean union = (type != ArrayKernel.RE_MUL);
+
+        int[][] join = (lhs.longStrides == null) //
+        ? SparseOps.join(lhsState.indices, rhsState.indices, union) //
+                : SparseOps.join(lhsState.longIndices, rhsState.longIndices, union);
+
+        int[] lhsPositions = join[0];
+        int[] rhsPositions = join[1];
+
+        double[] lhsValues = lhsState.values;
+        double[] rhsValues = rhsState.values;
+
+        int nValues = lhsPositions.length;
+
+        double[] dstValues = new double[nValues];
+
+        for (int i = 0; i < nValues; i++) {
+
+            double lhsValue = (lhsPositions[i] >= 0) ? lhsValues[lhsPositions[i]] : 0.0;
+            double rhsValue = (rhsPositions[i] >= 0) ? rhsValues[rhsPositions[i]] : 0.0;
+
+            switch (type) {
+
+            case ArrayKernel.RE_ADD:
+                dstValues[i] = lhsValue + rhsValue;
+                break;
+
+            case ArrayKernel.RE_SUB:
+                dstValues[i] = lhsValue - rhsValue;
+                break;
+
+            case ArrayKernel.RE_MUL:
+                dstValues[i] = lhsValue * rhsValue;
+                break;
+
+            case ArrayKernel.RE_MAX:
+                dstValues[i] = Math.max(lhsValue, rhsValue);
+                break;
+
+            case ArrayKernel.RE_MIN:
+                dstValues[i] = Math.min(lhsValue, rhsValue);
+                break;
+
+            default:
+                throw new IllegalArgumentException("Unknown operation type");
+            }
+        }
+
+        int[] dims = lhs.dims;
+
+        if (lhs.longStrides == null) {
+
+            int[] dstIndices = new int[nValues];
+
+            for (int i = 0; i < nValues; i++) {
+                dstIndices[i] = (lhsPositions[i] >= 0) ? lhsState.indices[lhsPositions[i]] //
+                        : rhsState.indices[rhsPositions[i]];
+            }
+
+            return new RealSparseArray(SparseOps.create(dstValues, dstIndices, dims, lhs.strides, lhs.dimOffsets), //
+                    dims, lhs.strides, lhs.dimOffsets);
+        }
+
+        long[] dstIndices = new long[nValues];
+
+        for (int i = 0; i < nValues; i++) {
+            dstIndices[i] = (lhsPositions[i] >= 0) ? lhsState.longIndices[lhsPositions[i]] //
+                    : rhsState.longIndices[rhsPositions[i]];
+        }
+
+        return new RealSparseArray(SparseOps.create(dstValues, dstIndices, dims, lhs.longStrides, lhs.dimOffsets), //
+                dims, lhs.strides, lhs.dimOffsets);
+    }
+
+    /**
+     * Converts this two-dimensional array into a {@link RealCompressedMatrix}.
+     * 
+     * @param order
+     *            the storage order: {@link IndexingOrder#FAR} for compressed sparse row format, or
+     *            {@link IndexingOrder#NEAR} for compressed sparse column format.
+     * @return the compressed matrix.
+     */
+    public RealCompressedMatrix toCompressed(IndexingOrder order) {
+        return new RealCompressedMatrix(this, order);
+    }
+
     @Override
     public String toString() {
 
-        SparseArrayState<double[]> state = this.state;
+        SparseArrayState<double[]> state = getState();
 
         double[] values = state.values;
-        int[] indices = state.indices;
         int[] dims = this.dims;
-        int[] strides = this.strides;
 
         int exponent = (int) Math.log10(Arithmetic.max( //
                 Arithmetic.max(values), Math.abs(Arithmetic.min(values)), 1e-128));
@@ -174,8 +531,8 @@ public class RealSparseArray extends ProtoSparseArray<RealSparseArray, double[],
         String valueFormat = String.format("%%%d.%df", fieldWidth, fieldPrecision);
         String indexFormat = String.format("%%%dd", exponentIndex + 2);
 
-        ArrayBase.formatSparseArray(f, valueFormat, indexFormat, //
-                ArrayBase.formatRescale(f, exponent, values), indices, strides);
+        formatSparseArray(f, valueFormat, indexFormat, //
+                ArrayBase.formatRescale(f, exponent, values));
 
         return f.toString();
     }
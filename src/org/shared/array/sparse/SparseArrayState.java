@@ -28,6 +28,7 @@
 
 package org.shared.array.sparse;
 
+import org.shared.array.kernel.SparseOps;
 import org.shared.util.Arithmetic;
 
 /**
@@ -50,10 +51,21 @@ public class SparseArrayState<V> {
     final protected V values;
 
     /**
-     * The physical indices.
+     * An empty array of 64-bit indices.
+     */
+    final protected static long[] emptyLong = new long[] {};
+
+    /**
+     * The physical indices, or {@code null} if they are 64-bit.
      */
     final protected int[] indices;
 
+    /**
+     * The 64-bit physical indices, or {@code null} if they are 32-bit. They are used only for arrays whose volume
+     * exceeds {@link Integer#MAX_VALUE}, so that smaller arrays keep their compact representation.
+     */
+    final protected long[] longIndices;
+
     /**
      * The offsets into {@link #indirections}.
      */
@@ -71,6 +83,19 @@ public class SparseArrayState<V> {
 
         this.values = values;
         this.indices = indices;
+        this.longIndices = null;
+        this.indirectionOffsets = indirectionOffsets;
+        this.indirections = indirections;
+    }
+
+    /**
+     * Alternate constructor for 64-bit physical indices.
+     */
+    public SparseArrayState(V values, long[] longIndices, int[] indirectionOffsets, int[] indirections) {
+
+        this.values = values;
+        this.indices = null;
+        this.longIndices = longIndices;
         this.indirectionOffsets = indirectionOffsets;
         this.indirections = indirections;
     }
@@ -80,8 +105,11 @@ public class SparseArrayState<V> {
      */
     public SparseArrayState(V emptyValues, int[] dims) {
 
+        boolean large = SparseOps.volume(dims) > Integer.MAX_VALUE;
+
         this.values = emptyValues;
-        this.indices = empty;
+        this.indices = !large ? empty : null;
+        this.longIndices = large ? emptyLong : null;
         this.indirectionOffsets = new int[Arithmetic.sum(dims) + dims.length];
         this.indirections = empty;
     }
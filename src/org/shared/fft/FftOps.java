@@ -29,19 +29,63 @@
 package org.shared.fft;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
+import org.shared.array.kernel.ParallelOps;
+import org.shared.array.kernel.ParallelOps.RangeOperation;
 import org.shared.util.Arithmetic;
 
 /**
- * A class of mixed-radix FFT operations in support of {@link JavaFftService}.
+ * A class of mixed-radix FFT operations in support of {@link JavaFftService}. Sizes with large prime factors, for
+ * which radix-{@code p} butterflies would take quadratic time, are transformed by the chirp-z (Bluestein) method
+ * instead, which reduces them to convolutions of power-of-two size.
  * 
+ * @apiviz.uses org.shared.array.kernel.ParallelOps
  * @author Roy Liu
  */
 public class FftOps {
 
     /**
-     * An FFT operation in support of {@link JavaFftService#fft(int[], double[], double[])}. Very slow and unoptimized;
-     * for demonstration purposes only.
+     * The minimum number of elements transformed by a worker thread.
+     */
+    final protected static int FFT_GRAIN = 1 << 14;
+
+    /**
+     * The number of fibers gathered at a time, so that strided reads touch whole cache lines.
+     */
+    final protected static int FFT_BLOCK = 16;
+
+    /**
+     * The workspace slot for intermediate arrays.
+     */
+    final protected static int WORKSPACE_TMP = 0;
+
+    /**
+     * The workspace slot for butterfly scratch space.
+     */
+    final protected static int WORKSPACE_SCRATCH = 1;
+
+    /**
+     * The workspace slot for gathered fibers or reduced arrays.
+     */
+    final protected static int WORKSPACE_BLOCK = 2;
+
+    /**
+     * Per-thread workspaces shared by all plans. Each slot grows to the largest size requested on its thread, so that
+     * repeated transforms do not allocate, and the memory held per thread is bounded by the largest transform rather
+     * than by the number of cached plans.
+     */
+    final protected static ThreadLocal<double[][]> workspaceLocal = new ThreadLocal<double[][]>() {
+
+        @Override
+        protected double[][] initialValue() {
+            return new double[][] { new double[0], new double[0], new double[0] };
+        }
+    };
+
+    /**
+     * An FFT operation that derives factorizations and twiddle factors afresh. Repeated transforms of the same size
+     * should go through an {@link FftPlan} instead.
      * 
      * @param direction
      *            the transform direction.
@@ -55,32 +99,75 @@ public class FftOps {
     final public static void fft(int direction, int[] dims, double[] in, double[] out) {
 
         int nDims = dims.length;
+
+        int[][] factors = new int[nDims][];
+        double[][] twiddles = new double[nDims][];
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            factors[dim] = createFactors(dims[dim]);
+            twiddles[dim] = createTwiddles(dims[dim], direction);
+        }
+
         int len = Arithmetic.product(dims);
 
-        double[] outTmp = new double[len << 1];
-        double[] scratch = new double[len << 1];
+        fft(direction, dims, factors, twiddles, in, out, //
+                new double[len << 1], new double[scratchSize(factors)], new double[blockSize(dims)]);
+    }
+
+    /**
+     * An FFT operation with precomputed factorizations, twiddle factors, and scratch space, in support of
+     * {@link FftPlan}. Each dimension is a pass over independent fibers, which are divided among worker threads. A
+     * pass reads fibers in blocks and writes them contiguously with that dimension rotated to the end, so that the
+     * passes alternate between the out array and the intermediate array without copying.
+     * 
+     * @param direction
+     *            the transform direction.
+     * @param dims
+     *            the array dimensions.
+     * @param factors
+     *            the per-dimension factorizations, as created by {@link #createFactors(int)}.
+     * @param twiddles
+     *            the per-dimension twiddle factors, as created by {@link #createTwiddles(int, int)}.
+     * @param in
+     *            the in array.
+     * @param out
+     *            the out array.
+     * @param outTmp
+     *            the scratch space for intermediate results, at least as long as the in and out arrays, which may be
+     *            {@code null} for out-of-place one-dimensional transforms.
+     * @param scratch
+     *            the scratch space for butterflies, as sized by {@link #scratchSize(int[][])}.
+     * @param block
+     *            the scratch space for gathered fibers, as sized by {@link #blockSize(int[])}, which may be
+     *            {@code null} for one-dimensional transforms.
+     */
+    final public static void fft(int direction, int[] dims, int[][] factors, double[][] twiddles, //
+            double[] in, double[] out, double[] outTmp, double[] scratch, double[] block) {
+
+        int nDims = dims.length;
+        int len = Arithmetic.product(dims);
 
-        System.arraycopy(in, 0, out, 0, len << 1);
+        double[] src = in;
 
         for (int dim = 0; dim < nDims; dim++) {
 
-            int dimSize = dims[dim];
-            int dimStride = len / dimSize;
-
-            int[] factors = createFactors(dimSize);
-            double[] twiddles = createTwiddles(dimSize, direction);
+            // Alternate between arrays so that the last pass writes to the out array.
+            double[] dst = ((nDims - dim) % 2 == 1) ? out : outTmp;
 
-            int srcOffsetIncr = 2;
-            int dstOffsetIncr = dimSize << 1;
+            if (src == dst) {
 
-            for (int j = 0, srcOffset = 0, dstOffset = 0; //
-            j < dimStride; //
-            j++, srcOffset += srcOffsetIncr, dstOffset += dstOffsetIncr) {
-                fft(out, srcOffset, outTmp, dstOffset, scratch, //
-                        factors, 0, twiddles, dimSize, dimStride, 1);
+                System.arraycopy(src, 0, outTmp, 0, len << 1);
+                src = outTmp;
             }
 
-            System.arraycopy(outTmp, 0, out, 0, len << 1);
+            fft(src, dst, dims[dim], len / dims[dim], factors[dim], twiddles[dim], scratch, block);
+
+            src = dst;
+        }
+
+        if (src != out) {
+            System.arraycopy(src, 0, out, 0, len << 1);
         }
 
         switch (direction) {
@@ -106,10 +193,502 @@ public class FftOps {
     }
 
     /**
-     * Creates a prime factorization and stride modifiers array.
+     * A reduced forward FFT operation on real input, in support of {@link FftPlan}. Every row along the last dimension
+     * of even size {@code n} is packed into a complex sequence of size {@code n / 2}, transformed, and then separated
+     * into the {@code n / 2 + 1} nonnegative frequency bins. Rows of odd size are transformed as complex sequences.
+     * Since the reduced Hermitian layout is written directly, the work and memory are about half that of a complex
+     * transform.
+     * 
+     * @param dims
+     *            the logical array dimensions.
+     * @param factors
+     *            the per-dimension factorizations, where the last one is for the packed row size.
+     * @param twiddles
+     *            the per-dimension twiddle factors, where the last one is for the packed row size.
+     * @param realTwiddles
+     *            the twiddle factors for the full row size, or {@code null} if it is odd.
+     * @param in
+     *            the real in array.
+     * @param out
+     *            the reduced, half-complex out array.
+     * @param tmp
+     *            the scratch space for fibers, of length at least four times the largest dimension.
+     * @param scratch
+     *            the scratch space for butterflies, as sized by {@link #scratchSize(int[][])}.
+     */
+    final public static void rfft(int[] dims, int[][] factors, double[][] twiddles, double[] realTwiddles, //
+            double[] in, double[] out, double[] tmp, double[] scratch) {
+
+        int nDims = dims.length;
+        int n = dims[nDims - 1];
+        int m = (n >>> 1) + 1;
+        int nRows = Arithmetic.product(dims) / n;
+
+        int[] reducedDims = dims.clone();
+        reducedDims[nDims - 1] = m;
+
+        for (int row = 0, inOffset = 0, outOffset = 0; row < nRows; row++, inOffset += n, outOffset += m << 1) {
+
+            if (realTwiddles == null) {
+
+                fft(out, outOffset >>> 1, 1, m, factors[nDims - 1], twiddles[nDims - 1], //
+                        tmp, scratch, n, in, inOffset);
+
+                continue;
+            }
+
+            int half = n >>> 1;
+
+            System.arraycopy(in, inOffset, out, outOffset, n);
+
+            fft(out, outOffset >>> 1, 1, half, factors[nDims - 1], twiddles[nDims - 1], tmp, scratch, half, null, 0);
+
+            // Separate the transforms of the even and odd elements, and recombine them. Work from both ends inward so
+            // that the packed transform can be overwritten in place.
+            for (int k = 0, l = half; k <= l; k++, l--) {
+
+                int kOffset = outOffset + ((k % half) << 1);
+                int lOffset = outOffset + ((l % half) << 1);
+
+                double zkRe = out[kOffset];
+                double zkIm = out[kOffset + 1];
+                double zlRe = out[lOffset];
+                double zlIm = out[lOffset + 1];
+
+                // X[k] = E[k] + W^k O[k], where E[k] = (Z[k] + conj(Z[l])) / 2 and O[k] = (Z[k] - conj(Z[l])) / 2i.
+                double eRe = 0.5 * (zkRe + zlRe);
+                double eIm = 0.5 * (zkIm - zlIm);
+                double oRe = 0.5 * (zkIm + zlIm);
+                double oIm = -0.5 * (zkRe - zlRe);
+
+                double wRe = realTwiddles[k << 1];
+                double wIm = realTwiddles[(k << 1) + 1];
+
+                double xkRe = eRe + wRe * oRe - wIm * oIm;
+                double xkIm = eIm + wRe * oIm + wIm * oRe;
+
+                // X[l] = conj(E[k]) + W^l conj(O[k]), by symmetry.
+                wRe = realTwiddles[l << 1];
+                wIm = realTwiddles[(l << 1) + 1];
+
+                double xlRe = eRe + wRe * oRe + wIm * oIm;
+                double xlIm = -eIm - wRe * oIm + wIm * oRe;
+
+                out[outOffset + (k << 1)] = xkRe;
+                out[outOffset + (k << 1) + 1] = xkIm;
+                out[outOffset + (l << 1)] = xlRe;
+                out[outOffset + (l << 1) + 1] = xlIm;
+            }
+        }
+
+        for (int dim = 0; dim < nDims - 1; dim++) {
+            fft(out, reducedDims, dim, factors[dim], twiddles[dim], tmp, scratch);
+        }
+    }
+
+    /**
+     * A reduced backward FFT operation producing real output, in support of {@link FftPlan}. It inverts
+     * {@link #rfft(int[], int[][], double[][], double[], double[], double[], double[], double[])}; the imaginary parts
+     * of bins that must be real are ignored, as if the real part of a full complex transform were taken.
+     * 
+     * @param dims
+     *            the logical array dimensions.
+     * @param factors
+     *            the per-dimension factorizations, where the last one is for the packed row size.
+     * @param twiddles
+     *            the per-dimension twiddle factors, where the last one is for the packed row size.
+     * @param realTwiddles
+     *            the twiddle factors for the full row size, or {@code null} if it is odd.
+     * @param in
+     *            the reduced, half-complex in array.
+     * @param out
+     *            the real out array.
+     * @param work
+     *            the scratch space for the reduced array, of the same length as the in array.
+     * @param tmp
+     *            the scratch space for fibers, of length at least four times the largest dimension.
+     * @param scratch
+     *            the scratch space for butterflies, as sized by {@link #scratchSize(int[][])}.
+     */
+    final public static void rifft(int[] dims, int[][] factors, double[][] twiddles, double[] realTwiddles, //
+            double[] in, double[] out, double[] work, double[] tmp, double[] scratch) {
+
+        int nDims = dims.length;
+        int n = dims[nDims - 1];
+        int m = (n >>> 1) + 1;
+        int len = Arithmetic.product(dims);
+        int nRows = len / n;
+
+        int[] reducedDims = dims.clone();
+        reducedDims[nDims - 1] = m;
+
+        System.arraycopy(in, 0, work, 0, (nRows * m) << 1);
+
+        for (int dim = 0; dim < nDims - 1; dim++) {
+            fft(work, reducedDims, dim, factors[dim], twiddles[dim], tmp, scratch);
+        }
+
+        double factor = 1.0 / len;
+
+        for (int row = 0, workOffset = 0, outOffset = 0; row < nRows; row++, workOffset += m << 1, outOffset += n) {
+
+            if (realTwiddles == null) {
+
+                // Rebuild the full Hermitian row, and keep the real part of its transform.
+                tmp[0] = work[workOffset];
+                tmp[1] = 0.0;
+
+                for (int k = 1; k < m; k++) {
+
+                    tmp[k << 1] = tmp[(n - k) << 1] = work[workOffset + (k << 1)];
+                    tmp[(k << 1) + 1] = work[workOffset + (k << 1) + 1];
+                    tmp[((n - k) << 1) + 1] = -work[workOffset + (k << 1) + 1];
+                }
+
+                fft(tmp, 0, tmp, n << 1, scratch, factors[nDims - 1], 0, twiddles[nDims - 1], n, 1, 1);
+
+                for (int j = 0; j < n; j++) {
+                    out[outOffset + j] = tmp[(n + j) << 1] * factor;
+                }
+
+                continue;
+            }
+
+            int half = n >>> 1;
+
+            // Bins zero and n / 2 are real.
+            work[workOffset + 1] = 0.0;
+            work[workOffset + (half << 1) + 1] = 0.0;
+
+            // Z[k] = E[k] + i O[k], where E[k] = X[k] + conj(X[l]) and O[k] = (X[k] - conj(X[l])) conj(W^k).
+            for (int k = 0, l = half; k <= l; k++, l--) {
+
+                int kOffset = workOffset + (k << 1);
+                int lOffset = workOffset + (l << 1);
+
+                double xkRe = work[kOffset];
+                double xkIm = work[kOffset + 1];
+                double xlRe = work[lOffset];
+                double xlIm = work[lOffset + 1];
+
+                double eRe = xkRe + xlRe;
+                double eIm = xkIm - xlIm;
+                double dRe = xkRe - xlRe;
+                double dIm = xkIm + xlIm;
+
+                double wRe = realTwiddles[k << 1];
+                double wIm = realTwiddles[(k << 1) + 1];
+
+                double oRe = dRe * wRe - dIm * wIm;
+                double oIm = dRe * wIm + dIm * wRe;
+
+                // The same, with k and l exchanged, for Z[l].
+                wRe = realTwiddles[l << 1];
+                wIm = realTwiddles[(l << 1) + 1];
+
+                double olRe = -dRe * wRe - dIm * wIm;
+                double olIm = -dRe * wIm + dIm * wRe;
+
+                if (k < half) {
+
+                    work[kOffset] = eRe - oIm;
+                    work[kOffset + 1] = eIm + oRe;
+                }
+
+                if (l < half) {
+
+                    work[lOffset] = eRe - olIm;
+                    work[lOffset + 1] = -eIm + olRe;
+                }
+            }
+
+            fft(work, workOffset >>> 1, 1, half, factors[nDims - 1], twiddles[nDims - 1], tmp, scratch, half, //
+                    null, 0);
+
+            for (int j = 0; j < n; j++) {
+                out[outOffset + j] = work[workOffset + j] * factor;
+            }
+        }
+    }
+
+    /**
+     * Transforms the fibers of a dimension in parallel, and rotates that dimension to the end. The calling thread
+     * executes the first range of fibers with the given scratch space, while worker threads allocate their own.
+     * 
+     * @param src
+     *            the source array, in interleaved complex format.
+     * @param dst
+     *            the destination array, in interleaved complex format.
+     * @param size
+     *            the dimension size.
+     * @param stride
+     *            the dimension stride, which is also the number of fibers.
+     * @param factors
+     *            the factorization of the dimension size.
+     * @param twiddles
+     *            the twiddle factors of the dimension size.
+     * @param scratch
+     *            the scratch space for butterflies.
+     * @param block
+     *            the scratch space for gathered fibers.
+     */
+    final protected static void fft(final double[] src, final double[] dst, final int size, final int stride, //
+            final int[] factors, final double[] twiddles, final double[] scratch, final double[] block) {
+
+        ParallelOps.fork(stride, Math.max(FFT_GRAIN / size, 1), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                // Other threads draw on their own workspaces.
+                double[] opScratch = (start == 0) ? scratch //
+                        : workspace(WORKSPACE_SCRATCH, scratchSize(new int[][] { factors }));
+
+                int dstOffsetIncr = size << 1;
+
+                // Contiguous fibers need no gathering.
+                if (stride == 1) {
+
+                    fft(src, 0, dst, 0, opScratch, factors, 0, twiddles, size, 1, 1);
+
+                    return;
+                }
+
+                double[] opBlock = (start == 0) ? block : workspace(WORKSPACE_BLOCK, (FFT_BLOCK * size) << 1);
+
+                for (int blockStart = start, blockEnd; blockStart < end; blockStart = blockEnd) {
+
+                    blockEnd = Math.min(blockStart + FFT_BLOCK, end);
+
+                    int blockSize = blockEnd - blockStart;
+                    int srcOffsetIncr = stride << 1;
+
+                    // Gather the block fiber by fiber, reading consecutive fibers from the same cache lines.
+                    for (int i = 0, srcOffset = blockStart << 1, blockOffset = 0; //
+                    i < size; //
+                    i++, srcOffset += srcOffsetIncr, blockOffset += 2) {
+
+                        for (int j = 0, srcOffsetCurrent = srcOffset, blockOffsetCurrent = blockOffset; //
+                        j < blockSize; //
+                        j++, srcOffsetCurrent += 2, blockOffsetCurrent += dstOffsetIncr) {
+
+                            opBlock[blockOffsetCurrent] = src[srcOffsetCurrent];
+                            opBlock[blockOffsetCurrent + 1] = src[srcOffsetCurrent + 1];
+                        }
+                    }
+
+                    for (int j = 0, blockOffset = 0, dstOffset = blockStart * dstOffsetIncr; //
+                    j < blockSize; //
+                    j++, blockOffset += dstOffsetIncr, dstOffset += dstOffsetIncr) {
+                        fft(opBlock, blockOffset, dst, dstOffset, opScratch, factors, 0, twiddles, size, 1, 1);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Transforms every fiber along the given dimension in place.
+     * 
+     * @param data
+     *            the array, in interleaved complex format.
+     * @param dims
+     *            the array dimensions.
+     * @param dim
+     *            the dimension of interest.
+     * @param factors
+     *            the factorization of the dimension size.
+     * @param twiddles
+     *            the twiddle factors of the dimension size.
+     * @param tmp
+     *            the scratch space for fibers, of length at least twice the dimension size.
+     * @param scratch
+     *            the scratch space for butterflies.
+     */
+    final protected static void fft(double[] data, int[] dims, int dim, int[] factors, double[] twiddles, //
+            double[] tmp, double[] scratch) {
+
+        int size = dims[dim];
+
+        if (size == 1) {
+            return;
+        }
+
+        int stride = Arithmetic.product(Arrays.copyOfRange(dims, dim + 1, dims.length));
+        int nOuter = Arithmetic.product(Arrays.copyOfRange(dims, 0, dim));
+
+        for (int outer = 0, outerOffset = 0; outer < nOuter; outer++, outerOffset += size * stride) {
+
+            for (int inner = 0; inner < stride; inner++) {
+                fft(data, outerOffset + inner, stride, size, factors, twiddles, tmp, scratch, size, null, 0);
+            }
+        }
+    }
+
+    /**
+     * Transforms a strided fiber in place, keeping only its leading elements.
+     * 
+     * @param data
+     *            the array, in interleaved complex format.
+     * @param offset
+     *            the complex offset of the fiber.
+     * @param stride
+     *            the complex stride of the fiber.
+     * @param nKept
+     *            the number of leading elements to keep.
+     * @param factors
+     *            the factorization of the fiber size.
+     * @param twiddles
+     *            the twiddle factors of the fiber size.
+     * @param tmp
+     *            the scratch space, of length at least twice the fiber size, or four times if reading real input.
+     * @param scratch
+     *            the scratch space for butterflies.
+     * @param size
+     *            the fiber size.
+     * @param realIn
+     *            if not {@code null}, the real array to read the fiber from instead.
+     * @param realOffset
+     *            the offset into the real array.
+     */
+    final protected static void fft(double[] data, int offset, int stride, int nKept, //
+            int[] factors, double[] twiddles, double[] tmp, double[] scratch, //
+            int size, double[] realIn, int realOffset) {
+
+        if (realIn != null) {
+
+            // Transform from a complex copy in the upper half of the scratch space.
+            for (int j = 0; j < size; j++) {
+
+                tmp[(size + j) << 1] = realIn[realOffset + j];
+                tmp[((size + j) << 1) + 1] = 0.0;
+            }
+
+            fft(tmp, size << 1, tmp, 0, scratch, factors, 0, twiddles, size, 1, 1);
+
+        } else {
+
+            fft(data, offset << 1, tmp, 0, scratch, factors, 0, twiddles, size, stride, 1);
+        }
+
+        for (int j = 0, dataOffset = offset << 1, strideIncr = stride << 1; //
+        j < nKept; //
+        j++, dataOffset += strideIncr) {
+
+            data[dataOffset] = tmp[j << 1];
+            data[dataOffset + 1] = tmp[(j << 1) + 1];
+        }
+    }
+
+    /**
+     * Gets the calling thread's workspace array for the given slot, growing it if needed. The contents are
+     * unspecified, and the array may be longer than requested.
+     * 
+     * @param slot
+     *            the workspace slot.
+     * @param size
+     *            the minimum length.
+     * @return the workspace array.
+     */
+    final protected static double[] workspace(int slot, int size) {
+
+        double[][] workspaces = workspaceLocal.get();
+
+        if (workspaces[slot].length < size) {
+            workspaces[slot] = new double[size];
+        }
+
+        return workspaces[slot];
+    }
+
+    /**
+     * Computes the size of the butterfly scratch space needed for the given factorizations. Chirp-z transforms keep two
+     * padded sequences at the end of it.
+     */
+    final protected static int scratchSize(int[][] factors) {
+
+        int maxFactor = 1;
+        int maxChirpZSize = 0;
+
+        for (int[] dimFactors : factors) {
+
+            for (int i = 0, n = dimFactors.length; i < n; i += 2) {
+                maxFactor = Math.max(maxFactor, dimFactors[i]);
+            }
+
+            if (dimFactors[0] == 0) {
+                maxChirpZSize = Math.max(maxChirpZSize, dimFactors[1]);
+            }
+        }
+
+        return (maxFactor << 1) + (maxChirpZSize << 2);
+    }
+
+    /**
+     * Computes the size of the fiber gathering scratch space needed for the given dimensions.
+     */
+    final protected static int blockSize(int[] dims) {
+        return (FFT_BLOCK * Arithmetic.max(dims)) << 1;
+    }
+
+    /**
+     * Decides whether a size is better transformed by the chirp-z method. The mixed-radix method costs about the size
+     * times the sum of its prime factors, while the chirp-z method costs about two radix-2 transforms of the padded
+     * size.
+     * 
+     * @param n
+     *            the size.
+     * @return the padded power-of-two size, or {@code 0} if the mixed-radix method should be used.
+     */
+    final protected static int chirpZSize(int n) {
+
+        if (n <= 2 || n > (1 << 29)) {
+            return 0;
+        }
+
+        long factorSum = 0;
+        int num = n;
+
+        for (int p = 2; p <= num / p; p++) {
+
+            for (; num % p == 0; num /= p) {
+                factorSum += p;
+            }
+        }
+
+        if (num > 1) {
+            factorSum += num;
+        }
+
+        int m = Integer.highestOneBit((n << 1) - 1) << 1;
+
+        long mixedRadixCost = n * factorSum;
+        long chirpZCost = 4L * m * Integer.numberOfTrailingZeros(m);
+
+        return (chirpZCost < mixedRadixCost) ? m : 0;
+    }
+
+    /**
+     * Creates a prime factorization and stride modifiers array. For sizes transformed by the chirp-z method, the array
+     * starts with the pair {@code (0, m)} and continues with the factorization of the padded size {@code m}.
      */
     final protected static int[] createFactors(int num) {
 
+        int m = chirpZSize(num);
+
+        if (m > 0) {
+
+            int[] mFactors = createFactors(m);
+            int[] res = new int[mFactors.length + 2];
+
+            res[0] = 0;
+            res[1] = m;
+
+            System.arraycopy(mFactors, 0, res, 2, mFactors.length);
+
+            return res;
+        }
+
         ArrayList<Integer> factors = new ArrayList<Integer>();
 
         int p = 2;
@@ -150,10 +729,63 @@ public class FftOps {
     }
 
     /**
-     * Creates an array of twiddle factors.
+     * Creates an array of twiddle factors. For sizes transformed by the chirp-z method, the array holds the forward
+     * twiddle factors of the padded size {@code m}, then the chirp {@code exp(-pi i direction j^2 / n)}, and then the
+     * transformed and scaled convolution filter.
      */
     final protected static double[] createTwiddles(int n, int direction) {
 
+        int m = chirpZSize(n);
+
+        if (m == 0) {
+            return createRoots(n, direction);
+        }
+
+        int chirpOffset = m << 1;
+        int filterOffset = chirpOffset + (n << 1);
+
+        double[] res = new double[filterOffset + (m << 1)];
+
+        System.arraycopy(createRoots(m, 1), 0, res, 0, m << 1);
+
+        for (int j = 0, offset = chirpOffset; j < n; j++, offset += 2) {
+
+            // Reduce the square modulo 2n to preserve precision.
+            double phase = (-direction * Math.PI * (((long) j * j) % (n << 1))) / n;
+
+            res[offset] = Math.cos(phase);
+            res[offset + 1] = Math.sin(phase);
+        }
+
+        double[] filter = new double[m << 1];
+
+        for (int j = 0, offset = chirpOffset; j < n; j++, offset += 2) {
+
+            int k = (m - j) % m;
+
+            filter[j << 1] = filter[k << 1] = res[offset];
+            filter[(j << 1) + 1] = filter[(k << 1) + 1] = -res[offset + 1];
+        }
+
+        int[] mFactors = createFactors(m);
+
+        fft(filter, 0, res, filterOffset, new double[scratchSize(new int[][] { mFactors })], //
+                mFactors, 0, res, m, 1, 1);
+
+        double factor = 1.0 / m;
+
+        for (int i = filterOffset, n2 = filterOffset + (m << 1); i < n2; i++) {
+            res[i] *= factor;
+        }
+
+        return res;
+    }
+
+    /**
+     * Creates an array of the powers of a primitive root of unity.
+     */
+    final protected static double[] createRoots(int n, int direction) {
+
         double[] res = new double[n << 1];
 
         for (int i = 0, offset = 0; i < n; i++, offset += 2) {
@@ -177,6 +809,13 @@ public class FftOps {
         int p = factors[factorIndexCurrent];
         int m = factors[factorIndexCurrent + 1];
 
+        if (p == 0) {
+
+            chirpZ(src, srcOffset, dst, dstOffset, scratch, factors, twiddles, size, stride);
+
+            return;
+        }
+
         int srcOffsetIncr = (strideCurrent * stride) << 1;
         int dstOffsetIncr = m << 1;
         int upper = dstOffset + ((p * m) << 1);
@@ -205,6 +844,68 @@ public class FftOps {
         fft(dst, dstOffset, scratch, p, m, twiddles, size, strideCurrent);
     }
 
+    /**
+     * The chirp-z FFT procedure. It rewrites the transform as the convolution of the chirp-modulated input with the
+     * conjugate chirp, which is computed with power-of-two transforms of the padded size.
+     */
+    final protected static void chirpZ(double[] src, int srcOffset, double[] dst, int dstOffset, double[] scratch, //
+            int[] factors, double[] twiddles, int size, int stride) {
+
+        int m = factors[1];
+
+        int chirpOffset = m << 1;
+        int filterOffset = chirpOffset + (size << 1);
+
+        int aOffset = scratch.length - (m << 2);
+        int bOffset = scratch.length - (m << 1);
+
+        int srcOffsetIncr = stride << 1;
+
+        for (int j = 0, srcOffsetCurrent = srcOffset, aOffsetCurrent = aOffset, chirpOffsetCurrent = chirpOffset; //
+        j < size; //
+        j++, srcOffsetCurrent += srcOffsetIncr, aOffsetCurrent += 2, chirpOffsetCurrent += 2) {
+
+            double xRe = src[srcOffsetCurrent];
+            double xIm = src[srcOffsetCurrent + 1];
+            double cRe = twiddles[chirpOffsetCurrent];
+            double cIm = twiddles[chirpOffsetCurrent + 1];
+
+            scratch[aOffsetCurrent] = xRe * cRe - xIm * cIm;
+            scratch[aOffsetCurrent + 1] = xRe * cIm + xIm * cRe;
+        }
+
+        Arrays.fill(scratch, aOffset + (size << 1), bOffset, 0.0);
+
+        fft(scratch, aOffset, scratch, bOffset, scratch, factors, 2, twiddles, m, 1, 1);
+
+        // Multiply by the filter, and conjugate so that the forward transform computes the inverse.
+        for (int i = 0, n = m << 1; i < n; i += 2) {
+
+            double bRe = scratch[bOffset + i];
+            double bIm = scratch[bOffset + i + 1];
+            double fRe = twiddles[filterOffset + i];
+            double fIm = twiddles[filterOffset + i + 1];
+
+            scratch[aOffset + i] = bRe * fRe - bIm * fIm;
+            scratch[aOffset + i + 1] = -(bRe * fIm + bIm * fRe);
+        }
+
+        fft(scratch, aOffset, scratch, bOffset, scratch, factors, 2, twiddles, m, 1, 1);
+
+        for (int k = 0, dstOffsetCurrent = dstOffset, bOffsetCurrent = bOffset, chirpOffsetCurrent = chirpOffset; //
+        k < size; //
+        k++, dstOffsetCurrent += 2, bOffsetCurrent += 2, chirpOffsetCurrent += 2) {
+
+            double yRe = scratch[bOffsetCurrent];
+            double yIm = -scratch[bOffsetCurrent + 1];
+            double cRe = twiddles[chirpOffsetCurrent];
+            double cIm = twiddles[chirpOffsetCurrent + 1];
+
+            dst[dstOffsetCurrent] = yRe * cRe - yIm * cIm;
+            dst[dstOffsetCurrent + 1] = yRe * cIm + yIm * cRe;
+        }
+    }
+
     /**
      * A recursive FFT subroutine for a specific radix.
      */
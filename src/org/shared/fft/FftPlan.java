@@ -0,0 +1,394 @@
+/**
+ * <p>
+ * Copyright (c) 2008 The Regents of the University of California<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.fft;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.shared.array.kernel.ParallelOps;
+import org.shared.array.kernel.ParallelOps.RangeOperation;
+import org.shared.util.Arithmetic;
+import org.shared.util.Control;
+
+/**
+ * A precomputed, pure Java FFT of a given type and dimensions, in the spirit of {@code org.sharedx.fftw.Plan}.
+ * Factorizations and twiddle factors are derived once per distinct dimension size, so that repeated transforms do no
+ * setup work. Scratch space comes from per-thread workspaces shared by all plans, so that repeated transforms do not
+ * allocate, and cached plans hold on to no more than their precomputed tables. Plans are immutable and therefore
+ * thread-safe.
+ * 
+ * @apiviz.uses org.shared.fft.FftOps
+ * @apiviz.uses org.shared.array.kernel.ParallelOps
+ * @author Roy Liu
+ */
+public class FftPlan {
+
+    /**
+     * Real-to-half-complex (RFFT).
+     */
+    final public static int R_TO_C = 0;
+
+    /**
+     * Half-complex-to-real (RIFFT).
+     */
+    final public static int C_TO_R = 1;
+
+    /**
+     * Complex-to-complex forward (FFT).
+     */
+    final public static int FORWARD = 2;
+
+    /**
+     * Complex-to-complex backward (IFFT).
+     */
+    final public static int BACKWARD = 3;
+
+    /**
+     * The transform type.
+     */
+    final private int type;
+
+    /**
+     * The transform direction, which is {@code 1} for forward and {@code -1} for backward.
+     */
+    final private int direction;
+
+    /**
+     * The logical array dimensions.
+     */
+    final private int[] dims;
+
+    /**
+     * The number of logical elements.
+     */
+    final private int len;
+
+    /**
+     * The number of half-complex elements.
+     */
+    final private int reducedLen;
+
+    /**
+     * The factorizations of the dimensions that are transformed.
+     */
+    final private int[][] factors;
+
+    /**
+     * The twiddle factors of the dimensions that are transformed.
+     */
+    final private double[][] twiddles;
+
+    /**
+     * The twiddle factors for packing and unpacking real rows of even size, or {@code null} if not applicable.
+     */
+    final private double[] realTwiddles;
+
+    /**
+     * The size of the butterfly scratch buffer.
+     */
+    final private int scratchSize;
+
+    /**
+     * The size of the intermediate buffer.
+     */
+    final private int tmpSize;
+
+    /**
+     * The size of the gather buffer for strided passes.
+     */
+    final private int blockSize;
+
+    /**
+     * Default constructor.
+     * 
+     * @param type
+     *            the transform type.
+     * @param dims
+     *            the logical array dimensions.
+     */
+    public FftPlan(int type, int[] dims) {
+
+        Control.checkTrue(type == R_TO_C || type == C_TO_R || type == FORWARD || type == BACKWARD, //
+                "Invalid transform type");
+
+        int nDims = dims.length;
+
+        Control.checkTrue(nDims > 0, //
+                "Invalid dimensions");
+
+        for (int dim = 0; dim < nDims; dim++) {
+            Control.checkTrue(dims[dim] > 0, //
+                    "Invalid dimensions");
+        }
+
+        boolean real = (type == R_TO_C || type == C_TO_R);
+
+        this.type = type;
+        this.direction = (type == R_TO_C || type == FORWARD) ? 1 : -1;
+        this.dims = dims.clone();
+        this.len = Arithmetic.product(dims);
+        this.reducedLen = (this.len / dims[nDims - 1]) * ((dims[nDims - 1] >>> 1) + 1);
+
+        // Real transforms pack rows of even size into complex sequences of half the size.
+        int[] transformDims = this.dims.clone();
+
+        if (real && dims[nDims - 1] % 2 == 0) {
+
+            transformDims[nDims - 1] >>>= 1;
+
+            this.realTwiddles = FftOps.createRoots(dims[nDims - 1], this.direction);
+
+        } else {
+
+            this.realTwiddles = null;
+        }
+
+        this.factors = new int[nDims][];
+        this.twiddles = new double[nDims][];
+
+        Map<Integer, Integer> firstOccurrences = new HashMap<Integer, Integer>();
+
+        for (int dim = 0; dim < nDims; dim++) {
+
+            Integer first = firstOccurrences.get(transformDims[dim]);
+
+            // Share precomputed values among dimensions of the same size.
+            if (first != null) {
+
+                this.factors[dim] = this.factors[first];
+                this.twiddles[dim] = this.twiddles[first];
+
+            } else {
+
+                this.factors[dim] = FftOps.createFactors(transformDims[dim]);
+                this.twiddles[dim] = FftOps.createTwiddles(transformDims[dim], this.direction);
+
+                firstOccurrences.put(transformDims[dim], dim);
+            }
+        }
+
+        this.scratchSize = FftOps.scratchSize(this.factors);
+        this.tmpSize = real ? Arithmetic.max(dims) << 2 : this.len << 1;
+        this.blockSize = real ? 0 : FftOps.blockSize(dims);
+    }
+
+    /**
+     * Performs the transform. Complex arrays are in interleaved format, and half-complex arrays hold the nonnegative
+     * frequencies of the last dimension.
+     * 
+     * @param in
+     *            the in array.
+     * @param out
+     *            the out array.
+     */
+    public void transform(double[] in, double[] out) {
+
+        switch (this.type) {
+
+        case R_TO_C:
+
+            Control.checkTrue(in.length == this.len && out.length == this.reducedLen << 1, //
+                    "Invalid array lengths");
+
+            FftOps.rfft(this.dims, this.factors, this.twiddles, this.realTwiddles, //
+                    in, out, //
+                    FftOps.workspace(FftOps.WORKSPACE_TMP, this.tmpSize), //
+                    FftOps.workspace(FftOps.WORKSPACE_SCRATCH, this.scratchSize));
+
+            break;
+
+        case C_TO_R:
+
+            Control.checkTrue(in.length == this.reducedLen << 1 && out.length == this.len, //
+                    "Invalid array lengths");
+
+            FftOps.rifft(this.dims, this.factors, this.twiddles, this.realTwiddles, //
+                    in, out, //
+                    FftOps.workspace(FftOps.WORKSPACE_BLOCK, this.reducedLen << 1), //
+                    FftOps.workspace(FftOps.WORKSPACE_TMP, this.tmpSize), //
+                    FftOps.workspace(FftOps.WORKSPACE_SCRATCH, this.scratchSize));
+
+            break;
+
+        default:
+
+            Control.checkTrue(in.length == this.len << 1 && out.length == this.len << 1, //
+                    "Invalid array lengths");
+
+            // Only in-place calls and strided passes need the intermediate and gathering buffers.
+            boolean strided = (this.dims.length > 1);
+
+            FftOps.fft(this.direction, this.dims, this.factors, this.twiddles, in, out, //
+                    (strided || in == out) ? FftOps.workspace(FftOps.WORKSPACE_TMP, this.tmpSize) : null, //
+                    FftOps.workspace(FftOps.WORKSPACE_SCRATCH, this.scratchSize), //
+                    strided ? FftOps.workspace(FftOps.WORKSPACE_BLOCK, this.blockSize) : null);
+
+            break;
+        }
+    }
+
+    /**
+     * Performs a batch of transforms with this plan, in the manner of the FFTW advanced interface. Element {@code j},
+     * in row-major order, of transform {@code i} resides at offset {@code i * dist + j * stride} of its array, where
+     * offsets count complex elements of complex arrays and real elements of real arrays. Transforms are divided among
+     * worker threads.
+     * 
+     * @param count
+     *            the number of transforms.
+     * @param in
+     *            the in array.
+     * @param inStride
+     *            the in element stride.
+     * @param inDist
+     *            the in distance between transforms.
+     * @param out
+     *            the out array.
+     * @param outStride
+     *            the out element stride.
+     * @param outDist
+     *            the out distance between transforms.
+     */
+    public void transformBatch(int count, //
+            final double[] in, final int inStride, final int inDist, //
+            final double[] out, final int outStride, final int outDist) {
+
+        final int inWidth = (this.type == R_TO_C) ? 1 : 2;
+        final int outWidth = (this.type == C_TO_R) ? 1 : 2;
+
+        final int inSize = (this.type == C_TO_R) ? this.reducedLen : this.len;
+        final int outSize = (this.type == R_TO_C) ? this.reducedLen : this.len;
+
+        checkBatch(count, inSize, inWidth, inStride, inDist, in.length);
+        checkBatch(count, outSize, outWidth, outStride, outDist, out.length);
+
+        ParallelOps.fork(count, Math.max(FftOps.FFT_GRAIN / this.len, 1), new RangeOperation() {
+
+            @Override
+            public void op(int start, int end) {
+
+                double[] inTmp = new double[inSize * inWidth];
+                double[] outTmp = new double[outSize * outWidth];
+
+                for (int i = start; i < end; i++) {
+
+                    copy(in, i * inDist, inStride, inTmp, 0, 1, inSize, inWidth);
+
+                    transform(inTmp, outTmp);
+
+                    copy(outTmp, 0, 1, out, i * outDist, outStride, outSize, outWidth);
+                }
+            }
+        });
+    }
+
+    /**
+     * Checks that a batch of strided elements lies within an array.
+     */
+    final protected static void checkBatch(int count, int size, int width, int stride, int dist, int len) {
+
+        Control.checkTrue(count >= 0 && stride > 0 && dist >= 0, //
+                "Invalid batch parameters");
+
+        Control.checkTrue(count == 0 //
+                || ((long) (count - 1) * dist + (long) (size - 1) * stride + 1) * width <= len, //
+                "Invalid array lengths");
+    }
+
+    /**
+     * Copies strided elements of the given width, in units of {@code double}s.
+     */
+    final protected static void copy(double[] src, int srcOffset, int srcStride, //
+            double[] dst, int dstOffset, int dstStride, int size, int width) {
+
+        if (srcStride == 1 && dstStride == 1) {
+
+            System.arraycopy(src, srcOffset * width, dst, dstOffset * width, size * width);
+
+            return;
+        }
+
+        for (int j = 0, srcIndex = srcOffset * width, dstIndex = dstOffset * width, //
+        srcIncr = srcStride * width, dstIncr = dstStride * width; //
+        j < size; //
+        j++, srcIndex += srcIncr, dstIndex += dstIncr) {
+
+            for (int k = 0; k < width; k++) {
+                dst[dstIndex + k] = src[srcIndex + k];
+            }
+        }
+    }
+
+    /**
+     * Gets the transform type.
+     */
+    public int getType() {
+        return this.type;
+    }
+
+    /**
+     * Gets the logical array dimensions.
+     */
+    public int[] getDimensions() {
+        return this.dims.clone();
+    }
+
+    /**
+     * Creates a human-readable representation of this plan.
+     */
+    @Override
+    public String toString() {
+        return String.format("%s[%s, %s]", //
+                FftPlan.class.getSimpleName(), typeToString(this.type), Arrays.toString(this.dims));
+    }
+
+    /**
+     * Gets a string representation of the FFT type.
+     */
+    final protected static String typeToString(int type) {
+
+        switch (type) {
+
+        case R_TO_C:
+            return "r2c";
+
+        case C_TO_R:
+            return "c2r";
+
+        case FORWARD:
+            return "forward";
+
+        case BACKWARD:
+            return "backward";
+
+        default:
+            throw new IllegalArgumentException("Invalid transform type");
+        }
+    }
+}
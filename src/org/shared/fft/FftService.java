@@ -85,6 +85,103 @@ public interface FftService extends Service {
      */
     public void ifft(int[] dims, double[] in, double[] out);
 
+    /**
+     * Computes a batch of reduced forward transforms, in the manner of the FFTW advanced interface. Element
+     * {@code j}, in row-major order, of transform {@code i} resides at offset {@code i * dist + j * stride} of its
+     * array, where offsets count complex elements of complex arrays and real elements of real arrays.
+     * 
+     * @param dims
+     *            the dimensions of each transform.
+     * @param count
+     *            the number of transforms.
+     * @param in
+     *            the input array.
+     * @param inStride
+     *            the input element stride.
+     * @param inDist
+     *            the input distance between transforms.
+     * @param out
+     *            the output array.
+     * @param outStride
+     *            the output element stride.
+     * @param outDist
+     *            the output distance between transforms.
+     */
+    public void rfftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist);
+
+    /**
+     * Computes a batch of reduced backward transforms, with the same layout as
+     * {@link #rfftBatch(int[], int, double[], int, int, double[], int, int)}.
+     * 
+     * @param dims
+     *            the dimensions of each transform.
+     * @param count
+     *            the number of transforms.
+     * @param in
+     *            the input array.
+     * @param inStride
+     *            the input element stride.
+     * @param inDist
+     *            the input distance between transforms.
+     * @param out
+     *            the output array.
+     * @param outStride
+     *            the output element stride.
+     * @param outDist
+     *            the output distance between transforms.
+     */
+    public void rifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist);
+
+    /**
+     * Computes a batch of forward transforms, with the same layout as
+     * {@link #rfftBatch(int[], int, double[], int, int, double[], int, int)}.
+     * 
+     * @param dims
+     *            the dimensions of each transform.
+     * @param count
+     *            the number of transforms.
+     * @param in
+     *            the input array.
+     * @param inStride
+     *            the input element stride.
+     * @param inDist
+     *            the input distance between transforms.
+     * @param out
+     *            the output array.
+     * @param outStride
+     *            the output element stride.
+     * @param outDist
+     *            the output distance between transforms.
+     */
+    public void fftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist);
+
+    /**
+     * Computes a batch of backward transforms, with the same layout as
+     * {@link #rfftBatch(int[], int, double[], int, int, double[], int, int)}.
+     * 
+     * @param dims
+     *            the dimensions of each transform.
+     * @param count
+     *            the number of transforms.
+     * @param in
+     *            the input array.
+     * @param inStride
+     *            the input element stride.
+     * @param inDist
+     *            the input distance between transforms.
+     * @param out
+     *            the output array.
+     * @param outStride
+     *            the output element stride.
+     * @param outDist
+     *            the output distance between transforms.
+     */
+    public void ifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist);
+
     /**
      * Sets the value of the given hint.
      * 
@@ -29,6 +29,10 @@
 package org.shared.fft;
 
 import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
 
 import org.shared.array.ComplexArray;
 import org.shared.array.RealArray;
@@ -36,71 +40,166 @@ import org.shared.util.Arithmetic;
 import org.shared.util.Control;
 
 /**
- * An {@link FftService} implementation in pure Java.
+ * An {@link FftService} implementation in pure Java. Transforms go through {@link FftPlan}s, which are cached by
+ * type and dimensions and evicted in least recently used order once the cache is full.
  * 
- * @apiviz.uses org.shared.fft.FftOps
+ * @apiviz.owns org.shared.fft.FftPlan
  * @author Roy Liu
  */
 public class JavaFftService implements FftService {
 
+    /**
+     * The default maximum number of cached plans.
+     */
+    final public static int DEFAULT_CACHE_SIZE = 64;
+
+    int cacheSize;
+
+    final Map<PlanKey, FftPlan> planMap;
+
     /**
      * Default constructor.
      */
+    @SuppressWarnings("serial")
     public JavaFftService() {
-    }
 
-    @Override
-    public void rfft(int[] dims, double[] in, double[] out) {
-
-        ComplexArray proxyIn = new RealArray(in, dims).tocRe();
-        ComplexArray proxyOut = proxyIn.clone();
+        this.cacheSize = DEFAULT_CACHE_SIZE;
 
-        FftOps.fft(+1, dims, proxyIn.values(), proxyOut.values());
+        this.planMap = new LinkedHashMap<PlanKey, FftPlan>(16, 0.75f, true) {
 
-        proxyOut = fullToReduced(proxyOut);
+            @Override
+            protected boolean removeEldestEntry(Entry<PlanKey, FftPlan> eldest) {
+                return size() > JavaFftService.this.cacheSize;
+            }
+        };
+    }
 
-        System.arraycopy(proxyOut.values(), 0, out, 0, //
-                Control.checkEquals(proxyOut.values().length, out.length));
+    @Override
+    public void rfft(int[] dims, double[] in, double[] out) {
+        getPlan(FftPlan.R_TO_C, dims).transform(in, out);
     }
 
     @Override
     public void rifft(int[] dims, double[] in, double[] out) {
+        getPlan(FftPlan.C_TO_R, dims).transform(in, out);
+    }
 
-        int nDims = dims.length;
-        int[] subdims = Arrays.copyOf(dims, nDims + 1);
-
-        subdims[nDims - 1] = (subdims[nDims - 1] >>> 1) + 1;
-        subdims[nDims] = 2;
-
-        ComplexArray proxyIn = reducedToFull(new ComplexArray(in, subdims), dims);
-        ComplexArray proxyOut = proxyIn.clone();
+    @Override
+    public void fft(int[] dims, double[] in, double[] out) {
+        getPlan(FftPlan.FORWARD, dims).transform(in, out);
+    }
 
-        FftOps.fft(-1, dims, proxyIn.values(), proxyOut.values());
+    @Override
+    public void ifft(int[] dims, double[] in, double[] out) {
+        getPlan(FftPlan.BACKWARD, dims).transform(in, out);
+    }
 
-        RealArray realProxyOut = proxyOut.torRe();
+    @Override
+    public void rfftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(FftPlan.R_TO_C, dims).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
+    }
 
-        System.arraycopy(realProxyOut.values(), 0, out, 0, //
-                Control.checkEquals(realProxyOut.values().length, out.length));
+    @Override
+    public void rifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(FftPlan.C_TO_R, dims).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
     }
 
     @Override
-    public void fft(int[] dims, double[] in, double[] out) {
-        FftOps.fft(+1, dims, in, out);
+    public void fftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(FftPlan.FORWARD, dims).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
     }
 
     @Override
-    public void ifft(int[] dims, double[] in, double[] out) {
-        FftOps.fft(-1, dims, in, out);
+    public void ifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(FftPlan.BACKWARD, dims).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
     }
 
     @Override
     public void setHint(String name, String value) {
-        throw new IllegalArgumentException("Unknown hint");
+
+        if (name.equals("cache_size")) {
+
+            int cacheSize = Integer.parseInt(value);
+
+            Control.checkTrue(cacheSize >= 0, //
+                    "Invalid cache size");
+
+            synchronized (this.planMap) {
+
+                this.cacheSize = cacheSize;
+
+                for (Iterator<PlanKey> itr = this.planMap.keySet().iterator(); //
+                this.planMap.size() > cacheSize;) {
+
+                    itr.next();
+                    itr.remove();
+                }
+            }
+
+        } else {
+
+            throw new IllegalArgumentException("Unknown hint");
+        }
     }
 
     @Override
     public String getHint(String name) {
-        throw new IllegalArgumentException("Unknown hint");
+
+        if (name.equals("cache_size")) {
+
+            return String.valueOf(this.cacheSize);
+
+        } else {
+
+            throw new IllegalArgumentException("Unknown hint");
+        }
+    }
+
+    /**
+     * Delegates to {@link LinkedHashMap#toString()}.
+     */
+    @Override
+    public String toString() {
+
+        synchronized (this.planMap) {
+            return this.planMap.toString();
+        }
+    }
+
+    /**
+     * Gets the {@link FftPlan} for the given type and dimensions, creating and caching one if necessary.
+     * 
+     * @param type
+     *            the transform type.
+     * @param dims
+     *            the array dimensions.
+     * @return the plan.
+     */
+    protected FftPlan getPlan(int type, int[] dims) {
+
+        PlanKey key = new PlanKey(type, dims);
+
+        FftPlan plan;
+
+        synchronized (this.planMap) {
+            plan = this.planMap.get(key);
+        }
+
+        if (plan == null) {
+
+            // Plan outside the lock; concurrent misses on the same key do redundant, but harmless, work.
+            plan = new FftPlan(type, dims);
+
+            synchronized (this.planMap) {
+                this.planMap.put(new PlanKey(type, plan.getDimensions()), plan);
+            }
+        }
+
+        return plan;
     }
 
     /**
@@ -205,4 +304,53 @@ public class JavaFftService implements FftService {
 
         return full.subarray(subbounds);
     }
+
+    /**
+     * A lookup key class for cached plans.
+     */
+    protected static class PlanKey {
+
+        final int type;
+        final int[] dims;
+
+        /**
+         * Default constructor.
+         */
+        protected PlanKey(int type, int[] dims) {
+
+            this.type = type;
+            this.dims = dims;
+        }
+
+        /**
+         * Fulfills the {@link #equals(Object)} contract.
+         */
+        @Override
+        public boolean equals(Object o) {
+
+            if (!(o instanceof PlanKey)) {
+                return false;
+            }
+
+            PlanKey key = (PlanKey) o;
+
+            return this.type == key.type && Arrays.equals(this.dims, key.dims);
+        }
+
+        /**
+         * Fulfills the {@link #hashCode()} contract.
+         */
+        @Override
+        public int hashCode() {
+            return this.type ^ Arrays.hashCode(this.dims);
+        }
+
+        /**
+         * Creates a human-readable representation of this key.
+         */
+        @Override
+        public String toString() {
+            return String.format("%s%s", FftPlan.typeToString(this.type), Arrays.toString(this.dims));
+        }
+    }
 }
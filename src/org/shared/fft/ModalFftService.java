@@ -100,6 +100,30 @@ public class ModalFftService implements FftService {
         this.service.ifft(dims, in, out);
     }
 
+    @Override
+    public void rfftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        this.service.rfftBatch(dims, count, in, inStride, inDist, out, outStride, outDist);
+    }
+
+    @Override
+    public void rifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        this.service.rifftBatch(dims, count, in, inStride, inDist, out, outStride, outDist);
+    }
+
+    @Override
+    public void fftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        this.service.fftBatch(dims, count, in, inStride, inDist, out, outStride, outDist);
+    }
+
+    @Override
+    public void ifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        this.service.ifftBatch(dims, count, in, inStride, inDist, out, outStride, outDist);
+    }
+
     @Override
     public void setHint(String name, String value) {
         this.service.setHint(name, value);
@@ -95,37 +95,35 @@ public class ImageOps {
             return;
         }
 
-        int[] srcIndices = MappingOps.assignMappingIndices(srcLen, srcD, srcS);
-        int[] dstIndices = MappingOps.assignMappingIndices(srcLen, srcD, dstS);
-
-        for (int i = 0; i < srcLen; i++) {
-            dstV[dstIndices[i] + dstOffset] = srcV[srcIndices[i]];
-        }
+        MappingOps.copy(srcD, //
+                srcV, 0, srcS, //
+                dstV, dstOffset, dstS);
 
         //
 
-        dstIndices = MappingOps.assignMappingIndices(dstLen, dstD, dstS);
+        int[] baseD = dstD.clone();
+        int[] counters = new int[nDims];
 
-        for (int dim = 0, indexBlockIncrement = dstLen; dim < nDims; indexBlockIncrement /= dstD[dim++]) {
+        for (int dim = 0; dim < nDims; dim++) {
 
             int size = dstD[dim];
             int stride = dstS[dim];
 
-            for (int lower = 0, upper = indexBlockIncrement / size; //
-            lower < dstLen; //
-            lower += indexBlockIncrement, upper += indexBlockIncrement) {
+            baseD[dim] = 1;
 
-                for (int indexIndex = lower; indexIndex < upper; indexIndex++) {
+            for (int i = 0, n = dstLen / size, base = 0; i < n; i++, //
+            base += MappingOps.advance(counters, baseD, dstS)) {
 
-                    double acc = 0.0;
+                double acc = 0.0;
 
-                    for (int k = 0, physical = dstIndices[indexIndex]; k < size; k++, physical += stride) {
+                for (int k = 0, physical = base; k < size; k++, physical += stride) {
 
-                        acc += dstV[physical];
-                        dstV[physical] = acc;
-                    }
+                    acc += dstV[physical];
+                    dstV[physical] = acc;
                 }
             }
+
+            baseD[dim] = size;
         }
     }
 
@@ -164,54 +162,53 @@ public class ImageOps {
             return;
         }
 
-        int[] srcIndices = MappingOps.assignMappingIndices(srcLen, srcD, srcS);
-        int[] dstIndices = MappingOps.assignMappingIndices(srcLen, srcD, dstSModified);
-
         int nBins = dstD[nDims];
         int binStride = dstS[nDims];
         int dstLenModified = dstLen / nBins;
 
-        for (int i = 0; i < srcLen; i++) {
+        int[] srcCounters = new int[nDims];
+        int[] dstCounters = new int[nDims];
+
+        for (int i = 0, srcIndex = 0, dstIndex = dstOffset; i < srcLen; i++, //
+        srcIndex += MappingOps.advance(srcCounters, srcD, srcS), //
+        dstIndex += MappingOps.advance(dstCounters, srcD, dstSModified)) {
 
-            int index = memV[srcIndices[i]];
+            int index = memV[srcIndex];
 
             Control.checkTrue(index >= 0 && index < nBins, //
                     "Invalid membership index");
 
-            dstV[dstIndices[i] + dstOffset + index * binStride] = srcV[srcIndices[i]];
+            dstV[dstIndex + index * binStride] = srcV[srcIndex];
         }
 
         //
 
-        dstIndices = MappingOps.assignMappingIndices(dstLenModified, dstDModified, dstSModified);
+        int[] baseD = dstDModified.clone();
+        int[] counters = new int[nDims];
 
-        for (int dim = 0, indexBlockIncrement = dstLenModified; //
-        dim < nDims; //
-        indexBlockIncrement /= dstDModified[dim++]) {
+        for (int dim = 0; dim < nDims; dim++) {
 
             int size = dstDModified[dim];
             int stride = dstSModified[dim];
 
-            for (int lower = 0, upper = indexBlockIncrement / size; //
-            lower < dstLenModified; //
-            lower += indexBlockIncrement, upper += indexBlockIncrement) {
+            baseD[dim] = 1;
 
-                for (int indexIndex = lower; indexIndex < upper; indexIndex++) {
+            for (int i = 0, n = dstLenModified / size, base = 0; i < n; i++, //
+            base += MappingOps.advance(counters, baseD, dstSModified)) {
 
-                    for (int binIndex = 0, binOffset = 0; binIndex < nBins; binIndex++, binOffset += binStride) {
+                for (int binIndex = 0, binOffset = 0; binIndex < nBins; binIndex++, binOffset += binStride) {
 
-                        double acc = 0.0;
+                    double acc = 0.0;
 
-                        for (int k = 0, physical = dstIndices[indexIndex] + binOffset; //
-                        k < size; //
-                        k++, physical += stride) {
+                    for (int k = 0, physical = base + binOffset; k < size; k++, physical += stride) {
 
-                            acc += dstV[physical];
-                            dstV[physical] = acc;
-                        }
+                        acc += dstV[physical];
+                        dstV[physical] = acc;
                     }
                 }
             }
+
+            baseD[dim] = size;
         }
     }
 
@@ -61,9 +61,9 @@ public class KMeans {
         RealArray acc = new RealArray(nAPts, nBPts);
 
         for (int dim = 0; dim < nDims; dim++) {
-            acc = acc.lAdd(aPts.subarray(0, aPts.size(0), dim, dim + 1).tile(1, nBPts) //
-                    .lSub(bPts.subarray(0, bPts.size(0), dim, dim + 1) //
-                            .transpose(1, 0).tile(nAPts, 1)).uSqr());
+            acc = aPts.subarray(0, nAPts, dim, dim + 1).lazy(nAPts, nBPts) //
+                    .eSub(bPts.subarray(0, nBPts, dim, dim + 1).transpose(1, 0).lazy(nAPts, nBPts)) //
+                    .uSqr().eAdd(acc).eval(acc);
         }
 
         return acc.uSqrt();
@@ -117,4 +117,14 @@ public class Services {
             }
         }));
     }
+
+    /**
+     * Unregisters any implementing class from the given specification superclass.
+     * 
+     * @param specClass
+     *            the specification superclass.
+     */
+    public static void unregisterService(Class<? extends Service> specClass) {
+        instance.serviceMap.remove(specClass);
+    }
 }
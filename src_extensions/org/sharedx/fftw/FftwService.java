@@ -89,6 +89,30 @@ public class FftwService implements FftService {
         transform(BACKWARD, dims, this.mode, in, out);
     }
 
+    @Override
+    public void rfftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(R_TO_C, dims, this.mode).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
+    }
+
+    @Override
+    public void rifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(C_TO_R, dims, this.mode).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
+    }
+
+    @Override
+    public void fftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(FORWARD, dims, this.mode).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
+    }
+
+    @Override
+    public void ifftBatch(int[] dims, int count, //
+            double[] in, int inStride, int inDist, double[] out, int outStride, int outDist) {
+        getPlan(BACKWARD, dims, this.mode).transformBatch(count, in, inStride, inDist, out, outStride, outDist);
+    }
+
     @Override
     public void setHint(String name, String value) {
 
@@ -215,6 +239,22 @@ public class FftwService implements FftService {
      *            the output array.
      */
     protected void transform(int type, int[] dims, int mode, double[] in, double[] out) {
+        getPlan(type, dims, mode).transform(in, out);
+    }
+
+    /**
+     * Gets the {@link Plan} for the given type, dimensions, and mode. If a cached plan doesn't exist, a new one is
+     * created and cached.
+     * 
+     * @param type
+     *            the kind of transform.
+     * @param dims
+     *            the dimensions of the transform.
+     * @param mode
+     *            the transform mode.
+     * @return the plan.
+     */
+    protected Plan getPlan(int type, int[] dims, int mode) {
 
         final PlanKey key = new PlanKey(type, dims, mode);
 
@@ -235,6 +275,6 @@ public class FftwService implements FftService {
             }));
         }
 
-        plan.transform(in, out);
+        return plan;
     }
 }
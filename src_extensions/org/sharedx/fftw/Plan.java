@@ -30,6 +30,8 @@ package org.sharedx.fftw;
 
 import java.util.Arrays;
 
+import org.shared.fft.FftService;
+
 /**
  * The Java peer to <a href="http://www.fftw.org/">FFTW3</a> {@code plan} structures.
  * 
@@ -132,6 +134,30 @@ public class Plan extends PlanKey {
      */
     final public native void transform(double[] in, double[] out);
 
+    /**
+     * Performs a batch of out-of-place transforms with this plan, with the layout described by
+     * {@link FftService#rfftBatch(int[], int, double[], int, int, double[], int, int)}. Every transform is gathered
+     * into contiguous memory and executed with the same native plan.
+     * 
+     * @param count
+     *            the number of transforms.
+     * @param in
+     *            the input array.
+     * @param inStride
+     *            the input element stride.
+     * @param inDist
+     *            the input distance between transforms.
+     * @param out
+     *            the output array.
+     * @param outStride
+     *            the output element stride.
+     * @param outDist
+     *            the output distance between transforms.
+     */
+    final public native void transformBatch(int count, //
+            double[] in, int inStride, int inDist, //
+            double[] out, int outStride, int outDist);
+
     /**
      * Creates a pointer to the native peer.
      * 
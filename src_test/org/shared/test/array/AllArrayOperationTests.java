@@ -41,6 +41,7 @@ import org.shared.array.Matrix;
  * @apiviz.owns org.shared.test.array.IntegerArrayTest
  * @apiviz.owns org.shared.test.array.MatrixTest
  * @apiviz.owns org.shared.test.array.ObjectArrayTest
+ * @apiviz.owns org.shared.test.array.OffHeapArrayTest
  * @apiviz.owns org.shared.test.array.RealArrayTest
  * @apiviz.owns org.shared.test.array.SparseArrayTest
  * @author Roy Liu
@@ -53,6 +54,7 @@ import org.shared.array.Matrix;
         ObjectArrayTest.class, //
         MatrixTest.class, //
         SparseArrayTest.class, //
+        OffHeapArrayTest.class, //
         ArrayKernelTest.class //
 })
 public class AllArrayOperationTests {
@@ -28,7 +28,11 @@
 
 package org.shared.test.array;
 
+import java.io.File;
 import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.Arrays;
 
 import org.junit.Assert;
@@ -39,6 +43,7 @@ import org.shared.array.ComplexArray;
 import org.shared.array.IntegerArray;
 import org.shared.array.RealArray;
 import org.shared.array.kernel.ArrayIoKernel;
+import org.shared.array.kernel.MatlabFile;
 import org.shared.array.kernel.MatlabIoKernel;
 import org.shared.test.Tests;
 import org.shared.util.IoBase;
@@ -238,4 +243,122 @@ public class ArrayIoKernelTest {
         Assert.assertTrue(Arrays.equals(expected.values(), ((IntegerArray) arrays[0]).values()));
         Assert.assertTrue(Arrays.equals(expected.uMul(1 << 24).values(), ((IntegerArray) arrays[1]).values()));
     }
+
+    /**
+     * Tests streaming {@link Array}s to and memory mapping them from MAT-file channels, as well as reading them lazily
+     * by way of {@link MatlabFile}.
+     * 
+     * @throws IOException
+     *             when something goes awry.
+     */
+    @Test
+    public void testChannelReadWrite() throws IOException {
+
+        MatlabIoKernel kernel = new MatlabIoKernel();
+
+        RealArray ra = new RealArray(6, 5, 7);
+        RealArray nearRa = new RealArray(IndexingOrder.NEAR, 3, 4, 5);
+        ComplexArray ca = new ComplexArray(3, 5, 2);
+        IntegerArray ia = new IntegerArray(IndexingOrder.NEAR, 3, 3);
+
+        double[] raV = ra.values();
+        double[] nearRaV = nearRa.values();
+        double[] caV = ca.values();
+        int[] iaV = ia.values();
+
+        for (int i = 0; i < raV.length; i++) {
+            raV[i] = i;
+        }
+
+        for (int i = 0; i < nearRaV.length; i++) {
+            nearRaV[i] = -i;
+        }
+
+        for (int i = 0; i < caV.length; i++) {
+            caV[i] = i * 0.5;
+        }
+
+        for (int i = 0; i < iaV.length; i++) {
+            iaV[i] = 3 * i - 7;
+        }
+
+        File file = File.createTempFile("arrays", ".mat");
+
+        try {
+
+            RandomAccessFile raf = new RandomAccessFile(file, "rw");
+
+            try {
+
+                FileChannel channel = raf.getChannel();
+
+                assertStreamed(kernel, channel, ra);
+                assertStreamed(kernel, channel, nearRa);
+                assertStreamed(kernel, channel, ca);
+                assertStreamed(kernel, channel, ia);
+
+                channel.truncate(0);
+                kernel.writeMat(channel, ra, nearRa, ca, ia);
+
+                channel.position(0);
+
+                Array<?, ?>[] arrays = kernel.parseMat(channel);
+
+                Assert.assertTrue(Arrays.equals(raV, ((RealArray) arrays[0]).values()));
+                Assert.assertTrue(Arrays.equals(nearRa.reverseOrder().values(), ((RealArray) arrays[1]).values()));
+                Assert.assertTrue(Arrays.equals(caV, ((ComplexArray) arrays[2]).values()));
+                Assert.assertTrue(Arrays.equals(ia.reverseOrder().values(), ((IntegerArray) arrays[3]).values()));
+
+                MatlabFile matFile = new MatlabFile(channel);
+
+                Assert.assertEquals(4, matFile.size());
+                Assert.assertEquals("ra_0", matFile.getName(0));
+                Assert.assertEquals("ca_0", matFile.getName(2));
+                Assert.assertTrue(Arrays.equals(new int[] { 3, 5 }, matFile.getDims(2)));
+                Assert.assertTrue(Arrays.equals(caV, ((ComplexArray) matFile.get(2)).values()));
+
+                Assert.assertTrue(Arrays.equals(ra.subarray(1, 4, 0, 5, 2, 6).values(), //
+                        matFile.subarray(0, 1, 4, 0, 5, 2, 6).values()));
+                Assert.assertTrue(Arrays.equals(ra.subarray(5, 6, 1, 2, 0, 7).values(), //
+                        matFile.subarray(0, 5, 6, 1, 2, 0, 7).values()));
+                Assert.assertTrue(Arrays.equals(nearRa.reverseOrder().subarray(0, 3, 1, 3, 4, 5).values(), //
+                        matFile.subarray(1, 0, 3, 1, 3, 4, 5).values()));
+
+            } finally {
+
+                raf.close();
+            }
+
+        } finally {
+
+            file.delete();
+        }
+    }
+
+    /**
+     * Checks that streaming an {@link Array} to a channel produces the same {@code byte}s as
+     * {@link ArrayIoKernel#getBytes(Array)}, and that the result parses back.
+     */
+    final protected static <T extends Array<T, ?>> void assertStreamed(ArrayIoKernel kernel, FileChannel channel,
+            T array) throws IOException {
+
+        channel.truncate(0);
+        kernel.write(array, channel);
+
+        byte[] expected = kernel.getBytes(array);
+
+        Assert.assertEquals(expected.length, channel.size());
+
+        ByteBuffer actual = ByteBuffer.allocate(expected.length);
+        channel.read(actual, 0);
+
+        Assert.assertTrue(Arrays.equals(expected, actual.array()));
+
+        channel.position(0);
+
+        T parsed = kernel.parse(channel);
+
+        Assert.assertEquals(channel.size(), channel.position());
+        Assert.assertTrue(Arrays.equals(expected, kernel.getBytes(parsed)));
+    }
 }
@@ -31,14 +31,21 @@ package org.shared.test.array;
 import static org.shared.array.ArrayBase.opKernel;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.shared.array.Array.IndexingOrder;
 import org.shared.array.jni.NativeArrayKernel;
 import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.ElementOps;
 import org.shared.array.kernel.JavaArrayKernel;
+import org.shared.array.kernel.LaneArrayKernel;
+import org.shared.array.kernel.MappingOps;
 import org.shared.array.kernel.ModalArrayKernel;
 import org.shared.test.Tests;
+import org.shared.util.Arithmetic;
+import org.shared.util.Services;
 
 /**
  * A class of unit tests for {@link NativeArrayKernel} and {@link JavaArrayKernel}, depending on which is selected by
@@ -376,4 +383,269 @@ public class ArrayKernelTest {
         kernel.convert(ArrayKernel.I_TO_R, new int[] { 1, 2, 3, 4, 5, 6 }, false, v = new double[6], false);
         Assert.assertTrue(Tests.equals(v, new double[] { 1, 2, 3, 4, 5, 6 }));
     }
+
+    /**
+     * Tests that parallel elementwise operations agree with their serial counterparts.
+     */
+    @Test
+    public void testParallelOperations() {
+
+        ArrayKernel kernel = new JavaArrayKernel();
+
+        int parallelism = opKernel.getParallelism();
+
+        opKernel.setParallelism(4);
+
+        try {
+
+            int n = 8 * ElementOps.ELEMENT_GRAIN + 3;
+
+            double[] lhsV = new double[n];
+            double[] rhsV = new double[n];
+            int[] lhsIV = new int[n];
+            int[] rhsIV = new int[n];
+
+            for (int i = 0; i < n; i++) {
+
+                lhsV[i] = Arithmetic.nextDouble(2.0) + 0.5;
+                rhsV[i] = Arithmetic.nextDouble(2.0) - 1.0;
+                lhsIV[i] = Arithmetic.nextInt(256);
+                rhsIV[i] = Arithmetic.nextInt(256);
+            }
+
+            double[] expected = new double[n];
+            double[] v = new double[n];
+
+            for (int i = 0; i < n; i++) {
+                expected[i] = lhsV[i] / rhsV[i];
+            }
+
+            kernel.eOp(ArrayKernel.RE_DIV, lhsV, rhsV, v, false);
+            Assert.assertTrue(Arrays.equals(v, expected));
+
+            for (int i = 0; i < n - 1; i += 2) {
+
+                expected[i] = lhsV[i] * rhsV[i] - lhsV[i + 1] * rhsV[i + 1];
+                expected[i + 1] = lhsV[i] * rhsV[i + 1] + rhsV[i] * lhsV[i + 1];
+            }
+
+            kernel.eOp(ArrayKernel.CE_MUL, Arrays.copyOf(lhsV, n - 1), Arrays.copyOf(rhsV, n - 1), //
+                    v = new double[n - 1], true);
+            Assert.assertTrue(Arrays.equals(v, Arrays.copyOf(expected, n - 1)));
+
+            for (int i = 0; i < n; i++) {
+                expected[i] = Math.log(lhsV[i]);
+            }
+
+            kernel.ruOp(ArrayKernel.RU_LOG, Double.NaN, v = lhsV.clone());
+            Assert.assertTrue(Arrays.equals(v, expected));
+
+            for (int i = 0; i < n - 1; i += 2) {
+
+                expected[i] = lhsV[i];
+                expected[i + 1] = -lhsV[i + 1];
+            }
+
+            kernel.cuOp(ArrayKernel.CU_CONJ, Double.NaN, Double.NaN, v = Arrays.copyOf(lhsV, n - 1));
+            Assert.assertTrue(Arrays.equals(v, Arrays.copyOf(expected, n - 1)));
+
+            int[] expectedI = new int[n];
+            int[] vI = new int[n];
+
+            for (int i = 0; i < n; i++) {
+                expectedI[i] = Math.max(lhsIV[i], rhsIV[i]);
+            }
+
+            kernel.eOp(ArrayKernel.IE_MAX, lhsIV, rhsIV, vI, false);
+            Assert.assertTrue(Arrays.equals(vI, expectedI));
+
+            for (int i = 0; i < n; i++) {
+                expectedI[i] = lhsIV[i] * 3;
+            }
+
+            kernel.iuOp(ArrayKernel.IU_MUL, 3, vI = lhsIV.clone());
+            Assert.assertTrue(Arrays.equals(vI, expectedI));
+
+            Assert.assertTrue(kernel.raOp(ArrayKernel.RA_MAX, rhsV) == Arithmetic.max(rhsV));
+            Assert.assertTrue(kernel.raOp(ArrayKernel.RA_MIN, rhsV) == Arithmetic.min(rhsV));
+            Assert.assertTrue(Math.abs(kernel.raOp(ArrayKernel.RA_SUM, rhsV) - Arithmetic.sum(rhsV)) < 1e-8);
+
+            // Reductions walk fibers from each chunk's starting offset, and long fibers are split into segments.
+            for (int[] dims : new int[][] { { 64, 3, 300 }, { 3, 20000 } }) {
+
+                int nDims = dims.length;
+                int len = Arithmetic.product(dims);
+                int dim = 1;
+
+                int[] dstD = dims.clone();
+                dstD[dim] = 1;
+
+                int[] strides = new int[nDims];
+                int[] dstS = new int[nDims];
+
+                strides[nDims - 1] = dstS[nDims - 1] = 1;
+
+                for (int i = nDims - 2; i >= 0; i--) {
+
+                    strides[i] = strides[i + 1] * dims[i + 1];
+                    dstS[i] = dstS[i + 1] * dstD[i + 1];
+                }
+
+                double[] srcV = new double[len];
+
+                for (int i = 0; i < len; i++) {
+                    srcV[i] = Arithmetic.nextDouble(2.0) - 1.0;
+                }
+
+                double[][] results = new double[2][];
+                double[][] dResults = new double[2][];
+
+                for (int trial = 0; trial < 2; trial++) {
+
+                    opKernel.setParallelism((trial == 0) ? 1 : 4);
+
+                    kernel.rrOp(ArrayKernel.RR_VAR, srcV, dims, strides, //
+                            results[trial] = new double[len / dims[dim]], dstD, dstS, dim);
+                    kernel.rdOp(ArrayKernel.RD_SUM, srcV, dims, strides, dResults[trial] = new double[len], dim);
+                }
+
+                Assert.assertTrue(Arrays.equals(results[0], results[1]));
+                Assert.assertTrue(Arrays.equals(dResults[0], dResults[1]));
+            }
+
+        } finally {
+
+            opKernel.setParallelism(parallelism);
+        }
+    }
+
+    /**
+     * Tests that walking an array with {@link MappingOps#advance(int[], int[], int[])} visits the same physical indices
+     * as {@link MappingOps#assignMappingIndices(int, int[], int[])}.
+     */
+    @Test
+    public void testAdvance() {
+
+        int[] dims = new int[] { 3, 1, 4, 5 };
+        int len = Arithmetic.product(dims);
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            int[] strides = order.strides(dims);
+            int[] expected = MappingOps.assignMappingIndices(len, dims, strides);
+            int[] counters = new int[dims.length];
+
+            for (int i = 0, physical = 0; i < len; i++, physical += MappingOps.advance(counters, dims, strides)) {
+                Assert.assertTrue(physical == expected[i]);
+            }
+
+            Assert.assertTrue(Arrays.equals(counters, new int[dims.length]));
+        }
+    }
+
+    /**
+     * Tests that {@link LaneArrayKernel} agrees with {@link JavaArrayKernel} and can be selected as the registered
+     * kernel.
+     */
+    @Test
+    public void testLaneOperations() {
+
+        ArrayKernel expectedKernel = new JavaArrayKernel();
+        ArrayKernel kernel = new LaneArrayKernel();
+
+        // Draw from a private source, so as not to perturb the random sequences seen by other tests.
+        Random rnd = new Random(0);
+
+        int n = 4 * ElementOps.ELEMENT_GRAIN + 3;
+
+        double[] srcV = new double[n];
+
+        for (int i = 0; i < n; i++) {
+            srcV[i] = 2.0 * rnd.nextDouble() - 1.0;
+        }
+
+        for (int type : new int[] { ArrayKernel.RA_SUM, ArrayKernel.RA_MAX, ArrayKernel.RA_MIN, ArrayKernel.RA_VAR }) {
+            Assert.assertTrue(Math.abs(kernel.raOp(type, srcV) - expectedKernel.raOp(type, srcV)) < 1e-8);
+        }
+
+        double[] prodV = Arrays.copyOf(srcV, 7);
+
+        Assert.assertTrue(Math.abs(kernel.raOp(ArrayKernel.RA_PROD, prodV) //
+                - expectedKernel.raOp(ArrayKernel.RA_PROD, prodV)) < 1e-12);
+
+        //
+
+        int[] srcD = new int[] { 5, 17, 2051 };
+        int len = srcD[0] * srcD[1] * srcD[2];
+
+        srcV = new double[len];
+
+        for (int i = 0; i < len; i++) {
+            srcV[i] = 2.0 * rnd.nextDouble() - 1.0;
+        }
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            int[] srcS = order.strides(srcD);
+
+            for (int dim = 0; dim < srcD.length; dim++) {
+
+                int[] dstD = srcD.clone();
+                dstD[dim] = 1;
+
+                int[] dstS = order.strides(dstD);
+
+                for (int type : new int[] { ArrayKernel.RR_SUM, ArrayKernel.RR_PROD, //
+                        ArrayKernel.RR_MAX, ArrayKernel.RR_MIN, ArrayKernel.RR_VAR }) {
+
+                    double[] expected = new double[len / srcD[dim]];
+                    double[] v = new double[len / srcD[dim]];
+
+                    expectedKernel.rrOp(type, srcV, srcD, srcS, expected, dstD, dstS, dim);
+                    kernel.rrOp(type, srcV, srcD, srcS, v, dstD, dstS, dim);
+
+                    Assert.assertTrue(Tests.equals(v, expected));
+                }
+            }
+        }
+
+        int[] srcS = IndexingOrder.FAR.strides(srcD);
+        int[] dstD = new int[] { 1, srcD[1], 1 };
+        int[] dstS = IndexingOrder.FAR.strides(dstD);
+
+        double[] expected = new double[srcD[1]];
+        double[] v = new double[srcD[1]];
+
+        expectedKernel.rrOp(ArrayKernel.RR_SUM, srcV, srcD, srcS, expected, dstD, dstS, 0, 2);
+        kernel.rrOp(ArrayKernel.RR_SUM, srcV, srcD, srcS, v, dstD, dstS, 0, 2);
+
+        Assert.assertTrue(Tests.equals(v, expected));
+
+        //
+
+        ArrayKernel registered = Services.createService(ArrayKernel.class);
+
+        try {
+
+            Services.registerService(ArrayKernel.class, LaneArrayKernel.class);
+
+            Assert.assertTrue(opKernel.useRegisteredKernel());
+            Assert.assertTrue(Math.abs(opKernel.raOp(ArrayKernel.RA_SUM, //
+                    new double[] { 1.0, -0.5, 0.25, -0.125, 2.0 }) - 2.625) < 1e-12);
+
+        } finally {
+
+            // Restore whatever was registered before, including nothing at all.
+            if (registered != null) {
+
+                Services.registerService(ArrayKernel.class, registered.getClass());
+
+            } else {
+
+                Services.unregisterService(ArrayKernel.class);
+            }
+
+            opKernel.useRegisteredKernel();
+        }
+    }
 }
@@ -0,0 +1,189 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.test.array;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.shared.array.ComplexArray;
+import org.shared.array.RealArray;
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.JavaArrayKernel;
+import org.shared.array.kernel.LaneArrayKernel;
+import org.shared.array.kernel.MatrixOps;
+
+/**
+ * A collection of performance benchmarks for {@link JavaArrayKernel} and {@link LaneArrayKernel}. Pairs of benchmarks contrast optimized code paths
+ * with their straightforward counterparts.
+ * 
+ * @author Roy Liu
+ */
+public class BenchmarkArrayKernel {
+
+    /**
+     * The matrix size.
+     */
+    final public static int MATRIX_SIZE = 512;
+
+    /**
+     * The number of repetitions.
+     */
+    final public static int N_REPS = 8;
+
+    static RealArray lhs, rhs;
+
+    static ComplexArray cLhs, cRhs;
+
+    static ArrayKernel javaKernel, laneKernel;
+
+    /**
+     * Default constructor.
+     */
+    public BenchmarkArrayKernel() {
+    }
+
+    /**
+     * Creates the benchmark inputs and warms up the code paths under test.
+     */
+    @BeforeClass
+    final public static void initClass() {
+
+        lhs = new RealArray(MATRIX_SIZE, MATRIX_SIZE).uRnd(1.0);
+        rhs = new RealArray(MATRIX_SIZE, MATRIX_SIZE).uRnd(1.0);
+
+        cLhs = new ComplexArray(MATRIX_SIZE, MATRIX_SIZE, 2).uRnd(1.0, 1.0);
+        cRhs = new ComplexArray(MATRIX_SIZE, MATRIX_SIZE, 2).uRnd(1.0, 1.0);
+
+        RealArray small = new RealArray(128, 128).uRnd(1.0);
+
+        for (int i = 0; i < 16; i++) {
+
+            MatrixOps.mul(small.values(), small.values(), 128, 128, new double[128 * 128], false);
+            MatrixOps.mulDirect(small.values(), small.values(), 128, 128, new double[128 * 128], false);
+        }
+
+        javaKernel = new JavaArrayKernel();
+        laneKernel = new LaneArrayKernel();
+
+        for (int i = 0; i < 16; i++) {
+
+            reduce(javaKernel, small);
+            reduce(laneKernel, small);
+        }
+    }
+
+    /**
+     * Benchmarks the cache-blocked, multithreaded real matrix multiply.
+     */
+    @Test
+    public void testMulBlocked() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            MatrixOps.mul(lhs.values(), rhs.values(), MATRIX_SIZE, MATRIX_SIZE, //
+                    new double[MATRIX_SIZE * MATRIX_SIZE], false);
+        }
+    }
+
+    /**
+     * Benchmarks the unblocked real matrix multiply.
+     */
+    @Test
+    public void testMulDirect() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            MatrixOps.mulDirect(lhs.values(), rhs.values(), MATRIX_SIZE, MATRIX_SIZE, //
+                    new double[MATRIX_SIZE * MATRIX_SIZE], false);
+        }
+    }
+
+    /**
+     * Benchmarks the cache-blocked, multithreaded complex matrix multiply.
+     */
+    @Test
+    public void testComplexMulBlocked() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            MatrixOps.mul(cLhs.values(), cRhs.values(), MATRIX_SIZE, MATRIX_SIZE, //
+                    new double[2 * MATRIX_SIZE * MATRIX_SIZE], true);
+        }
+    }
+
+    /**
+     * Benchmarks the unblocked complex matrix multiply.
+     */
+    @Test
+    public void testComplexMulDirect() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            MatrixOps.mulDirect(cLhs.values(), cRhs.values(), MATRIX_SIZE, MATRIX_SIZE, //
+                    new double[2 * MATRIX_SIZE * MATRIX_SIZE], true);
+        }
+    }
+
+    /**
+     * Benchmarks accumulator and dimension reduce operations of {@link JavaArrayKernel}.
+     */
+    @Test
+    public void testReduceJava() {
+
+        for (int i = 0; i < 8 * N_REPS; i++) {
+            reduce(javaKernel, lhs);
+        }
+    }
+
+    /**
+     * Benchmarks accumulator and dimension reduce operations of {@link LaneArrayKernel}.
+     */
+    @Test
+    public void testReduceLane() {
+
+        for (int i = 0; i < 8 * N_REPS; i++) {
+            reduce(laneKernel, lhs);
+        }
+    }
+
+    /**
+     * Sums the given matrix in its entirety and along each of its dimensions.
+     */
+    protected static void reduce(ArrayKernel kernel, RealArray src) {
+
+        int[] srcD = src.dims();
+        int[] srcS = src.strides();
+
+        kernel.raOp(ArrayKernel.RA_SUM, src.values());
+        kernel.raOp(ArrayKernel.RA_MAX, src.values());
+
+        for (int dim = 0; dim < 2; dim++) {
+
+            RealArray dst = new RealArray((dim == 0) ? 1 : srcD[0], (dim == 1) ? 1 : srcD[1]);
+
+            kernel.rrOp(ArrayKernel.RR_SUM, src.values(), srcD, srcS, //
+                    dst.values(), dst.dims(), dst.strides(), dim);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+package org.shared.test.array;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.RealArray;
+import org.shared.array.sparse.RealCompressedMatrix;
+
+/**
+ * A collection of performance benchmarks for {@link RealCompressedMatrix}. The inputs are synthetic matrices whose row
+ * lengths follow a power law, as is typical of adjacency matrices of real world graphs.
+ * 
+ * @author Roy Liu
+ */
+public class BenchmarkCompressedOps {
+
+    /**
+     * The matrix size.
+     */
+    final public static int MATRIX_SIZE = 1 << 18;
+
+    /**
+     * The length of the longest row.
+     */
+    final public static int MAX_ROW_LENGTH = 1 << 14;
+
+    /**
+     * The number of dense right hand side columns.
+     */
+    final public static int N_RHS_COLS = 16;
+
+    /**
+     * The number of repetitions.
+     */
+    final public static int N_REPS = 8;
+
+    static RealCompressedMatrix csr, csc;
+
+    static RealArray vec, rhs;
+
+    /**
+     * Default constructor.
+     */
+    public BenchmarkCompressedOps() {
+    }
+
+    /**
+     * Creates the benchmark inputs and warms up the code paths under test.
+     */
+    @BeforeClass
+    final public static void initClass() {
+
+        csr = createPowerLaw(new Random(0), MATRIX_SIZE, MAX_ROW_LENGTH, 1.0);
+        csc = csr.toOrder(IndexingOrder.NEAR);
+
+        vec = new RealArray(MATRIX_SIZE).uRnd(1.0);
+        rhs = new RealArray(MATRIX_SIZE, N_RHS_COLS).uRnd(1.0);
+
+        for (int i = 0; i < 4; i++) {
+
+            csr.mMul(vec);
+            csc.mMul(vec);
+        }
+    }
+
+    /**
+     * Benchmarks the sparse matrix-vector multiply in compressed sparse row format.
+     */
+    @Test
+    public void testSpMVRow() {
+
+        for (int i = 0; i < 8 * N_REPS; i++) {
+            csr.mMul(vec);
+        }
+    }
+
+    /**
+     * Benchmarks the sparse matrix-vector multiply in compressed sparse column format.
+     */
+    @Test
+    public void testSpMVColumn() {
+
+        for (int i = 0; i < 8 * N_REPS; i++) {
+            csc.mMul(vec);
+        }
+    }
+
+    /**
+     * Benchmarks the sparse matrix-dense matrix multiply in compressed sparse row format.
+     */
+    @Test
+    public void testSpMMRow() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            csr.mMul(rhs);
+        }
+    }
+
+    /**
+     * Benchmarks the sparse matrix-dense matrix multiply in compressed sparse column format.
+     */
+    @Test
+    public void testSpMMColumn() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            csc.mMul(rhs);
+        }
+    }
+
+    /**
+     * Benchmarks the sparse matrix-sparse matrix multiply.
+     */
+    @Test
+    public void testSpGEMM() {
+        csr.mMul(csr.transpose());
+    }
+
+    /**
+     * Creates a square matrix whose {@code i}-th longest row has length proportional to {@code (i + 1)^-exponent}.
+     * Rows are shuffled so that long rows are scattered throughout the matrix.
+     */
+    protected static RealCompressedMatrix createPowerLaw(Random rnd, int size, int maxRowLength, double exponent) {
+
+        int[] rowLengths = new int[size];
+        int[] offsets = new int[size + 1];
+
+        for (int i = 0; i < size; i++) {
+            rowLengths[i] = Math.max((int) (maxRowLength / Math.pow(i + 1, exponent)), 1);
+        }
+
+        for (int i = size - 1; i > 0; i--) {
+
+            int j = rnd.nextInt(i + 1);
+            int tmp = rowLengths[i];
+
+            rowLengths[i] = rowLengths[j];
+            rowLengths[j] = tmp;
+        }
+
+        for (int i = 0; i < size; i++) {
+            offsets[i + 1] = offsets[i] + rowLengths[i];
+        }
+
+        int[] minors = new int[offsets[size]];
+        int nnz = 0;
+
+        for (int i = 0; i < size; i++) {
+
+            int start = nnz;
+
+            for (int j = 0; j < rowLengths[i]; j++) {
+                minors[nnz++] = rnd.nextInt(size);
+            }
+
+            Arrays.sort(minors, start, nnz);
+
+            // Remove duplicates.
+            int end = start;
+
+            for (int j = start; j < nnz; j++) {
+
+                if (j == start || minors[j] != minors[end - 1]) {
+                    minors[end++] = minors[j];
+                }
+            }
+
+            nnz = end;
+            offsets[i + 1] = nnz;
+        }
+
+        minors = Arrays.copyOf(minors, nnz);
+
+        double[] values = new double[nnz];
+
+        for (int i = 0; i < nnz; i++) {
+            values[i] = rnd.nextDouble();
+        }
+
+        return new RealCompressedMatrix(IndexingOrder.FAR, size, size, offsets, minors, values);
+    }
+}
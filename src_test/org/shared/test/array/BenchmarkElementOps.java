@@ -0,0 +1,515 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.test.array;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.shared.array.AbstractComplexArray;
+import org.shared.array.AbstractRealArray;
+import org.shared.array.ComplexArray;
+import org.shared.array.RealArray;
+import org.shared.array.RealExpression;
+import org.shared.array.kernel.ElementOps;
+
+/**
+ * A collection of performance benchmarks for the elementwise operations of {@link ElementOps}, one per operation. Unary
+ * operations first restore their input from a pristine copy, so that repeated application doesn't drive values toward
+ * degenerate ones.
+ * 
+ * @author Roy Liu
+ */
+public class BenchmarkElementOps {
+
+    /**
+     * The number of elements.
+     */
+    final public static int SIZE = 1 << 20;
+
+    /**
+     * The number of repetitions.
+     */
+    final public static int N_REPS = 32;
+
+    static RealArray realLhs, realRhs, realDst;
+
+    static ComplexArray complexLhs, complexRhs, complexDst;
+
+    /**
+     * Default constructor.
+     */
+    public BenchmarkElementOps() {
+    }
+
+    /**
+     * Creates the benchmark inputs.
+     */
+    @BeforeClass
+    final public static void initClass() {
+
+        realLhs = new RealArray(SIZE).uRnd(1.0).uAdd(0.5);
+        realRhs = new RealArray(SIZE).uRnd(1.0).uAdd(0.5);
+        realDst = realLhs.clone();
+
+        complexLhs = new ComplexArray(SIZE, 2).uRnd(1.0, 1.0).uAdd(0.5, 0.5);
+        complexRhs = new ComplexArray(SIZE, 2).uRnd(1.0, 1.0).uAdd(0.5, 0.5);
+        complexDst = complexLhs.clone();
+    }
+
+    /**
+     * Benchmarks {@link RealArray#lAdd(AbstractRealArray)}.
+     */
+    @Test
+    public void testRealEAdd() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realDst.lAdd(realRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#lSub(AbstractRealArray)}.
+     */
+    @Test
+    public void testRealESub() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realDst.lSub(realRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#lMul(AbstractRealArray)}.
+     */
+    @Test
+    public void testRealEMul() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realDst.lMul(realRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#lDiv(AbstractRealArray)}.
+     */
+    @Test
+    public void testRealEDiv() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realDst.lDiv(realRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#lMax(AbstractRealArray)}.
+     */
+    @Test
+    public void testRealEMax() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realDst.lMax(realRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#lMin(AbstractRealArray)}.
+     */
+    @Test
+    public void testRealEMin() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realDst.lMin(realRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uAdd(double)}.
+     */
+    @Test
+    public void testRealUAdd() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uAdd(2.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uMul(double)}.
+     */
+    @Test
+    public void testRealUMul() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uMul(2.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uExp()}.
+     */
+    @Test
+    public void testRealUExp() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uExp();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uLog()}.
+     */
+    @Test
+    public void testRealULog() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uLog();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uPow(double)}.
+     */
+    @Test
+    public void testRealUPow() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uPow(1.5);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uAbs()}.
+     */
+    @Test
+    public void testRealUAbs() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uAbs();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uSqrt()}.
+     */
+    @Test
+    public void testRealUSqrt() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uSqrt();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uSqr()}.
+     */
+    @Test
+    public void testRealUSqr() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uSqr();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uInv(double)}.
+     */
+    @Test
+    public void testRealUInv() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uInv(1.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uCos()}.
+     */
+    @Test
+    public void testRealUCos() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uCos();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uSin()}.
+     */
+    @Test
+    public void testRealUSin() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uSin();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uAtan()}.
+     */
+    @Test
+    public void testRealUAtan() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uAtan();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link RealArray#uFill(double)}.
+     */
+    @Test
+    public void testRealUFill() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(realLhs.values(), 0, realDst.values(), 0, SIZE);
+
+            realDst.uFill(1.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#lAdd(AbstractComplexArray)}.
+     */
+    @Test
+    public void testComplexEAdd() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            complexDst.lAdd(complexRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#lSub(AbstractComplexArray)}.
+     */
+    @Test
+    public void testComplexESub() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            complexDst.lSub(complexRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#lMul(AbstractComplexArray)}.
+     */
+    @Test
+    public void testComplexEMul() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            complexDst.lMul(complexRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#lDiv(AbstractComplexArray)}.
+     */
+    @Test
+    public void testComplexEDiv() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            complexDst.lDiv(complexRhs);
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uAdd(double, double)}.
+     */
+    @Test
+    public void testComplexUAdd() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uAdd(2.0, 1.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uMul(double, double)}.
+     */
+    @Test
+    public void testComplexUMul() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uMul(2.0, 1.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uExp()}.
+     */
+    @Test
+    public void testComplexUExp() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uExp();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uConj()}.
+     */
+    @Test
+    public void testComplexUConj() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uConj();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uCos()}.
+     */
+    @Test
+    public void testComplexUCos() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uCos();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uSin()}.
+     */
+    @Test
+    public void testComplexUSin() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uSin();
+
+        }
+    }
+
+    /**
+     * Benchmarks {@link ComplexArray#uFill(double, double)}.
+     */
+    @Test
+    public void testComplexUFill() {
+
+        for (int i = 0; i < N_REPS; i++) {
+
+            System.arraycopy(complexLhs.values(), 0, complexDst.values(), 0, 2 * SIZE);
+
+            complexDst.uFill(1.0, 0.0);
+
+        }
+    }
+
+    /**
+     * Benchmarks a chain of eager operations, for contrast with {@link #testRealChainLazy()}.
+     */
+    @Test
+    public void testRealChainEager() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realLhs.eSub(realRhs).uSqr().eAdd(realDst).uMul(0.5).eMul(realRhs).uSqrt();
+        }
+    }
+
+    /**
+     * Benchmarks a chain of operations fused by {@link RealExpression}.
+     */
+    @Test
+    public void testRealChainLazy() {
+
+        for (int i = 0; i < N_REPS; i++) {
+            realLhs.lazy().eSub(realRhs).uSqr().eAdd(realDst).uMul(0.5).eMul(realRhs).uSqrt().eval();
+        }
+    }
+}
@@ -30,12 +30,15 @@ package org.shared.test.array;
 
 import static org.shared.array.ArrayBase.opKernel;
 
+import java.util.Arrays;
+
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.shared.array.ComplexArray;
 import org.shared.array.Matrix;
 import org.shared.array.RealArray;
+import org.shared.array.kernel.MatrixOps;
 import org.shared.test.Tests;
 import org.shared.util.Control;
 
@@ -122,6 +125,35 @@ public class MatrixTest {
                 c1.mMul(c2).values(), cExpected.values()));
     }
 
+    /**
+     * Tests {@link Matrix#mMul(Matrix)} on arguments large enough to exercise cache blocking and multithreading.
+     */
+    @Test
+    public void testMMulBlocked() {
+
+        int lr = 97;
+        int inner = 131;
+        int rc = 263;
+
+        RealArray a = new RealArray(lr, inner).uRnd(1.0);
+        RealArray b = new RealArray(inner, rc).uRnd(1.0);
+        RealArray expected = new RealArray(lr, rc);
+
+        MatrixOps.mulDirect(a.values(), b.values(), lr, rc, expected.values(), false);
+
+        Assert.assertTrue(Tests.equals( //
+                a.mMul(b).values(), expected.values()));
+
+        ComplexArray cA = new ComplexArray(lr, inner, 2).uRnd(1.0, 1.0);
+        ComplexArray cB = new ComplexArray(inner, rc, 2).uRnd(1.0, 1.0);
+        ComplexArray cExpected = new ComplexArray(lr, rc, 2);
+
+        MatrixOps.mulDirect(cA.values(), cB.values(), lr, rc, cExpected.values(), true);
+
+        Assert.assertTrue(Tests.equals( //
+                cA.mMul(cB).values(), cExpected.values()));
+    }
+
     /**
      * Tests {@link Matrix#mDiag()}.
      */
@@ -201,6 +233,43 @@ public class MatrixTest {
         }
     }
 
+    /**
+     * Tests {@link Matrix#mSvd(int)}.
+     */
+    @Test
+    public void testMSvdTruncated() {
+
+        int rank = 8;
+        int k = 5;
+
+        for (int[] shape : new int[][] { new int[] { 300, 40 }, new int[] { 40, 300 } }) {
+
+            RealArray r = new RealArray(shape[0], rank).uRnd(1.0) //
+                    .mMul(new RealArray(rank, shape[1]).uRnd(1.0));
+
+            RealArray[] svds = r.mSvd(k);
+            RealArray[] fullSvds = r.mSvd();
+
+            Assert.assertTrue(Arrays.equals(new int[] { shape[0], k }, svds[0].dims()));
+            Assert.assertTrue(Arrays.equals(new int[] { k, k }, svds[1].dims()));
+            Assert.assertTrue(Arrays.equals(new int[] { shape[1], k }, svds[2].dims()));
+
+            RealArray eye = RealArray.eye(k, 2);
+
+            Assert.assertTrue(svds[0].mTranspose().mMul(svds[0]).lSub(eye).uAbs().aSum() < 1e-8);
+            Assert.assertTrue(svds[2].mTranspose().mMul(svds[2]).lSub(eye).uAbs().aSum() < 1e-8);
+
+            Assert.assertTrue(svds[1].mDiag().lSub(fullSvds[1].mDiag().subarray(0, k, 0, 1)) //
+                    .uAbs().aSum() < 1e-8);
+
+            // Recovering the full rank reproduces the matrix.
+            svds = r.mSvd(rank);
+
+            Assert.assertTrue(r.eSub(svds[0].mMul(svds[1]).mMul(svds[2].mTranspose())) //
+                    .uAbs().aSum() < 1e-8);
+        }
+    }
+
     /**
      * Tests {@link Matrix#mEigs()}.
      */
@@ -220,6 +289,43 @@ public class MatrixTest {
         }
     }
 
+    /**
+     * Tests {@link Matrix#mEigs()} on symmetric matrices, whose eigenvectors should be orthonormal and whose
+     * eigenvalues should be real and ascending.
+     */
+    @Test
+    public void testMEigsSymmetric() {
+
+        int nTrials = 4;
+
+        for (int size : new int[] { 1, 2, 37, 128 }) {
+
+            RealArray eye = RealArray.eye(size, 2);
+
+            for (int i = 0; i < nTrials; i++) {
+
+                RealArray x = new RealArray(size, size).uRnd(1.0);
+                RealArray r = x.mTranspose().mMul(x);
+
+                RealArray[] eigs = r.mEigs();
+
+                Assert.assertTrue(r.mMul(eigs[0]).lSub(eigs[0].mMul(eigs[1])) //
+                        .uAbs().aSum() < 1e-8 * size);
+
+                Assert.assertTrue(eigs[0].mTranspose().mMul(eigs[0]).lSub(eye) //
+                        .uAbs().aSum() < 1e-8 * size);
+
+                RealArray diag = eigs[1].mDiag();
+
+                Assert.assertTrue(eigs[1].eSub(eye.eMul(eigs[1])).uAbs().aSum() == 0.0);
+
+                for (int j = 1; j < size; j++) {
+                    Assert.assertTrue(diag.get(j - 1, 0) <= diag.get(j, 0));
+                }
+            }
+        }
+    }
+
     /**
      * Tests {@link Matrix#mInvert()}.
      */
@@ -239,4 +345,195 @@ public class MatrixTest {
                     .uAbs().aSum() < 1e-8);
         }
     }
+
+    /**
+     * Tests {@link Matrix#mSolve(Matrix)}.
+     */
+    @Test
+    public void testMSolve() {
+
+        int nTrials = 4;
+
+        // Cover sizes on either side of the LU block size.
+        int[] sizes = new int[] { 1, 17, 64, 150 };
+
+        for (int size : sizes) {
+
+            RealArray eye = RealArray.eye(size, 2);
+
+            for (int i = 0; i < nTrials; i++) {
+
+                RealArray r = new RealArray(size, size).uRnd(1.0).lAdd(eye);
+                RealArray b = new RealArray(size, 3).uRnd(1.0);
+
+                Assert.assertTrue(r.mMul(r.mSolve(b)).lSub(b) //
+                        .uAbs().aSum() < 1e-8);
+
+                Assert.assertTrue(r.mSolve(eye).lSub(r.mInvert()) //
+                        .uAbs().aSum() < 1e-8);
+            }
+        }
+    }
+
+    /**
+     * Tests {@link RealArray#mDet()} and {@link RealArray#mCond()}.
+     */
+    @Test
+    public void testMDetCond() {
+
+        RealArray r = new RealArray(new double[] {
+                //
+                0, 2, 1, //
+                1, 1, 0, //
+                3, 0, 4 //
+                }, //
+                3, 3 //
+        );
+
+        Assert.assertEquals(-11.0, r.mDet(), 1e-12);
+        Assert.assertEquals(0.0, new RealArray(4, 4).mDet(), 0.0);
+        Assert.assertEquals(Double.POSITIVE_INFINITY, new RealArray(4, 4).mCond(), 0.0);
+
+        int size = 100;
+
+        RealArray eye = RealArray.eye(size, 2);
+
+        for (int i = 0; i < 4; i++) {
+
+            RealArray a = new RealArray(size, size).uRnd(1.0).lAdd(eye);
+            RealArray b = new RealArray(size, size).uRnd(1.0).lAdd(eye);
+
+            double detA = a.mDet();
+            double detB = b.mDet();
+
+            Assert.assertEquals(1.0, a.mMul(b).mDet() / (detA * detB), 1e-8);
+
+            double exact = a.uAbs().rSum(0).aMax() * a.mInvert().uAbs().rSum(0).aMax();
+            double estimate = a.mCond();
+
+            Assert.assertTrue(estimate <= exact * (1.0 + 1e-8) && estimate >= exact / 10.0);
+        }
+    }
+
+    /**
+     * Tests {@link RealArray#mCholesky()}, {@link RealArray#mCholeskySolve(RealArray)}, and
+     * {@link RealArray#mCholeskyLogDet()}.
+     */
+    @Test
+    public void testMCholesky() {
+
+        // Span several blocks, the last of them partial.
+        int size = 150;
+        int nCols = 7;
+
+        RealArray x = new RealArray(size, size).uRnd(1.0);
+        RealArray a = x.mMul(x.transpose(1, 0)).lAdd(RealArray.eye(size, 2).uMul(size));
+
+        RealArray l = a.mCholesky();
+
+        for (int i = 0; i < size; i++) {
+
+            for (int j = i + 1; j < size; j++) {
+                Assert.assertEquals(0.0, l.get(i, j), 0.0);
+            }
+        }
+
+        Assert.assertTrue(Tests.equals(l.mMul(l.transpose(1, 0)).values(), a.values()));
+
+        RealArray b = new RealArray(size, nCols).uRnd(1.0);
+        RealArray sol = a.mCholeskySolve(b);
+
+        Assert.assertTrue(Tests.equals(a.mMul(sol).values(), b.values()));
+        Assert.assertTrue(Tests.equals(a.mSolve(b).values(), sol.values()));
+
+        RealArray small = new RealArray(new double[] {
+                //
+                4, 2, 0, //
+                2, 5, 1, //
+                0, 1, 3 //
+                }, //
+                3, 3 //
+        );
+
+        Assert.assertEquals(Math.log(small.mDet()), small.mCholeskyLogDet(), 1e-12);
+
+        try {
+
+            new RealArray(new double[] {
+                    //
+                    1, 2, //
+                    2, 1 //
+                    }, //
+                    2, 2 //
+            ).mCholesky();
+
+            Assert.fail();
+
+        } catch (RuntimeException e) {
+        }
+    }
+
+    /**
+     * Tests {@link RealArray#mMulBatch(RealArray)}, {@link RealArray#mInvertBatch()}, {@link RealArray#mEigsBatch()},
+     * and {@link RealArray#mCholeskyBatch()} against their one-matrix-at-a-time counterparts.
+     */
+    @Test
+    public void testBatch() {
+
+        int nBatch = 50;
+
+        for (int size : new int[] { 1, 2, 3, 4, 7 }) {
+
+            RealArray eye = RealArray.eye(size, 2);
+
+            RealArray lhs = new RealArray(nBatch, size, size);
+            RealArray rhs = new RealArray(nBatch, size, 5).uRnd(1.0);
+            RealArray spd = new RealArray(nBatch, size, size);
+
+            for (int b = 0; b < nBatch; b++) {
+
+                RealArray x = new RealArray(size, size).uRnd(1.0);
+
+                x.clone().lAdd(eye).reshape(1, size, size).map(lhs, 0, b, 1, 0, 0, size, 0, 0, size);
+                x.mTranspose().mMul(x).lAdd(eye).reshape(1, size, size).map(spd, 0, b, 1, 0, 0, size, 0, 0, size);
+            }
+
+            RealArray products = lhs.mMulBatch(rhs);
+            RealArray squares = lhs.mMulBatch(lhs);
+            RealArray inverses = lhs.mInvertBatch();
+            RealArray[] eigs = spd.mEigsBatch();
+            RealArray factors = spd.mCholeskyBatch();
+
+            for (int b = 0; b < nBatch; b++) {
+
+                RealArray l = lhs.subarray(b, b + 1, 0, size, 0, size).reshape(size, size);
+                RealArray r = rhs.subarray(b, b + 1, 0, size, 0, 5).reshape(size, 5);
+                RealArray s = spd.subarray(b, b + 1, 0, size, 0, size).reshape(size, size);
+
+                Assert.assertTrue(products.subarray(b, b + 1, 0, size, 0, 5).reshape(size, 5) //
+                        .lSub(l.mMul(r)).uAbs().aSum() < 1e-10);
+
+                Assert.assertTrue(squares.subarray(b, b + 1, 0, size, 0, size).reshape(size, size) //
+                        .lSub(l.mMul(l)).uAbs().aSum() < 1e-10);
+
+                Assert.assertTrue(l.mMul(inverses.subarray(b, b + 1, 0, size, 0, size).reshape(size, size)) //
+                        .lSub(eye).uAbs().aSum() < 1e-8);
+
+                RealArray vecs = eigs[0].subarray(b, b + 1, 0, size, 0, size).reshape(size, size);
+                RealArray vals = eigs[1].subarray(b, b + 1, 0, size, 0, size).reshape(size, size);
+
+                Assert.assertTrue(s.mMul(vecs).lSub(vecs.mMul(vals)).uAbs().aSum() < 1e-8);
+
+                RealArray factor = factors.subarray(b, b + 1, 0, size, 0, size).reshape(size, size);
+
+                Assert.assertTrue(factor.mMul(factor.mTranspose()).lSub(s).uAbs().aSum() < 1e-8);
+
+                for (int i = 0; i < size; i++) {
+                    for (int j = i + 1; j < size; j++) {
+                        Assert.assertTrue(factor.get(i, j) == 0.0);
+                    }
+                }
+            }
+        }
+    }
 }
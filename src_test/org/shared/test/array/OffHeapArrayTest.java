@@ -0,0 +1,159 @@
+/**
+ * <p>
+ * Copyright (c) 2010 Roy Liu<br>
+ * All rights reserved.
+ * </p>
+ * <p>
+ * Redistribution and use in source and binary forms, with or without modification, are permitted provided that the
+ * following conditions are met:
+ * </p>
+ * <ul>
+ * <li>Redistributions of source code must retain the above copyright notice, this list of conditions and the following
+ * disclaimer.</li>
+ * <li>Redistributions in binary form must reproduce the above copyright notice, this list of conditions and the
+ * following disclaimer in the documentation and/or other materials provided with the distribution.</li>
+ * <li>Neither the name of the author nor the names of any contributors may be used to endorse or promote products
+ * derived from this software without specific prior written permission.</li>
+ * </ul>
+ * <p>
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES,
+ * INCLUDING, BUT NOT LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE ARE
+ * DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT HOLDERS OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+ * SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY,
+ * WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+ * OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+ * </p>
+ */
+
+package org.shared.test.array;
+
+import java.util.Arrays;
+
+import org.junit.Assert;
+import org.junit.Test;
+import org.shared.array.AbstractOffHeapArray;
+import org.shared.array.Array.IndexingOrder;
+import org.shared.array.ComplexArray;
+import org.shared.array.IntegerArray;
+import org.shared.array.OffHeapComplexArray;
+import org.shared.array.OffHeapIntegerArray;
+import org.shared.array.OffHeapRealArray;
+import org.shared.array.RealArray;
+import org.shared.array.kernel.OffHeapOps;
+import org.shared.test.Tests;
+import org.shared.util.Arithmetic;
+
+/**
+ * A class of unit tests for {@link AbstractOffHeapArray} and its subclasses.
+ * 
+ * @author Roy Liu
+ */
+public class OffHeapArrayTest {
+
+    /**
+     * Default constructor.
+     */
+    public OffHeapArrayTest() {
+    }
+
+    /**
+     * Tests real operations over storage that spans multiple chunks.
+     */
+    @Test
+    public void testRealOperations() {
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            RealArray a = new RealArray(order, 3, 5003).uRnd(1.0).uAdd(0.5);
+            RealArray b = new RealArray(order, 3, 5003).uRnd(1.0).uAdd(0.5);
+
+            OffHeapRealArray offA = copy(a);
+            OffHeapRealArray offB = copy(b);
+
+            Assert.assertTrue(offA.chunks().length == 4);
+
+            offA.lMul(offB).uSqrt().lAdd(offB).uInv(1.0);
+            a.lMul(b).uSqrt().lAdd(b).uInv(1.0);
+
+            Assert.assertTrue(Arrays.equals(offA.toArray().values(), a.values()));
+            Assert.assertTrue(offA.get(2, 4097) == a.get(2, 4097));
+
+            Assert.assertTrue(Math.abs(offA.aSum() - a.aSum()) < 1e-8);
+            Assert.assertTrue(offA.aMax() == a.aMax());
+            Assert.assertTrue(offA.aMin() == a.aMin());
+
+            offA.set(-1.0, 1, 4200);
+            Assert.assertTrue(offA.get(1, 4200) == -1.0);
+            Assert.assertTrue(offA.aMin() == -1.0);
+        }
+    }
+
+    /**
+     * Tests complex and integer operations.
+     */
+    @Test
+    public void testComplexAndIntegerOperations() {
+
+        ComplexArray a = new ComplexArray(7, 1001, 2).uRnd(1.0, 1.0);
+        ComplexArray b = new ComplexArray(7, 1001, 2).uRnd(1.0, 1.0);
+
+        OffHeapComplexArray offA = new OffHeapComplexArray(OffHeapOps.TILE_SIZE, new int[] { 7, 1001, 2 });
+        OffHeapComplexArray offB = new OffHeapComplexArray(OffHeapOps.TILE_SIZE, new int[] { 7, 1001, 2 });
+
+        OffHeapOps.copy(a.values(), offA.chunks());
+        OffHeapOps.copy(b.values(), offB.chunks());
+
+        offA.lMul(offB).uConj().uAdd(1.0, -1.0);
+        a = a.eMul(b).uConj().uAdd(1.0, -1.0);
+
+        Assert.assertTrue(Arrays.equals(offA.toArray().values(), a.values()));
+        Assert.assertTrue(Tests.equals(offA.aSum(), a.aSum()));
+
+        IntegerArray c = new IntegerArray(IndexingOrder.FAR, 9, 1000);
+        IntegerArray d = new IntegerArray(IndexingOrder.FAR, 9, 1000);
+
+        for (int i = 0, n = c.values().length; i < n; i++) {
+
+            c.values()[i] = Arithmetic.nextInt(100);
+            d.values()[i] = Arithmetic.nextInt(100);
+        }
+
+        OffHeapIntegerArray offC = new OffHeapIntegerArray(OffHeapOps.TILE_SIZE, IndexingOrder.FAR, 9, 1000);
+        OffHeapIntegerArray offD = new OffHeapIntegerArray(OffHeapOps.TILE_SIZE, IndexingOrder.FAR, 9, 1000);
+
+        OffHeapOps.copy(c.values(), offC.chunks());
+        OffHeapOps.copy(d.values(), offD.chunks());
+
+        offC.lMax(offD).uMul(3);
+        c.lMax(d).uMul(3);
+
+        Assert.assertTrue(Arrays.equals(offC.toArray().values(), c.values()));
+    }
+
+    /**
+     * Tests that released storage cannot be accessed.
+     */
+    @Test(expected = IllegalStateException.class)
+    public void testClose() {
+
+        OffHeapRealArray a = new OffHeapRealArray(16, 16).uFill(1.0);
+
+        Assert.assertTrue(a.aSum() == 256.0);
+
+        a.close();
+        a.aSum();
+    }
+
+    /**
+     * Copies a heap array into off-heap storage with small chunks.
+     */
+    protected static OffHeapRealArray copy(RealArray array) {
+
+        OffHeapRealArray res = new OffHeapRealArray(OffHeapOps.TILE_SIZE, array.order(), array.dims());
+
+        OffHeapOps.copy(array.values(), res.chunks());
+
+        return res;
+    }
+}
@@ -37,8 +37,14 @@ import org.shared.array.AbstractRealArray.RealMap;
 import org.shared.array.AbstractRealArray.RealReduce;
 import org.shared.array.Array;
 import org.shared.array.Array.IndexingOrder;
+import org.shared.array.ArrayView;
+import org.shared.array.ComplexArray;
+import org.shared.array.ComplexExpression;
 import org.shared.array.IntegerArray;
 import org.shared.array.RealArray;
+import org.shared.array.RealExpression;
+import org.shared.array.kernel.ArrayKernel;
+import org.shared.array.kernel.LaneArrayKernel;
 import org.shared.test.Tests;
 import org.shared.util.Arithmetic;
 
@@ -937,6 +943,56 @@ public class RealArrayTest {
         Assert.assertTrue(Arrays.equals(a.rVar(0).values(), expected.values()));
     }
 
+    /**
+     * Tests the numerical stability of reduce and cumulative dimension operations on long fibers.
+     */
+    @Test
+    public void testRrOpsStability() {
+
+        int size = 30000;
+
+        RealArray a = new RealArray(2, size);
+
+        for (int i = 0; i < size; i++) {
+
+            // Cancellation between huge values would swallow the ones in a naive running sum.
+            a.set((i % 3 == 0) ? 1e16 : (i % 3 == 1) ? 1.0 : -1e16, 0, i);
+            a.set(1e9 + (i % 3), 1, i);
+        }
+
+        RealArray sums = a.rSum(1);
+
+        Assert.assertEquals(size / 3, sums.get(0, 0), 0.0);
+        Assert.assertEquals(size * 1e9 + size, sums.get(1, 0), 0.0);
+
+        RealArray cumulativeSums = a.dSum(1);
+
+        Assert.assertEquals(size / 3, cumulativeSums.get(0, size - 1), 0.0);
+
+        RealArray variances = a.rVar(1);
+
+        Assert.assertEquals(2.0 / 3.0, variances.get(1, 0), 1e-6);
+
+        // The lane kernel must compensate as well, both along and across contiguous memory.
+        ArrayKernel kernel = new LaneArrayKernel();
+
+        double[] laneSums = new double[2];
+
+        kernel.rrOp(ArrayKernel.RR_SUM, a.values(), a.dims(), a.strides(), //
+                laneSums, new int[] { 2, 1 }, new int[] { 1, 1 }, 1);
+
+        Assert.assertEquals(size / 3, laneSums[0], 0.0);
+        Assert.assertEquals(size * 1e9 + size, laneSums[1], 0.0);
+
+        RealArray b = a.transpose(1, 0);
+
+        kernel.rrOp(ArrayKernel.RR_SUM, b.values(), b.dims(), b.strides(), //
+                laneSums, new int[] { 1, 2 }, new int[] { 2, 1 }, 0);
+
+        Assert.assertEquals(size / 3, laneSums[0], 0.0);
+        Assert.assertEquals(size * 1e9 + size, laneSums[1], 0.0);
+    }
+
     /**
      * Tests dimension index functions.
      */
@@ -1274,6 +1330,45 @@ public class RealArrayTest {
                 && Arrays.equals(indices.values(), expected.values()));
     }
 
+    /**
+     * Tests {@link RealArray#iTopK(int, int)} and {@link RealArray#rTopK(int, int)}.
+     */
+    @Test
+    public void testTopK() {
+
+        RealArray a = new RealArray(6, 40, 7).uRnd(1.0);
+
+        for (int dim = 0; dim < 3; dim++) {
+
+            int size = a.size(dim);
+
+            for (int k : new int[] { 0, 1, size / 2, size }) {
+
+                int[] bounds = new int[] { 0, a.size(0), 0, a.size(1), 0, a.size(2) };
+                bounds[2 * dim + 1] = k;
+
+                RealArray sorted = a.clone();
+                IntegerArray sortedIndices = sorted.iSort(dim);
+
+                Assert.assertTrue(Arrays.equals(sortedIndices.subarray(bounds).values(), a.iTopK(dim, k).values()));
+                Assert.assertTrue(Arrays.equals(sorted.subarray(bounds).values(), a.rTopK(dim, k).values()));
+            }
+        }
+
+        RealArray b = new RealArray(new double[] {
+                //
+                3, 1, 2, 1, 0, //
+                2, 2, 2, 2, 2 //
+                }, //
+                2, 5 //
+        );
+
+        // Ties are broken by position.
+        Assert.assertTrue(Arrays.equals(new int[] { 4, 1, 3, 0, 1, 2 }, b.iTopK(1, 3).values()));
+        Assert.assertTrue(Arrays.equals(new double[] { 0, 1, 1, 2, 2, 2 }, b.rTopK(1, 3).values()));
+        Assert.assertTrue(Arrays.equals(new int[] { 1, 0, 0, 0, 0 }, b.iTopK(0, 1).values()));
+    }
+
     /**
      * Tests dimension functions.
      */
@@ -1413,6 +1508,109 @@ public class RealArrayTest {
         Assert.assertTrue(Math.abs(a.clone().uSqr().aSum() - expected) < 1e-8);
     }
 
+    /**
+     * Tests {@link RealExpression} and {@link ComplexExpression}.
+     */
+    @Test
+    public void testLazy() {
+
+        int nRows = 67;
+        int nCols = 1031;
+
+        RealArray a = new RealArray(nRows, nCols).uRnd(1.0);
+        RealArray b = new RealArray(nRows, nCols).uRnd(1.0);
+        RealArray c = new RealArray(nRows, nCols).uRnd(1.0);
+
+        RealArray expected = a.eSub(b).uSqr().lAdd(c).uSqrt().lMul(b.clone().uExp().lMax(c));
+
+        RealExpression<RealArray> expr = a.lazy().eSub(b).uSqr().eAdd(c).uSqrt() //
+                .eMul(b.lazy().uExp().eMax(c));
+
+        Assert.assertTrue(Tests.equals(expr.eval().values(), expected.values()));
+        Assert.assertTrue(Math.abs(expr.aSum() - expected.aSum()) < 1e-8);
+        Assert.assertTrue(Math.abs(expr.aMax() - expected.aMax()) < 1e-8);
+        Assert.assertTrue(Math.abs(expr.aMin() - expected.aMin()) < 1e-8);
+
+        RealArray d = a.clone();
+
+        Assert.assertTrue(d.lazy().uMul(2.0).eAdd(b).eval(d) == d);
+        Assert.assertTrue(Arrays.equals(d.values(), a.clone().uMul(2.0).lAdd(b).values()));
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            RealArray column = new RealArray(Arithmetic.doubleRange(nRows), order, nRows, 1);
+            RealArray row = new RealArray(Arithmetic.doubleRange(nCols), order, 1, nCols).uMul(0.5);
+
+            RealArray tiled = column.tile(1, nCols).eSub(row.tile(nRows, 1)).uSqr();
+
+            RealExpression<RealArray> broadcast = column.lazy(nRows, nCols).eSub(row.lazy(nRows, nCols)).uSqr();
+
+            Assert.assertTrue(Arrays.equals(broadcast.eval().values(), tiled.values()));
+            Assert.assertEquals(tiled.aSum(), broadcast.aSum(), 1e-8 * tiled.aSum());
+        }
+
+        ComplexArray x = new ComplexArray(nRows, nCols, 2).uRnd(1.0, 1.0);
+        ComplexArray y = new ComplexArray(nRows, nCols, 2).uRnd(1.0, 1.0);
+
+        ComplexArray cExpected = x.eMul(y).uAdd(1.0, -1.0).eDiv(y.clone().uConj().uExp());
+
+        ComplexExpression<ComplexArray> cExpr = x.lazy().eMul(y).uAdd(1.0, -1.0).eDiv(y.lazy().uConj().uExp());
+
+        Assert.assertTrue(Tests.equals(cExpr.eval().values(), cExpected.values()));
+        Assert.assertTrue(Tests.equals(cExpr.aSum(), cExpected.aSum()));
+    }
+
+    /**
+     * Tests {@link ArrayView}.
+     */
+    @Test
+    public void testView() {
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            RealArray a = new RealArray(Arithmetic.doubleRange(5 * 6 * 7), order, 5, 6, 7);
+            RealArray original = a.clone();
+
+            ArrayView<RealArray, double[], Double> view = a.view().subarray(1, 4, 2, 6, 0, 5) //
+                    .transpose(2, 0, 1).reverse(0, 2);
+
+            Assert.assertTrue(view.values() == a.values());
+            Assert.assertTrue(Arrays.equals(view.dims(), new int[] { 4, 5, 3 }));
+
+            RealArray expected = a.subarray(1, 4, 2, 6, 0, 5).transpose(2, 0, 1).reverse(0, 2);
+
+            Assert.assertTrue(Arrays.equals(view.copy().values(), expected.values()));
+            Assert.assertTrue(view.getDouble(0, 1, 2) == expected.get(0, 1, 2));
+
+            // Strided operands are read in place by the elementwise and accumulator operations.
+            ArrayView<RealArray, double[], Double> other = a.view().subarray(0, 4, 1, 4, 2, 7).transpose(0, 2, 1);
+            RealArray otherExpected = a.subarray(0, 4, 1, 4, 2, 7).transpose(0, 2, 1);
+
+            Assert.assertTrue(Arrays.equals(view.eAdd(other).values(), expected.eAdd(otherExpected).values()));
+            Assert.assertTrue(Arrays.equals(view.eMul(other).values(), expected.eMul(otherExpected).values()));
+            Assert.assertTrue(Arrays.equals(view.eMin(other).values(), expected.eMin(otherExpected).values()));
+            Assert.assertTrue(view.aSum() == expected.aSum());
+            Assert.assertTrue(view.aMax() == expected.aMax());
+
+            // Writes copy the viewed window and never reach the original array.
+            ArrayView<RealArray, double[], Double> sibling = view.reverse(1);
+
+            view.setDouble(-1.0, 0, 1, 2);
+
+            Assert.assertTrue(view.values() != a.values());
+            Assert.assertTrue(view.getDouble(0, 1, 2) == -1.0);
+            Assert.assertTrue(sibling.getDouble(0, 3, 2) == expected.get(0, 1, 2));
+            Assert.assertTrue(Arrays.equals(a.values(), original.values()));
+
+            RealArray b = new RealArray(order, 4, 5, 3).uRnd(1.0);
+
+            Assert.assertTrue(Arrays.equals(view.assign(b).copy().values(), b.values()));
+            Assert.assertTrue(Arrays.equals(a.values(), original.values()));
+
+            Assert.assertTrue(a.view().subarray(0, 0, 0, 6, 0, 7).copy().values().length == 0);
+        }
+    }
+
     /**
      * Tests corner cases.
      */
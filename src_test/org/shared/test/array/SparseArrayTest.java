@@ -31,17 +31,22 @@ package org.shared.test.array;
 import static org.shared.array.ArrayBase.DEFAULT_ORDER;
 
 import java.util.Arrays;
+import java.util.Random;
 
 import org.junit.Assert;
 import org.junit.Test;
+import org.shared.array.Array.IndexingOrder;
 import org.shared.array.IntegerArray;
 import org.shared.array.ObjectArray;
 import org.shared.array.ProtoArray;
 import org.shared.array.RealArray;
+import org.shared.array.kernel.ParallelOps;
 import org.shared.array.sparse.IntegerSparseArray;
 import org.shared.array.sparse.ObjectSparseArray;
 import org.shared.array.sparse.ProtoSparseArray;
+import org.shared.array.sparse.RealCompressedMatrix;
 import org.shared.array.sparse.RealSparseArray;
+import org.shared.test.Tests;
 import org.shared.util.Arithmetic;
 
 /**
@@ -404,6 +409,332 @@ public class SparseArrayTest {
         }
     }
 
+    /**
+     * Tests conversions to and arithmetic on {@link RealCompressedMatrix}.
+     */
+    @Test
+    public void testCompressed() {
+
+        Random rnd = new Random(0);
+
+        int nRows = 37;
+        int nInner = 53;
+        int nCols = 11;
+
+        RealSparseArray lhsSparse = createSparse(rnd, new int[] { nRows, nInner }, 0.1);
+        RealSparseArray rhsSparse = createSparse(rnd, new int[] { nInner, nCols }, 0.2);
+
+        RealArray lhs = lhsSparse.toDense();
+        RealArray rhs = rhsSparse.toDense();
+
+        RealArray vec = new RealArray(nInner).uRnd(1.0);
+        RealArray expectedVec = lhs.mMul(vec.reshape(nInner, 1)).reshape(nRows);
+
+        for (IndexingOrder order : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+            RealCompressedMatrix compressed = lhsSparse.toCompressed(order);
+
+            Assert.assertEquals(order, compressed.order());
+            Assert.assertTrue(Arrays.equals(lhs.values(), compressed.toDense().values()));
+            Assert.assertTrue(Arrays.equals(lhs.values(), compressed.toSparse().toDense().values()));
+            Assert.assertTrue(Arrays.equals(lhs.values(), compressed.toOrder(order.reverse()).toDense().values()));
+            Assert.assertTrue(Arrays.equals(lhs.transpose(1, 0).values(), //
+                    compressed.transpose().toDense().values()));
+
+            Assert.assertEquals(lhs.get(3, 5), compressed.get(3, 5), 0.0);
+
+            Assert.assertTrue(Tests.equals(lhs.mMul(rhs).values(), compressed.mMul(rhs).values()));
+            Assert.assertTrue(Tests.equals(expectedVec.values(), compressed.mMul(vec).values()));
+
+            for (IndexingOrder rhsOrder : new IndexingOrder[] { IndexingOrder.FAR, IndexingOrder.NEAR }) {
+
+                RealCompressedMatrix product = compressed.mMul(rhsSparse.toCompressed(rhsOrder));
+
+                Assert.assertEquals(IndexingOrder.FAR, product.order());
+                Assert.assertTrue(Tests.equals(lhs.mMul(rhs).values(), product.toDense().values()));
+            }
+        }
+
+        // Matrix-vector products in compressed sparse column format divide nonzeros among worker threads.
+
+        int parallelism = ParallelOps.getParallelism();
+
+        try {
+
+            ParallelOps.setParallelism(4);
+
+            RealSparseArray largeSparse = createSparse(rnd, new int[] { 300, 500 }, 0.5);
+            RealArray largeVec = new RealArray(500).uRnd(1.0);
+
+            Assert.assertTrue(Tests.equals(largeSparse.toDense().mMul(largeVec.reshape(500, 1)).values(), //
+                    largeSparse.toCompressed(IndexingOrder.NEAR).mMul(largeVec).values()));
+
+        } finally {
+
+            ParallelOps.setParallelism(parallelism);
+        }
+
+        RealCompressedMatrix empty = new RealSparseArray(4, 0).toCompressed(IndexingOrder.FAR);
+
+        Assert.assertEquals(0, empty.nnz());
+        Assert.assertTrue(Arrays.equals(new double[4 * 3], //
+                empty.mMul(new RealCompressedMatrix(IndexingOrder.FAR, 0, 3, //
+                        new int[] { 0 }, new int[] {}, new double[] {})).toDense().values()));
+    }
+
+    /**
+     * Tests sparse arrays whose volume exceeds {@link Integer#MAX_VALUE}, and which therefore require 64-bit physical
+     * indices.
+     */
+    @Test
+    public void testLargeVolume() {
+
+        int[] dims = new int[] { 1000000, 1000000, 100 };
+
+        int[] logicals = new int[] {
+                //
+                999999, 999998, 99, //
+                123456, 654321, 7, //
+                123457, 654325, 0, //
+                0, 0, 0 //
+        };
+
+        RealSparseArray large = new RealSparseArray(dims).insert(new double[] { 1.0, 2.0, 3.0, 4.0 }, logicals);
+
+        Assert.assertEquals(4, large.size());
+
+        // Overwrite an existing value.
+        large.insert(new double[] { 5.0 }, 0, 0, 0);
+
+        Assert.assertEquals(4, large.size());
+
+        // Slice from 64-bit into 32-bit storage.
+
+        RealArray window = large.subarray(123456, 123458, 654320, 654330, 0, 10).toDense();
+
+        Assert.assertEquals(2.0, window.get(0, 1, 7), 0.0);
+        Assert.assertEquals(3.0, window.get(1, 5, 0), 0.0);
+        Assert.assertEquals(5.0, window.aSum(), 0.0);
+
+        Assert.assertEquals(5.0, large.subarray(0, 1, 0, 1, 0, 1).toDense().singleton(), 0.0);
+        Assert.assertEquals(1.0, large.subarray(999999, 1000000, 999998, 999999, 99, 100).toDense().singleton(), 0.0);
+
+        // Transpose and reshape within 64-bit storage.
+
+        RealSparseArray transposed = large.transpose(2, 0, 1);
+
+        Assert.assertTrue(Arrays.equals(new int[] { 1000000, 100, 1000000 }, transposed.dims()));
+        Assert.assertEquals(2.0, transposed.subarray(654321, 654322, 7, 8, 123456, 123457).toDense().singleton(), 0.0);
+
+        RealSparseArray reshaped = large.reshape(1000000, 100000000);
+
+        Assert.assertEquals(2.0, reshaped.subarray(123456, 123457, 65432107, 65432108).toDense().singleton(), 0.0);
+
+        // Slice from 32-bit into 64-bit storage.
+
+        RealSparseArray small = new RealSparseArray(2, 2, 2).insert(new double[] { 6.0, 7.0 }, //
+                0, 1, 0, //
+                1, 1, 1);
+
+        small.map(large, 0, 500000, 2, 0, 600000, 2, 0, 50, 2);
+
+        Assert.assertEquals(6, large.size());
+        Assert.assertTrue(Arrays.equals(small.toDense().values(), //
+                large.subarray(500000, 500002, 600000, 600002, 50, 52).toDense().values()));
+
+        Assert.assertTrue(large.toString().contains("999998"));
+
+        // Compress a large matrix.
+
+        RealSparseArray matrix = new RealSparseArray(1000000, 1000000).insert(new double[] { 1.0, 2.0, 3.0 }, //
+                999999, 0, //
+                999999, 999999, //
+                3, 999999);
+
+        RealCompressedMatrix compressed = matrix.toCompressed(IndexingOrder.FAR);
+
+        Assert.assertEquals(3, compressed.nnz());
+        Assert.assertEquals(2.0, compressed.get(999999, 999999), 0.0);
+
+        RealArray product = compressed.mMul(new RealArray(1000000).uAdd(1.0));
+
+        Assert.assertEquals(3.0, product.get(999999), 0.0);
+        Assert.assertEquals(3.0, product.get(3), 0.0);
+        Assert.assertEquals(6.0, product.aSum(), 0.0);
+
+        try {
+
+            large.strides();
+
+            Assert.fail();
+
+        } catch (RuntimeException e) {
+        }
+    }
+
+    /**
+     * Tests {@link ProtoSparseArray#append(Object, int...)} and {@link ProtoSparseArray#flush()}.
+     */
+    @Test
+    public void testAppend() {
+
+        Random rnd = new Random(0);
+
+        int[] dims = new int[] { 40, 50, 30 };
+        int nDims = dims.length;
+
+        RealSparseArray appended = new RealSparseArray(dims);
+        RealArray expected = new RealArray(dims);
+
+        int nnz = 0;
+
+        for (int batch = 0; batch < 1000; batch++) {
+
+            int batchSize = rnd.nextInt(50) + 1;
+
+            double[] values = new double[batchSize];
+            int[] logicals = new int[nDims * batchSize];
+
+            for (int i = 0; i < batchSize; i++) {
+
+                values[i] = rnd.nextDouble() + 1.0;
+
+                for (int dim = 0; dim < nDims; dim++) {
+                    logicals[nDims * i + dim] = rnd.nextInt(dims[dim]);
+                }
+
+                int row = logicals[nDims * i];
+                int col = logicals[nDims * i + 1];
+                int slice = logicals[nDims * i + 2];
+
+                // Within a batch, the last of any duplicates wins.
+                if (expected.get(row, col, slice) == 0.0) {
+                    nnz++;
+                }
+
+                expected.set(values[i], row, col, slice);
+            }
+
+            appended.append(values, logicals);
+
+            if (batch % 250 == 0) {
+                Assert.assertEquals(nnz, appended.size());
+            }
+        }
+
+        Assert.assertTrue(Arrays.equals(expected.values(), appended.toDense().values()));
+
+        // Insertions take effect after pending appends.
+        appended.append(new double[] { -1.0 }, 1, 2, 3).insert(new double[] { -2.0 }, 1, 2, 3);
+
+        Assert.assertEquals(-2.0, appended.subarray(1, 2, 2, 3, 3, 4).toDense().singleton(), 0.0);
+
+        RealSparseArray clone = appended.append(new double[] { -3.0 }, 1, 2, 3).clone();
+
+        Assert.assertEquals(-3.0, clone.subarray(1, 2, 2, 3, 3, 4).toDense().singleton(), 0.0);
+
+        RealSparseArray large = new RealSparseArray(1000000, 1000000, 100) //
+                .append(new double[] { 1.0, 2.0 }, 999999, 999999, 99, 0, 0, 0) //
+                .append(new double[] { 3.0 }, 999999, 999999, 99);
+
+        Assert.assertEquals(2, large.size());
+        Assert.assertEquals(3.0, large.subarray(999999, 1000000, 999999, 1000000, 99, 100).toDense().singleton(), 0.0);
+
+        IntegerSparseArray integers = new IntegerSparseArray(3, 3) //
+                .append(new int[] { 1, 2, 3 }, 0, 0, 1, 1, 0, 0);
+
+        Assert.assertTrue(Arrays.equals(new int[] { 3, 0, 0, 0, 2, 0, 0, 0, 0 }, integers.toDense().values()));
+    }
+
+    /**
+     * Tests elementwise operations and reductions on {@link RealSparseArray}s against their dense counterparts.
+     */
+    @Test
+    public void testArithmetic() {
+
+        Random rnd = new Random(0);
+
+        int[] dims = new int[] { 20, 30, 10 };
+
+        RealSparseArray lhs = createSparse(rnd, dims, 0.1);
+        RealSparseArray rhs = createSparse(rnd, dims, 0.1);
+
+        RealArray lhsDense = lhs.toDense();
+        RealArray rhsDense = rhs.toDense();
+
+        Assert.assertTrue(Tests.equals(lhsDense.eAdd(rhsDense).values(), lhs.eAdd(rhs).toDense().values()));
+        Assert.assertTrue(Tests.equals(lhsDense.eSub(rhsDense).values(), lhs.eSub(rhs).toDense().values()));
+        Assert.assertTrue(Tests.equals(lhsDense.eMul(rhsDense).values(), lhs.eMul(rhs).toDense().values()));
+        Assert.assertTrue(Tests.equals(lhsDense.eMax(rhsDense).values(), lhs.eMax(rhs).toDense().values()));
+        Assert.assertTrue(Tests.equals(lhsDense.eMin(rhsDense).values(), lhs.eMin(rhs).toDense().values()));
+
+        // Products are nonzero only where both operands are.
+        Assert.assertTrue(lhs.eMul(rhs).size() <= Math.min(lhs.size(), rhs.size()));
+
+        Assert.assertTrue(Tests.equals(lhsDense.clone().uMul(-2.0).values(), //
+                lhs.clone().uMul(-2.0).toDense().values()));
+        Assert.assertEquals(lhsDense.aSum(), lhs.aSum(), 1e-8);
+
+        int[][] opDimsList = new int[][] { {}, { 0 }, { 1 }, { 2 }, { 0, 1 }, { 1, 2 }, { 0, 2 }, { 0, 1, 2 } };
+
+        for (int[] opDims : opDimsList) {
+
+            RealArray expected = lhsDense.rSum(opDims);
+            RealSparseArray actual = lhs.rSum(opDims);
+
+            Assert.assertTrue(Arrays.equals(expected.dims(), actual.dims()));
+            Assert.assertTrue(Tests.equals(expected.values(), actual.toDense().values()));
+        }
+
+        RealSparseArray large = new RealSparseArray(1000000, 1000000, 100) //
+                .insert(new double[] { 1.0, 2.0, 3.0 }, 0, 5, 7, 999999, 5, 7, 999999, 999999, 99);
+        RealSparseArray largeSum = large.eAdd(large.clone().uMul(2.0));
+
+        Assert.assertEquals(3, largeSum.size());
+        Assert.assertEquals(18.0, largeSum.aSum(), 0.0);
+
+        RealSparseArray reduced = large.rSum(0, 2);
+
+        Assert.assertTrue(Arrays.equals(new int[] { 1, 1000000, 1 }, reduced.dims()));
+        Assert.assertEquals(2, reduced.size());
+        Assert.assertEquals(3.0, reduced.subarray(0, 1, 5, 6, 0, 1).toDense().singleton(), 0.0);
+        Assert.assertEquals(3.0, reduced.subarray(0, 1, 999999, 1000000, 0, 1).toDense().singleton(), 0.0);
+    }
+
+    /**
+     * Creates a random sparse array of the given dimensions, in which each element is nonzero with the given
+     * probability.
+     */
+    protected static RealSparseArray createSparse(Random rnd, int[] dims, double density) {
+
+        int nDims = dims.length;
+        int len = Arithmetic.product(dims);
+
+        int[] strides = DEFAULT_ORDER.strides(dims);
+
+        int nnz = 0;
+
+        int[] logicals = new int[nDims * len];
+        double[] values = new double[len];
+
+        for (int i = 0; i < len; i++) {
+
+            if (rnd.nextDouble() < density) {
+
+                for (int dim = 0, acc = i; dim < nDims; dim++) {
+
+                    logicals[nDims * nnz + dim] = acc / strides[dim];
+                    acc %= strides[dim];
+                }
+
+                values[nnz++] = rnd.nextDouble() - 0.5;
+            }
+        }
+
+        return new RealSparseArray(dims).insert(Arrays.copyOf(values, nnz), //
+                Arrays.copyOf(logicals, nDims * nnz));
+    }
+
     /**
      * Tests corner cases.
      */
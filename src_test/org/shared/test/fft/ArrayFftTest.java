@@ -35,6 +35,8 @@ import org.junit.Test;
 import org.shared.array.Array;
 import org.shared.array.ComplexArray;
 import org.shared.array.RealArray;
+import org.shared.array.kernel.ParallelOps;
+import org.shared.fft.FftOps;
 import org.shared.fft.JavaFftService;
 import org.shared.test.Tests;
 import org.shared.util.Arithmetic;
@@ -315,4 +317,285 @@ public class ArrayFftTest {
                     jfs.reducedToFull(arr.rfft(), dims).values());
         }
     }
+
+    /**
+     * Tests that {@link JavaFftService} plans agree with unplanned transforms, and that the plan cache is bounded.
+     */
+    @Test
+    public void testPlans() {
+
+        JavaFftService jfs = new JavaFftService();
+
+        jfs.setHint("cache_size", "2");
+
+        Assert.assertEquals("2", jfs.getHint("cache_size"));
+
+        int[][] dimsList = new int[][] { { 12 }, { 7, 10 }, { 1024 }, { 12 } };
+
+        for (int[] dims : dimsList) {
+
+            int len = Arithmetic.product(dims);
+
+            double[] in = new double[len << 1];
+
+            for (int i = 0, n = in.length; i < n; i++) {
+                in[i] = Arithmetic.nextInt(5) - 2;
+            }
+
+            for (int direction : new int[] { 1, -1 }) {
+
+                double[] expected = new double[len << 1];
+                FftOps.fft(direction, dims, in, expected);
+
+                // Transform twice to exercise cached plans and reused scratch space.
+                for (int trial = 0; trial < 2; trial++) {
+
+                    double[] actual = new double[len << 1];
+
+                    if (direction == 1) {
+
+                        jfs.fft(dims, in, actual);
+
+                    } else {
+
+                        jfs.ifft(dims, in, actual);
+                    }
+
+                    Assert.assertTrue(Tests.equals(expected, actual));
+                }
+            }
+        }
+
+        // Only the two most recently used plans remain.
+        Assert.assertEquals("{forward[12]=FftPlan[forward, [12]], backward[12]=FftPlan[backward, [12]]}", //
+                jfs.toString());
+
+        jfs.setHint("cache_size", "0");
+
+        Assert.assertEquals("{}", jfs.toString());
+    }
+
+    /**
+     * Tests that the packed real-to-complex transforms of {@link JavaFftService} agree with full complex transforms.
+     */
+    @Test
+    public void testRealFft() {
+
+        JavaFftService jfs = new JavaFftService();
+
+        int[][] dimsList = new int[][] { { 1 }, { 2 }, { 7 }, { 16 }, { 30 }, { 6, 9 }, { 5, 12 }, { 3, 4, 10 },
+                { 4, 3, 7 } };
+
+        for (int[] dims : dimsList) {
+
+            int nDims = dims.length;
+            int len = Arithmetic.product(dims);
+
+            RealArray arr = new RealArray(dims);
+            double[] values = arr.values();
+
+            for (int i = 0; i < len; i++) {
+                values[i] = Arithmetic.nextInt(9) - 4;
+            }
+
+            ComplexArray expected = jfs.fullToReduced(arr.tocRe().fft());
+
+            int reducedLen = expected.values().length;
+
+            double[] reduced = new double[reducedLen];
+            double[] restored = new double[len];
+
+            // Transform twice to exercise cached plans and reused scratch space.
+            for (int trial = 0; trial < 2; trial++) {
+
+                jfs.rfft(dims, values, reduced);
+
+                Assert.assertTrue(Tests.equals(expected.values(), reduced));
+
+                jfs.rifft(dims, reduced, restored);
+
+                Assert.assertTrue(Tests.equals(values, restored));
+            }
+
+            Assert.assertEquals(reducedLen, 2 * (len / dims[nDims - 1]) * (dims[nDims - 1] / 2 + 1));
+        }
+    }
+
+    /**
+     * Tests that sizes with large prime factors, which go through the chirp-z method, agree with direct evaluation of
+     * the DFT.
+     */
+    @Test
+    public void testChirpZFft() {
+
+        JavaFftService jfs = new JavaFftService();
+
+        for (int size : new int[] { 97, 1009, 2 * 1009, 3 * 499 }) {
+
+            double[] in = new double[size << 1];
+
+            for (int i = 0, n = in.length; i < n; i++) {
+                in[i] = Arithmetic.nextInt(9) - 4;
+            }
+
+            double[] expected = new double[size << 1];
+
+            for (int k = 0; k < size; k++) {
+
+                for (int j = 0; j < size; j++) {
+
+                    double phase = (-2.0 * Math.PI * (((long) j * k) % size)) / size;
+
+                    expected[k << 1] += in[j << 1] * Math.cos(phase) - in[(j << 1) + 1] * Math.sin(phase);
+                    expected[(k << 1) + 1] += in[j << 1] * Math.sin(phase) + in[(j << 1) + 1] * Math.cos(phase);
+                }
+            }
+
+            int[] dims = new int[] { size };
+
+            double[] actual = new double[size << 1];
+            double[] restored = new double[size << 1];
+
+            jfs.fft(dims, in, actual);
+            jfs.ifft(dims, actual, restored);
+
+            Assert.assertTrue(Tests.equals(expected, actual));
+            Assert.assertTrue(Tests.equals(in, restored));
+
+            // Check the real transforms, whose packed rows may also go through the chirp-z method.
+            RealArray arr = new RealArray(new ComplexArray(in, size, 2).torRe().values(), 1, size);
+
+            Assert.assertTrue(Tests.equals( //
+                    jfs.fullToReduced(arr.tocRe().fft()).values(), //
+                    arr.rfft().values()));
+            Assert.assertTrue(Tests.equals(arr.values(), arr.rfft().rifft().values()));
+        }
+    }
+
+    /**
+     * Tests that multithreaded N-dimensional transforms agree with their serial counterparts, including when the in
+     * and out arrays coincide.
+     */
+    @Test
+    public void testParallelFft() {
+
+        JavaFftService jfs = new JavaFftService();
+
+        int parallelism = ParallelOps.getParallelism();
+
+        int[][] dimsList = new int[][] { { 40, 33, 64 }, { 40, 1009 }, { 4096 }, { 3, 5, 17, 2 } };
+
+        try {
+
+            for (int[] dims : dimsList) {
+
+                int len = Arithmetic.product(dims);
+
+                double[] in = new double[len << 1];
+
+                for (int i = 0, n = in.length; i < n; i++) {
+                    in[i] = Arithmetic.nextInt(9) - 4;
+                }
+
+                ParallelOps.setParallelism(1);
+
+                double[] expected = new double[len << 1];
+                FftOps.fft(1, dims, in, expected);
+
+                ParallelOps.setParallelism(4);
+
+                double[] actual = new double[len << 1];
+                jfs.fft(dims, in, actual);
+
+                Assert.assertTrue(Arrays.equals(expected, actual));
+
+                jfs.ifft(dims, actual, actual);
+
+                Assert.assertTrue(Tests.equals(in, actual));
+            }
+
+        } finally {
+
+            ParallelOps.setParallelism(parallelism);
+        }
+    }
+
+    /**
+     * Tests that batched transforms along rows and columns agree with transforms of individual signals.
+     */
+    @Test
+    public void testBatchFft() {
+
+        JavaFftService jfs = new JavaFftService();
+
+        int nRows = 6;
+        int nCols = 40;
+        int reducedCols = nCols / 2 + 1;
+
+        double[] values = new double[nRows * nCols];
+
+        for (int i = 0, n = values.length; i < n; i++) {
+            values[i] = Arithmetic.nextInt(9) - 4;
+        }
+
+        RealArray arr = new RealArray(values, nRows, nCols);
+        ComplexArray carr = arr.tocRe();
+
+        // Transform the rows, which are contiguous.
+        double[] expected = new double[nRows * nCols * 2];
+        double[] expectedReduced = new double[nRows * reducedCols * 2];
+
+        for (int row = 0; row < nRows; row++) {
+
+            RealArray rowArr = arr.subarray(row, row + 1, 0, nCols);
+
+            System.arraycopy(rowArr.tocRe().fft().values(), 0, expected, row * nCols * 2, nCols * 2);
+            System.arraycopy(rowArr.rfft().values(), 0, expectedReduced, row * reducedCols * 2, reducedCols * 2);
+        }
+
+        double[] actual = new double[nRows * nCols * 2];
+        double[] actualReduced = new double[nRows * reducedCols * 2];
+        double[] restored = new double[nRows * nCols];
+        double[] restoredComplex = new double[nRows * nCols * 2];
+
+        jfs.fftBatch(new int[] { nCols }, nRows, carr.values(), 1, nCols, actual, 1, nCols);
+        jfs.rfftBatch(new int[] { nCols }, nRows, values, 1, nCols, actualReduced, 1, reducedCols);
+
+        Assert.assertTrue(Tests.equals(expected, actual));
+        Assert.assertTrue(Tests.equals(expectedReduced, actualReduced));
+
+        jfs.ifftBatch(new int[] { nCols }, nRows, actual, 1, nCols, restoredComplex, 1, nCols);
+        jfs.rifftBatch(new int[] { nCols }, nRows, actualReduced, 1, reducedCols, restored, 1, nCols);
+
+        Assert.assertTrue(Tests.equals(carr.values(), restoredComplex));
+        Assert.assertTrue(Tests.equals(values, restored));
+
+        // Transform the columns, which are strided, in place.
+        double[] columns = carr.values().clone();
+
+        jfs.fftBatch(new int[] { nRows }, nCols, columns, nCols, 1, columns, nCols, 1);
+
+        for (int col = 0; col < nCols; col++) {
+
+            double[] column = carr.subarray(0, nRows, col, col + 1, 0, 2).fft().values();
+
+            for (int row = 0; row < nRows; row++) {
+
+                Assert.assertTrue(Math.abs(column[row << 1] - columns[(row * nCols + col) << 1]) < 1e-8);
+                Assert.assertTrue(Math.abs(column[(row << 1) + 1] - columns[((row * nCols + col) << 1) + 1]) < 1e-8);
+            }
+        }
+
+        // Out-of-bounds batches are rejected.
+        try {
+
+            jfs.fftBatch(new int[] { nCols }, nRows + 1, carr.values(), 1, nCols, actual, 1, nCols);
+
+            Assert.fail();
+
+        } catch (RuntimeException e) {
+
+            Assert.assertEquals("Invalid array lengths", e.getMessage());
+        }
+    }
 }